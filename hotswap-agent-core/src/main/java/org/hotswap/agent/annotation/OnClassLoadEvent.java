@@ -49,6 +49,9 @@ import static org.hotswap.agent.annotation.LoadEvent.REDEFINE;
  * Hibernate use custom classpath scanning to discover annotated classes. In this case a change cannot be triggered
  * only by @OnClassLoadEvent method (the class is never loaded) and you need to cover this case using @OnClassFileEvent
  * handler. See HibernatePlugin#newEntity() method annotated with OnClassFileEvent for an example.
+ * <p/>
+ * Catch-all handlers (classNameRegexp = ".*") should narrow classes by {@link #annotations()},
+ * {@link #superTypes()} or {@link #packages()} filters, all specified filters must match.
  *
  * @author Jiri Bubnik
  */
@@ -85,4 +88,42 @@ public @interface OnClassLoadEvent {
      */
     boolean skipSynthetic() default true;
 
+    /**
+     * Call the method only if the class is annotated by at least one of these annotations (fully qualified
+     * names of runtime visible class annotations). On REDEFINE annotations of the class being redefined are
+     * checked as well, so that the method is called also if the annotation is removed.
+     * <p/>
+     * The filter is evaluated from the class file bytes, non-matching classes do not create CtClass.
+     *
+     * @return annotation names, empty for any class
+     */
+    String[] annotations() default {};
+
+    /**
+     * Call the method only if the class directly extends or implements at least one of these types
+     * (fully qualified names). On REDEFINE supertypes of the class being redefined are checked as well.
+     * <p/>
+     * The filter is evaluated from the class file bytes, inherited supertypes are not resolved.
+     *
+     * @return class or interface names, empty for any class
+     */
+    String[] superTypes() default {};
+
+    /**
+     * Call the method only if the class is in one of these packages or their subpackages (e.g. "org.example").
+     *
+     * @return package names, empty for any class
+     */
+    String[] packages() default {};
+
+    /**
+     * The method is a pure bytecode transformation - the result depends only on the class bytes and plugin
+     * configuration, and the method has no other side effects. DEFINE-time results of such methods may be stored
+     * in the persistent transform cache (enabled by <code>-Dhotswapagent.transformCache=&lt;directory&gt;</code>),
+     * the method is not called on subsequent JVM starts if the class is unchanged.
+     *
+     * @return true if the result may be cached
+     */
+    boolean cacheable() default false;
+
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.annotation.handler;
+
+import org.hotswap.agent.annotation.OnClassLoadEvent;
+import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.AnnotationHelper;
+import org.hotswap.agent.util.ClassFileMetadata;
+
+/**
+ * Declarative class filters of {@link OnClassLoadEvent} (annotations, superTypes, packages).
+ * <p/>
+ * Filters are evaluated from {@link ClassTransformSession#getMetadata()} - class bytes are scanned once
+ * per transformation and shared by all plugin methods, non-matching methods are skipped before CtClass is created.
+ */
+class ClassLoadEventFilter {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(ClassLoadEventFilter.class);
+
+    private final String[] annotations;
+    private final String[] superTypes;
+    // package prefixes in internal form (org/example/)
+    private final String[] packagePrefixes;
+
+    private ClassLoadEventFilter(String[] annotations, String[] superTypes, String[] packages) {
+        this.annotations = annotations;
+        this.superTypes = superTypes;
+        this.packagePrefixes = new String[packages.length];
+        for (int i = 0; i < packages.length; i++) {
+            packagePrefixes[i] = packages[i].replace('.', '/') + "/";
+        }
+    }
+
+    /**
+     * Create filter for the annotation.
+     *
+     * @param annotation the annotation
+     * @return the filter or null if the annotation does not define any filter
+     */
+    static ClassLoadEventFilter create(OnClassLoadEvent annotation) {
+        if (annotation.annotations().length == 0 && annotation.superTypes().length == 0 && annotation.packages().length == 0) {
+            return null;
+        }
+        return new ClassLoadEventFilter(annotation.annotations(), annotation.superTypes(), annotation.packages());
+    }
+
+    /**
+     * Check if the class of the session matches all filters.
+     */
+    boolean matches(ClassTransformSession session) {
+        if (packagePrefixes.length > 0 && !inPackage(session.getClassName())) {
+            return false;
+        }
+        if (annotations.length == 0 && superTypes.length == 0) {
+            return true;
+        }
+
+        ClassFileMetadata metadata;
+        try {
+            metadata = session.getMetadata();
+        } catch (IllegalArgumentException e) {
+            // let the plugin method decide
+            LOGGER.debug("Unable to read metadata of class {}.", e, session.getClassName());
+            return true;
+        }
+
+        Class<?> redefiningClass = session.getRedefiningClass();
+        if (annotations.length > 0 && !hasAnnotation(metadata, redefiningClass)) {
+            return false;
+        }
+        if (superTypes.length > 0 && !hasSuperType(metadata, redefiningClass)) {
+            return false;
+        }
+        return true;
+    }
+
+    private boolean inPackage(String className) {
+        if (className != null) {
+            for (String prefix : packagePrefixes) {
+                if (className.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hasAnnotation(ClassFileMetadata metadata, Class<?> redefiningClass) {
+        for (String annotation : annotations) {
+            if (metadata.getAnnotationNames().contains(annotation)) {
+                return true;
+            }
+        }
+        // annotation removed by the redefinition
+        if (redefiningClass != null) {
+            for (String annotation : annotations) {
+                if (AnnotationHelper.hasAnnotation(redefiningClass, annotation)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hasSuperType(ClassFileMetadata metadata, Class<?> redefiningClass) {
+        for (String superType : superTypes) {
+            if (metadata.hasSuperType(superType)) {
+                return true;
+            }
+        }
+        // supertype removed by the redefinition
+        if (redefiningClass != null) {
+            for (String superType : superTypes) {
+                if (redefiningClass.getSuperclass() != null && redefiningClass.getSuperclass().getName().equals(superType)) {
+                    return true;
+                }
+                for (Class<?> iface : redefiningClass.getInterfaces()) {
+                    if (iface.getName().equals(superType)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.annotation.handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.ProtectionDomain;
+
+import org.hotswap.agent.javassist.ByteArrayClassPath;
+import org.hotswap.agent.javassist.CannotCompileException;
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.javassist.LoaderClassPath;
+import org.hotswap.agent.javassist.NotFoundException;
+import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.ClassFileMetadata;
+
+/**
+ * State of a single class transformation shared by all plugin transformers called for the class
+ * from one {@link org.hotswap.agent.util.HotswapTransformer#transform} call.
+ * <p/>
+ * The CtClass is parsed lazily only if a plugin method requires it and then it is passed to all subsequent
+ * plugin methods. Bytecode is serialized only if a plugin actually modified the CtClass, or another
+ * plugin method needs the raw bytes. The ClassPool for the classloader is created once per session.
+ * <p/>
+ * Not thread safe, the session is confined to the transforming thread.
+ */
+public class ClassTransformSession {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(ClassTransformSession.class);
+
+    private final ClassLoader classLoader;
+    private final String className;
+    private final Class<?> redefiningClass;
+    private final ProtectionDomain protectionDomain;
+
+    // current bytes, valid only if ctClass is null or not modified
+    private byte[] bytes;
+
+    private CtClass ctClass;
+    private ClassPool classPool;
+
+    // metadata of the class as passed to the session
+    private final byte[] originalBytes;
+    private ClassFileMetadata metadata;
+
+    public ClassTransformSession(ClassLoader classLoader, String className, Class<?> redefiningClass,
+                                 ProtectionDomain protectionDomain, byte[] bytes) {
+        this.classLoader = classLoader;
+        this.className = className;
+        this.redefiningClass = redefiningClass;
+        this.protectionDomain = protectionDomain;
+        this.bytes = bytes;
+        this.originalBytes = bytes;
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public Class<?> getRedefiningClass() {
+        return redefiningClass;
+    }
+
+    public ProtectionDomain getProtectionDomain() {
+        return protectionDomain;
+    }
+
+    /**
+     * Get metadata of the class, read once per session from the class bytes as passed to the session
+     * (modifications of plugins in this session are not reflected).
+     *
+     * @return the metadata
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    public ClassFileMetadata getMetadata() {
+        if (metadata == null) {
+            metadata = ClassFileMetadata.parse(originalBytes);
+        }
+        return metadata;
+    }
+
+    /**
+     * Current bytecode of the class. If the CtClass was modified, it is serialized and released,
+     * it will be parsed again from new bytes if some other plugin requires it.
+     *
+     * @return bytecode with all modifications applied so far
+     */
+    public byte[] getBytes() throws IOException, CannotCompileException {
+        if (ctClass != null && ctClass.isModified()) {
+            bytes = ctClass.toBytecode();
+            releaseCtClass();
+        }
+        return bytes;
+    }
+
+    /**
+     * Replace current bytecode with a result of a plugin method, the CtClass (if any) is released.
+     */
+    public void setBytes(byte[] bytes) {
+        releaseCtClass();
+        this.bytes = bytes;
+    }
+
+    /**
+     * The class being transformed, parsed lazily from current bytes.
+     */
+    public CtClass getCtClass() throws IOException, CannotCompileException {
+        if (ctClass == null) {
+            ClassPool cp = new ClassPool();
+            cp.appendSystemPath();
+            cp.appendClassPath(new LoaderClassPath(classLoader));
+            if (className != null) {
+                // lazily loaded class is not marked as modified (unlike makeClass()) until a plugin changes it
+                String name = className.replace('/', '.');
+                cp.insertClassPath(new ByteArrayClassPath(name, getBytes()));
+                try {
+                    ctClass = cp.get(name);
+                } catch (NotFoundException e) {
+                    throw new IOException("Unable to parse class " + name, e);
+                }
+            } else {
+                ctClass = cp.makeClass(new ByteArrayInputStream(getBytes()));
+            }
+        } else if (ctClass.isFrozen()) {
+            // plugin method called toBytecode()/toClass(), use the result and start over with a fresh instance
+            setBytes(ctClass.toBytecode());
+            return getCtClass();
+        }
+        return ctClass;
+    }
+
+    /**
+     * @return true if the CtClass was created and contains modifications not yet serialized to bytes
+     */
+    public boolean isModified() {
+        return ctClass != null && ctClass.isModified();
+    }
+
+    /**
+     * Throw away the CtClass including all its unserialized modifications.
+     */
+    public void discardCtClass() {
+        releaseCtClass();
+    }
+
+    /**
+     * @return true if the current CtClass instance is the one provided by this session
+     */
+    public boolean isSessionCtClass(CtClass other) {
+        return other != null && other == ctClass;
+    }
+
+    /**
+     * ClassPool with system path and the transformed classloader path, shared by plugin methods
+     * of this session. Note that the transformed class itself is not part of this pool.
+     */
+    public ClassPool getClassPool() {
+        if (classPool == null) {
+            classPool = new ClassPool();
+            classPool.appendSystemPath();
+            LOGGER.trace("Adding loader classpath " + classLoader);
+            classPool.appendClassPath(new LoaderClassPath(classLoader));
+        }
+        return classPool;
+    }
+
+    /**
+     * Serialize pending modifications and release javassist resources.
+     *
+     * @return resulting bytecode
+     */
+    public byte[] close() throws IOException, CannotCompileException {
+        try {
+            return getBytes();
+        } finally {
+            releaseCtClass();
+            classPool = null;
+        }
+    }
+
+    private void releaseCtClass() {
+        if (ctClass != null) {
+            ctClass.detach();
+            ctClass = null;
+        }
+    }
+}
@@ -18,7 +18,6 @@
  */
 package org.hotswap.agent.annotation.handler;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.lang.instrument.IllegalClassFormatException;
 import java.lang.reflect.InvocationTargetException;
@@ -29,16 +28,17 @@ import java.util.List;
 
 import org.hotswap.agent.annotation.LoadEvent;
 import org.hotswap.agent.annotation.OnClassLoadEvent;
+import org.hotswap.agent.annotation.Plugin;
 import org.hotswap.agent.config.PluginManager;
 import org.hotswap.agent.javassist.CannotCompileException;
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
-import org.hotswap.agent.javassist.LoaderClassPath;
-import org.hotswap.agent.javassist.NotFoundException;
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.util.AppClassLoaderExecutor;
 import org.hotswap.agent.util.HaClassFileTransformer;
 import org.hotswap.agent.versions.DeploymentInfo;
+import org.hotswap.agent.versions.DeploymentInfoCache;
+import org.hotswap.agent.versions.VersionMatchResult;
 
 public class PluginClassFileTransformer implements HaClassFileTransformer {
     protected static AgentLogger LOGGER = AgentLogger.getLogger(PluginClassFileTransformer.class);
@@ -50,13 +50,36 @@ public class PluginClassFileTransformer implements HaClassFileTransformer {
 
     private final List<LoadEvent> events;
 
+    // declarative class filters, null if none
+    private final ClassLoadEventFilter filter;
+
     private final PluginManager pluginManager;
 
+    // plugin name and handler method for monitoring
+    private final String pluginName;
+    private final String handlerName;
+
+    private final DeploymentInfoCache.MatchEvaluator versionMatchEvaluator = new DeploymentInfoCache.MatchEvaluator() {
+        @Override
+        public VersionMatchResult evaluate(DeploymentInfo info) {
+            if (!pluginAnnotation.matches(info)) {
+                LOGGER.debug("SKIPPING METHOD: {}, Deployment info: {}\n did not match with {}\n or {}", pluginAnnotation.method, info, pluginAnnotation.methodMatcher, pluginAnnotation.pluginMatcher);
+                return VersionMatchResult.REJECTED;
+            }
+            return VersionMatchResult.MATCHED;
+        }
+    };
+
     public PluginClassFileTransformer(PluginManager pluginManager, PluginAnnotation<OnClassLoadEvent> pluginAnnotation) {
         this.pluginManager = pluginManager;
         this.pluginAnnotation = pluginAnnotation;
         this.onClassLoadAnnotation = pluginAnnotation.getAnnotation();
         this.events = Arrays.asList(onClassLoadAnnotation.events());
+        this.filter = ClassLoadEventFilter.create(onClassLoadAnnotation);
+        Plugin plugin = pluginAnnotation.getPluginClass().getAnnotation(Plugin.class);
+        this.pluginName = plugin != null ? plugin.name() : pluginAnnotation.getPluginClass().getSimpleName();
+        this.handlerName = pluginAnnotation.getMethod() != null ?
+                pluginAnnotation.getMethod().getDeclaringClass().getSimpleName() + "." + pluginAnnotation.getMethod().getName() : null;
     }
 
     @Override
@@ -80,36 +103,67 @@ public class PluginClassFileTransformer implements HaClassFileTransformer {
         return pluginAnnotation.isFallBack();
     }
 
+    public String getPluginName() {
+        return pluginName;
+    }
+
+    public String getHandlerName() {
+        return handlerName;
+    }
+
     public String getPluginGroup() {
         return pluginAnnotation.getGroup();
     }
 
     public boolean versionMatches(ClassLoader loader){
         if (pluginAnnotation.shouldCheckVersion()) {
-            DeploymentInfo info = DeploymentInfo.fromClassLoader(loader);
-            if (!pluginAnnotation.matches(info)) {
-                LOGGER.debug("SKIPPING METHOD: {}, Deployment info: {}\n did not match with {}\n or {}", pluginAnnotation.method, info, pluginAnnotation.methodMatcher, pluginAnnotation.pluginMatcher);
-                return false;
-            }
+            // deployment info and the result are resolved once per classloader, keyed by the handler method
+            // (PluginAnnotation hash code requires plugin instance, which is null for versioned static handlers)
+            VersionMatchResult result = DeploymentInfoCache.getMatchResult(loader, pluginAnnotation.getMethod(),
+                    versionMatchEvaluator);
+            return !VersionMatchResult.REJECTED.equals(result);
         }
         return true;
     }
 
     @Override
     public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) throws IllegalClassFormatException {
-        if ((classBeingRedefined == null) ? !events.contains(LoadEvent.DEFINE) : !events.contains(LoadEvent.REDEFINE)) {
-            LOGGER.trace("Not a handled event!", events);
+        ClassTransformSession session = new ClassTransformSession(loader, className, classBeingRedefined, protectionDomain, classfileBuffer);
+        transform(session);
+        try {
+            return session.close();
+        } catch (Exception e) {
+            LOGGER.error("Unable to create bytecode of class '{}'.", e, className);
             return classfileBuffer;
         }
+    }
+
+    /**
+     * Transform the class within a session shared with other plugin transformers of the same class.
+     * Modifications are kept in the session, use {@link ClassTransformSession#close()} to obtain resulting bytecode.
+     *
+     * @param session the transformation session
+     */
+    public void transform(ClassTransformSession session) {
+        if ((session.getRedefiningClass() == null) ? !events.contains(LoadEvent.DEFINE) : !events.contains(LoadEvent.REDEFINE)) {
+            LOGGER.trace("Not a handled event!", events);
+            return;
+        }
+
+        // cheap check on class metadata before anything else
+        if (filter != null && !filter.matches(session)) {
+            LOGGER.trace("Class {} does not match filters of {}", session.getClassName(), pluginAnnotation);
+            return;
+        }
 
         // check disabled plugins
         // noinspection unchecked
-        if (pluginManager.getPluginConfiguration(loader).isDisabledPlugin(pluginAnnotation.getPluginClass())) {
+        if (pluginManager.getPluginConfiguration(session.getClassLoader()).isDisabledPlugin(pluginAnnotation.getPluginClass())) {
             LOGGER.trace("Plugin NOT enabled! {}", pluginAnnotation);
-            return classfileBuffer;
+            return;
         }
 
-        return transform(pluginManager, pluginAnnotation, loader, className, classBeingRedefined, protectionDomain, classfileBuffer);
+        transform(pluginManager, pluginAnnotation, session);
     }
 
 
@@ -118,23 +172,6 @@ public class PluginClassFileTransformer implements HaClassFileTransformer {
         return "\n\t\t\tPluginClassFileTransformer [pluginAnnotation=" + pluginAnnotation + "]";
     }
 
-    /**
-     * Creats javaassist CtClass for bytecode manipulation. Add default
-     * classloader.
-     *
-     * @param bytes new class definition
-     * @param classLoader loader
-     * @return created class
-     * @throws NotFoundException
-     */
-    private static CtClass createCtClass(byte[] bytes, ClassLoader classLoader) throws IOException {
-        ClassPool cp = new ClassPool();
-        cp.appendSystemPath();
-        cp.appendClassPath(new LoaderClassPath(classLoader));
-
-        return cp.makeClass(new ByteArrayInputStream(bytes));
-    }
-
     /**
      * Skip proxy and javassist synthetic classes.
      */
@@ -152,19 +189,24 @@ public class PluginClassFileTransformer implements HaClassFileTransformer {
      * actual values, provide convenience parameters of javassist to streamline
      * the transformation.
      */
-    private static byte[] transform(PluginManager pluginManager, PluginAnnotation<OnClassLoadEvent> pluginAnnotation, ClassLoader classLoader, String className, Class<?> redefiningClass, ProtectionDomain protectionDomain, byte[] bytes) {
+    private static void transform(PluginManager pluginManager, PluginAnnotation<OnClassLoadEvent> pluginAnnotation, ClassTransformSession session) {
+        ClassLoader classLoader = session.getClassLoader();
+        String className = session.getClassName();
+        Class<?> redefiningClass = session.getRedefiningClass();
+        ProtectionDomain protectionDomain = session.getProtectionDomain();
+
         LOGGER.trace("Transforming.... '{}' using: '{}'", className, pluginAnnotation);
         // skip synthetic classes
         if (pluginAnnotation.getAnnotation().skipSynthetic()) {
             if (isSyntheticClass(className) || (redefiningClass != null && redefiningClass.isSynthetic())) {
-                return bytes;
+                return;
             }
         }
 
         // skip anonymous class
         if (pluginAnnotation.getAnnotation().skipAnonymous()) {
             if (className.matches("\\$\\d+$")) {
-                return bytes;
+                return;
             }
         }
 
@@ -173,77 +215,101 @@ public class PluginClassFileTransformer implements HaClassFileTransformer {
             pluginManager.initClassLoader(classLoader, protectionDomain);
         }
 
-        // default result
-        byte[] result = bytes;
+        // DEFINE-time result of a cacheable method may be read from the persistent cache
+        TransformCache transformCache = null;
+        TransformCache.Key cacheKey = null;
+        byte[] cacheInput = null;
+        if (redefiningClass == null && pluginAnnotation.getAnnotation().cacheable()) {
+            transformCache = TransformCache.getInstance();
+        }
+        if (transformCache != null) {
+            try {
+                cacheInput = session.getBytes();
+                cacheKey = transformCache.key(className, pluginAnnotation.getMethod(),
+                        pluginManager.getPluginConfiguration(classLoader).getEffectiveProperties().toString(), cacheInput);
+                byte[] cached = transformCache.get(cacheKey);
+                if (cached != null) {
+                    LOGGER.trace("Transform cache hit for '{}' using: '{}'", className, pluginAnnotation);
+                    if (cached.length > 0) {
+                        session.setBytes(cached);
+                    }
+                    return;
+                }
+            } catch (IOException | CannotCompileException e) {
+                LOGGER.error("Unable create bytecode for '" + className + "'.", e);
+                return;
+            }
+        }
+
+        // modifications of previous plugins in the session, which can't be rolled back on error
+        boolean modifiedBefore = session.isModified();
 
-        // we may need to crate CtClass on behalf of the client and close it
-        // after invocation.
+        // the session CtClass if provided to the method
         CtClass ctClass = null;
 
         List<Object> args = new ArrayList<>();
-        for (Class<?> type : pluginAnnotation.getMethod().getParameterTypes()) {
-            if (type.isAssignableFrom(ClassLoader.class)) {
-                args.add(classLoader);
-            } else if (type.isAssignableFrom(String.class)) {
-                args.add(className);
-            } else if (type.isAssignableFrom(Class.class)) {
-                args.add(redefiningClass);
-            } else if (type.isAssignableFrom(ProtectionDomain.class)) {
-                args.add(protectionDomain);
-            } else if (type.isAssignableFrom(byte[].class)) {
-                args.add(bytes);
-            } else if (type.isAssignableFrom(ClassPool.class)) {
-                ClassPool classPool = new ClassPool();
-                classPool.appendSystemPath();
-                LOGGER.trace("Adding loader classpath " + classLoader);
-                classPool.appendClassPath(new LoaderClassPath(classLoader));
-                args.add(classPool);
-            } else if (type.isAssignableFrom(CtClass.class)) {
-                try {
-                    ctClass = createCtClass(bytes, classLoader);
+        try {
+            // serialize pending modifications before the CtClass is obtained, not to release it afterwards
+            byte[] bytes = null;
+            for (Class<?> type : pluginAnnotation.getMethod().getParameterTypes()) {
+                if (type.isAssignableFrom(byte[].class)) {
+                    bytes = session.getBytes();
+                }
+            }
+
+            for (Class<?> type : pluginAnnotation.getMethod().getParameterTypes()) {
+                if (type.isAssignableFrom(ClassLoader.class)) {
+                    args.add(classLoader);
+                } else if (type.isAssignableFrom(String.class)) {
+                    args.add(className);
+                } else if (type.isAssignableFrom(Class.class)) {
+                    args.add(redefiningClass);
+                } else if (type.isAssignableFrom(ProtectionDomain.class)) {
+                    args.add(protectionDomain);
+                } else if (type.isAssignableFrom(byte[].class)) {
+                    args.add(bytes);
+                } else if (type.isAssignableFrom(ClassPool.class)) {
+                    args.add(session.getClassPool());
+                } else if (type.isAssignableFrom(CtClass.class)) {
+                    ctClass = session.getCtClass();
                     args.add(ctClass);
-                } catch (IOException e) {
-                    LOGGER.error("Unable create CtClass for '" + className + "'.", e);
-                    return result;
+                } else if (type.isAssignableFrom(LoadEvent.class)) {
+                    args.add(redefiningClass == null ? LoadEvent.DEFINE : LoadEvent.REDEFINE);
+                } else if (type.isAssignableFrom(AppClassLoaderExecutor.class)) {
+                    args.add(new AppClassLoaderExecutor(classLoader, protectionDomain));
+                } else {
+                    LOGGER.error("Unable to call init method on plugin '" + pluginAnnotation.getPluginClass() + "'." + " Method parameter type '" + type + "' is not recognized for @Init annotation.");
+                    return;
                 }
-            } else if (type.isAssignableFrom(LoadEvent.class)) {
-                args.add(redefiningClass == null ? LoadEvent.DEFINE : LoadEvent.REDEFINE);
-            } else if (type.isAssignableFrom(AppClassLoaderExecutor.class)) {
-                args.add(new AppClassLoaderExecutor(classLoader, protectionDomain));
-            } else {
-                LOGGER.error("Unable to call init method on plugin '" + pluginAnnotation.getPluginClass() + "'." + " Method parameter type '" + type + "' is not recognized for @Init annotation.");
-                return result;
             }
+        } catch (IOException | CannotCompileException e) {
+            LOGGER.error("Unable create CtClass for '" + className + "'.", e);
+            return;
         }
+
+        boolean success = false;
         try {
             // call method on plugin (or if plugin null -> static method)
             Object resultObject = pluginAnnotation.getMethod().invoke(pluginAnnotation.getPlugin(), args.toArray());
 
             if (resultObject == null) {
-                // Ok, nothing has changed
+                // Ok, nothing has changed or the session CtClass was modified
             } else if (resultObject instanceof byte[]) {
-                result = (byte[]) resultObject;
+                session.setBytes((byte[]) resultObject);
             } else if (resultObject instanceof CtClass) {
-                result = ((CtClass) resultObject).toBytecode();
-
-                // detach on behalf of the clinet - only if this is another
-                // instance than we created (it is closed elsewhere)
-                if (resultObject != ctClass) {
+                // detach on behalf of the client - only if this is another
+                // instance than we created (it is closed with the session)
+                if (!session.isSessionCtClass((CtClass) resultObject)) {
+                    session.setBytes(((CtClass) resultObject).toBytecode());
                     ((CtClass) resultObject).detach();
                 }
             } else {
-                LOGGER.error("Unknown result of @OnClassLoadEvent method '" + result.getClass().getName() + "'.");
+                LOGGER.error("Unknown result of @OnClassLoadEvent method '" + resultObject.getClass().getName() + "'.");
             }
-
-            // close CtClass if created from here
-            if (ctClass != null) {
-                // if result not set from the method, use class
-                if (resultObject == null) {
-                    result = ctClass.toBytecode();
-                }
-                ctClass.detach();
+            success = true;
+            if (cacheKey != null) {
+                transformCache.put(cacheKey, cacheInput, session.getBytes());
             }
-
         } catch (IllegalAccessException e) {
             LOGGER.error("IllegalAccessException in transform method on plugin '{}' class '{}' of classLoader '{}'",
                 e, pluginAnnotation.getPluginClass(), className,
@@ -260,9 +326,12 @@ public class PluginClassFileTransformer implements HaClassFileTransformer {
             LOGGER.error("IOException in transform method on plugin '{}' class '{}' of classLoader '{}'",
                 e, pluginAnnotation.getPluginClass(), className,
                 classLoader != null ? classLoader.getClass().getName() : "");
+        } finally {
+            // drop partial modifications of the failed method (unless mixed with modifications of previous methods)
+            if (!success && ctClass != null && !modifiedBefore) {
+                session.discardCtClass();
+            }
         }
-
-        return result;
     }
 
 }
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.annotation.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.Version;
+
+/**
+ * Persistent cache of DEFINE-time results of cacheable plugin transformations
+ * ({@link org.hotswap.agent.annotation.OnClassLoadEvent#cacheable()}).
+ * <p/>
+ * Enabled by system property <code>-Dhotswapagent.transformCache=&lt;directory&gt;</code>. Entries are keyed by
+ * hash of the input class bytes, class name, the plugin handler (including bytecode of the handler class),
+ * agent version and the effective plugin configuration. Hence a framework class is transformed only on the first
+ * JVM start, subsequent starts read the result from the cache.
+ * <p/>
+ * The cache is a single append-only file of records (magic, key, length, CRC32, bytes). Existing records are
+ * read through a memory mapped buffer, records appended by this JVM are held in memory. Appends are guarded
+ * by a file lock, so that the directory may be shared by several JVMs. Delete the file to clear the cache.
+ */
+public class TransformCache {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(TransformCache.class);
+
+    /**
+     * System property with the cache directory.
+     */
+    public static final String DIRECTORY_PROPERTY = "hotswapagent.transformCache";
+
+    static final String FILE_NAME = "transform-cache.bin";
+
+    // stop appending if the file grows over this size
+    static final long MAX_FILE_SIZE = 64L * 1024 * 1024;
+
+    private static final int MAGIC = 0x48415443;
+    private static final int RECORD_HEADER = 4 + 16 + 4 + 4;
+    private static final byte[] UNCHANGED = new byte[0];
+
+    private static final Object INSTANCE_LOCK = new Object();
+    private static volatile boolean instanceResolved;
+    private static TransformCache instance;
+
+    private final File file;
+    private final String agentVersion = Version.version();
+
+    // key -> position of the bytes in the mapped buffer (Long) or bytes appended by this JVM (byte[])
+    private final Map<Key, Object> entries = new ConcurrentHashMap<>();
+    private MappedByteBuffer mapped;
+    private boolean full;
+
+    // handler method -> handler identity including digest of the handler class bytecode
+    private final Map<Method, String> handlerIds = new ConcurrentHashMap<>();
+
+    /**
+     * Get the cache configured by system property.
+     *
+     * @return the cache or null if not enabled or not available
+     */
+    public static TransformCache getInstance() {
+        if (!instanceResolved) {
+            synchronized (INSTANCE_LOCK) {
+                if (!instanceResolved) {
+                    String directory = System.getProperty(DIRECTORY_PROPERTY);
+                    if (directory != null && !directory.isEmpty()) {
+                        try {
+                            instance = new TransformCache(new File(directory));
+                            LOGGER.info("Transform cache {} opened with {} entries.", instance.file, instance.entries.size());
+                        } catch (IOException e) {
+                            LOGGER.error("Unable to open transform cache in directory {}.", e, directory);
+                        }
+                    }
+                    instanceResolved = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public TransformCache(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+        this.file = new File(directory, FILE_NAME);
+        load();
+    }
+
+    /**
+     * Scan existing records, truncate trailing incomplete record (interrupted write) and map the file.
+     */
+    private void load() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            FileLock lock = channel.lock();
+            try {
+                long size = channel.size();
+                if (size == 0) {
+                    return;
+                }
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                int validEnd = scan(mapped);
+                if (validEnd < size) {
+                    LOGGER.warning("Transform cache {} is corrupted at position {}, truncating.", file, validEnd);
+                    mapped = null;
+                    channel.truncate(validEnd);
+                    entries.clear();
+                    if (validEnd > 0) {
+                        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, validEnd);
+                        scan(mapped);
+                    }
+                }
+            } finally {
+                lock.release();
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    private int scan(ByteBuffer buffer) {
+        int position = 0;
+        int limit = buffer.limit();
+        while (position + RECORD_HEADER <= limit) {
+            if (buffer.getInt(position) != MAGIC) {
+                break;
+            }
+            Key key = new Key(buffer.getLong(position + 4), buffer.getLong(position + 12));
+            int length = buffer.getInt(position + 20);
+            int crc = buffer.getInt(position + 24);
+            int start = position + RECORD_HEADER;
+            if (length < 0 || start + length > limit || crc != crc(buffer, start, length)) {
+                break;
+            }
+            entries.put(key, (long) start);
+            position = start + length;
+        }
+        return position;
+    }
+
+    private static int crc(ByteBuffer buffer, int start, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(start);
+        slice.limit(start + length);
+        CRC32 crc32 = new CRC32();
+        crc32.update(slice);
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * Compute the cache key.
+     *
+     * @param className     name of the transformed class
+     * @param handler       the plugin handler method
+     * @param configuration effective plugin configuration of the classloader
+     * @param classBytes    input class bytes
+     * @return the key
+     */
+    public Key key(String className, Method handler, String configuration, byte[] classBytes) {
+        MessageDigest digest = sha256();
+        update(digest, agentVersion);
+        update(digest, getHandlerId(handler));
+        update(digest, configuration);
+        update(digest, className);
+        digest.update(classBytes);
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        return new Key(hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * Get cached result.
+     *
+     * @return resulting bytes, empty array if the class is not modified by the handler, null if not cached
+     */
+    public byte[] get(Key key) {
+        Object entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry instanceof byte[]) {
+            return (byte[]) entry;
+        }
+        int start = (int) (long) (Long) entry;
+        ByteBuffer buffer = mapped.duplicate();
+        int length = buffer.getInt(start - 8);
+        byte[] bytes = new byte[length];
+        buffer.position(start);
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Store result of the transformation.
+     *
+     * @param key    the key
+     * @param input  input class bytes
+     * @param output resulting class bytes (the same instance as input if not modified)
+     */
+    public void put(Key key, byte[] input, byte[] output) {
+        byte[] bytes = output == input || Arrays.equals(input, output) ? UNCHANGED : output;
+        if (entries.putIfAbsent(key, bytes) != null) {
+            return;
+        }
+        synchronized (this) {
+            if (full) {
+                return;
+            }
+            try {
+                append(key, bytes);
+            } catch (IOException e) {
+                LOGGER.error("Unable to write transform cache {}, cache disabled.", e, file);
+                full = true;
+            }
+        }
+    }
+
+    private void append(Key key, byte[] bytes) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            FileLock lock = channel.lock();
+            try {
+                long size = channel.size();
+                if (size + RECORD_HEADER + bytes.length > MAX_FILE_SIZE) {
+                    LOGGER.warning("Transform cache {} is full, delete it to start over.", file);
+                    full = true;
+                    return;
+                }
+                CRC32 crc32 = new CRC32();
+                crc32.update(bytes);
+                ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + bytes.length);
+                record.putInt(MAGIC).putLong(key.high).putLong(key.low).putInt(bytes.length)
+                        .putInt((int) crc32.getValue()).put(bytes);
+                record.flip();
+                while (record.hasRemaining()) {
+                    channel.write(record, size + record.position());
+                }
+            } finally {
+                lock.release();
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    private String getHandlerId(Method handler) {
+        String id = handlerIds.get(handler);
+        if (id == null) {
+            Class<?> declaringClass = handler.getDeclaringClass();
+            MessageDigest digest = sha256();
+            String resource = declaringClass.getName().replace('.', '/') + ".class";
+            try {
+                InputStream in = declaringClass.getClassLoader() != null ?
+                        declaringClass.getClassLoader().getResourceAsStream(resource) :
+                        ClassLoader.getSystemResourceAsStream(resource);
+                if (in != null) {
+                    try {
+                        byte[] buffer = new byte[8192];
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            digest.update(buffer, 0, read);
+                        }
+                    } finally {
+                        in.close();
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Unable to read handler class {}.", e, resource);
+            }
+            id = handler.toGenericString() + "#" + new Key(ByteBuffer.wrap(digest.digest())).toString();
+            handlerIds.put(handler, id);
+        }
+        return id;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 128-bit cache key.
+     */
+    public static final class Key {
+        final long high;
+        final long low;
+
+        Key(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        Key(ByteBuffer hash) {
+            this(hash.getLong(), hash.getLong());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return high == key.high && low == key.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (low ^ (low >>> 32));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%016x%016x", high, low);
+        }
+    }
+}
@@ -27,9 +27,16 @@ import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
+import org.hotswap.agent.command.AdaptiveDebounce;
 import org.hotswap.agent.config.PluginManager;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.monitor.HotswapMonitor;
 import org.hotswap.agent.watch.WatchEventListener;
 import org.hotswap.agent.watch.WatchFileEvent;
 
@@ -41,6 +48,17 @@ import org.hotswap.agent.watch.WatchFileEvent;
 public class WatchHandler<T extends Annotation> implements PluginHandler<T> {
     private static AgentLogger LOGGER = AgentLogger.getLogger(WatchHandler.class);
 
+    /**
+     * Configuration property to replace fixed annotation timeout with adaptive debounce per watched root.
+     */
+    public static final String ADAPTIVE_WATCH_TIMEOUT = "adaptiveWatchTimeout";
+
+    // watched root URI -> debounce shared by all listeners on the root (class file and resource events), guarded by debounces
+    private static final Map<String, AdaptiveDebounce> debounces = new HashMap<>();
+
+    // watched root URI -> app classloaders of the listeners on the root, guarded by debounces
+    private static final Map<String, Set<ClassLoader>> debounceClassLoaders = new HashMap<>();
+
     protected PluginManager pluginManager;
 
     public WatchHandler(PluginManager pluginManager) {
@@ -106,7 +124,7 @@ public class WatchHandler<T extends Annotation> implements PluginHandler<T> {
 
 
                 LOGGER.debug("Registering resource listener on classpath URI {}", uri);
-                registerResourceListener(pluginAnnotation, watchEventDTO, classLoader, uri);
+                registerResourceListener(pluginAnnotation, watchEventDTO, classLoader, uri, getRoot(uri, path));
             } catch (URISyntaxException e) {
                 LOGGER.error("Unable convert root resource path URL to URI", e);
             }
@@ -120,7 +138,8 @@ public class WatchHandler<T extends Annotation> implements PluginHandler<T> {
                     Path pathInWatchResource = watchResourcePath.resolve(path);
                     if (pathInWatchResource.toFile().exists()) {
                         LOGGER.debug("Registering resource listener on watchResources URI {}", pathInWatchResource.toUri());
-                        registerResourceListener(pluginAnnotation, watchEventDTO, classLoader, pathInWatchResource.toUri());
+                        registerResourceListener(pluginAnnotation, watchEventDTO, classLoader, pathInWatchResource.toUri(),
+                                watchResourcePath.toUri().toString());
                     }
                 } catch (URISyntaxException e) {
                     LOGGER.error("Unable convert watch resource path URL {} to URI", e, url);
@@ -134,20 +153,83 @@ public class WatchHandler<T extends Annotation> implements PluginHandler<T> {
      * <p/>
      * There might be several same events for a resource change (either from filesystem or when IDE clears and reloads
      * a class multiple time on rebuild). Use command scheduler to group same events into single invocation.
+     * <p/>
+     * With adaptive watch timeout, commands are postponed while a burst of events on the watched root continues
+     * (e.g. full rebuild) and a single change is handled after a short quiet window. The debounce is shared
+     * by all listeners on the same root, hence the burst is measured once and their commands wait for the same window.
      */
     private void registerResourceListener(final PluginAnnotation<T> pluginAnnotation, final WatchEventDTO watchEventDTO,
-                                          final ClassLoader classLoader, URI uri) throws IOException {
+                                          final ClassLoader classLoader, URI uri, String root) throws IOException {
+        final AdaptiveDebounce debounce = pluginManager.getPluginConfiguration(classLoader).getPropertyBoolean(ADAPTIVE_WATCH_TIMEOUT) ?
+                getDebounce(root, watchEventDTO.getTimeout(), classLoader) : null;
+
         pluginManager.getWatcher().addEventListener(classLoader, uri, new WatchEventListener() {
             @Override
             public void onEvent(WatchFileEvent event) {
                 WatchEventCommand<T> command = WatchEventCommand.createCmdForEvent(pluginAnnotation, event, classLoader);
                 if (command != null) {
-                    pluginManager.getScheduler().scheduleCommand(command, watchEventDTO.getTimeout());
-                    LOGGER.trace("Resource changed {}", event);
+                    if (debounce != null) {
+                        debounce.eventArrived(event);
+                        pluginManager.getScheduler().scheduleCommand(command, debounce);
+                        LOGGER.trace("Resource changed {}, {}", event, debounce);
+                    } else {
+                        pluginManager.getScheduler().scheduleCommand(command, watchEventDTO.getTimeout());
+                        LOGGER.trace("Resource changed {}", event);
+                    }
                 }
             }
         });
     }
 
+    static AdaptiveDebounce getDebounce(String root, int timeout, ClassLoader classLoader) {
+        synchronized (debounces) {
+            AdaptiveDebounce debounce = debounces.get(root);
+            if (debounce == null) {
+                debounce = new AdaptiveDebounce(root, timeout);
+                debounces.put(root, debounce);
+                debounceClassLoaders.put(root, new HashSet<ClassLoader>());
+                HotswapMonitor.getInstance().debounceAdded(debounce);
+            } else {
+                debounce.addTimeout(timeout);
+            }
+            debounceClassLoaders.get(root).add(classLoader);
+            return debounce;
+        }
+    }
+
+    /**
+     * Remove debounces of watched roots not used by any other classloader.
+     *
+     * @param classLoader the closed classloader
+     */
+    public static void closeClassLoader(ClassLoader classLoader) {
+        synchronized (debounces) {
+            Iterator<Map.Entry<String, Set<ClassLoader>>> it = debounceClassLoaders.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Set<ClassLoader>> entry = it.next();
+                if (entry.getValue().remove(classLoader) && entry.getValue().isEmpty()) {
+                    it.remove();
+                    HotswapMonitor.getInstance().debounceRemoved(debounces.remove(entry.getKey()));
+                }
+            }
+        }
+    }
 
+    static boolean hasDebounce(String root) {
+        synchronized (debounces) {
+            return debounces.containsKey(root);
+        }
+    }
+
+    // classpath root of the resource URI, e.g. file:/app/classes/ for file:/app/classes/META-INF/
+    static String getRoot(URI uri, String path) {
+        String root = uri.toString();
+        if (root.endsWith("/")) {
+            root = root.substring(0, root.length() - 1);
+        }
+        if (!path.isEmpty() && root.endsWith("/" + path)) {
+            return root.substring(0, root.length() - path.length());
+        }
+        return root + "/";
+    }
 }
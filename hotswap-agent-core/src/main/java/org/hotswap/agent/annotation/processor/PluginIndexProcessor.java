@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.annotation.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.hotswap.agent.annotation.Plugin;
+import org.hotswap.agent.util.scanner.PluginIndex;
+
+/**
+ * Generate {@link PluginIndex} of @Plugin classes at compile time.
+ * <p/>
+ * The processor is registered as a service in hotswap-agent-core, hence it runs on compilation of each plugin module.
+ * Entries of the existing index are kept if the class still exists (incremental compilation in IDE).
+ */
+public class PluginIndexProcessor extends AbstractProcessor {
+
+    // plugin class name -> plugin name
+    private final Map<String, String> plugins = new TreeMap<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Plugin.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!plugins.isEmpty()) {
+                writeIndex();
+            }
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Plugin.class)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                TypeElement type = (TypeElement) element;
+                plugins.put(processingEnv.getElementUtils().getBinaryName(type).toString(),
+                        type.getAnnotation(Plugin.class).name());
+            }
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        readExistingIndex();
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    PluginIndex.INDEX_RESOURCE);
+            Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8);
+            try {
+                for (Map.Entry<String, String> plugin : plugins.entrySet()) {
+                    writer.write(plugin.getKey() + " # " + plugin.getValue() + "\n");
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write plugin index " + PluginIndex.INDEX_RESOURCE + ": " + e);
+        }
+    }
+
+    private void readExistingIndex() {
+        try {
+            FileObject index = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                    PluginIndex.INDEX_RESOURCE);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(index.openInputStream(), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int comment = line.indexOf('#');
+                    String className = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                    if (className.isEmpty() || plugins.containsKey(className)) {
+                        continue;
+                    }
+                    TypeElement type = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+                    Plugin plugin = type != null ? type.getAnnotation(Plugin.class) : null;
+                    if (plugin != null) {
+                        plugins.put(className, plugin.name());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            // no index yet
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.command;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.monitor.DebounceStatistics;
+
+/**
+ * Adaptive quiet window for a burst of events from one source (e.g. a watched root directory).
+ * <p/>
+ * Each event extends the quiet window of the source. Commands scheduled with the debounce
+ * ({@link Scheduler#scheduleCommand(Command, AdaptiveDebounce)}) are executed only after no event arrived
+ * for the effective window. The window is derived from observed inter-arrival times:
+ * <ul>
+ *     <li>a few events (single file save) - short window, at most the configured timeout,</li>
+ *     <li>a burst (e.g. full rebuild writing thousands of class files) - at least the configured timeout, growing
+ *     with the burst size and twice the longest recent gap between events, up to {@link #MAX_WINDOW}.</li>
+ * </ul>
+ * The burst ends when no event arrives within the window, the next event starts with the short window again.
+ */
+public final class AdaptiveDebounce {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(AdaptiveDebounce.class);
+
+    /**
+     * Shortest quiet window (ms) for isolated events.
+     */
+    public static final int MIN_WINDOW = 20;
+
+    /**
+     * Longest quiet window (ms) during a burst.
+     */
+    public static final int MAX_WINDOW = 5000;
+
+    // number of events after which the source is considered in burst
+    static final int BURST_EVENTS = 8;
+
+    private final String name;
+
+    // guarded by this
+    private int timeout;
+
+    // current burst, guarded by this
+    private Object lastEvent;
+    private long lastArrival;
+    private long peakGap;
+    private int burstEvents;
+    private int effectiveWindow;
+
+    // stats, guarded by this
+    private long events;
+    private long bursts;
+    private int maxEffectiveWindow;
+
+    private volatile long quietUntil;
+
+    /**
+     * @param name    name of the source for stats (e.g. watched root URI)
+     * @param timeout configured timeout (ms) of the events
+     */
+    public AdaptiveDebounce(String name, int timeout) {
+        this.name = name;
+        this.timeout = Math.max(timeout, 0);
+        this.effectiveWindow = Math.min(MIN_WINDOW, this.timeout);
+    }
+
+    /**
+     * Source shared by listeners with different timeouts uses the longest one.
+     *
+     * @param timeout configured timeout (ms) of another listener
+     */
+    public synchronized void addTimeout(int timeout) {
+        this.timeout = Math.max(this.timeout, timeout);
+    }
+
+    /**
+     * Register new event, extend the quiet window.
+     *
+     * @return the effective window (ms) after this event
+     */
+    public int eventArrived() {
+        return eventArrived(System.nanoTime());
+    }
+
+    /**
+     * Register new event delivered to each listener of the source, the same event is counted once.
+     *
+     * @param event the event instance
+     * @return the effective window (ms) after this event
+     */
+    public synchronized int eventArrived(Object event) {
+        if (event == lastEvent) {
+            return effectiveWindow;
+        }
+        lastEvent = event;
+        return eventArrived(System.nanoTime());
+    }
+
+    synchronized int eventArrived(long now) {
+        events++;
+        long gap = now - lastArrival;
+        if (burstEvents > 0 && gap <= TimeUnit.MILLISECONDS.toNanos(effectiveWindow)) {
+            // decaying maximum of gaps within the burst
+            peakGap = Math.max(gap, peakGap - peakGap / 8);
+            burstEvents++;
+        } else {
+            if (burstEvents >= BURST_EVENTS) {
+                LOGGER.debug("Events burst on {} finished: {} events, effective window {}ms, max window {}ms, total {} events in {} bursts.",
+                        name, burstEvents, effectiveWindow, maxEffectiveWindow, events, bursts);
+            }
+            bursts++;
+            peakGap = 0;
+            burstEvents = 1;
+        }
+        lastArrival = now;
+
+        effectiveWindow = computeWindow();
+        maxEffectiveWindow = Math.max(maxEffectiveWindow, effectiveWindow);
+        quietUntil = now + TimeUnit.MILLISECONDS.toNanos(effectiveWindow);
+        return effectiveWindow;
+    }
+
+    private int computeWindow() {
+        long gapWindow = Math.min(MAX_WINDOW, TimeUnit.NANOSECONDS.toMillis(2 * peakGap));
+        if (burstEvents < BURST_EVENTS) {
+            // e.g. DELETE, CREATE, MODIFY of a single saved file - react quickly
+            return (int) Math.max(Math.min(MIN_WINDOW, timeout), Math.min(gapWindow, timeout));
+        }
+        // burst - 1x timeout for BURST_EVENTS, +1x for each doubling of events
+        int doublings = 31 - Integer.numberOfLeadingZeros(burstEvents / BURST_EVENTS);
+        long burstWindow = Math.min(MAX_WINDOW, (long) Math.max(timeout, MIN_WINDOW) * (1 + doublings));
+        return (int) Math.max(burstWindow, gapWindow);
+    }
+
+    /**
+     * @return System.nanoTime() of the end of the current quiet window
+     */
+    public long getQuietUntil() {
+        return quietUntil;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return effective quiet window (ms) after the last event
+     */
+    public synchronized int getEffectiveWindow() {
+        return effectiveWindow;
+    }
+
+    /**
+     * @return longest effective window (ms) used so far
+     */
+    public synchronized int getMaxEffectiveWindow() {
+        return maxEffectiveWindow;
+    }
+
+    /**
+     * @return number of all registered events
+     */
+    public synchronized long getEvents() {
+        return events;
+    }
+
+    /**
+     * @return number of bursts (including single events)
+     */
+    public synchronized long getBursts() {
+        return bursts;
+    }
+
+    /**
+     * @return consistent snapshot of the counters, published by {@link org.hotswap.agent.monitor.HotswapMonitor}
+     */
+    public synchronized DebounceStatistics getStatistics() {
+        return new DebounceStatistics(timeout, effectiveWindow, maxEffectiveWindow, events, bursts);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AdaptiveDebounce{" +
+                "name='" + name + '\'' +
+                ", timeout=" + timeout +
+                ", effectiveWindow=" + effectiveWindow +
+                ", maxEffectiveWindow=" + maxEffectiveWindow +
+                ", events=" + events +
+                ", bursts=" + bursts +
+                '}';
+    }
+}
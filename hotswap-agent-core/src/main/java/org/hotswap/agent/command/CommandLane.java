@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.command;
+
+/**
+ * Named FIFO execution lane of the scheduler.
+ * <p/>
+ * Commands scheduled to the same lane are executed sequentially in the order in which they become due
+ * (for the same timeout this is the order of scheduling). Commands in different lanes run in parallel.
+ * Lanes are identified by a name (typically the plugin class) and the classloader, so that a plugin
+ * instance in one webapp does not wait for the same plugin in another webapp.
+ *
+ * @see Scheduler#scheduleCommand(Command, int, CommandLane)
+ */
+public final class CommandLane {
+    private final String name;
+    private final ClassLoader classLoader;
+
+    private CommandLane(String name, ClassLoader classLoader) {
+        if (name == null) {
+            throw new IllegalArgumentException("Lane name must not be null.");
+        }
+        this.name = name;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Lane of a plugin instance in the classloader.
+     *
+     * @param plugin      the plugin instance, the lane is named by its class
+     * @param classLoader application classloader of the plugin
+     * @return the lane key
+     */
+    public static CommandLane of(Object plugin, ClassLoader classLoader) {
+        return new CommandLane(plugin.getClass().getName(), classLoader);
+    }
+
+    /**
+     * Lane of a custom name in the classloader.
+     *
+     * @param name        lane name
+     * @param classLoader the classloader (may be null for agent wide lane)
+     * @return the lane key
+     */
+    public static CommandLane of(String name, ClassLoader classLoader) {
+        return new CommandLane(name, classLoader);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CommandLane that = (CommandLane) o;
+        return name.equals(that.name) && classLoader == that.classLoader;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * name.hashCode() + System.identityHashCode(classLoader);
+    }
+
+    @Override
+    public String toString() {
+        return "CommandLane{" +
+                "name='" + name + '\'' +
+                ", classLoader=" + classLoader +
+                '}';
+    }
+}
@@ -187,6 +187,8 @@ public class ReflectionCommand extends MergeableCommand {
     }
 
     protected Object doExecuteReflectionCommand(ClassLoader targetClassLoader, String className, Object target, String method, List<Object> params) throws ClassNotFoundException, IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException {
+        // plugin class may not be yet defined in the app classloader (lazy patching)
+        PluginManager.getInstance().getClassLoaderPatcher().resolve(targetClassLoader, className);
         Class<?> classInAppClassLoader = Class.forName(className, true, targetClassLoader);
 
         LOGGER.trace("Executing command: requestedClassLoader={}, resolvedClassLoader={}, class={}, method={}, params={}",
@@ -18,6 +18,8 @@
  */
 package org.hotswap.agent.command;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Schedule a command to run.
  *
@@ -65,6 +67,31 @@ public interface Scheduler {
      */
     void scheduleCommand(Command command, int timeout, DuplicateSheduleBehaviour behaviour);
 
+    /**
+     * Schedule a new command for execution in an ordered lane.
+     * <p/>
+     * Commands of the same lane are executed one after another in the order in which they become due,
+     * commands of different lanes (and commands without a lane) run in parallel. Use the lane instead
+     * of long timeouts if a command must not run concurrently with another command of the plugin.
+     *
+     * @param command the command to execute
+     * @param timeout timeout after which the command is executed
+     * @param lane    the execution lane, e.g. {@link CommandLane#of(Object, ClassLoader)} for the plugin
+     */
+    void scheduleCommand(Command command, int timeout, CommandLane lane);
+
+    /**
+     * Schedule a new command for execution after the quiet window of the debounce.
+     * <p/>
+     * The command is executed when no other event was registered by the debounce for its effective window,
+     * i.e. the execution is postponed while the burst of events from the same source continues.
+     *
+     * @param command  the command to execute
+     * @param debounce the debounce of the event source, the event should be already registered
+     *                 by {@link AdaptiveDebounce#eventArrived()}
+     */
+    void scheduleCommand(Command command, AdaptiveDebounce debounce);
+
     /**
      * Schedule command on classes redefined or timeout.
      *
@@ -82,6 +109,39 @@ public interface Scheduler {
      */
     void scheduleCommandOnClassesRedefinedOrTimeout(Command command, int timeout, DuplicateSheduleBehaviour behaviour);
 
+    /**
+     * Schedule a new command for execution and track its completion.
+     * <p/>
+     * Same as {@link #scheduleCommand(Command, int)}. If the command is replaced or merged with an equal
+     * scheduled command, the future completes when the resulting command finishes.
+     *
+     * @param command the command to execute
+     * @param timeout timeout after which the command is executed
+     * @return future completed when the command finishes, exceptionally if the command throws an exception
+     */
+    CompletableFuture<Void> submitCommand(Command command, int timeout);
+
+    /**
+     * Schedule command on classes redefined or timeout and track its completion.
+     *
+     * @param command the command
+     * @param timeout the timeout
+     * @return future completed when the command finishes
+     * @see #scheduleCommandOnClassesRedefinedOrTimeout(Command, int)
+     */
+    CompletableFuture<Void> submitCommandOnClassesRedefinedOrTimeout(Command command, int timeout);
+
+    /**
+     * Schedule command on classes redefined or timeout. On classes redefinition the command is not executed
+     * immediately, but after all other commands triggered by the same redefinition finish (e.g. bean refresh after
+     * proxies of redefined classes were regenerated).
+     *
+     * @param command the command
+     * @param timeout the timeout, used if the classes redefined event is not supported
+     * @return future completed when the command finishes
+     */
+    CompletableFuture<Void> submitCommandAfterClassesRedefinedCommands(Command command, int timeout);
+
     /**
      * Run the scheduler agent thread.
      */
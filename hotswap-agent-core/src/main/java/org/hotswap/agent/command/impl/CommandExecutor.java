@@ -20,28 +20,44 @@ package org.hotswap.agent.command.impl;
 
 import org.hotswap.agent.command.Command;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.monitor.HotswapEvents;
+import org.hotswap.agent.monitor.HotswapMonitor;
 
 /**
- * Execute a command in a separate thread.
+ * Execute a command, run by the scheduler executor thread.
  *
  * @author Jiri Bubnik
  */
-public class CommandExecutor extends Thread {
+public class CommandExecutor implements Runnable {
     private static AgentLogger LOGGER = AgentLogger.getLogger(CommandExecutor.class);
 
     final Command command;
 
+    // exception thrown by the command, available in finished()
+    Throwable failure;
+
+    // time of dispatch to the executor (System.nanoTime())
+    final long dispatched = System.nanoTime();
+
     public CommandExecutor(Command command) {
         this.command = command;
-        setDaemon(true);
     }
 
     @Override
     public void run() {
+        long start = System.nanoTime();
+        Object event = HotswapEvents.beginCommand();
         try {
             LOGGER.trace("Executing command {}", command);
             command.executeCommand();
+        } catch (RuntimeException | Error e) {
+            // do not let the exception stop the executor thread (or the lane) silently
+            failure = e;
+            LOGGER.error("Error executing command {}", e, command);
         } finally {
+            HotswapEvents.endCommand(event, command, start - dispatched, failure != null);
+            HotswapMonitor.getInstance().commandExecuted(command, start - dispatched, System.nanoTime() - start,
+                    failure != null);
             finished();
         }
     }
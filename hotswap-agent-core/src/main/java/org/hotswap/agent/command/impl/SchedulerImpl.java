@@ -19,16 +19,48 @@
 package org.hotswap.agent.command.impl;
 
 import org.hotswap.agent.annotation.handler.WatchEventCommand;
+import org.hotswap.agent.command.AdaptiveDebounce;
 import org.hotswap.agent.command.Command;
+import org.hotswap.agent.command.CommandLane;
 import org.hotswap.agent.command.MergeableCommand;
 import org.hotswap.agent.command.Scheduler;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.monitor.HotswapEvents;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
 /**
  * Default command scheduler implementation.
+ * <p/>
+ * Scheduled commands are kept in a priority queue ordered by the time of execution. The scheduler thread
+ * sleeps until the earliest deadline (or until a new command is scheduled) and dispatches due commands
+ * to an executor of reused threads, see {@link #MAX_EXECUTOR_THREADS}. Virtual threads are used for the executor
+ * where available (Java 21+).
+ * <p/>
+ * Rescheduling an equal command does not remove the old queue entry, stale entries are skipped when they
+ * reach the head of the queue.
+ * <p/>
+ * Commands scheduled with a {@link CommandLane} are appended to the lane FIFO when due. Each lane is drained
+ * sequentially by a single executor task, different lanes run in parallel.
+ * <p/>
+ * Each scheduled command carries a completion future, which is handed over to the replacing (merged) command
+ * on reschedule. Commands scheduled after classes redefined commands wait until all commands dispatched
+ * by the same {@link #onClassesRedefined()} call complete.
+ * <p/>
+ * A due command scheduled with an {@link AdaptiveDebounce} is requeued to the end of the debounce quiet window
+ * if other events arrived in the meantime.
  *
  * @author Jiri Bubnik
  */
@@ -37,16 +69,41 @@ public class SchedulerImpl implements Scheduler {
 
     int DEFAULT_SCHEDULING_TIMEOUT = 100;
 
-    // TODO : Some commands must be executed in the order in which they are put to scheduler. Therefore
-    //        there could be a LinkedHashMap and CommandExecutor should be singleton for commands that
-    //        must be executed in order. There is an issue related to this problem
-    //        https://github.com/HotswapProjects/HotswapAgent/issues/39  which requires concurrent using
-    final Map<Command, ScheduleCommandConfig> scheduledCommands = new ConcurrentHashMap<>();
+    /**
+     * Maximum number of commands running in parallel, configurable by system property
+     * <code>hotswapagent.schedulerThreads</code>.
+     * <p/>
+     * Commands may block - e.g. Spring reload waits for parallel reload of bean factories, a plugin command may wait
+     * for another command. With a limit, a few blocked commands occupy all threads and the other commands
+     * (including those they wait for) starve. Hence the default (0) is no limit: a thread is started only if all
+     * threads are busy, idle threads are reused and released after a minute. Set a limit only if the commands
+     * of the used plugins never wait for each other.
+     */
+    static final int MAX_EXECUTOR_THREADS = Integer.getInteger("hotswapagent.schedulerThreads", 0);
+
+    // scheduled command -> config, the config references the canonical (first scheduled) command instance
+    // to merge with in constant time, guarded by lock
+    final Map<Command, ScheduleCommandConfig> scheduledCommands = new HashMap<>();
     final Set<Command> runningCommands = Collections.synchronizedSet(new HashSet<>());
 
+    // deadlines of scheduled commands, earliest first, guarded by lock
+    final PriorityQueue<ScheduleCommandConfig> timerQueue = new PriorityQueue<>();
+
+    // due commands of ordered lanes (https://github.com/HotswapProjects/HotswapAgent/issues/39),
+    // lane is removed when drained, guarded by lock
+    final Map<CommandLane, Deque<ScheduledCommandExecutor>> lanes = new HashMap<>();
+
+    // completion of currently running commands, a skipped duplicate completes with the running one, guarded by lock
+    final Map<Command, CompletableFuture<Void>> runningCompletions = new HashMap<>();
+
+    final ReentrantLock lock = new ReentrantLock();
+    final Condition wakeUp = lock.newCondition();
+
     final boolean isOnClsRedefinedSupported;
+    final AtomicLong sequence = new AtomicLong();
     Thread runner;
-    boolean stopped;
+    ExecutorService executor;
+    volatile boolean stopped;
 
     public SchedulerImpl(boolean isOnClsRedefinedSupported) {
         this.isOnClsRedefinedSupported = isOnClsRedefinedSupported;
@@ -67,6 +124,43 @@ public class SchedulerImpl implements Scheduler {
         doScheduleCommand(command, timeout, behaviour, false);
     }
 
+    @Override
+    public void scheduleCommand(Command command, int timeout, CommandLane lane) {
+        doScheduleCommand(command, timeout, DuplicateSheduleBehaviour.WAIT_AND_RUN_AFTER, false, lane);
+    }
+
+    @Override
+    public void scheduleCommand(Command command, AdaptiveDebounce debounce) {
+        doScheduleCommand(command, debounce.getEffectiveWindow(), DuplicateSheduleBehaviour.WAIT_AND_RUN_AFTER, false,
+                null, debounce);
+    }
+
+    @Override
+    public CompletableFuture<Void> submitCommand(Command command, int timeout) {
+        return doScheduleCommand(command, timeout, DuplicateSheduleBehaviour.WAIT_AND_RUN_AFTER, false, null);
+    }
+
+    @Override
+    public CompletableFuture<Void> submitCommandOnClassesRedefinedOrTimeout(Command command, int timeout) {
+        return doScheduleCommand(command, timeout, DuplicateSheduleBehaviour.WAIT_AND_RUN_AFTER, true, null);
+    }
+
+    @Override
+    public CompletableFuture<Void> submitCommandAfterClassesRedefinedCommands(Command command, int timeout) {
+        lock.lock();
+        try {
+            CompletableFuture<Void> completion = doScheduleCommand(command, timeout,
+                    DuplicateSheduleBehaviour.WAIT_AND_RUN_AFTER, true, null);
+            ScheduleCommandConfig config = scheduledCommands.get(command);
+            if (config != null) {
+                config.afterClassesRedefinedCommands = true;
+            }
+            return completion;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public void scheduleCommandOnClassesRedefinedOrTimeout(Command command, int timeout) {
         scheduleCommandOnClassesRedefinedOrTimeout(command, timeout, DuplicateSheduleBehaviour.WAIT_AND_RUN_AFTER);
@@ -78,98 +172,270 @@ public class SchedulerImpl implements Scheduler {
     }
 
     public void doScheduleCommand(Command command, int timeout, DuplicateSheduleBehaviour behaviour, boolean isOnClassRedefined) {
-        synchronized (scheduledCommands) {
+        doScheduleCommand(command, timeout, behaviour, isOnClassRedefined, null);
+    }
+
+    private CompletableFuture<Void> doScheduleCommand(Command command, int timeout, DuplicateSheduleBehaviour behaviour,
+                                                      boolean isOnClassRedefined, CommandLane lane) {
+        return doScheduleCommand(command, timeout, behaviour, isOnClassRedefined, lane, null);
+    }
+
+    private CompletableFuture<Void> doScheduleCommand(Command command, int timeout, DuplicateSheduleBehaviour behaviour,
+                                                      boolean isOnClassRedefined, CommandLane lane,
+                                                      AdaptiveDebounce debounce) {
+        lock.lock();
+        try {
             Command targetCommand = command;
-            if ((command instanceof MergeableCommand) && scheduledCommands.containsKey(command)) {
-                // get existing equals command and merge it
-                for (Command scheduledCommand : scheduledCommands.keySet()) {
-                    if (command.equals(scheduledCommand)) {
-                        targetCommand = ((MergeableCommand) scheduledCommand).merge(command);
-                        break;
-                    }
+            ScheduleCommandConfig previous = scheduledCommands.get(command);
+            if ((command instanceof MergeableCommand) && previous != null) {
+                // merge to existing equals command, the config holds the canonical scheduled instance
+                targetCommand = ((MergeableCommand) previous.command).merge(command);
+                if (targetCommand != previous.command) {
+                    previous = scheduledCommands.get(targetCommand);
                 }
             }
 
-            // map may already contain equals command, put will replace it and reset timer
-            scheduledCommands.put(targetCommand, new ScheduleCommandConfig(System.currentTimeMillis() + timeout, behaviour, isOnClassRedefined));
+            // map may already contain equals command, put will replace it and reset timer (the map keeps the original key)
+            Command key = previous != null ? previous.command : targetCommand;
+            CompletableFuture<Void> completion = previous != null ? previous.completion : new CompletableFuture<Void>();
+            ScheduleCommandConfig config = new ScheduleCommandConfig(key,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout), sequence.incrementAndGet(),
+                    behaviour, isOnClassRedefined, lane, completion);
+            config.debounce = debounce;
+            scheduledCommands.put(key, config);
+            timerQueue.add(config);
+            if (timerQueue.peek() == config) {
+                wakeUp.signal();
+            }
             LOGGER.trace("{} scheduled for execution in {}ms", targetCommand, timeout);
+            HotswapEvents.commandScheduled(targetCommand, timeout, scheduledCommands.size());
+            return completion;
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * One cycle of the scheduler agent. Process all commands which are not currently
-     * running and time lower than current milliseconds.
-     *
-     * @return true if the agent should continue (false for fatal error)
+     * @return number of scheduled commands, including due commands waiting in lanes
      */
-    private boolean processCommands(boolean isOnClassRedefined) {
-        Long currentTime = System.currentTimeMillis();
-        boolean useOnClassRedefined = isOnClsRedefinedSupported && isOnClassRedefined;
-        synchronized (scheduledCommands) {
-            for (Iterator<Map.Entry<Command, ScheduleCommandConfig>> it = scheduledCommands.entrySet().iterator(); it.hasNext(); ) {
-                Map.Entry<Command, ScheduleCommandConfig> entry = it.next();
-                ScheduleCommandConfig config = entry.getValue();
-                Command command = entry.getKey();
-
-                // if timeout
-                if (useOnClassRedefined && config.isOnClassRedefined || config.getTime() < currentTime) {
-                    // command is currently running
-                    if (runningCommands.contains(command)) {
-                        if (config.getBehaviour().equals(DuplicateSheduleBehaviour.SKIP)) {
-                            LOGGER.debug("Skipping duplicate running command {}", command);
-                            it.remove();
-                        } else if (config.getBehaviour().equals(DuplicateSheduleBehaviour.RUN_DUPLICATE)) {
-                            executeCommand(command);
-                            it.remove();
-                        }
-                    } else {
-                        executeCommand(command);
-                        it.remove();
-                    }
+    public int getQueueSize() {
+        lock.lock();
+        try {
+            int size = scheduledCommands.size();
+            for (Deque<ScheduledCommandExecutor> laneCommands : lanes.values()) {
+                size += laneCommands.size();
+            }
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Dispatch a due command. Must be called with lock held.
+     */
+    private void processCommand(ScheduleCommandConfig config) {
+        Command command = config.command;
+
+        // command is currently running
+        if (runningCommands.contains(command)) {
+            if (config.getBehaviour().equals(DuplicateSheduleBehaviour.SKIP)) {
+                LOGGER.debug("Skipping duplicate running command {}", command);
+                scheduledCommands.remove(command);
+                CompletableFuture<Void> running = runningCompletions.get(command);
+                if (running != null) {
+                    propagate(running, config.completion);
+                } else {
+                    config.completion.complete(null);
                 }
+            } else if (config.getBehaviour().equals(DuplicateSheduleBehaviour.RUN_DUPLICATE)) {
+                scheduledCommands.remove(command);
+                executeCommand(command, config.lane, config.completion);
+            } else {
+                // WAIT_AND_RUN_AFTER - requeued when the running command finishes
+                config.waitingForRunning = true;
             }
+        } else {
+            scheduledCommands.remove(command);
+            executeCommand(command, config.lane, config.completion);
         }
+    }
 
-        return true;
+    /**
+     * Entry is stale if the command was rescheduled, executed or it waits for another running instance
+     * or for other commands.
+     */
+    private boolean isStale(ScheduleCommandConfig config) {
+        return scheduledCommands.get(config.command) != config || config.waitingForRunning || config.waitingForCommands;
     }
 
     /**
-     * Execute this command in a separate thread.
+     * Execute this command by the executor, or append it to the lane. Must be called with lock held.
      *
-     * @param command the command to execute
+     * @param command    the command to execute
+     * @param lane       ordered lane or null
+     * @param completion completed when the command finishes
      */
-    private void executeCommand(Command command) {
+    private void executeCommand(Command command, CommandLane lane, CompletableFuture<Void> completion) {
         if (command instanceof WatchEventCommand)
             LOGGER.trace("Executing {}", command); // too much output for debug
         else
             LOGGER.debug("Executing {}", command);
 
         runningCommands.add(command);
-        new CommandExecutor(command) {
+        runningCompletions.put(command, completion);
+        ScheduledCommandExecutor commandExecutor = new ScheduledCommandExecutor(command, completion);
+        if (lane != null) {
+            Deque<ScheduledCommandExecutor> laneCommands = lanes.get(lane);
+            if (laneCommands == null) {
+                laneCommands = new ArrayDeque<>();
+                laneCommands.add(commandExecutor);
+                lanes.put(lane, laneCommands);
+                startLane(lane, laneCommands);
+            } else {
+                laneCommands.add(commandExecutor);
+            }
+            return;
+        }
+        try {
+            executor.execute(commandExecutor);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Scheduler stopped, command {} not executed.", command);
+            notExecuted(command, completion);
+        }
+    }
+
+    /**
+     * Release command rejected by stopped executor. Must be called with lock held.
+     */
+    private void notExecuted(Command command, CompletableFuture<Void> completion) {
+        runningCommands.remove(command);
+        runningCompletions.remove(command, completion);
+        completion.cancel(false);
+    }
+
+    /**
+     * Drain commands of the lane one by one, the lane is closed when empty.
+     */
+    private void startLane(final CommandLane lane, final Deque<ScheduledCommandExecutor> laneCommands) {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (;;) {
+                        ScheduledCommandExecutor commandExecutor;
+                        lock.lock();
+                        try {
+                            commandExecutor = laneCommands.poll();
+                            if (commandExecutor == null) {
+                                lanes.remove(lane);
+                                return;
+                            }
+                        } finally {
+                            lock.unlock();
+                        }
+                        commandExecutor.run();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Scheduler stopped, lane {} not executed.", lane);
+            lanes.remove(lane);
+            for (ScheduledCommandExecutor commandExecutor : laneCommands) {
+                notExecuted(commandExecutor.command, commandExecutor.completion);
+            }
+        }
+    }
+
+    private void commandFinished(Command command, CompletableFuture<Void> completion, Throwable failure) {
+        runningCommands.remove(command);
+        lock.lock();
+        try {
+            runningCompletions.remove(command, completion);
+            // command waiting for this one to finish (WAIT_AND_RUN_AFTER)
+            ScheduleCommandConfig config = scheduledCommands.get(command);
+            if (config != null && config.waitingForRunning) {
+                config.waitingForRunning = false;
+                timerQueue.add(config);
+                wakeUp.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (failure == null) {
+            completion.complete(null);
+        } else {
+            completion.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Other commands of classes redefinition finished, schedule the dependent command for immediate execution.
+     */
+    private void classesRedefinedCommandsFinished(ScheduleCommandConfig config) {
+        lock.lock();
+        try {
+            if (scheduledCommands.get(config.command) == config) {
+                ScheduleCommandConfig due = new ScheduleCommandConfig(config.command, System.nanoTime(),
+                        sequence.incrementAndGet(), config.behaviour, false, config.lane, config.completion);
+                scheduledCommands.put(config.command, due);
+                timerQueue.add(due);
+                wakeUp.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void propagate(CompletableFuture<Void> source, final CompletableFuture<Void> target) {
+        source.whenComplete(new BiConsumer<Void, Throwable>() {
             @Override
-            public void finished() {
-                runningCommands.remove(command);
+            public void accept(Void value, Throwable throwable) {
+                if (throwable == null) {
+                    target.complete(null);
+                } else {
+                    target.completeExceptionally(throwable);
+                }
             }
-        }.start();
+        });
     }
 
     @Override
     public void run() {
-        runner = new Thread() {
+        executor = createExecutor();
+        runner = new Thread("HotswapAgent-Scheduler") {
             @Override
             public void run() {
-            for (; ; ) {
-                if (stopped || !processCommands(false))
-                    break;
-
-                // wait for 100 ms
+                lock.lock();
                 try {
-                    sleep(100);
+                    while (!stopped) {
+                        ScheduleCommandConfig next = timerQueue.peek();
+                        if (next == null) {
+                            wakeUp.await();
+                        } else if (isStale(next)) {
+                            timerQueue.poll();
+                        } else {
+                            long delay = next.getTime() - System.nanoTime();
+                            if (delay > 0) {
+                                wakeUp.awaitNanos(delay);
+                            } else {
+                                timerQueue.poll();
+                                if (next.debounce != null && next.debounce.getQuietUntil() - next.getTime() > 0) {
+                                    // events burst continues, wait for the end of the quiet window
+                                    next.time = next.debounce.getQuietUntil();
+                                    timerQueue.add(next);
+                                } else {
+                                    processCommand(next);
+                                }
+                            }
+                        }
+                    }
                 } catch (InterruptedException e) {
-                    break;
+                    // stop the scheduler
+                } finally {
+                    lock.unlock();
                 }
             }
-            }
         };
 
         runner.setDaemon(true);
@@ -179,28 +445,152 @@ public class SchedulerImpl implements Scheduler {
     @Override
     public void stop() {
         stopped = true;
+        lock.lock();
+        try {
+            wakeUp.signalAll();
+            for (ScheduleCommandConfig config : new ArrayList<>(scheduledCommands.values())) {
+                config.completion.cancel(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
 
     @Override
     public void onClassesRedefined() {
-        processCommands(true);
+        if (!isOnClsRedefinedSupported) {
+            return;
+        }
+        lock.lock();
+        try {
+            List<CompletableFuture<Void>> dispatched = new ArrayList<>();
+            List<ScheduleCommandConfig> dependent = new ArrayList<>();
+            for (ScheduleCommandConfig config : new ArrayList<>(scheduledCommands.values())) {
+                if (!config.isOnClassRedefined() || config.waitingForRunning || config.waitingForCommands) {
+                    continue;
+                }
+                if (config.afterClassesRedefinedCommands) {
+                    dependent.add(config);
+                } else {
+                    processCommand(config);
+                    dispatched.add(config.completion);
+                }
+            }
+            if (!dependent.isEmpty()) {
+                CompletableFuture<Void> all = CompletableFuture.allOf(dispatched.toArray(new CompletableFuture[0]));
+                for (final ScheduleCommandConfig config : dependent) {
+                    config.waitingForCommands = true;
+                    all.whenComplete(new BiConsumer<Void, Throwable>() {
+                        @Override
+                        public void accept(Void value, Throwable throwable) {
+                            classesRedefinedCommandsFinished(config);
+                        }
+                    });
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Executor of reused daemon threads - virtual threads if the JVM supports them. Bounded only if
+     * {@link #MAX_EXECUTOR_THREADS} is set.
+     */
+    private static ExecutorService createExecutor() {
+        if (MAX_EXECUTOR_THREADS <= 0) {
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>(), createThreadFactory());
+        }
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(MAX_EXECUTOR_THREADS, MAX_EXECUTOR_THREADS,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), createThreadFactory());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
     }
 
-    private static class ScheduleCommandConfig {
-        // time when to run
+    private static ThreadFactory createThreadFactory() {
+        try {
+            // Thread.ofVirtual().name("HotswapAgent-Command-", 0).factory() - Java 21+
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "HotswapAgent-Command-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            LOGGER.trace("Virtual threads not available, using platform threads for commands.");
+        }
+        return new ThreadFactory() {
+            final AtomicLong counter = new AtomicLong();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "HotswapAgent-Command-" + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private class ScheduledCommandExecutor extends CommandExecutor {
+        final CompletableFuture<Void> completion;
+
+        ScheduledCommandExecutor(Command command, CompletableFuture<Void> completion) {
+            super(command);
+            this.completion = completion;
+        }
+
+        @Override
+        public void finished() {
+            commandFinished(command, completion, failure);
+        }
+    }
+
+    private static class ScheduleCommandConfig implements Comparable<ScheduleCommandConfig> {
+        // the command instance which is executed
+        final Command command;
+
+        // time when to run (System.nanoTime())
         long time;
 
+        // order of scheduling for the same time
+        final long sequence;
+
         // behaviour in case of conflict (running same command in progress)
         DuplicateSheduleBehaviour behaviour;
 
         // could be called after class redefinition
         boolean isOnClassRedefined;
 
-        private ScheduleCommandConfig(long time, DuplicateSheduleBehaviour behaviour, boolean isOnClassRedefined)
+        // due, but postponed until the running instance finishes
+        boolean waitingForRunning;
+
+        // ordered execution lane, null to execute in parallel
+        final CommandLane lane;
+
+        // completed when the command finishes, shared with replaced (merged) configs of the command
+        final CompletableFuture<Void> completion;
+
+        // on classes redefined run after the other commands of the redefinition
+        boolean afterClassesRedefinedCommands;
+
+        // classes redefined, waiting for the other commands of the redefinition
+        boolean waitingForCommands;
+
+        // postpone execution until the quiet window of the debounce elapses
+        AdaptiveDebounce debounce;
+
+        private ScheduleCommandConfig(Command command, long time, long sequence, DuplicateSheduleBehaviour behaviour,
+                                      boolean isOnClassRedefined, CommandLane lane, CompletableFuture<Void> completion)
         {
+            this.command = command;
             this.time = time;
+            this.sequence = sequence;
             this.behaviour = behaviour;
             this.isOnClassRedefined = isOnClassRedefined;
+            this.lane = lane;
+            this.completion = completion;
         }
 
         public long getTime() {
@@ -214,5 +604,11 @@ public class SchedulerImpl implements Scheduler {
         public boolean isOnClassRedefined() {
             return isOnClassRedefined;
         }
+
+        @Override
+        public int compareTo(ScheduleCommandConfig o) {
+            int result = Long.compare(time - o.time, 0);
+            return result != 0 ? result : Long.compare(sequence, o.sequence);
+        }
     }
 }
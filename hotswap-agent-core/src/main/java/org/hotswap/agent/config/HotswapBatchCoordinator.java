@@ -0,0 +1,155 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.config;
+
+import java.lang.instrument.ClassDefinition;
+import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hotswap.agent.command.Command;
+import org.hotswap.agent.command.Scheduler;
+import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.monitor.HotswapEvents;
+import org.hotswap.agent.monitor.HotswapMonitor;
+
+/**
+ * Collects classes to redefine from all classloaders and redefines them by a single
+ * {@link Instrumentation#redefineClasses(ClassDefinition...)} call.
+ * <p/>
+ * Each redefinition is a safepoint and (on DCEVM/JBR) a class hierarchy walk, hence changes from multiple
+ * classloaders (e.g. several webapps) scheduled within the timeout are merged into one batch. If the batch
+ * fails, classes are redefined one by one, so that one bad class does not block the rest.
+ */
+class HotswapBatchCoordinator {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(HotswapBatchCoordinator.class);
+
+    private final Instrumentation instrumentation;
+    private final Object hotswapLock;
+    private final Scheduler scheduler;
+
+    // class -> new bytecode, the latest bytecode wins, guarded by itself
+    private final Map<Class<?>, byte[]> pending = new LinkedHashMap<>();
+
+    // single instance, so that the scheduler restarts the timeout on each change
+    private final Command batchCommand = new Command() {
+        @Override
+        public void executeCommand() {
+            flush();
+        }
+
+        @Override
+        public String toString() {
+            return "HotswapBatchCoordinator.flush()";
+        }
+    };
+
+    HotswapBatchCoordinator(Instrumentation instrumentation, Object hotswapLock, Scheduler scheduler) {
+        this.instrumentation = instrumentation;
+        this.hotswapLock = hotswapLock;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Add classes to the batch and (re)start the batch timeout.
+     *
+     * @param reloadMap class -> new bytecode, the map is copied
+     * @param timeout   timeout after which the batch is redefined
+     */
+    void schedule(Map<Class<?>, byte[]> reloadMap, int timeout) {
+        add(reloadMap);
+        scheduler.scheduleCommand(batchCommand, timeout);
+    }
+
+    /**
+     * Add classes to the batch.
+     */
+    void add(Map<Class<?>, byte[]> reloadMap) {
+        synchronized (reloadMap) {
+            synchronized (pending) {
+                pending.putAll(reloadMap);
+            }
+        }
+    }
+
+    /**
+     * Redefine all pending classes.
+     *
+     * @return number of successfully redefined classes
+     */
+    int flush() {
+        Map<Class<?>, byte[]> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+
+        List<ClassDefinition> definitions = new ArrayList<>(batch.size());
+        List<String> classNames = new ArrayList<>(batch.size());
+        for (Map.Entry<Class<?>, byte[]> entry : batch.entrySet()) {
+            definitions.add(new ClassDefinition(entry.getKey(), entry.getValue()));
+            classNames.add(entry.getKey().getName());
+        }
+
+        LOGGER.reload("Reloading classes {} (autoHotswap)", classNames);
+        try {
+            redefine(definitions.toArray(new ClassDefinition[0]));
+            LOGGER.debug("... reloaded classes {} (autoHotswap)", classNames);
+            return definitions.size();
+        } catch (Exception | LinkageError e) {
+            if (definitions.size() == 1) {
+                LOGGER.error("Unable to reload class {} (autoHotswap)", e, classNames.get(0));
+                return 0;
+            }
+            LOGGER.warning("Batch reload of {} classes failed ({}), reloading classes one by one.", definitions.size(), e);
+        }
+
+        int redefined = 0;
+        for (ClassDefinition definition : definitions) {
+            try {
+                redefine(definition);
+                redefined++;
+            } catch (Exception | LinkageError e) {
+                LOGGER.error("Unable to reload class {} (autoHotswap)", e, definition.getDefinitionClass().getName());
+            }
+        }
+        LOGGER.debug("... reloaded {} of {} classes (autoHotswap)", redefined, definitions.size());
+        return redefined;
+    }
+
+    private void redefine(ClassDefinition... definitions) throws Exception {
+        synchronized (hotswapLock) {
+            long start = System.nanoTime();
+            Object event = HotswapEvents.beginRedefine();
+            boolean failed = true;
+            try {
+                instrumentation.redefineClasses(definitions);
+                failed = false;
+            } finally {
+                HotswapEvents.endRedefine(event, definitions.length, failed);
+                HotswapMonitor.getInstance().classesRedefined(definitions.length, System.nanoTime() - start, failed);
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ import java.util.Locale;
 import java.util.Properties;
 
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.logging.AsyncAgentLoggerHandler;
 
 /**
  * Configure LOG level and handler according to properties.
@@ -40,6 +41,7 @@ public class LogConfigurationHelper {
     private static final String LOGFILE = "LOGFILE";
     private static final String LOGFILE_APPEND = "LOGFILE.append";
     private static final String LOG_TO_CONSOLE = "LOG_TO_CONSOLE";
+    private static final String LOG_ASYNC = "LOG_ASYNC";
 
     /**
      * Search properties for prefix LOGGER and set level for package in format:
@@ -48,6 +50,13 @@ public class LogConfigurationHelper {
      * @param properties properties
      */
     public static void configureLog(Properties properties) {
+        // handler first, other properties configure the current handler. The async handler keeps the output
+        // configured so far (e.g. LOGFILE of previously loaded configuration)
+        if (parseBoolean(properties.getProperty(LOG_ASYNC, "false"))
+                && !(AgentLogger.getHandler() instanceof AsyncAgentLoggerHandler)) {
+            AgentLogger.setHandler(new AsyncAgentLoggerHandler(AgentLogger.getHandler()));
+        }
+
         for (String property : properties.stringPropertyNames()) {
             if (property.startsWith(LOGGER_PREFIX)) {
                 if (property.startsWith(DATETIME_FORMAT)) {
@@ -27,7 +27,9 @@ import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Properties;
+import java.util.SortedMap;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
 import java.util.regex.Pattern;
 
 import org.hotswap.agent.HotswapAgent;
@@ -417,6 +419,19 @@ public class PluginConfiguration {
         return classLoader;
     }
 
+    /**
+     * All configuration properties including properties inherited from parent configurations.
+     *
+     * @return property name -> value, sorted by name
+     */
+    public SortedMap<String, String> getEffectiveProperties() {
+        SortedMap<String, String> result = parent != null ? parent.getEffectiveProperties() : new TreeMap<String, String>();
+        for (String name : properties.stringPropertyNames()) {
+            result.put(name, properties.getProperty(name));
+        }
+        return result;
+    }
+
     /**
      * Does this classloader contain the property file directly, or is it acquired through parent classloader.
      *
@@ -31,9 +31,12 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import com.jetbrains.Hotswap;
 import com.jetbrains.JBR;
+import org.hotswap.agent.annotation.handler.WatchHandler;
 import org.hotswap.agent.command.Scheduler;
 import org.hotswap.agent.command.impl.SchedulerImpl;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.monitor.HotswapEvents;
+import org.hotswap.agent.monitor.HotswapMonitor;
 import org.hotswap.agent.util.HotswapTransformer;
 import org.hotswap.agent.util.classloader.ClassLoaderDefineClassPatcher;
 import org.hotswap.agent.watch.Watcher;
@@ -71,6 +74,7 @@ public class PluginManager {
     private Instrumentation instrumentation;
 
     private Object hotswapLock = new Object();
+    private HotswapBatchCoordinator hotswapBatchCoordinator;
     private ReentrantLock initClassLoaderLock = new ReentrantLock();
 
     //////////////////////////   PLUGINS /////////////////////////////////////
@@ -151,6 +155,11 @@ public class PluginManager {
             }
         }
         scheduler.run();
+        if (scheduler instanceof SchedulerImpl) {
+            HotswapMonitor.getInstance().setScheduler((SchedulerImpl) scheduler);
+        }
+        HotswapMonitor.registerIfEnabled();
+        hotswapBatchCoordinator = new HotswapBatchCoordinator(instrumentation, hotswapLock, scheduler);
 
         // create default configuration from this classloader
         ClassLoader classLoader = getClass().getClassLoader();
@@ -164,6 +173,14 @@ public class PluginManager {
     }
 
     ClassLoaderDefineClassPatcher classLoaderPatcher = new ClassLoaderDefineClassPatcher();
+
+    /**
+     * Returns the patcher which copies plugin classes into application classloaders.
+     */
+    public ClassLoaderDefineClassPatcher getClassLoaderPatcher() {
+        return classLoaderPatcher;
+    }
+
     Map<ClassLoader, PluginConfiguration> classLoaderConfigurations = new HashMap<>();
     Set<ClassLoaderInitListener> classLoaderInitListeners = new HashSet<>();
 
@@ -199,8 +216,13 @@ public class PluginManager {
 
             // transformation
             if (classLoader != null && classLoaderPatcher.isPatchAvailable(classLoader)) {
-                classLoaderPatcher.patch(getClass().getClassLoader(), PLUGIN_PACKAGE.replace(".", "/"),
-                        classLoader, protectionDomain);
+                if (classLoaderPatcher.isLazy()) {
+                    classLoaderPatcher.register(getClass().getClassLoader(), PLUGIN_PACKAGE.replace(".", "/"),
+                            classLoader, protectionDomain);
+                } else {
+                    classLoaderPatcher.patch(getClass().getClassLoader(), PLUGIN_PACKAGE.replace(".", "/"),
+                            classLoader, protectionDomain);
+                }
             }
 
             // create new configuration for the classloader
@@ -226,6 +248,7 @@ public class PluginManager {
         pluginRegistry.closeClassLoader(classLoader);
         classLoaderConfigurations.remove(classLoader);
         hotswapTransformer.closeClassLoader(classLoader);
+        WatchHandler.closeClassLoader(classLoader);
     }
 
 
@@ -308,7 +331,16 @@ public class PluginManager {
             try {
                 LOGGER.reload("Reloading classes {} (autoHotswap)", Arrays.toString(classNames));
                 synchronized (hotswapLock) {
-                    instrumentation.redefineClasses(definitions);
+                    long start = System.nanoTime();
+                    Object event = HotswapEvents.beginRedefine();
+                    boolean failed = true;
+                    try {
+                        instrumentation.redefineClasses(definitions);
+                        failed = false;
+                    } finally {
+                        HotswapEvents.endRedefine(event, definitions.length, failed);
+                        HotswapMonitor.getInstance().classesRedefined(definitions.length, System.nanoTime() - start, failed);
+                    }
                 }
                 LOGGER.debug("... reloaded classes {} (autoHotswap)", Arrays.toString(classNames));
             } catch (Exception e) {
@@ -332,6 +364,9 @@ public class PluginManager {
      * This method operates on a set in order to allow interdependent changes to more than one class at the same time
      * (a redefinition of class A can require a redefinition of class B).
      *
+     * Classes scheduled from all classloaders within the timeout are redefined together by a single batch, if the batch
+     * fails, the classes are redefined one by one.
+     *
      * @param reloadMap class -> new bytecode
      * @see java.lang.instrument.Instrumentation#redefineClasses(java.lang.instrument.ClassDefinition...)
      */
@@ -339,7 +374,7 @@ public class PluginManager {
         if (instrumentation == null) {
             throw new IllegalStateException("Plugin manager is not correctly initialized - no instrumentation available.");
         }
-        getScheduler().scheduleCommand(new ScheduledHotswapCommand(reloadMap), timeout);
+        hotswapBatchCoordinator.schedule(reloadMap, timeout);
     }
 
     /**
@@ -18,12 +18,15 @@
  */
 package org.hotswap.agent.config;
 
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.hotswap.agent.HotswapAgent;
 import org.hotswap.agent.annotation.Plugin;
@@ -32,6 +35,7 @@ import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.util.classloader.ClassLoaderDefineClassPatcher;
 import org.hotswap.agent.util.scanner.ClassPathAnnotationScanner;
 import org.hotswap.agent.util.scanner.ClassPathScanner;
+import org.hotswap.agent.util.scanner.PluginIndex;
 
 /**
  * Registry to support plugin manager.
@@ -45,6 +49,9 @@ public class PluginRegistry {
     // plugin class -> Map (ClassLoader -> Plugin instance)
     protected Map<Class, Map<ClassLoader, Object>> registeredPlugins = Collections.synchronizedMap(new HashMap<>());
 
+    // incremented on each change of plugin instances, used to invalidate cached plugin lookups
+    private final AtomicInteger modificationCount = new AtomicInteger();
+
     /**
      * Returns map of all registered plugins.
      *
@@ -54,6 +61,16 @@ public class PluginRegistry {
         return registeredPlugins;
     }
 
+    /**
+     * Returns number of changes of registered plugin instances. Plugin instance resolved by
+     * {@link #getPlugin(Class, ClassLoader)} can be cached until the count changes.
+     *
+     * @return modification count
+     */
+    public int getModificationCount() {
+        return modificationCount.get();
+    }
+
     // plugin manager instance
     private PluginManager pluginManager;
 
@@ -64,6 +81,13 @@ public class PluginRegistry {
         this.annotationScanner = annotationScanner;
     }
 
+    // build-time index of plugins in the agent classloader, null to always use the scanner
+    private PluginIndex pluginIndex;
+
+    public void setPluginIndex(PluginIndex pluginIndex) {
+        this.pluginIndex = pluginIndex;
+    }
+
     // processor to resolve plugin annotations
     protected AnnotationProcessor annotationProcessor;
 
@@ -85,11 +109,15 @@ public class PluginRegistry {
         this.pluginManager = pluginManager;
         this.classLoaderPatcher = classLoaderPatcher;
         annotationScanner = new ClassPathAnnotationScanner(Plugin.class.getName(), new ClassPathScanner());
+        pluginIndex = new PluginIndex();
         annotationProcessor = new AnnotationProcessor(pluginManager);
     }
 
     /**
      * Scan for plugins by @Plugin annotation on PLUGIN_PATH and process plugin annotations.
+     * <p/>
+     * Plugins of the agent classloader are read from the build-time {@link PluginIndex} if available, package
+     * locations without the index are scanned.
      *
      * @param classLoader   classloader to resolve plugin package. This will be used by annotation scanner.
      * @param pluginPackage the package to be searched (e.g. org.agent.hotswap.plugin)
@@ -99,7 +127,31 @@ public class PluginRegistry {
         ClassLoader agentClassLoader = getClass().getClassLoader();
 
         try {
-            List<String> discoveredPlugins = annotationScanner.scanPlugins(classLoader, pluginPath);
+            // plugin class name -> plugin name (if known before the class is loaded)
+            Map<String, String> discoveredPlugins = null;
+
+            // the index is generated for agent modules, custom plugin packages in application classloader
+            // may be compiled without it - always scan them
+            if (pluginIndex != null && agentClassLoader == classLoader) {
+                discoveredPlugins = pluginIndex.getPlugins(classLoader, pluginPackage);
+            }
+            if (discoveredPlugins == null) {
+                discoveredPlugins = new LinkedHashMap<>();
+                for (String discoveredPlugin : annotationScanner.scanPlugins(classLoader, pluginPath)) {
+                    discoveredPlugins.put(discoveredPlugin, null);
+                }
+            } else {
+                LOGGER.debug("Using plugin index for plugin package '{}'", pluginPackage);
+                // plugin jars built without the index processor (e.g. third-party plugins) are scanned
+                for (URL location : pluginIndex.getUnindexedLocations(classLoader, pluginPackage)) {
+                    LOGGER.debug("Scanning plugin package location '{}' without plugin index", location);
+                    for (String discoveredPlugin : annotationScanner.scanPlugins(location)) {
+                        if (!discoveredPlugins.containsKey(discoveredPlugin)) {
+                            discoveredPlugins.put(discoveredPlugin, null);
+                        }
+                    }
+                }
+            }
             List<String> discoveredPluginNames = new ArrayList<>();
 
             // Plugin class must be always defined directly in the agent classloader, otherwise it will not be available
@@ -108,8 +160,20 @@ public class PluginRegistry {
                 classLoaderPatcher.patch(classLoader, pluginPath, agentClassLoader, null);
             }
 
-            for (String discoveredPlugin : discoveredPlugins) {
-                Class pluginClass = Class.forName(discoveredPlugin, true, agentClassLoader);
+            for (Map.Entry<String, String> discoveredPlugin : discoveredPlugins.entrySet()) {
+                // skip disabled plugin without loading the class
+                if (discoveredPlugin.getValue() != null && HotswapAgent.isPluginDisabled(discoveredPlugin.getValue())) {
+                    LOGGER.debug("Plugin {} is disabled, skipping...", discoveredPlugin.getValue());
+                    continue;
+                }
+
+                Class pluginClass;
+                try {
+                    pluginClass = Class.forName(discoveredPlugin.getKey(), true, agentClassLoader);
+                } catch (ClassNotFoundException e) {
+                    LOGGER.error("Discovered plugin class {} not found.", discoveredPlugin.getKey());
+                    continue;
+                }
                 Plugin pluginAnnotation = (Plugin) pluginClass.getAnnotation(Plugin.class);
 
                 if (pluginAnnotation == null) {
@@ -129,12 +193,14 @@ public class PluginRegistry {
                     continue;
 
                 registeredPlugins.put(pluginClass, Collections.synchronizedMap(new HashMap<>()));
+                modificationCount.incrementAndGet();
 
                 if (annotationProcessor.processAnnotations(pluginClass, pluginClass)) {
                     LOGGER.debug("Plugin registered {}.", pluginClass);
                 } else {
                     LOGGER.error("Error processing annotations for plugin {}. Plugin was unregistered.", pluginClass);
                     registeredPlugins.remove(pluginClass);
+                    modificationCount.incrementAndGet();
                 }
 
                 discoveredPluginNames.add(pluginName);
@@ -183,6 +249,7 @@ public class PluginRegistry {
         } else {
             LOGGER.error("Plugin '{}' NOT initialized in ClassLoader '{}', error while processing annotations.", pluginClass, appClassLoader);
             registeredPlugins.get(clazz).remove(appClassLoader);
+            modificationCount.incrementAndGet();
         }
 
         return pluginInstance;
@@ -191,6 +258,7 @@ public class PluginRegistry {
     public void initializePluginInstance(Object pluginInstance) {
         registeredPlugins.put(pluginInstance.getClass(),
                 Collections.singletonMap(pluginInstance.getClass().getClassLoader(), pluginInstance));
+        modificationCount.incrementAndGet();
         if (!annotationProcessor.processAnnotations(pluginInstance)) {
             throw new IllegalStateException("Unable to initialize plugin");
         }
@@ -258,6 +326,7 @@ public class PluginRegistry {
             if (createIfMissing) {
                 Object pluginInstance = instantiate((Class<Object>) pluginClass);
                 pluginInstances.put(classLoader, pluginInstance);
+                modificationCount.incrementAndGet();
             }
         }
         return false;
@@ -337,6 +406,7 @@ public class PluginRegistry {
             for (Map<ClassLoader, Object> plugins : registeredPlugins.values()) {
                 plugins.remove(classLoader);
             }
+            modificationCount.incrementAndGet();
         }
     }
 }
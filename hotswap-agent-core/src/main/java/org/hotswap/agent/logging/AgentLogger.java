@@ -18,8 +18,9 @@
  */
 package org.hotswap.agent.logging;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Create custom simple logging mechanism.
@@ -40,16 +41,21 @@ public class AgentLogger {
         return new AgentLogger(clazz);
     }
 
-    private static Map<String, Level> currentLevels = new HashMap<>();
+    private static Map<String, Level> currentLevels = new ConcurrentHashMap<>();
+
+    // incremented on each level change, loggers resolve the effective level again
+    private static final AtomicInteger levelsVersion = new AtomicInteger();
 
     public static void setLevel(String classPrefix, Level level) {
         currentLevels.put(classPrefix, level);
+        levelsVersion.incrementAndGet();
     }
 
-    private static Level rootLevel = Level.INFO;
+    private static volatile Level rootLevel = Level.INFO;
 
     public static void setLevel(Level level) {
         rootLevel = level;
+        levelsVersion.incrementAndGet();
     }
 
     private static AgentLoggerHandler handler = new AgentLoggerHandler();
@@ -80,34 +86,51 @@ public class AgentLogger {
 
     private Class clazz;
 
+    // effective level of the class, valid for levelsVersion
+    private volatile EffectiveLevel effectiveLevel;
+
     private AgentLogger(Class clazz) {
         this.clazz = clazz;
     }
 
+    private static class EffectiveLevel {
+        final Level level;
+        final int version;
+
+        EffectiveLevel(Level level, int version) {
+            this.level = level;
+            this.version = version;
+        }
+    }
 
     public boolean isLevelEnabled(Level level) {
+        EffectiveLevel classLevel = effectiveLevel;
+        if (classLevel == null || classLevel.version != levelsVersion.get()) {
+            classLevel = resolveLevel();
+            effectiveLevel = classLevel;
+        }
+
+        // levels are ordered from the most serious, the required level must not follow the class level
+        return level.ordinal() <= classLevel.level.ordinal();
+    }
+
+    // level of the longest matching class prefix
+    private EffectiveLevel resolveLevel() {
+        int version = levelsVersion.get();
         Level classLevel = rootLevel;
 
         String className = clazz.getName();
         String longestPrefix = "";
-        for (String classPrefix : currentLevels.keySet()) {
+        for (Map.Entry<String, Level> entry : currentLevels.entrySet()) {
+            String classPrefix = entry.getKey();
             if (className.startsWith(classPrefix)) {
                 if (classPrefix.length() > longestPrefix.length()) {
                     longestPrefix = classPrefix;
-                    classLevel = currentLevels.get(classPrefix);
+                    classLevel = entry.getValue();
                 }
             }
         }
-
-        // iterate levels in order from most serious. If classLevel is first, it preciedes required level and log is disabled
-        for (Level l : Level.values()) {
-            if (l == level)
-                return true;
-            if (l == classLevel)
-                return false;
-        }
-
-        throw new IllegalArgumentException("Should not happen.");
+        return new EffectiveLevel(classLevel, version);
     }
 
     public void log(Level level, String message, Throwable throwable, Object... args) {
@@ -35,7 +35,9 @@ public class AgentLoggerHandler {
     PrintStream outputStream;
     private boolean logToConsole = true;
 
+    // guarded by this
     SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss.SSS");
+    private final Date date = new Date();
 
     /**
      * Setup custom stream (default is System.out).
@@ -56,7 +58,17 @@ public class AgentLoggerHandler {
 
     // print a message to System.out and optionally to custom stream
     protected void printMessage(String message) {
-        String log = "HOTSWAP AGENT: " + sdf.format(new Date()) +  " " + message;
+        writeMessage(System.currentTimeMillis(), message);
+    }
+
+    /**
+     * Write the formatted message with the time it was logged.
+     *
+     * @param timestamp time of the log call
+     * @param message   formatted message
+     */
+    protected void writeMessage(long timestamp, String message) {
+        String log = "HOTSWAP AGENT: " + formatTimestamp(timestamp) + " " + message;
         if (logToConsole) {
             System.out.println(log);
         }
@@ -64,30 +76,45 @@ public class AgentLoggerHandler {
             outputStream.println(log);
     }
 
+    // SimpleDateFormat is not thread safe
+    private synchronized String formatTimestamp(long timestamp) {
+        date.setTime(timestamp);
+        return sdf.format(date);
+    }
+
     public void print(Class clazz, AgentLogger.Level level, String message, Throwable throwable, Object... args) {
+        StringBuilder b = new StringBuilder(message.length() + 64);
+        b.append(level);
+        b.append(" (");
+        b.append(clazz.getName());
+        b.append(") - ");
+        appendMessage(b, message, args);
 
-        // replace {} in string with actual parameters
-        String messageWithArgs = message;
-        for (Object arg : args) {
-            int index = messageWithArgs.indexOf("{}");
-            if (index >= 0) {
-                messageWithArgs = messageWithArgs.substring(0, index) + String.valueOf(arg) + messageWithArgs.substring(index + 2);
-            }
+        if (throwable != null) {
+            b.append("\n");
+            b.append(formatErrorTrace(throwable));
         }
 
-        StringBuffer stringBuffer = new StringBuffer();
-        stringBuffer.append(level);
-        stringBuffer.append(" (");
-        stringBuffer.append(clazz.getName());
-        stringBuffer.append(") - ");
-        stringBuffer.append(messageWithArgs);
+        printMessage(b.toString());
+    }
 
-        if (throwable != null) {
-            stringBuffer.append("\n");
-            stringBuffer.append(formatErrorTrace(throwable));
+    /**
+     * Append message with {} placeholders replaced by actual parameters (in a single pass).
+     */
+    static void appendMessage(StringBuilder b, String message, Object[] args) {
+        int start = 0;
+        if (args != null) {
+            for (Object arg : args) {
+                int index = message.indexOf("{}", start);
+                if (index < 0) {
+                    break;
+                }
+                b.append(message, start, index);
+                b.append(arg);
+                start = index + 2;
+            }
         }
-
-        printMessage(stringBuffer.toString());
+        b.append(message, start, message.length());
     }
 
     private String formatErrorTrace(Throwable throwable) {
@@ -96,7 +123,7 @@ public class AgentLoggerHandler {
         return errors.toString();
     }
 
-    public void setDateTimeFormat(String dateTimeFormat) {
+    public synchronized void setDateTimeFormat(String dateTimeFormat) {
         sdf = new SimpleDateFormat(dateTimeFormat);
     }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.logging;
+
+import java.text.SimpleDateFormat;
+
+/**
+ * Handler writing log messages from a separate thread.
+ * <p/>
+ * The message is formatted in the logging thread (so that arguments are captured at the time of the log call)
+ * and put into a ring buffer, the slow part - date formatting and console/file output - runs in the daemon
+ * writer thread. If the buffer is full, the logging thread waits for the writer. Pending messages are
+ * written on JVM shutdown.
+ * <p/>
+ * Enable by <code>LOG_ASYNC=true</code> in hotswap-agent.properties.
+ */
+public class AsyncAgentLoggerHandler extends AgentLoggerHandler {
+
+    static final int BUFFER_SIZE = 1024;
+
+    // ring buffer, guarded by lock
+    private final long[] timestamps = new long[BUFFER_SIZE];
+    private final String[] messages = new String[BUFFER_SIZE];
+    private int head;
+    private int size;
+    private final Object lock = new Object();
+
+    // held while writing a batch, so that messages are written in order also by flush()
+    private final Object writeLock = new Object();
+
+    private Thread writerThread;
+
+    public AsyncAgentLoggerHandler() {
+    }
+
+    /**
+     * Write asynchronously to the output of the handler - custom stream (e.g. LOGFILE), console output
+     * and date format are taken over.
+     *
+     * @param handler the current handler
+     */
+    public AsyncAgentLoggerHandler(AgentLoggerHandler handler) {
+        setPrintStream(handler.outputStream);
+        setLogToConsole(handler.isLogToConsole());
+        synchronized (handler) {
+            sdf = (SimpleDateFormat) handler.sdf.clone();
+        }
+    }
+
+    @Override
+    protected void printMessage(String message) {
+        long timestamp = System.currentTimeMillis();
+        synchronized (lock) {
+            if (writerThread == null) {
+                startWriter();
+            }
+            while (size == BUFFER_SIZE) {
+                if (Thread.currentThread() == writerThread) {
+                    // logging from the output stream, do not deadlock
+                    writeMessage(timestamp, message);
+                    return;
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    writeMessage(timestamp, message);
+                    return;
+                }
+            }
+            int index = (head + size) % BUFFER_SIZE;
+            timestamps[index] = timestamp;
+            messages[index] = message;
+            size++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Write all pending messages in the calling thread.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            writeBatch();
+        }
+    }
+
+    // write pending messages directly from the buffer and release them, must be called with writeLock
+    private void writeBatch() {
+        int start;
+        int count;
+        synchronized (lock) {
+            start = head;
+            count = size;
+        }
+        // slots of the batch are not reused by producers until released
+        for (int i = 0; i < count; i++) {
+            int index = (start + i) % BUFFER_SIZE;
+            writeMessage(timestamps[index], messages[index]);
+        }
+        synchronized (lock) {
+            for (int i = 0; i < count; i++) {
+                messages[(start + i) % BUFFER_SIZE] = null;
+            }
+            head = (start + count) % BUFFER_SIZE;
+            size -= count;
+            lock.notifyAll();
+        }
+    }
+
+    private void startWriter() {
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    synchronized (lock) {
+                        while (size == 0) {
+                            try {
+                                lock.wait();
+                            } catch (InterruptedException e) {
+                                return;
+                            }
+                        }
+                    }
+                    flush();
+                }
+            }
+        }, "HotswapAgent logger");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        try {
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, "HotswapAgent logger flush"));
+        } catch (IllegalStateException e) {
+            // shutdown in progress
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.monitor;
+
+/**
+ * Snapshot of adaptive debounce counters of a watched root.
+ *
+ * @see org.hotswap.agent.command.AdaptiveDebounce
+ */
+public class DebounceStatistics {
+    private final int timeout;
+    private final int effectiveWindow;
+    private final int maxEffectiveWindow;
+    private final long events;
+    private final long bursts;
+
+    public DebounceStatistics(int timeout, int effectiveWindow, int maxEffectiveWindow, long events, long bursts) {
+        this.timeout = timeout;
+        this.effectiveWindow = effectiveWindow;
+        this.maxEffectiveWindow = maxEffectiveWindow;
+        this.events = events;
+        this.bursts = bursts;
+    }
+
+    /**
+     * @return configured timeout (ms), the longest of all listeners on the root
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return effective quiet window (ms) after the last event
+     */
+    public int getEffectiveWindow() {
+        return effectiveWindow;
+    }
+
+    /**
+     * @return longest effective window (ms) used so far
+     */
+    public int getMaxEffectiveWindow() {
+        return maxEffectiveWindow;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * @return number of bursts (including single events)
+     */
+    public long getBursts() {
+        return bursts;
+    }
+
+    @Override
+    public String toString() {
+        return "DebounceStatistics{timeout=" + timeout + ", effectiveWindow=" + effectiveWindow
+                + ", maxEffectiveWindow=" + maxEffectiveWindow + ", events=" + events + ", bursts=" + bursts + "}";
+    }
+}
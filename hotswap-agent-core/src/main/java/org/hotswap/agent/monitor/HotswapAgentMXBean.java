@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.monitor;
+
+import java.util.Map;
+
+/**
+ * Counters and latency histograms of the hotswap pipeline, registered as
+ * <code>org.hotswap.agent:type=HotswapAgent</code> if <code>hotswapagent.jmx=true</code>.
+ *
+ * @see HotswapMonitor
+ */
+public interface HotswapAgentMXBean {
+
+    /**
+     * @return transformation time of class load event handlers by plugin name
+     */
+    Map<String, LatencyStatistics> getTransformStatistics();
+
+    /**
+     * @return run time of executed commands by command name
+     */
+    Map<String, LatencyStatistics> getCommandStatistics();
+
+    /**
+     * @return time from command dispatch to its execution start (executor or lane queue)
+     */
+    LatencyStatistics getCommandWaitStatistics();
+
+    /**
+     * @return duration of Instrumentation.redefineClasses() calls
+     */
+    LatencyStatistics getRedefineStatistics();
+
+    long getRedefinedClassCount();
+
+    long getRedefineFailureCount();
+
+    long getCommandFailureCount();
+
+    /**
+     * @return adaptive debounce counters by watched root (<code>adaptiveWatchTimeout=true</code>), not reset
+     * by {@link #reset()}
+     */
+    Map<String, DebounceStatistics> getDebounceStatistics();
+
+    /**
+     * @return number of commands scheduled and not yet executed
+     */
+    int getSchedulerQueueSize();
+
+    /**
+     * @return upper bounds (exclusive) of histogram buckets in microseconds
+     */
+    long[] getHistogramBucketsMicros();
+
+    /**
+     * Reset all counters.
+     */
+    void reset();
+}
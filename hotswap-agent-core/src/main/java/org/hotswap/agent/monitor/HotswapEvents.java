@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.monitor;
+
+import org.hotswap.agent.command.Command;
+import org.hotswap.agent.logging.AgentLogger;
+
+/**
+ * JDK Flight Recorder events of the hotswap pipeline (category "HotswapAgent").
+ * <p/>
+ * Events are emitted only while a recording enables them (e.g. <code>jcmd &lt;pid&gt; JFR.start</code>),
+ * otherwise begin methods return null and no event is created. The JFR API is accessed only if available
+ * in the JVM, use <code>-Dhotswapagent.jfr=false</code> to disable events completely.
+ * <p/>
+ * Usage:
+ * <pre>
+ * Object event = HotswapEvents.beginTransform();
+ * ... transform ...
+ * HotswapEvents.endTransform(event, pluginName, handler, className, redefinition);
+ * </pre>
+ */
+public final class HotswapEvents {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(HotswapEvents.class);
+
+    /**
+     * System property to disable JFR events.
+     */
+    public static final String JFR_PROPERTY = "hotswapagent.jfr";
+
+    private static final boolean AVAILABLE = isJfrAvailable();
+
+    private HotswapEvents() {
+    }
+
+    private static boolean isJfrAvailable() {
+        if ("false".equals(System.getProperty(JFR_PROPERTY))) {
+            return false;
+        }
+        try {
+            Class.forName("jdk.jfr.Event");
+            return JfrEvents.init();
+        } catch (Throwable e) {
+            LOGGER.trace("JFR events not available: {}", e);
+            return false;
+        }
+    }
+
+    /**
+     * @return event in progress or null if not recorded
+     */
+    public static Object beginTransform() {
+        return AVAILABLE ? JfrEvents.beginTransform() : null;
+    }
+
+    public static void endTransform(Object event, String pluginName, String handler, String className, boolean redefinition) {
+        if (event != null) {
+            JfrEvents.endTransform(event, pluginName, handler, className, redefinition);
+        }
+    }
+
+    /**
+     * @return event in progress or null if not recorded
+     */
+    public static Object beginCommand() {
+        return AVAILABLE ? JfrEvents.beginCommand() : null;
+    }
+
+    public static void endCommand(Object event, Command command, long waitNanos, boolean failed) {
+        if (event != null) {
+            JfrEvents.endCommand(event, HotswapMonitor.getCommandName(command), waitNanos, failed);
+        }
+    }
+
+    /**
+     * Instant event of a command scheduled.
+     */
+    public static void commandScheduled(Command command, int timeout, int queueSize) {
+        if (AVAILABLE) {
+            JfrEvents.commandScheduled(command, timeout, queueSize);
+        }
+    }
+
+    /**
+     * @return event in progress or null if not recorded
+     */
+    public static Object beginRedefine() {
+        return AVAILABLE ? JfrEvents.beginRedefine() : null;
+    }
+
+    public static void endRedefine(Object event, int classCount, boolean failed) {
+        if (event != null) {
+            JfrEvents.endRedefine(event, classCount, failed);
+        }
+    }
+}
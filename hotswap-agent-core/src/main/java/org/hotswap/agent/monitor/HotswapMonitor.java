@@ -0,0 +1,257 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.hotswap.agent.command.AdaptiveDebounce;
+import org.hotswap.agent.command.Command;
+import org.hotswap.agent.command.ReflectionCommand;
+import org.hotswap.agent.command.impl.SchedulerImpl;
+import org.hotswap.agent.logging.AgentLogger;
+
+/**
+ * Collects counters and latencies of the hotswap pipeline - class transformation by plugin handlers,
+ * command scheduling and execution and class redefinition.
+ * <p/>
+ * Counters are always collected (lock free), the MXBean is registered to the platform MBean server only if
+ * enabled by <code>-Dhotswapagent.jmx=true</code>, because early initialization of the platform MBean server
+ * breaks some containers (it initializes java.util.logging). For JFR events see {@link HotswapEvents}.
+ */
+public class HotswapMonitor implements HotswapAgentMXBean {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(HotswapMonitor.class);
+
+    public static final String OBJECT_NAME = "org.hotswap.agent:type=HotswapAgent";
+
+    /**
+     * System property to register the MXBean.
+     */
+    public static final String JMX_PROPERTY = "hotswapagent.jmx";
+
+    private static final HotswapMonitor INSTANCE = new HotswapMonitor();
+
+    private final ConcurrentMap<String, LatencyRecorder> transforms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyRecorder> commands = new ConcurrentHashMap<>();
+    private volatile LatencyRecorder commandWait = new LatencyRecorder();
+    private volatile LatencyRecorder redefine = new LatencyRecorder();
+    private final LongAdder redefinedClasses = new LongAdder();
+    private final LongAdder redefineFailures = new LongAdder();
+    private final LongAdder commandFailures = new LongAdder();
+    // watched root -> adaptive debounce of the root
+    private final ConcurrentMap<String, AdaptiveDebounce> debounces = new ConcurrentHashMap<>();
+
+    private volatile SchedulerImpl scheduler;
+
+    public static HotswapMonitor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register the MXBean to the platform MBean server if enabled by system property.
+     */
+    public static void registerIfEnabled() {
+        if (!Boolean.getBoolean(JMX_PROPERTY)) {
+            return;
+        }
+        try {
+            register(ManagementFactory.getPlatformMBeanServer());
+        } catch (Exception e) {
+            LOGGER.warning("Unable to register {} MXBean.", e, OBJECT_NAME);
+        }
+    }
+
+    /**
+     * Register the MXBean to the MBean server.
+     */
+    public static void register(MBeanServer server) throws Exception {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (!server.isRegistered(name)) {
+            server.registerMBean(INSTANCE, name);
+            LOGGER.debug("{} MXBean registered.", OBJECT_NAME);
+        }
+    }
+
+    public void setScheduler(SchedulerImpl scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Class load event handler of a plugin finished.
+     *
+     * @param pluginName    name of the plugin
+     * @param durationNanos transformation time
+     */
+    public void transformed(String pluginName, long durationNanos) {
+        recorder(transforms, pluginName).record(durationNanos);
+    }
+
+    /**
+     * Command executed.
+     *
+     * @param command   the command
+     * @param waitNanos time from dispatch to execution start
+     * @param runNanos  execution time
+     * @param failed    command threw an exception
+     */
+    public void commandExecuted(Command command, long waitNanos, long runNanos, boolean failed) {
+        commandWait.record(waitNanos);
+        recorder(commands, getCommandName(command)).record(runNanos);
+        if (failed) {
+            commandFailures.increment();
+        }
+    }
+
+    /**
+     * Instrumentation.redefineClasses() finished.
+     *
+     * @param classCount    number of redefined classes
+     * @param durationNanos redefinition time
+     * @param failed        redefinition threw an exception
+     */
+    public void classesRedefined(int classCount, long durationNanos, boolean failed) {
+        redefine.record(durationNanos);
+        if (failed) {
+            redefineFailures.increment();
+        } else {
+            redefinedClasses.add(classCount);
+        }
+    }
+
+    /**
+     * Adaptive debounce of a watched root created, publish its counters.
+     */
+    public void debounceAdded(AdaptiveDebounce debounce) {
+        debounces.put(debounce.getName(), debounce);
+    }
+
+    /**
+     * Adaptive debounce of a watched root is no longer used (e.g. its classloader was closed).
+     */
+    public void debounceRemoved(AdaptiveDebounce debounce) {
+        debounces.remove(debounce.getName(), debounce);
+    }
+
+    /**
+     * Name of the command for statistics, plugin method for reflection commands, class name otherwise.
+     */
+    public static String getCommandName(Command command) {
+        if (command instanceof ReflectionCommand) {
+            ReflectionCommand reflectionCommand = (ReflectionCommand) command;
+            String className = reflectionCommand.getClassName();
+            if (className != null) {
+                return className.substring(className.lastIndexOf('.') + 1) + "." + reflectionCommand.getMethodName();
+            }
+        }
+        return command.getClass().getName();
+    }
+
+    private static LatencyRecorder recorder(ConcurrentMap<String, LatencyRecorder> recorders, String name) {
+        LatencyRecorder recorder = recorders.get(name);
+        if (recorder == null) {
+            LatencyRecorder newRecorder = new LatencyRecorder();
+            recorder = recorders.putIfAbsent(name, newRecorder);
+            if (recorder == null) {
+                recorder = newRecorder;
+            }
+        }
+        return recorder;
+    }
+
+    private static Map<String, LatencyStatistics> snapshot(ConcurrentMap<String, LatencyRecorder> recorders) {
+        Map<String, LatencyStatistics> result = new TreeMap<>();
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, LatencyStatistics> getTransformStatistics() {
+        return snapshot(transforms);
+    }
+
+    @Override
+    public Map<String, LatencyStatistics> getCommandStatistics() {
+        return snapshot(commands);
+    }
+
+    @Override
+    public LatencyStatistics getCommandWaitStatistics() {
+        return commandWait.snapshot();
+    }
+
+    @Override
+    public LatencyStatistics getRedefineStatistics() {
+        return redefine.snapshot();
+    }
+
+    @Override
+    public long getRedefinedClassCount() {
+        return redefinedClasses.sum();
+    }
+
+    @Override
+    public long getRedefineFailureCount() {
+        return redefineFailures.sum();
+    }
+
+    @Override
+    public long getCommandFailureCount() {
+        return commandFailures.sum();
+    }
+
+    @Override
+    public Map<String, DebounceStatistics> getDebounceStatistics() {
+        Map<String, DebounceStatistics> result = new TreeMap<>();
+        for (Map.Entry<String, AdaptiveDebounce> entry : debounces.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getStatistics());
+        }
+        return result;
+    }
+
+    @Override
+    public int getSchedulerQueueSize() {
+        SchedulerImpl currentScheduler = scheduler;
+        return currentScheduler != null ? currentScheduler.getQueueSize() : 0;
+    }
+
+    @Override
+    public long[] getHistogramBucketsMicros() {
+        return LatencyRecorder.bucketBoundsMicros();
+    }
+
+    @Override
+    public void reset() {
+        transforms.clear();
+        commands.clear();
+        commandWait = new LatencyRecorder();
+        redefine = new LatencyRecorder();
+        redefinedClasses.reset();
+        redefineFailures.reset();
+        commandFailures.reset();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import org.hotswap.agent.command.Command;
+
+/**
+ * JFR event types. Loaded only by {@link HotswapEvents} if the JFR API is available.
+ */
+final class JfrEvents {
+
+    private static EventType transformType;
+    private static EventType commandType;
+    private static EventType commandScheduledType;
+    private static EventType redefineType;
+
+    private JfrEvents() {
+    }
+
+    static boolean init() {
+        if (!FlightRecorder.isAvailable()) {
+            return false;
+        }
+        transformType = EventType.getEventType(TransformEvent.class);
+        commandType = EventType.getEventType(CommandEvent.class);
+        commandScheduledType = EventType.getEventType(CommandScheduledEvent.class);
+        redefineType = EventType.getEventType(RedefineEvent.class);
+        return true;
+    }
+
+    static Object beginTransform() {
+        if (!transformType.isEnabled()) {
+            return null;
+        }
+        TransformEvent event = new TransformEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endTransform(Object e, String pluginName, String handler, String className, boolean redefinition) {
+        TransformEvent event = (TransformEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.plugin = pluginName;
+            event.handler = handler;
+            event.className = className;
+            event.redefinition = redefinition;
+            event.commit();
+        }
+    }
+
+    static Object beginCommand() {
+        if (!commandType.isEnabled()) {
+            return null;
+        }
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endCommand(Object e, String command, long waitNanos, boolean failed) {
+        CommandEvent event = (CommandEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.command = command;
+            event.waitTime = waitNanos;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    static void commandScheduled(Command command, int timeout, int queueSize) {
+        if (!commandScheduledType.isEnabled()) {
+            return;
+        }
+        CommandScheduledEvent event = new CommandScheduledEvent();
+        if (event.shouldCommit()) {
+            event.command = HotswapMonitor.getCommandName(command);
+            event.timeout = timeout;
+            event.queueSize = queueSize;
+            event.commit();
+        }
+    }
+
+    static Object beginRedefine() {
+        if (!redefineType.isEnabled()) {
+            return null;
+        }
+        RedefineEvent event = new RedefineEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endRedefine(Object e, int classCount, boolean failed) {
+        RedefineEvent event = (RedefineEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.classCount = classCount;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    @Name("org.hotswap.agent.Transform")
+    @Label("Class Transform")
+    @Description("Class load event handler of a plugin")
+    @Category("HotswapAgent")
+    @StackTrace(false)
+    static class TransformEvent extends Event {
+        @Label("Plugin")
+        String plugin;
+
+        @Label("Handler")
+        String handler;
+
+        @Label("Class Name")
+        String className;
+
+        @Label("Redefinition")
+        boolean redefinition;
+    }
+
+    @Name("org.hotswap.agent.Command")
+    @Label("Command Execution")
+    @Description("Command executed by the scheduler")
+    @Category("HotswapAgent")
+    @StackTrace(false)
+    static class CommandEvent extends Event {
+        @Label("Command")
+        String command;
+
+        @Label("Wait Time")
+        @Description("Time from dispatch to execution start")
+        @Timespan(Timespan.NANOSECONDS)
+        long waitTime;
+
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("org.hotswap.agent.CommandScheduled")
+    @Label("Command Scheduled")
+    @Category("HotswapAgent")
+    @StackTrace(false)
+    static class CommandScheduledEvent extends Event {
+        @Label("Command")
+        String command;
+
+        @Label("Timeout")
+        @Timespan(Timespan.MILLISECONDS)
+        long timeout;
+
+        @Label("Queue Size")
+        @Description("Number of scheduled commands")
+        int queueSize;
+    }
+
+    @Name("org.hotswap.agent.RedefineClasses")
+    @Label("Redefine Classes")
+    @Description("Instrumentation.redefineClasses() call")
+    @Category("HotswapAgent")
+    static class RedefineEvent extends Event {
+        @Label("Class Count")
+        int classCount;
+
+        @Label("Failed")
+        boolean failed;
+    }
+}
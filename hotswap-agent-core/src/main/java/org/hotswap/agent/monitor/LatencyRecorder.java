@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.monitor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency counters with power of two histogram buckets (1us .. ~1s, then overflow).
+ */
+class LatencyRecorder {
+
+    // bucket i counts latencies below 2^i microseconds, the last bucket counts the rest
+    static final int BUCKETS = 22;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        count.increment();
+        totalNanos.add(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // retry
+        }
+        histogram.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    static int bucket(long micros) {
+        // number of bits needed for the value: 0 -> 0, 1 -> 1, 2..3 -> 2, ...
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+    }
+
+    static long[] bucketBoundsMicros() {
+        long[] bounds = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            bounds[i] = 1L << i;
+        }
+        bounds[BUCKETS - 1] = Long.MAX_VALUE;
+        return bounds;
+    }
+
+    LatencyStatistics snapshot() {
+        long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = histogram.get(i);
+        }
+        return new LatencyStatistics(count.sum(), TimeUnit.NANOSECONDS.toMicros(totalNanos.sum()),
+                TimeUnit.NANOSECONDS.toMicros(maxNanos.get()), buckets);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.monitor;
+
+/**
+ * Snapshot of latency counters.
+ */
+public class LatencyStatistics {
+    private final long count;
+    private final long totalMicros;
+    private final long maxMicros;
+    private final long[] histogram;
+
+    public LatencyStatistics(long count, long totalMicros, long maxMicros, long[] histogram) {
+        this.count = count;
+        this.totalMicros = totalMicros;
+        this.maxMicros = maxMicros;
+        this.histogram = histogram;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    public long getMeanMicros() {
+        return count > 0 ? totalMicros / count : 0;
+    }
+
+    /**
+     * @return counts of histogram buckets, see {@link HotswapAgentMXBean#getHistogramBucketsMicros()}
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyStatistics{count=" + count + ", totalMicros=" + totalMicros + ", maxMicros=" + maxMicros + "}";
+    }
+}
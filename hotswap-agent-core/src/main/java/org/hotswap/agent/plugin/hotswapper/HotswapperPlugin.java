@@ -36,7 +36,7 @@ import org.hotswap.agent.util.classloader.*;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -63,7 +63,8 @@ public class HotswapperPlugin {
     // synchronize on this map to wait for previous processing
     final Map<Class<?>, byte[]> reloadMap = new HashMap<>();
 
-    // command to do actual hotswap. Single command to merge possible multiple reload actions.
+    // command to do actual hotswap via JPDA. Single command to merge possible multiple reload actions.
+    // Without JPDA port, classes are redefined by the plugin manager batch hotswap.
     Command hotswapCommand;
 
     /**
@@ -88,6 +89,12 @@ public class HotswapperPlugin {
             return;
         }
 
+        if (hotswapCommand == null) {
+            // redefine together with classes of other classloaders
+            pluginManager.scheduleHotswap(Collections.<Class<?>, byte[]>singletonMap(clazz, ctClass.toBytecode()), 100);
+            return;
+        }
+
         synchronized (reloadMap) {
             reloadMap.put(clazz, ctClass.toBytecode());
         }
@@ -105,18 +112,6 @@ public class HotswapperPlugin {
         if (port != null && port.length() > 0) {
             hotswapCommand = new ReflectionCommand(this, HotswapperCommand.class.getName(), "hotswap", appClassLoader,
                     port, reloadMap);
-        } else {
-            hotswapCommand = new Command() {
-                @Override
-                public void executeCommand() {
-                    pluginManager.hotswap(reloadMap);
-                }
-
-                @Override
-                public String toString() {
-                    return "pluginManager.hotswap(" + Arrays.toString(reloadMap.keySet().toArray()) + ")";
-                }
-            };
         }
     }
 
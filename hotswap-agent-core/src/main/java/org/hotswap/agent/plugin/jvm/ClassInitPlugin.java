@@ -132,7 +132,7 @@ public class ClassInitPlugin {
             );
 
             if (reinitializeStatics[0]) {
-                PluginManager.getInstance().getScheduler().scheduleCommandOnClassesRedefinedOrTimeout(new Command() {
+                PluginManager.getInstance().getScheduler().submitCommandAfterClassesRedefinedCommands(new Command() {
                     @Override
                     public void executeCommand() {
                         try {
@@ -151,9 +151,9 @@ public class ClassInitPlugin {
                             reloadFlag = false;
                         }
                     }
-                }, 150); // Hack : init must be called after dependant class redefinition. Since the class can
-                         // be proxied, the class init must be scheduled after proxy redefinition. Currently proxy
-                         // redefinition (in ProxyPlugin) is scheduled with 100ms delay, therefore we use delay 150ms.
+                }, 150); // init must be called after dependant class redefinition. Since the class can be proxied,
+                         // the class init runs after proxy redefinition commands (in ProxyPlugin) of the same
+                         // redefinition finish. The 150ms timeout is used only if class redefined event is not supported.
             } else {
                 reloadFlag = false;
             }
@@ -46,6 +46,7 @@ public class AppClassLoaderExecutor {
         LOGGER.error("Start");
         PluginManager.getInstance().initClassLoader(appClassLoader, protectionDomain);
 
+        PluginManager.getInstance().getClassLoaderPatcher().resolve(appClassLoader, className);
         Class classInAppClassLoader = Class.forName(className, true, appClassLoader);
 
         LOGGER.error("Executing: requestedClassLoader={}, resolvedClassLoader={}, class={}, method={}, params={}",
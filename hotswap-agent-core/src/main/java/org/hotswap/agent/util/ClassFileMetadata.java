@@ -0,0 +1,299 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Basic class metadata (name, superclass, interfaces and runtime visible class annotations) read directly
+ * from the class file bytes.
+ * <p/>
+ * Only the constant pool, the class header and class attributes are scanned, fields and methods are skipped.
+ * It is much cheaper than creating a javassist CtClass, use it to decide whether a class is interesting at all.
+ */
+public class ClassFileMetadata {
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private final String className;
+    private final String superClassName;
+    private final List<String> interfaceNames;
+    private final List<String> annotationNames;
+
+    private ClassFileMetadata(String className, String superClassName, List<String> interfaceNames, List<String> annotationNames) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.interfaceNames = interfaceNames;
+        this.annotationNames = annotationNames;
+    }
+
+    /**
+     * @return class name (e.g. java.lang.String)
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return superclass name or null for java.lang.Object
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    /**
+     * @return names of directly implemented interfaces
+     */
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    /**
+     * @return names of runtime visible annotations of the class
+     */
+    public List<String> getAnnotationNames() {
+        return annotationNames;
+    }
+
+    /**
+     * Check if the class directly extends the class or implements the interface.
+     *
+     * @param typeName class or interface name
+     * @return true if it is a direct supertype
+     */
+    public boolean hasSuperType(String typeName) {
+        return typeName.equals(superClassName) || interfaceNames.contains(typeName);
+    }
+
+    /**
+     * Read the metadata.
+     *
+     * @param bytes class file bytes
+     * @return the metadata
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    public static ClassFileMetadata parse(byte[] bytes) {
+        try {
+            return new Parser(bytes).parse();
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated class file", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ClassFileMetadata[" + className + " extends " + superClassName + " implements " + interfaceNames
+                + " annotated " + annotationNames + "]";
+    }
+
+    private static class Parser {
+        private final byte[] b;
+        // offsets of constant pool entries (after the tag)
+        private int[] cpOffsets;
+
+        Parser(byte[] bytes) {
+            this.b = bytes;
+        }
+
+        ClassFileMetadata parse() {
+            if (u4(0) != 0xCAFEBABE) {
+                throw new IllegalArgumentException("Not a class file");
+            }
+            int count = u2(8);
+            cpOffsets = new int[count];
+            int pos = 10;
+            for (int i = 1; i < count; i++) {
+                int tag = b[pos] & 0xFF;
+                cpOffsets[i] = pos + 1;
+                switch (tag) {
+                    case 1: // Utf8
+                        pos += 3 + u2(pos + 1);
+                        break;
+                    case 7: // Class
+                    case 8: // String
+                    case 16: // MethodType
+                    case 19: // Module
+                    case 20: // Package
+                        pos += 3;
+                        break;
+                    case 15: // MethodHandle
+                        pos += 4;
+                        break;
+                    case 3: // Integer
+                    case 4: // Float
+                    case 9: // Fieldref
+                    case 10: // Methodref
+                    case 11: // InterfaceMethodref
+                    case 12: // NameAndType
+                    case 17: // Dynamic
+                    case 18: // InvokeDynamic
+                        pos += 5;
+                        break;
+                    case 5: // Long
+                    case 6: // Double
+                        pos += 9;
+                        i++;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at " + pos);
+                }
+            }
+
+            // access_flags
+            pos += 2;
+            String className = classRef(u2(pos));
+            int superIndex = u2(pos + 2);
+            String superClassName = superIndex == 0 ? null : classRef(superIndex);
+            int interfacesCount = u2(pos + 4);
+            pos += 6;
+            List<String> interfaceNames;
+            if (interfacesCount == 0) {
+                interfaceNames = Collections.emptyList();
+            } else {
+                interfaceNames = new ArrayList<>(interfacesCount);
+                for (int i = 0; i < interfacesCount; i++) {
+                    interfaceNames.add(classRef(u2(pos)));
+                    pos += 2;
+                }
+            }
+
+            // fields and methods
+            for (int member = 0; member < 2; member++) {
+                int membersCount = u2(pos);
+                pos += 2;
+                for (int i = 0; i < membersCount; i++) {
+                    pos = skipAttributes(pos + 6);
+                }
+            }
+
+            List<String> annotationNames = Collections.emptyList();
+            int attributesCount = u2(pos);
+            pos += 2;
+            for (int i = 0; i < attributesCount; i++) {
+                int length = u4(pos + 2);
+                if (utf8Equals(u2(pos), RUNTIME_VISIBLE_ANNOTATIONS)) {
+                    annotationNames = readAnnotationNames(pos + 6);
+                }
+                pos += 6 + length;
+            }
+
+            return new ClassFileMetadata(className, superClassName, interfaceNames, annotationNames);
+        }
+
+        private List<String> readAnnotationNames(int pos) {
+            int count = u2(pos);
+            pos += 2;
+            List<String> names = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String descriptor = utf8(u2(pos));
+                // Lorg/example/Annotation;
+                names.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+                pos = skipAnnotation(pos);
+            }
+            return names;
+        }
+
+        private int skipAttributes(int pos) {
+            int count = u2(pos);
+            pos += 2;
+            for (int i = 0; i < count; i++) {
+                pos += 6 + u4(pos + 2);
+            }
+            return pos;
+        }
+
+        private int skipAnnotation(int pos) {
+            int pairs = u2(pos + 2);
+            pos += 4;
+            for (int i = 0; i < pairs; i++) {
+                pos = skipElementValue(pos + 2);
+            }
+            return pos;
+        }
+
+        private int skipElementValue(int pos) {
+            int tag = b[pos] & 0xFF;
+            switch (tag) {
+                case 'e':
+                    return pos + 5;
+                case '@':
+                    return skipAnnotation(pos + 1);
+                case '[':
+                    int count = u2(pos + 1);
+                    pos += 3;
+                    for (int i = 0; i < count; i++) {
+                        pos = skipElementValue(pos);
+                    }
+                    return pos;
+                default:
+                    // const_value_index or class_info_index
+                    return pos + 3;
+            }
+        }
+
+        private String classRef(int index) {
+            return utf8(u2(cpOffsets[index])).replace('/', '.');
+        }
+
+        private boolean utf8Equals(int index, String value) {
+            int offset = cpOffsets[index];
+            int length = u2(offset);
+            if (length != value.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (b[offset + 2 + i] != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // modified UTF-8
+        private String utf8(int index) {
+            int offset = cpOffsets[index];
+            int length = u2(offset);
+            int pos = offset + 2;
+            int end = pos + length;
+            char[] chars = new char[length];
+            int count = 0;
+            while (pos < end) {
+                int c = b[pos++] & 0xFF;
+                if (c < 0x80) {
+                    chars[count++] = (char) c;
+                } else if ((c & 0xE0) == 0xC0) {
+                    chars[count++] = (char) (((c & 0x1F) << 6) | (b[pos++] & 0x3F));
+                } else {
+                    chars[count++] = (char) (((c & 0x0F) << 12) | ((b[pos++] & 0x3F) << 6) | (b[pos++] & 0x3F));
+                }
+            }
+            return new String(chars, 0, count);
+        }
+
+        private int u2(int pos) {
+            return ((b[pos] & 0xFF) << 8) | (b[pos + 1] & 0xFF);
+        }
+
+        private int u4(int pos) {
+            return ((b[pos] & 0xFF) << 24) | ((b[pos + 1] & 0xFF) << 16) | ((b[pos + 2] & 0xFF) << 8) | (b[pos + 3] & 0xFF);
+        }
+    }
+}
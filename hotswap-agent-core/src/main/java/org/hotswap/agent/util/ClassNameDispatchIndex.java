@@ -0,0 +1,352 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable index of class name regexps used to dispatch a class to its registered transformers.
+ * <p/>
+ * Registered regexps are compiled into three structures:
+ * <ul>
+ *     <li>exact class names (e.g. <code>org.hibernate.cfg.Configuration</code>) - hash lookup,</li>
+ *     <li>package prefixes (e.g. <code>.*</code> or <code>com.example..*</code>) - package trie walk,</li>
+ *     <li>everything else - residual list matched by the compiled pattern.</li>
+ * </ul>
+ * Alternatives of simple names and prefixes (<code>(a.B)|(c.D)</code>) are split into separate keys.
+ * An unescaped dot inside a name is a wildcard in the regexp, the index treats it as package or nested class
+ * separator, hence <code>java/lang/String</code> and <code>java.lang.String</code> are dispatched the same way
+ * and <code>a.b.Outer.Inner</code> matches <code>a/b/Outer$Inner</code>. A name mixing an escaped <code>\$</code>
+ * with dots is ambiguous for the index and is kept in the residual list.
+ * Trailing dots of a prefix keep the any character meaning.
+ * <p/>
+ * The index is never modified after build, a new one is built and published whenever registrations change.
+ *
+ * @param <T> type of registered values (transformers)
+ */
+final class ClassNameDispatchIndex<T> {
+
+    private static final ClassNameDispatchIndex<?> EMPTY = new Builder<Object>().build();
+
+    private static final Comparator<Registration<?>> ORDER = new Comparator<Registration<?>>() {
+        @Override
+        public int compare(Registration<?> o1, Registration<?> o2) {
+            return Integer.compare(o1.order, o2.order);
+        }
+    };
+
+    private final Map<String, Registration<T>[]> exactNames;
+    private final PackageNode<T> packageRoot;
+    private final Registration<T>[] residual;
+    private final int size;
+
+    private ClassNameDispatchIndex(Map<String, Registration<T>[]> exactNames, PackageNode<T> packageRoot,
+                                   Registration<T>[] residual, int size) {
+        this.exactNames = exactNames;
+        this.packageRoot = packageRoot;
+        this.residual = residual;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ClassNameDispatchIndex<T> empty() {
+        return (ClassNameDispatchIndex<T>) EMPTY;
+    }
+
+    static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @return number of indexed regexps
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Resolve all values registered for regexps matching the class name.
+     *
+     * @param className     class name either in internal (java/lang/String) or binary form (java.lang.String)
+     * @param alternateName optional other name of the same class (e.g. redefining class name), may be null
+     * @return values in order of registration, each regexp is contributing at most once
+     */
+    List<T> lookup(String className, String alternateName) {
+        List<Registration<T>> matched = new ArrayList<>();
+        if (className != null) {
+            collect(className, matched);
+        }
+        if (alternateName != null && !alternateName.equals(className)) {
+            collect(alternateName, matched);
+        }
+
+        if (matched.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (matched.size() > 1) {
+            Collections.sort(matched, ORDER);
+        }
+        List<T> result = new ArrayList<>();
+        for (Registration<T> registration : matched) {
+            Collections.addAll(result, registration.values);
+        }
+        return result;
+    }
+
+    private void collect(String name, List<Registration<T>> matched) {
+        String internalName = name.replace('.', '/');
+        collectIndexed(internalName, matched);
+        if (internalName.indexOf('$') >= 0) {
+            // a dot of the regexp matches the nested class separator as well
+            collectIndexed(internalName.replace('$', '/'), matched);
+        }
+
+        for (Registration<T> registration : residual) {
+            if (registration.pattern.matcher(name).matches()) {
+                addOnce(matched, registration);
+            }
+        }
+    }
+
+    private void collectIndexed(String internalName, List<Registration<T>> matched) {
+        Registration<T>[] exact = exactNames.get(internalName);
+        if (exact != null) {
+            for (Registration<T> registration : exact) {
+                addOnce(matched, registration);
+            }
+        }
+
+        PackageNode<T> node = packageRoot;
+        int start = 0;
+        while (node != null) {
+            for (PrefixRegistration<T> prefix : node.prefixes) {
+                if (internalName.startsWith(prefix.tail, start)
+                        && internalName.length() - start - prefix.tail.length() >= prefix.anyChars) {
+                    addOnce(matched, prefix.registration);
+                }
+            }
+            int end = internalName.indexOf('/', start);
+            if (end < 0 || node.children == null) {
+                break;
+            }
+            node = node.children.get(internalName.substring(start, end));
+            start = end + 1;
+        }
+    }
+
+    private static <T> void addOnce(List<Registration<T>> matched, Registration<T> registration) {
+        for (Registration<T> r : matched) {
+            if (r == registration) {
+                return;
+            }
+        }
+        matched.add(registration);
+    }
+
+    /**
+     * Build a new index. Values are dispatched in order in which regexps were added.
+     */
+    static final class Builder<T> {
+        private final Map<String, List<Registration<T>>> exactNames = new HashMap<>();
+        private final PackageNode<T> packageRoot = new PackageNode<>();
+        private final List<Registration<T>> residual = new ArrayList<>();
+        private int order;
+
+        /**
+         * @param regexp  normalized regexp (starting with ^ and ending with $)
+         * @param pattern the compiled regexp
+         * @param values  values to dispatch, copied
+         */
+        @SuppressWarnings("unchecked")
+        Builder<T> add(String regexp, Pattern pattern, List<? extends T> values) {
+            if (values.isEmpty()) {
+                return this;
+            }
+            Registration<T> registration = new Registration<>(order++, pattern, (T[]) values.toArray());
+
+            List<String> alternatives = splitAlternatives(regexp);
+            List<String> exact = new ArrayList<>();
+            List<String> prefixes = new ArrayList<>();
+            if (alternatives == null || !classify(alternatives, exact, prefixes)) {
+                residual.add(registration);
+                return this;
+            }
+            for (String name : exact) {
+                List<Registration<T>> list = exactNames.get(name);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    exactNames.put(name, list);
+                }
+                list.add(registration);
+            }
+            for (String prefix : prefixes) {
+                // trailing dots of "com.example..*" are any characters, not only package separator
+                int anyChars = 0;
+                while (prefix.endsWith("/")) {
+                    prefix = prefix.substring(0, prefix.length() - 1);
+                    anyChars++;
+                }
+                packageRoot.add(prefix, 0, anyChars, registration);
+            }
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        ClassNameDispatchIndex<T> build() {
+            Map<String, Registration<T>[]> exact = new HashMap<>();
+            for (Map.Entry<String, List<Registration<T>>> entry : exactNames.entrySet()) {
+                exact.put(entry.getKey(), entry.getValue().toArray(new Registration[0]));
+            }
+            return new ClassNameDispatchIndex<>(exact, packageRoot.freeze(),
+                    residual.toArray(new Registration[0]), order);
+        }
+
+        // split "^(a)|(b)$" into [a, b], null if not a plain alternation
+        private static List<String> splitAlternatives(String regexp) {
+            if (!regexp.startsWith("^") || !regexp.endsWith("$") || regexp.endsWith("\\$") || regexp.length() < 2) {
+                return null;
+            }
+            String body = regexp.substring(1, regexp.length() - 1);
+            List<String> result = new ArrayList<>();
+            for (String alternative : body.split("\\|", -1)) {
+                if (alternative.length() >= 2 && alternative.charAt(0) == '(' && alternative.charAt(alternative.length() - 1) == ')') {
+                    alternative = alternative.substring(1, alternative.length() - 1);
+                }
+                result.add(alternative);
+            }
+            return result;
+        }
+
+        private static boolean classify(List<String> alternatives, List<String> exact, List<String> prefixes) {
+            for (String alternative : alternatives) {
+                if (alternative.isEmpty()) {
+                    // matches only an empty class name - i.e. never
+                    continue;
+                }
+                if (alternative.endsWith(".*")) {
+                    String prefix = toInternalName(alternative.substring(0, alternative.length() - 2));
+                    if (prefix == null) {
+                        return false;
+                    }
+                    prefixes.add(prefix);
+                } else {
+                    String name = toInternalName(alternative);
+                    if (name == null) {
+                        return false;
+                    }
+                    exact.add(name);
+                }
+            }
+            return true;
+        }
+
+        // convert regexp literal to internal class name form, null if it contains any regexp construct
+        // or both an escaped '$' and a dot (the dot may stand for other '$' of the class name)
+        private static String toInternalName(String literal) {
+            StringBuilder sb = new StringBuilder(literal.length());
+            boolean dot = false;
+            boolean dollar = false;
+            for (int i = 0; i < literal.length(); i++) {
+                char c = literal.charAt(i);
+                if (c == '.') {
+                    sb.append('/');
+                    dot = true;
+                } else if (c == '\\') {
+                    if (i + 1 < literal.length() && literal.charAt(i + 1) == '$') {
+                        sb.append('$');
+                        dollar = true;
+                        i++;
+                    } else {
+                        return null;
+                    }
+                } else if (Character.isLetterOrDigit(c) || c == '_') {
+                    sb.append(c);
+                } else {
+                    return null;
+                }
+            }
+            return dot && dollar ? null : sb.toString();
+        }
+    }
+
+    private static final class Registration<T> {
+        final int order;
+        final Pattern pattern;
+        final T[] values;
+
+        Registration(int order, Pattern pattern, T[] values) {
+            this.order = order;
+            this.pattern = pattern;
+            this.values = values;
+        }
+    }
+
+    private static final class PrefixRegistration<T> {
+        // remaining part of prefix after the package node path (not containing '/')
+        final String tail;
+        // number of arbitrary characters required after the tail
+        final int anyChars;
+        final Registration<T> registration;
+
+        PrefixRegistration(String tail, int anyChars, Registration<T> registration) {
+            this.tail = tail;
+            this.anyChars = anyChars;
+            this.registration = registration;
+        }
+    }
+
+    private static final class PackageNode<T> {
+        Map<String, PackageNode<T>> children;
+        List<PrefixRegistration<T>> prefixes = new ArrayList<>();
+
+        void add(String prefix, int start, int anyChars, Registration<T> registration) {
+            int end = prefix.indexOf('/', start);
+            if (end < 0) {
+                prefixes.add(new PrefixRegistration<>(prefix.substring(start), anyChars, registration));
+                return;
+            }
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            String segment = prefix.substring(start, end);
+            PackageNode<T> child = children.get(segment);
+            if (child == null) {
+                child = new PackageNode<>();
+                children.put(segment, child);
+            }
+            child.add(prefix, end + 1, anyChars, registration);
+        }
+
+        PackageNode<T> freeze() {
+            prefixes = prefixes.isEmpty() ? Collections.<PrefixRegistration<T>>emptyList() : new ArrayList<>(prefixes);
+            if (children != null) {
+                for (PackageNode<T> child : children.values()) {
+                    child.freeze();
+                }
+            }
+            return this;
+        }
+    }
+}
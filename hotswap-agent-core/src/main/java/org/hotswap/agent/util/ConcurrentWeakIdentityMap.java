@@ -0,0 +1,141 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent map with weakly referenced keys compared by identity.
+ * <p/>
+ * Reads do not lock (backed by {@link ConcurrentHashMap}), entries of collected keys are purged on access.
+ * Null key is supported (bootstrap classloader).
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ConcurrentWeakIdentityMap<K, V> {
+
+    private static final Object NULL_KEY = new Object();
+
+    private final ConcurrentHashMap<Object, V> map = new ConcurrentHashMap<>();
+    private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+
+    public V get(K key) {
+        purge();
+        return map.get(lookupKey(key));
+    }
+
+    public boolean containsKey(K key) {
+        purge();
+        return map.containsKey(lookupKey(key));
+    }
+
+    public V put(K key, V value) {
+        purge();
+        return map.put(weakKey(key), value);
+    }
+
+    public V putIfAbsent(K key, V value) {
+        purge();
+        return map.putIfAbsent(weakKey(key), value);
+    }
+
+    public V remove(K key) {
+        purge();
+        return map.remove(lookupKey(key));
+    }
+
+    public int size() {
+        purge();
+        return map.size();
+    }
+
+    private Object lookupKey(K key) {
+        return key == null ? NULL_KEY : new LookupKey(key);
+    }
+
+    private Object weakKey(K key) {
+        return key == null ? NULL_KEY : new WeakKey<>(key, queue);
+    }
+
+    private void purge() {
+        Reference<? extends K> reference;
+        while ((reference = queue.poll()) != null) {
+            map.remove(reference);
+        }
+    }
+
+    private interface IdentityKey {
+        Object getKey();
+    }
+
+    private static final class WeakKey<K> extends WeakReference<K> implements IdentityKey {
+        private final int hash;
+
+        WeakKey(K key, ReferenceQueue<K> queue) {
+            super(key, queue);
+            this.hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public Object getKey() {
+            return get();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            Object key = get();
+            return key != null && o instanceof IdentityKey && ((IdentityKey) o).getKey() == key;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class LookupKey implements IdentityKey {
+        private final Object key;
+
+        LookupKey(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).getKey() == key;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(key);
+        }
+    }
+}
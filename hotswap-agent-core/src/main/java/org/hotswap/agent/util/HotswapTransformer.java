@@ -23,20 +23,23 @@ import java.lang.instrument.IllegalClassFormatException;
 import java.security.ProtectionDomain;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.regex.Pattern;
 
+import org.hotswap.agent.annotation.handler.ClassTransformSession;
 import org.hotswap.agent.annotation.handler.PluginClassFileTransformer;
 import org.hotswap.agent.config.PluginManager;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.monitor.HotswapEvents;
+import org.hotswap.agent.monitor.HotswapMonitor;
+import org.hotswap.agent.util.signature.ClassFingerprintCache;
 
 /**
  * Java instrumentation transformer.
@@ -65,17 +68,28 @@ public class HotswapTransformer implements ClassFileTransformer {
     ));
 
     private static class RegisteredTransformersRecord {
-        Pattern pattern;
-        List<HaClassFileTransformer> transformerList = new LinkedList<>();
+        final Pattern pattern;
+        final List<HaClassFileTransformer> transformerList;
+
+        RegisteredTransformersRecord(Pattern pattern, List<HaClassFileTransformer> transformerList) {
+            this.pattern = pattern;
+            this.transformerList = Collections.unmodifiableList(transformerList);
+        }
     }
 
-    protected Map<String, RegisteredTransformersRecord> redefinitionTransformers = new LinkedHashMap<>();
-    protected Map<String, RegisteredTransformersRecord> otherTransformers = new LinkedHashMap<>();
+    // Registrations are immutable snapshots, replaced (copy-on-write) with the monitor held. Registration changes
+    // are rare compared to transform calls from all class loading threads, which read only volatile snapshots.
+    protected volatile Map<String, RegisteredTransformersRecord> redefinitionTransformers = Collections.emptyMap();
+    protected volatile Map<String, RegisteredTransformersRecord> otherTransformers = Collections.emptyMap();
 
     // keep track about which classloader requested which transformer
-    protected Map<ClassFileTransformer, ClassLoader> classLoaderTransformers = new LinkedHashMap<>();
+    protected volatile Map<ClassFileTransformer, ClassLoader> classLoaderTransformers = Collections.emptyMap();
+
+    // immutable dispatch snapshots of the maps above, rebuilt on each registration change
+    private volatile ClassNameDispatchIndex<HaClassFileTransformer> redefinitionIndex = ClassNameDispatchIndex.empty();
+    private volatile ClassNameDispatchIndex<HaClassFileTransformer> otherIndex = ClassNameDispatchIndex.empty();
 
-    protected Map<ClassLoader, Boolean> seenClassLoaders = new WeakHashMap<>();
+    protected final ConcurrentWeakIdentityMap<ClassLoader, Boolean> seenClassLoaders = new ConcurrentWeakIdentityMap<>();
     private List<Pattern> includedClassLoaderPatterns;
     private List<Pattern> excludedClassLoaderPatterns;
     public List<Pattern> getIncludedClassLoaderPatterns() {
@@ -110,7 +124,7 @@ public class HotswapTransformer implements ClassFileTransformer {
      *                        (difference between java/lang/String and java.lang.String).
      * @param transformer     the transformer to be called for each class matching regexp.
      */
-    public void registerTransformer(ClassLoader classLoader, String classNameRegexp, HaClassFileTransformer transformer) {
+    public synchronized void registerTransformer(ClassLoader classLoader, String classNameRegexp, HaClassFileTransformer transformer) {
         LOGGER.debug("Registering transformer for class regexp '{}'.", classNameRegexp);
 
         String normalizeRegexp = normalizeTypeRegexp(classNameRegexp);
@@ -118,19 +132,24 @@ public class HotswapTransformer implements ClassFileTransformer {
         Map<String, RegisteredTransformersRecord> transformersMap = getTransformerMap(transformer);
 
         RegisteredTransformersRecord transformerRecord = transformersMap.get(normalizeRegexp);
-        if (transformerRecord == null) {
-            transformerRecord = new RegisteredTransformersRecord();
-            transformerRecord.pattern = Pattern.compile(normalizeRegexp);
-            transformersMap.put(normalizeRegexp, transformerRecord);
-        }
+        if (transformerRecord == null || !transformerRecord.transformerList.contains(transformer)) {
+            Pattern pattern = transformerRecord != null ? transformerRecord.pattern : Pattern.compile(normalizeRegexp);
+            List<HaClassFileTransformer> transformerList = new ArrayList<>();
+            if (transformerRecord != null) {
+                transformerList.addAll(transformerRecord.transformerList);
+            }
+            transformerList.add(transformer);
 
-        if (!transformerRecord.transformerList.contains(transformer)) {
-            transformerRecord.transformerList.add(transformer);
+            Map<String, RegisteredTransformersRecord> newTransformersMap = new LinkedHashMap<>(transformersMap);
+            newTransformersMap.put(normalizeRegexp, new RegisteredTransformersRecord(pattern, transformerList));
+            publish(transformer.isForRedefinitionOnly(), newTransformersMap);
         }
 
         // register classloader association to allow classloader unregistration
-        if (classLoader != null) {
-            classLoaderTransformers.put(transformer, classLoader);
+        if (classLoader != null && classLoaderTransformers.get(transformer) != classLoader) {
+            Map<ClassFileTransformer, ClassLoader> newClassLoaderTransformers = new LinkedHashMap<>(classLoaderTransformers);
+            newClassLoaderTransformers.put(transformer, classLoader);
+            classLoaderTransformers = Collections.unmodifiableMap(newClassLoaderTransformers);
         }
     }
 
@@ -147,12 +166,13 @@ public class HotswapTransformer implements ClassFileTransformer {
      * @param classNameRegexp regexp to match fully qualified class name.
      * @param transformer     currently registered transformer
      */
-    public void removeTransformer(String classNameRegexp, HaClassFileTransformer transformer) {
+    public synchronized void removeTransformer(String classNameRegexp, HaClassFileTransformer transformer) {
         String normalizeRegexp = normalizeTypeRegexp(classNameRegexp);
         Map<String, RegisteredTransformersRecord> transformersMap = getTransformerMap(transformer);
         RegisteredTransformersRecord transformerRecord = transformersMap.get(normalizeRegexp);
-        if (transformerRecord != null) {
-            transformerRecord.transformerList.remove(transformer);
+        if (transformerRecord != null && transformerRecord.transformerList.contains(transformer)) {
+            publish(transformer.isForRedefinitionOnly(),
+                    without(transformersMap, Collections.<ClassFileTransformer>singleton(transformer)));
         }
     }
 
@@ -160,29 +180,66 @@ public class HotswapTransformer implements ClassFileTransformer {
      * Remove all transformers registered with a classloader
      * @param classLoader
      */
-    public void closeClassLoader(ClassLoader classLoader) {
-        for (Iterator<Map.Entry<ClassFileTransformer, ClassLoader>> entryIterator = classLoaderTransformers.entrySet().iterator();
-                entryIterator.hasNext(); ) {
-            Map.Entry<ClassFileTransformer, ClassLoader> entry = entryIterator.next();
+    public synchronized void closeClassLoader(ClassLoader classLoader) {
+        Set<ClassFileTransformer> removed = new HashSet<>();
+        Map<ClassFileTransformer, ClassLoader> newClassLoaderTransformers = new LinkedHashMap<>();
+        for (Map.Entry<ClassFileTransformer, ClassLoader> entry : classLoaderTransformers.entrySet()) {
             if (entry.getValue().equals(classLoader)) {
-                entryIterator.remove();
-                for (RegisteredTransformersRecord transformerRecord : redefinitionTransformers.values()) {
-                    transformerRecord.transformerList.remove(entry.getKey());
-                }
-                for (RegisteredTransformersRecord transformerRecord : otherTransformers.values()) {
-                    transformerRecord.transformerList.remove(entry.getKey());
-                }
+                removed.add(entry.getKey());
+            } else {
+                newClassLoaderTransformers.put(entry.getKey(), entry.getValue());
             }
         }
+        if (!removed.isEmpty()) {
+            classLoaderTransformers = Collections.unmodifiableMap(newClassLoaderTransformers);
+            publish(true, without(redefinitionTransformers, removed));
+            publish(false, without(otherTransformers, removed));
+        }
 
         LOGGER.debug("All transformers removed for classLoader {}", classLoader);
     }
 
+    /**
+     * Copy of the registrations without removed transformers.
+     */
+    private static Map<String, RegisteredTransformersRecord> without(Map<String, RegisteredTransformersRecord> transformersMap,
+                                                                     Set<ClassFileTransformer> removed) {
+        Map<String, RegisteredTransformersRecord> result = new LinkedHashMap<>();
+        for (Map.Entry<String, RegisteredTransformersRecord> entry : transformersMap.entrySet()) {
+            RegisteredTransformersRecord transformerRecord = entry.getValue();
+            List<HaClassFileTransformer> transformerList = new ArrayList<>(transformerRecord.transformerList);
+            if (transformerList.removeAll(removed)) {
+                transformerRecord = new RegisteredTransformersRecord(transformerRecord.pattern, transformerList);
+            }
+            result.put(entry.getKey(), transformerRecord);
+        }
+        return result;
+    }
+
+    /**
+     * Publish new registrations snapshot of redefinition or other transformers and rebuild its dispatch index.
+     * Must be called with the monitor held.
+     */
+    private void publish(boolean redefinition, Map<String, RegisteredTransformersRecord> transformersMap) {
+        Map<String, RegisteredTransformersRecord> snapshot = Collections.unmodifiableMap(transformersMap);
+        ClassNameDispatchIndex.Builder<HaClassFileTransformer> builder = ClassNameDispatchIndex.builder();
+        for (Map.Entry<String, RegisteredTransformersRecord> entry : snapshot.entrySet()) {
+            builder.add(entry.getKey(), entry.getValue().pattern, entry.getValue().transformerList);
+        }
+        if (redefinition) {
+            redefinitionTransformers = snapshot;
+            redefinitionIndex = builder.build();
+        } else {
+            otherTransformers = snapshot;
+            otherIndex = builder.build();
+        }
+    }
+
     /**
      * Main transform method called by Java instrumentation.
      * <p/>
-     * <p>It does not do the instrumentation itself, instead iterates registered transformers and compares
-     * registration class regexp - if the regexp matches, the classloader is called.
+     * <p>It does not do the instrumentation itself, instead looks up transformers with registration class regexp
+     * matching the class in the dispatch index - if the regexp matches, the transformer is called.
      * <p/>
      * <p>Note that class bytes may be sent to multiple transformers, but the order is not defined.
      *
@@ -204,36 +261,14 @@ public class HotswapTransformer implements ClassFileTransformer {
         List<PluginClassFileTransformer> pluginTransformers = new ArrayList<>();
         try {
             // 1. call transform method of defining transformers
-            for (RegisteredTransformersRecord transformerRecord : new ArrayList<>(otherTransformers.values())) {
-                if ((className != null && transformerRecord.pattern.matcher(className).matches()) ||
-                        (redefiningClass != null && transformerRecord.pattern.matcher(redefiningClass.getName()).matches())) {
-                    for (ClassFileTransformer transformer : new ArrayList<ClassFileTransformer>(transformerRecord.transformerList)) {
-                        if(transformer instanceof PluginClassFileTransformer) {
-                            PluginClassFileTransformer pcft = PluginClassFileTransformer.class.cast(transformer);
-                            if(!pcft.isPluginDisabled(classLoader)) {
-                                pluginTransformers.add(pcft);
-                            }
-                        } else {
-                            toApply.add(transformer);
-                        }
-                    }
-                }
+            String redefiningClassName = redefiningClass != null ? redefiningClass.getName() : null;
+            for (HaClassFileTransformer transformer : otherIndex.lookup(className, redefiningClassName)) {
+                addTransformer(transformer, classLoader, toApply, pluginTransformers);
             }
             // 2. call transform method of redefining transformers
             if (redefiningClass != null && className != null) {
-                for (RegisteredTransformersRecord transformerRecord : new ArrayList<>(redefinitionTransformers.values())) {
-                    if (transformerRecord.pattern.matcher(className).matches()) {
-                        for (ClassFileTransformer transformer : new ArrayList<ClassFileTransformer>(transformerRecord.transformerList)) {
-                            if(transformer instanceof PluginClassFileTransformer) {
-                                PluginClassFileTransformer pcft = PluginClassFileTransformer.class.cast(transformer);
-                                if(!pcft.isPluginDisabled(classLoader)) {
-                                    pluginTransformers.add(pcft);
-                                }
-                            } else {
-                                toApply.add(transformer);
-                            }
-                        }
-                    }
+                for (HaClassFileTransformer transformer : redefinitionIndex.lookup(className, null)) {
+                    addTransformer(transformer, classLoader, toApply, pluginTransformers);
                 }
             }
         } catch (Throwable t) {
@@ -253,28 +288,64 @@ public class HotswapTransformer implements ClassFileTransformer {
 
         if(toApply.isEmpty() && pluginTransformers.isEmpty()) {
             LOGGER.trace("No transformers define for {} ", className);
+            ClassFingerprintCache.classDefined(classLoader, className, bytes);
             return bytes;
         }
 
        try {
            byte[] result = bytes;
 
-           for(ClassFileTransformer transformer: pluginTransformers) {
-               LOGGER.trace("Transforming class '" + className + "' with transformer '" + transformer + "' " + "@ClassLoader" + classLoader + ".");
-               result = transformer.transform(classLoader, className, redefiningClass, protectionDomain, result);
+           if (!pluginTransformers.isEmpty()) {
+               // plugin transformers share single CtClass, bytecode is created only if some plugin modified it
+               ClassTransformSession session = new ClassTransformSession(classLoader, className, redefiningClass, protectionDomain, bytes);
+               for (PluginClassFileTransformer transformer : pluginTransformers) {
+                   LOGGER.trace("Transforming class '" + className + "' with transformer '" + transformer + "' " + "@ClassLoader" + classLoader + ".");
+                   long start = System.nanoTime();
+                   Object event = HotswapEvents.beginTransform();
+                   transformer.transform(session);
+                   HotswapEvents.endTransform(event, transformer.getPluginName(), transformer.getHandlerName(), className,
+                           redefiningClass != null);
+                   HotswapMonitor.getInstance().transformed(transformer.getPluginName(), System.nanoTime() - start);
+               }
+               result = session.close();
            }
 
            for(ClassFileTransformer transformer: toApply) {
                LOGGER.trace("Transforming class '" + className + "' with transformer '" + transformer + "' " + "@ClassLoader" + classLoader + ".");
+               long start = System.nanoTime();
+               Object event = HotswapEvents.beginTransform();
                result = transformer.transform(classLoader, className, redefiningClass, protectionDomain, result);
+               String transformerName = transformer.getClass().getName();
+               HotswapEvents.endTransform(event, transformerName, null, className, redefiningClass != null);
+               HotswapMonitor.getInstance().transformed(transformerName, System.nanoTime() - start);
+           }
+           if (result != bytes) {
+               // define plugin classes used by the transformed code (lazy patching)
+               PluginManager.getInstance().getClassLoaderPatcher().resolve(classLoader, className, result);
            }
            return result;
        } catch (Throwable t) {
            LOGGER.error("Error transforming class '" + className + "'.", t);
+       } finally {
+           // record after transformers, they may compare the new definition with the loaded class fingerprint.
+           // Original bytes are recorded - the new definition is compared before it is transformed as well
+           ClassFingerprintCache.classDefined(classLoader, className, bytes);
        }
        return bytes;
     }
 
+    private static void addTransformer(ClassFileTransformer transformer, ClassLoader classLoader,
+                                       List<ClassFileTransformer> toApply, List<PluginClassFileTransformer> pluginTransformers) {
+        if (transformer instanceof PluginClassFileTransformer) {
+            PluginClassFileTransformer pcft = PluginClassFileTransformer.class.cast(transformer);
+            if (!pcft.isPluginDisabled(classLoader)) {
+                pluginTransformers.add(pcft);
+            }
+        } else {
+            toApply.add(transformer);
+        }
+    }
+
     LinkedList<PluginClassFileTransformer> reduce(final ClassLoader classLoader, List<PluginClassFileTransformer> pluginCalls, String className) {
         LinkedList<PluginClassFileTransformer> reduced = new LinkedList<>();
 
@@ -318,29 +389,31 @@ public class HotswapTransformer implements ClassFileTransformer {
      * @param protectionDomain associated protection domain (if any)
      */
     protected boolean ensureClassLoaderInitialized(final ClassLoader classLoader, final ProtectionDomain protectionDomain) {
-        if (!seenClassLoaders.containsKey(classLoader)) {
-
-            if (classLoader == null) {
-                // directly init null (bootstrap) classloader
-                if (PluginManager.getInstance().getInitClassLoaderLock().tryLock()) {
-                    try {
-                        PluginManager.getInstance().initClassLoader(null, protectionDomain);
-                    } finally {
-                        PluginManager.getInstance().getInitClassLoaderLock().unlock();
-                    }
+        Boolean initialized = seenClassLoaders.get(classLoader);
+        if (initialized != null) {
+            return initialized;
+        }
+
+        if (classLoader == null) {
+            // directly init null (bootstrap) classloader
+            if (PluginManager.getInstance().getInitClassLoaderLock().tryLock()) {
+                try {
+                    PluginManager.getInstance().initClassLoader(null, protectionDomain);
+                } finally {
+                    PluginManager.getInstance().getInitClassLoaderLock().unlock();
                 }
+            }
+        } else {
+            // ensure the classloader should not be excluded
+            if (shouldScheduleClassLoader(classLoader)) {
+                PluginManager.getInstance().initClassLoader(classLoader, protectionDomain);
             } else {
-                // ensure the classloader should not be excluded
-                if (shouldScheduleClassLoader(classLoader)) {
-                    PluginManager.getInstance().initClassLoader(classLoader, protectionDomain);
-                } else {
-                    seenClassLoaders.put(classLoader, false);
-                    return false;
-                }
+                seenClassLoaders.put(classLoader, false);
+                return false;
             }
-            seenClassLoaders.put(classLoader, true);
         }
-        return seenClassLoaders.get(classLoader) != null && seenClassLoaders.get(classLoader);
+        seenClassLoaders.put(classLoader, true);
+        return true;
     }
 
     private boolean shouldScheduleClassLoader(final ClassLoader classLoader) {
@@ -97,6 +97,9 @@ public class PluginManagerInvoker {
     /**
      * Equivalent to callPluginMethod for insertion into source code.
      * <p/>
+     * The generated code calls {@link PluginMethodCallSite}, which resolves the plugin method and instance
+     * only on the first call.
+     * <p/>
      * PluginManagerInvoker.buildCallPluginMethod(this, "hibernateInitialized",
      * "getClass().getClassLoader()", "java.lang.ClassLoader")
      *
@@ -116,51 +119,27 @@ public class PluginManagerInvoker {
     public static String buildCallPluginMethod(String appClassLoaderVar, Class pluginClass,
                                                String method, String... paramValueAndType) {
 
-        String managerClass = PluginManager.class.getName();
         int paramCount = paramValueAndType.length / 2;
 
+        String[] paramTypes = new String[paramCount];
+        for (int i = 0; i < paramCount; i++) {
+            paramTypes[i] = paramValueAndType[(i * 2) + 1];
+        }
+
         StringBuilder b = new StringBuilder();
 
         // block to hide variables and catch checked exceptions
         b.append("try {");
 
-        b.append("ClassLoader __pluginClassLoader = ");
-        b.append(managerClass);
-        b.append(".class.getClassLoader();");
-
-        // Object __pluginInstance = org.hotswap.agent.config.PluginManager.getInstance().getPlugin(org.hotswap.agent.plugin.TestPlugin.class.getName(), __pluginClassLoader);
-        b.append("Object __pluginInstance = ");
-        b.append(managerClass);
-        b.append(".getInstance().getPlugin(");
-        b.append(pluginClass.getName());
-        b.append(".class.getName(), ").append(appClassLoaderVar).append(");");
-
-        // Class __pluginClass = __pluginClassLoader.loadClass("org.hotswap.agent.plugin.TestPlugin");
-        b.append("Class __pluginClass = ");
-        b.append("__pluginClassLoader.loadClass(\"");
-        b.append(pluginClass.getName());
-        b.append("\");");
-
-        // param types
-        b.append("Class[] paramTypes = new Class[").append(paramCount).append("];");
-        for (int i = 0; i < paramCount; i++) {
-            // paramTypes[i] = = __pluginClassLoader.loadClass("my.test.TestClass").getClass();
-            b.append("paramTypes[").append(i).append("] = __pluginClassLoader.loadClass(\"").append(paramValueAndType[(i * 2) + 1]).append("\");");
-        }
-
-        //   java.lang.reflect.Method __pluginMethod = __pluginClass.getDeclaredMethod("method", paramType1, paramType2);
-        b.append("java.lang.reflect.Method __callPlugin = __pluginClass.getDeclaredMethod(\"");
-        b.append(method);
-        b.append("\", paramTypes");
-        b.append(");");
-
         b.append("Object[] params = new Object[").append(paramCount).append("];");
         for (int i = 0; i < paramCount; i = i + 1) {
             b.append("params[").append(i).append("] = ").append(paramValueAndType[i * 2]).append(";");
         }
 
-        // __pluginMethod.invoke(__pluginInstance, param1, param2);
-        b.append("__callPlugin.invoke(__pluginInstance, params);");
+        // org.hotswap.agent.util.PluginMethodCallSite.invoke("org.hotswap.agent.plugin.TestPlugin#method(java.lang.Boolean)", getClass().getClassLoader(), params);
+        b.append(PluginMethodCallSite.class.getName()).append(".invoke(\"");
+        b.append(PluginMethodCallSite.signature(pluginClass, method, paramTypes));
+        b.append("\", ").append(appClassLoaderVar).append(", params);");
 
         // catch (Exception e) {throw new Error(e);}
         b.append("} catch (Exception e) {throw new Error(e);}");
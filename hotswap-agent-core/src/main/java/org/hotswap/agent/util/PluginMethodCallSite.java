@@ -0,0 +1,174 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hotswap.agent.config.PluginManager;
+import org.hotswap.agent.config.PluginRegistry;
+
+/**
+ * Plugin method call from application code, generated by {@link PluginManagerInvoker#buildCallPluginMethod(Class, String, String...)}.
+ * <p/>
+ * The plugin method is resolved once per call site to a {@link MethodHandle}, plugin instance is resolved once per
+ * call site and application classloader (until plugin instances in the registry change). A repeated call
+ * (e.g. on each bean registration) does not scan the registry, load parameter classes or look up the method.
+ * <p/>
+ * Call site is identified by a signature <code>pluginClass#method(paramType1,paramType2)</code>.
+ */
+public class PluginMethodCallSite {
+
+    private static final Map<String, PluginMethodCallSite> callSites = new ConcurrentHashMap<>();
+
+    private final String signature;
+
+    private final Class<?> pluginClass;
+
+    // (Object plugin, Object[] params) -> Object
+    private final MethodHandle handle;
+
+    // app classloader -> plugin instance, guarded by itself
+    private final Map<ClassLoader, WeakReference<Object>> plugins = new WeakHashMap<>();
+
+    // registry modification count the plugins were resolved at, guarded by plugins
+    private int pluginsModificationCount;
+
+    private PluginMethodCallSite(String signature, Class<?> pluginClass, MethodHandle handle) {
+        this.signature = signature;
+        this.pluginClass = pluginClass;
+        this.handle = handle;
+    }
+
+    /**
+     * Call the plugin method.
+     *
+     * @param signature      call site signature <code>pluginClass#method(paramType1,paramType2)</code>
+     * @param appClassLoader application classloader (to resolve plugin instance)
+     * @param params         actual param values
+     * @return method return value
+     */
+    public static Object invoke(String signature, ClassLoader appClassLoader, Object[] params) {
+        PluginMethodCallSite callSite = callSites.get(signature);
+        if (callSite == null) {
+            callSite = resolve(signature);
+            PluginMethodCallSite existing = callSites.putIfAbsent(signature, callSite);
+            if (existing != null) {
+                callSite = existing;
+            }
+        }
+        return callSite.call(appClassLoader, params);
+    }
+
+    /**
+     * Build call site signature.
+     *
+     * @param pluginClass plugin class
+     * @param method      method name
+     * @param paramTypes  parameter class names
+     * @return the signature
+     */
+    public static String signature(Class<?> pluginClass, String method, String... paramTypes) {
+        StringBuilder b = new StringBuilder(pluginClass.getName()).append('#').append(method).append('(');
+        for (int i = 0; i < paramTypes.length; i++) {
+            if (i > 0) {
+                b.append(',');
+            }
+            b.append(paramTypes[i]);
+        }
+        return b.append(')').toString();
+    }
+
+    private static PluginMethodCallSite resolve(String signature) {
+        int hash = signature.indexOf('#');
+        int paren = signature.indexOf('(', hash);
+        if (hash < 0 || paren < 0 || !signature.endsWith(")")) {
+            throw new IllegalArgumentException("Invalid plugin method signature " + signature);
+        }
+        String pluginClassName = signature.substring(0, hash);
+        String methodName = signature.substring(hash + 1, paren);
+        String params = signature.substring(paren + 1, signature.length() - 1);
+
+        ClassLoader pluginClassLoader = PluginManager.class.getClassLoader();
+        try {
+            Class<?> pluginClass = Class.forName(pluginClassName, true, pluginClassLoader);
+            String[] paramNames = params.isEmpty() ? new String[0] : params.split(",");
+            Class<?>[] paramTypes = new Class[paramNames.length];
+            for (int i = 0; i < paramNames.length; i++) {
+                paramTypes[i] = pluginClassLoader.loadClass(paramNames[i]);
+            }
+
+            Method method = pluginClass.getDeclaredMethod(methodName, paramTypes);
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                // plugin instance is ignored (as by Method.invoke())
+                handle = MethodHandles.dropArguments(handle, 0, pluginClass);
+            }
+            handle = handle.asType(MethodType.genericMethodType(paramTypes.length + 1))
+                    .asSpreader(Object[].class, paramTypes.length);
+            return new PluginMethodCallSite(signature, pluginClass, handle);
+        } catch (Exception e) {
+            throw new Error(String.format("Unable to resolve plugin method %s", signature), e);
+        }
+    }
+
+    private Object call(ClassLoader appClassLoader, Object[] params) {
+        Object plugin = getPlugin(appClassLoader);
+        try {
+            return (Object) handle.invokeExact(plugin, params);
+        } catch (Throwable e) {
+            throw new Error(String.format("Exception calling plugin method %s", signature), e);
+        }
+    }
+
+    private Object getPlugin(ClassLoader appClassLoader) {
+        PluginRegistry registry = PluginManager.getInstance().getPluginRegistry();
+        int modificationCount = registry.getModificationCount();
+        synchronized (plugins) {
+            if (pluginsModificationCount != modificationCount) {
+                plugins.clear();
+                pluginsModificationCount = modificationCount;
+            } else {
+                WeakReference<Object> ref = plugins.get(appClassLoader);
+                Object plugin = ref != null ? ref.get() : null;
+                if (plugin != null) {
+                    return plugin;
+                }
+            }
+        }
+
+        // the registry throws IllegalArgumentException if the plugin is not initialized, nothing is cached
+        Object plugin = registry.getPlugin(pluginClass, appClassLoader);
+        synchronized (plugins) {
+            if (pluginsModificationCount == modificationCount) {
+                // weak reference - plugin instance may reference the classloader
+                plugins.put(appClassLoader, new WeakReference<>(plugin));
+            }
+        }
+        return plugin;
+    }
+}
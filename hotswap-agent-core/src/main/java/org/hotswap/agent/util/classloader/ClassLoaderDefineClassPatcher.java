@@ -22,19 +22,24 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
 import java.security.ProtectionDomain;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
-import org.hotswap.agent.javassist.CannotCompileException;
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
 import org.hotswap.agent.javassist.LoaderClassPath;
-import org.hotswap.agent.javassist.NotFoundException;
+import org.hotswap.agent.javassist.bytecode.ClassFile;
+import org.hotswap.agent.javassist.util.proxy.DefineClassHelper;
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.util.scanner.ClassPathScanner;
 import org.hotswap.agent.util.scanner.Scanner;
@@ -51,6 +56,12 @@ import org.hotswap.agent.util.scanner.ScannerVisitor;
  * (e.g. to set some initialized property). Although the class resides in parent classloader it cannot
  * be redefined in child classloader with other definition - the classloader already knows about this class.
  * This is the reason, why plugin class cannot be executed in child classloader.
+ * <p/>
+ * Plugin classes are parsed only once into CtClass templates shared by all target classloaders. In lazy mode
+ * (system property <code>hotswapagent.lazyPluginClassInjection=true</code>) the target classloader is only
+ * registered and a plugin class is defined there on first use - when a class referencing it is defined
+ * (typically application class enhanced by a plugin transformer), or when it is resolved by
+ * {@link #resolve(ClassLoader, String)} before a reflection call from the agent.
  *
  * @author Jiri Bubnik
  */
@@ -58,7 +69,34 @@ public class ClassLoaderDefineClassPatcher {
 
     private static AgentLogger LOGGER = AgentLogger.getLogger(ClassLoaderDefineClassPatcher.class);
 
-    private static Map<String, List<byte[]>> pluginClassCache = new HashMap<>();
+    /**
+     * System property to enable lazy plugin class injection.
+     */
+    public static final String LAZY_PROPERTY = "hotswapagent.lazyPluginClassInjection";
+
+    // plugin path -> parsed plugin classes
+    private static Map<String, PluginClassTemplates> pluginClassCache = new HashMap<>();
+
+    // lazily patched classloaders, guarded by itself
+    private final Map<ClassLoader, LazyPatch> lazyPatches = new WeakHashMap<>();
+
+    private final boolean lazy;
+
+    public ClassLoaderDefineClassPatcher() {
+        this(Boolean.getBoolean(LAZY_PROPERTY));
+    }
+
+    public ClassLoaderDefineClassPatcher(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    /**
+     * @return true if plugin classes should be defined in target classloaders on demand
+     * (see {@link #register(ClassLoader, String, ClassLoader, ProtectionDomain)})
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
 
     /**
      * Patch the classloader.
@@ -71,95 +109,139 @@ public class ClassLoaderDefineClassPatcher {
     public void patch(final ClassLoader classLoaderFrom, final String pluginPath,
                       final ClassLoader classLoaderTo, final ProtectionDomain protectionDomain) {
 
-        List<byte[]> cache = getPluginCache(classLoaderFrom, pluginPath);
+        PluginClassTemplates templates = getPluginTemplates(classLoaderFrom, pluginPath);
+        Set<String> loadedClasses = new HashSet<>();
 
-        if (cache != null) {
-
-            final ClassPool cp = new ClassPool();
-            cp.appendClassPath(new LoaderClassPath(getClass().getClassLoader()));
-            Set<String> loadedClasses = new HashSet<>();
-            String packagePrefix = pluginPath.replace('/', '.');
-
-            for (byte[] pluginBytes: cache) {
-                CtClass pluginClass = null;
-                try {
-                    // force to load class in classLoaderFrom (it may not yet be loaded) and if the classLoaderTo
-                    // is a parent of classLoaderFrom, after definition in classLoaderTo will classLoaderFrom return
-                    // class from parent classloader instead own definition (hence change of behaviour).
-                    InputStream is = new ByteArrayInputStream(pluginBytes);
-                    pluginClass = cp.makeClass(is, false);
-                    try {
-                        classLoaderFrom.loadClass(pluginClass.getName());
-                    } catch (NoClassDefFoundError e) {
-                        LOGGER.trace("Skipping class loading {} in classloader {} - " +
-                                "class has probably unresolvable dependency.", pluginClass.getName(), classLoaderTo);
-                    }
-                    // and load the class in classLoaderTo as well. Now the class is defined in BOTH classloaders.
-                    transferTo(pluginClass, packagePrefix, classLoaderTo, protectionDomain, loadedClasses);
-                } catch (CannotCompileException e) {
-                    LOGGER.trace("Skipping class definition {} in app classloader {} - " +
-                            "class is probably already defined.", pluginClass.getName(), classLoaderTo);
-                } catch (NoClassDefFoundError e) {
-                    LOGGER.trace("Skipping class definition {} in app classloader {} - " +
-                            "class has probably unresolvable dependency.", pluginClass.getName(), classLoaderTo);
-                } catch (Throwable e) {
-                    LOGGER.trace("Skipping class definition app classloader {} - " +
-                            "unknown error.", e, classLoaderTo);
-                }
+        for (PluginClassTemplate template : templates.classes.values()) {
+            // force to load class in classLoaderFrom (it may not yet be loaded) and if the classLoaderTo
+            // is a parent of classLoaderFrom, after definition in classLoaderTo will classLoaderFrom return
+            // class from parent classloader instead own definition (hence change of behaviour).
+            try {
+                classLoaderFrom.loadClass(template.name);
+            } catch (Throwable e) {
+                LOGGER.trace("Skipping class loading {} in classloader {} - " +
+                        "class has probably unresolvable dependency.", template.name, classLoaderTo);
             }
+            // and load the class in classLoaderTo as well. Now the class is defined in BOTH classloaders.
+            transferTo(templates, template.name, classLoaderTo, protectionDomain, loadedClasses, false);
         }
 
         LOGGER.debug("Classloader {} patched with plugin classes from agent classloader {}.", classLoaderTo, classLoaderFrom);
 
     }
 
-    private void transferTo(CtClass pluginClass, String pluginPath, ClassLoader classLoaderTo,
-                            ProtectionDomain protectionDomain, Set<String> loadedClasses) throws CannotCompileException {
-        // if the class is already loaded, skip it
-        if (loadedClasses.contains(pluginClass.getName()) || pluginClass.isFrozen() ||
-                !pluginClass.getName().startsWith(pluginPath)) {
+    /**
+     * Register the classloader for lazy patching - plugin classes are defined in the classloader
+     * on first use by {@link #resolve(ClassLoader, String, byte[])} or {@link #resolve(ClassLoader, String)}.
+     *
+     * @param classLoaderFrom  classloader to load classes from
+     * @param pluginPath       path to copy
+     * @param classLoaderTo    classloader to copy classes to
+     * @param protectionDomain required protection in target classloader
+     */
+    public void register(final ClassLoader classLoaderFrom, final String pluginPath,
+                         final ClassLoader classLoaderTo, final ProtectionDomain protectionDomain) {
+        PluginClassTemplates templates = getPluginTemplates(classLoaderFrom, pluginPath);
+        synchronized (lazyPatches) {
+            lazyPatches.put(classLoaderTo, new LazyPatch(templates, protectionDomain));
+        }
+        LOGGER.debug("Classloader {} registered for lazy patching with plugin classes from classloader {}.",
+                classLoaderTo, classLoaderFrom);
+    }
+
+    /**
+     * Define plugin classes referenced by a class being defined in a lazily patched classloader.
+     *
+     * @param classLoader the defining classloader
+     * @param className   name of the class being defined (internal form)
+     * @param classBytes  final bytecode of the class
+     */
+    public void resolve(ClassLoader classLoader, String className, byte[] classBytes) {
+        LazyPatch lazyPatch = getLazyPatch(classLoader);
+        if (lazyPatch == null || classBytes == null) {
             return;
         }
-        // 1. interface
-        try {
-            if (!pluginClass.isInterface()) {
-                CtClass[] ctClasses = pluginClass.getInterfaces();
-                if (ctClasses != null && ctClasses.length > 0) {
-                    for (CtClass ctClass : ctClasses) {
-                        try {
-                            transferTo(ctClass, pluginPath, classLoaderTo, protectionDomain, loadedClasses);
-                        } catch (Throwable e) {
-                            LOGGER.trace("Skipping class loading {} in classloader {} - " +
-                                    "class has probably unresolvable dependency.", ctClass.getName(), classLoaderTo);
-                        }
-                    }
+        // references of a plugin class are defined together with the class
+        if (className != null && lazyPatch.templates.classes.containsKey(className.replace('/', '.'))) {
+            return;
+        }
+        Set<String> references = lazyPatch.templates.findReferences(classBytes);
+        if (!references.isEmpty()) {
+            define(classLoader, lazyPatch, references);
+        }
+    }
+
+    /**
+     * Define a plugin class (if not yet defined) in a lazily patched classloader. Call this method before
+     * the class is loaded by name (e.g. <code>Class.forName(className, true, classLoader)</code>) from the agent.
+     *
+     * @param classLoader the target classloader
+     * @param className   the class name
+     */
+    public void resolve(ClassLoader classLoader, String className) {
+        LazyPatch lazyPatch = getLazyPatch(classLoader);
+        if (lazyPatch != null && lazyPatch.templates.classes.containsKey(className)) {
+            define(classLoader, lazyPatch, Collections.singleton(className));
+        }
+    }
+
+    private LazyPatch getLazyPatch(ClassLoader classLoader) {
+        if (!lazy || classLoader == null) {
+            return null;
+        }
+        synchronized (lazyPatches) {
+            return lazyPatches.get(classLoader);
+        }
+    }
+
+    private void define(ClassLoader classLoader, LazyPatch lazyPatch, Collection<String> classNames) {
+        synchronized (lazyPatch) {
+            for (String className : classNames) {
+                if (!lazyPatch.definedClasses.contains(className)) {
+                    LOGGER.trace("Defining plugin class {} in classloader {} on demand.", className, classLoader);
+                    transferTo(lazyPatch.templates, className, classLoader, lazyPatch.getProtectionDomain(),
+                            lazyPatch.definedClasses, true);
                 }
             }
-        } catch (NotFoundException e) {
         }
-        // 2. superClass
+    }
+
+    private void transferTo(PluginClassTemplates templates, String className, ClassLoader classLoaderTo,
+                            ProtectionDomain protectionDomain, Set<String> loadedClasses, boolean withReferences) {
+        PluginClassTemplate template = templates.classes.get(className);
+        // if the class is already loaded or not in the plugin path, skip it. The class is marked before
+        // definition to stop recursion (cyclic references, transformation of the class itself)
+        if (template == null || !loadedClasses.add(className)) {
+            return;
+        }
+        // 1. interface and superClass
+        for (String superType : template.superTypes) {
+            transferTo(templates, superType, classLoaderTo, protectionDomain, loadedClasses, withReferences);
+        }
+        // 2. the class itself
         try {
-            CtClass ctClass = pluginClass.getSuperclass();
-            if (ctClass != null) {
-                try {
-                    transferTo(ctClass, pluginPath, classLoaderTo, protectionDomain, loadedClasses);
-                } catch (Throwable e) {
-                    LOGGER.trace("Skipping class loading {} in classloader {} - " +
-                            "class has probably unresolvable dependency.", ctClass.getName(), classLoaderTo);
-                }
+            DefineClassHelper.toClass(className, null, classLoaderTo, protectionDomain, template.bytes);
+        } catch (NoClassDefFoundError e) {
+            LOGGER.trace("Skipping class definition {} in app classloader {} - " +
+                    "class has probably unresolvable dependency.", className, classLoaderTo);
+        } catch (Throwable e) {
+            LOGGER.trace("Skipping class definition {} in app classloader {} - " +
+                    "class is probably already defined.", className, classLoaderTo);
+        }
+        // 3. plugin classes used by the class (lazy mode)
+        if (withReferences) {
+            for (String reference : template.references) {
+                transferTo(templates, reference, classLoaderTo, protectionDomain, loadedClasses, true);
             }
-        } catch (NotFoundException e) {
         }
-        pluginClass.toClass(classLoaderTo, protectionDomain);
-        loadedClasses.add(pluginClass.getName());
     }
 
-    private List<byte[]> getPluginCache(final ClassLoader classLoaderFrom, final String pluginPath) {
-        List<byte[]> ret = null;
+    private PluginClassTemplates getPluginTemplates(final ClassLoader classLoaderFrom, final String pluginPath) {
+        PluginClassTemplates ret = null;
         synchronized(pluginClassCache) {
             ret = pluginClassCache.get(pluginPath);
             if (ret == null) {
-                final List<byte[]> retList = new ArrayList<>();
+                final PluginClassTemplates templates = new PluginClassTemplates(pluginPath);
                 Scanner scanner = new ClassPathScanner();
                 try {
                     scanner.scan(classLoaderFrom, pluginPath, new ScannerVisitor() {
@@ -184,14 +266,15 @@ public class ClassLoaderDefineClassPatcher {
                             }
 
                             buffer.flush();
-                            retList.add(buffer.toByteArray());
+                            templates.add(buffer.toByteArray());
                         }
 
                     });
                 } catch (IOException e) {
                     LOGGER.error("Exception while scanning 'org/hotswap/agent/plugin'", e);
                 }
-                ret = retList;
+                templates.resolveReferences();
+                ret = templates;
                 pluginClassCache.put(pluginPath, ret);
             }
         }
@@ -218,4 +301,145 @@ public class ClassLoaderDefineClassPatcher {
                 !classLoader.getClass().getName().equals("net.bytebuddy.utility.dispatcher.JavaDispatcher$DynamicClassLoader")
                 ;
     }
+
+    /**
+     * Parsed plugin classes of a plugin path.
+     */
+    private static class PluginClassTemplates {
+        // plugin path in internal and binary name form
+        final byte[] internalPrefix;
+        final byte[] binaryPrefix;
+
+        final ClassPool classPool = new ClassPool();
+
+        // class name -> template
+        final Map<String, PluginClassTemplate> classes = new LinkedHashMap<>();
+
+        PluginClassTemplates(String pluginPath) {
+            internalPrefix = (pluginPath + "/").getBytes(StandardCharsets.ISO_8859_1);
+            binaryPrefix = (pluginPath.replace('/', '.') + ".").getBytes(StandardCharsets.ISO_8859_1);
+            classPool.appendClassPath(new LoaderClassPath(ClassLoaderDefineClassPatcher.class.getClassLoader()));
+        }
+
+        void add(byte[] bytes) {
+            try {
+                CtClass ctClass = classPool.makeClass(new ByteArrayInputStream(bytes), false);
+                classes.put(ctClass.getName(), new PluginClassTemplate(ctClass, bytes));
+            } catch (Throwable e) {
+                LOGGER.trace("Skipping plugin class - unable to parse bytecode.", e);
+            }
+        }
+
+        // must be called after all classes are added
+        void resolveReferences() {
+            for (PluginClassTemplate template : classes.values()) {
+                ClassFile classFile = template.ctClass.getClassFile2();
+                if (!classFile.isInterface() && classFile.getSuperclass() != null
+                        && classes.containsKey(classFile.getSuperclass())) {
+                    template.superTypes.add(classFile.getSuperclass());
+                }
+                for (String interfaceName : classFile.getInterfaces()) {
+                    if (classes.containsKey(interfaceName)) {
+                        template.superTypes.add(interfaceName);
+                    }
+                }
+                template.references.addAll(findReferences(template.bytes));
+                template.references.remove(template.name);
+            }
+        }
+
+        /**
+         * Find plugin classes referenced in the bytecode. Both internal names (class references and descriptors)
+         * and binary names (string constants) are searched directly in the bytecode without parsing.
+         */
+        Set<String> findReferences(byte[] bytes) {
+            Set<String> references = null;
+            int last = bytes.length - Math.min(internalPrefix.length, binaryPrefix.length);
+            for (int i = 0; i <= last; i++) {
+                if (bytes[i] != internalPrefix[0]) {
+                    continue;
+                }
+                boolean internal = startsWith(bytes, i, internalPrefix);
+                if (!internal && !startsWith(bytes, i, binaryPrefix)) {
+                    continue;
+                }
+                int end = i;
+                while (end < bytes.length && isNameChar(bytes[end], internal)) {
+                    end++;
+                }
+                String name = new String(bytes, i, end - i, StandardCharsets.ISO_8859_1);
+                if (internal) {
+                    name = name.replace('/', '.');
+                }
+                // string constants may continue with a member name (e.g. "pkg.SomeClass.method()")
+                while (!classes.containsKey(name) && name.lastIndexOf('.') > binaryPrefix.length) {
+                    name = name.substring(0, name.lastIndexOf('.'));
+                }
+                if (classes.containsKey(name)) {
+                    if (references == null) {
+                        references = new LinkedHashSet<>();
+                    }
+                    references.add(name);
+                }
+                i = end - 1;
+            }
+            return references != null ? references : Collections.<String>emptySet();
+        }
+
+        private static boolean startsWith(byte[] bytes, int offset, byte[] prefix) {
+            if (offset + prefix.length > bytes.length) {
+                return false;
+            }
+            for (int i = 1; i < prefix.length; i++) {
+                if (bytes[offset + i] != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isNameChar(byte b, boolean internal) {
+            return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9')
+                    || b == '_' || b == '$' || b == (internal ? '/' : '.');
+        }
+    }
+
+    /**
+     * Plugin class bytecode and its dependencies in the plugin path.
+     */
+    private static class PluginClassTemplate {
+        final String name;
+        final CtClass ctClass;
+        final byte[] bytes;
+        // superclass and interfaces, must be defined before the class
+        final Set<String> superTypes = new LinkedHashSet<>();
+        // other used classes
+        final Set<String> references = new LinkedHashSet<>();
+
+        PluginClassTemplate(CtClass ctClass, byte[] bytes) {
+            this.name = ctClass.getName();
+            this.ctClass = ctClass;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Lazily patched classloader state.
+     */
+    private static class LazyPatch {
+        final PluginClassTemplates templates;
+        // do not hold the classloader (the domain may reference it)
+        final WeakReference<ProtectionDomain> protectionDomain;
+        // plugin classes already defined in the classloader, guarded by this
+        final Set<String> definedClasses = new HashSet<>();
+
+        LazyPatch(PluginClassTemplates templates, ProtectionDomain protectionDomain) {
+            this.templates = templates;
+            this.protectionDomain = protectionDomain != null ? new WeakReference<>(protectionDomain) : null;
+        }
+
+        ProtectionDomain getProtectionDomain() {
+            return protectionDomain != null ? protectionDomain.get() : null;
+        }
+    }
 }
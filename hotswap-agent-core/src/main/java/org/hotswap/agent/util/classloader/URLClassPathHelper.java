@@ -24,6 +24,7 @@ import org.hotswap.agent.javassist.util.proxy.Proxy;
 import org.hotswap.agent.javassist.util.proxy.ProxyFactory;
 import org.hotswap.agent.javassist.util.proxy.ProxyObject;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.versions.DeploymentInfoCache;
 
 import java.io.IOException;
 import java.lang.reflect.Constructor;
@@ -101,6 +102,7 @@ public class URLClassPathHelper {
                 ((Proxy) urlClassPath).setHandler(methodHandler);
 
                 setUcpFieldOfAllClassLoader(classLoader, ucpField, urlClassPath);
+                DeploymentInfoCache.invalidate(classLoader);
 
                 LOGGER.debug("Added extraClassPath URLs {} to classLoader {}", Arrays.toString(extraClassPath), classLoader);
             } catch (Exception e) {
@@ -128,6 +130,7 @@ public class URLClassPathHelper {
                 ((Proxy) urlClassPath).setHandler(methodHandler);
 
                 setUcpFieldOfAllClassLoader(classLoader, ucpField, urlClassPath);
+                DeploymentInfoCache.invalidate(classLoader);
 
                 LOGGER.debug("WatchResourceLoader registered to classLoader {}", classLoader);
             } catch (Exception e) {
@@ -26,6 +26,7 @@ import org.hotswap.agent.logging.AgentLogger;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -62,7 +63,25 @@ public class ClassPathAnnotationScanner {
      */
     public List<String> scanPlugins(ClassLoader classLoader, String path) throws IOException {
         final List<String> files = new LinkedList<>();
-        scanner.scan(classLoader, path, new ScannerVisitor() {
+        scanner.scan(classLoader, path, createVisitor(files));
+        return files;
+    }
+
+    /**
+     * Run the scan of single location of a path.
+     *
+     * @param url location to scan {@link org.hotswap.agent.util.scanner.Scanner#scan(URL, ScannerVisitor)}
+     * @return list of class names containing the annotation
+     * @throws IOException scan exception.
+     */
+    public List<String> scanPlugins(URL url) throws IOException {
+        final List<String> files = new LinkedList<>();
+        scanner.scan(url, createVisitor(files));
+        return files;
+    }
+
+    private ScannerVisitor createVisitor(final List<String> files) {
+        return new ScannerVisitor() {
             @Override
             public void visit(InputStream file) throws IOException {
                 ClassFile cf;
@@ -76,8 +95,7 @@ public class ClassPathAnnotationScanner {
                 if (hasAnnotation(cf))
                     files.add(cf.getName());
             }
-        });
-        return files;
+        };
     }
 
     /**
@@ -54,38 +54,41 @@ public class ClassPathScanner implements Scanner {
         Enumeration<URL> en = classLoader == null ? ClassLoader.getSystemResources(path) : classLoader.getResources(path);
 
         while (en.hasMoreElements()) {
-            URL pluginDirURL = en.nextElement();
-
-            // Only treat as File for real filesystem URLs
-            if ("file".equalsIgnoreCase(pluginDirURL.getProtocol())) {
-                File pluginDir;
-                try {
-                    pluginDir = java.nio.file.Paths.get(pluginDirURL.toURI()).toFile();
-                } catch (Exception e) {
-                    pluginDir = new File(pluginDirURL.getPath());
-                }
-
-                if (pluginDir.isDirectory()) {
-                    scanDirectory(pluginDir, visitor);
-                    continue;
-                }
-            }
+            scan(en.nextElement(), visitor);
+        }
+    }
 
-            // JAR (or other) resource
-            final String uri;
+    @Override
+    public void scan(URL pluginDirURL, ScannerVisitor visitor) throws IOException {
+        // Only treat as File for real filesystem URLs
+        if ("file".equalsIgnoreCase(pluginDirURL.getProtocol())) {
+            File pluginDir;
             try {
-                uri = pluginDirURL.toURI().toString();
-            } catch (URISyntaxException e) {
-                throw new IOException("Illegal directory URI " + pluginDirURL, e);
+                pluginDir = java.nio.file.Paths.get(pluginDirURL.toURI()).toFile();
+            } catch (Exception e) {
+                pluginDir = new File(pluginDirURL.getPath());
             }
 
-            if (uri.startsWith(JAR_URL_PREFIX) || uri.startsWith(ZIP_URL_PREFIX)) {
-                String jarFile = uri.substring(uri.indexOf(':') + 1); // remove the prefix
-                scanJar(jarFile, visitor);
-            } else {
-                LOGGER.warning("Unknown resource type of file " + uri);
+            if (pluginDir.isDirectory()) {
+                scanDirectory(pluginDir, visitor);
+                return;
             }
         }
+
+        // JAR (or other) resource
+        final String uri;
+        try {
+            uri = pluginDirURL.toURI().toString();
+        } catch (URISyntaxException e) {
+            throw new IOException("Illegal directory URI " + pluginDirURL, e);
+        }
+
+        if (uri.startsWith(JAR_URL_PREFIX) || uri.startsWith(ZIP_URL_PREFIX)) {
+            String jarFile = uri.substring(uri.indexOf(':') + 1); // remove the prefix
+            scanJar(jarFile, visitor);
+        } else {
+            LOGGER.warning("Unknown resource type of file " + uri);
+        }
     }
 
     /**
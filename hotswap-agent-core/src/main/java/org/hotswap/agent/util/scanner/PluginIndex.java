@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.scanner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hotswap.agent.logging.AgentLogger;
+
+/**
+ * Build-time index of plugin classes.
+ * <p/>
+ * The index is generated by {@link org.hotswap.agent.annotation.processor.PluginIndexProcessor} for each module
+ * containing @Plugin classes. It uses the service file format (merged by the agent jar assembly), each line
+ * contains plugin class name followed by plugin name in a comment:
+ * <pre>
+ * org.hotswap.agent.plugin.jdk.JdkPlugin # JdkPlugin
+ * </pre>
+ * Reading the index replaces opening of the agent jar and parsing of each class file by
+ * {@link ClassPathAnnotationScanner}. Locations of the plugin package without the index (e.g. third-party plugin
+ * jar built without the processor) are not covered, see {@link #getUnindexedLocations(ClassLoader, String)}.
+ */
+public class PluginIndex {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(PluginIndex.class);
+
+    public static final String INDEX_RESOURCE = "META-INF/services/org.hotswap.agent.annotation.Plugin";
+
+    /**
+     * Read indexed plugins from all index resources visible to the classloader.
+     *
+     * @param classLoader   classloader to resolve the index resources
+     * @param pluginPackage package of plugins (e.g. org.hotswap.agent.plugin), including subpackages
+     * @return plugin class name -> plugin name (null if not indexed) in index order, null if there is no plugin
+     * of the package in the index
+     * @throws IOException error reading an index resource
+     */
+    public Map<String, String> getPlugins(ClassLoader classLoader, String pluginPackage) throws IOException {
+        String prefix = pluginPackage + ".";
+        Map<String, String> plugins = new LinkedHashMap<>();
+        Enumeration<URL> resources = classLoader.getResources(INDEX_RESOURCE);
+        while (resources.hasMoreElements()) {
+            URL url = resources.nextElement();
+            LOGGER.trace("Reading plugin index {}", url);
+            InputStream is = url.openStream();
+            try {
+                read(is, prefix, plugins);
+            } finally {
+                is.close();
+            }
+        }
+        return plugins.isEmpty() ? null : plugins;
+    }
+
+    /**
+     * Locations (classpath directory or JAR directory) of the plugin package, which do not contain the index.
+     * Plugins on these locations are missing in {@link #getPlugins(ClassLoader, String)} result and must be scanned.
+     *
+     * @param classLoader   classloader to resolve the package and index resources
+     * @param pluginPackage package of plugins (e.g. org.hotswap.agent.plugin)
+     * @return package locations without the index, in classloader order
+     * @throws IOException error resolving the resources
+     */
+    public List<URL> getUnindexedLocations(ClassLoader classLoader, String pluginPackage) throws IOException {
+        Set<String> indexedRoots = new HashSet<>();
+        Enumeration<URL> resources = classLoader.getResources(INDEX_RESOURCE);
+        while (resources.hasMoreElements()) {
+            indexedRoots.add(getRoot(resources.nextElement(), INDEX_RESOURCE));
+        }
+
+        String pluginPath = pluginPackage.replace('.', '/');
+        List<URL> unindexed = new ArrayList<>();
+        Enumeration<URL> locations = classLoader.getResources(pluginPath);
+        while (locations.hasMoreElements()) {
+            URL location = locations.nextElement();
+            if (!indexedRoots.contains(getRoot(location, pluginPath))) {
+                LOGGER.trace("Plugin package location {} is not indexed", location);
+                unindexed.add(location);
+            }
+        }
+        return unindexed;
+    }
+
+    // classpath root of a resource URL, e.g. jar:file:/agent.jar!/ for jar:file:/agent.jar!/org/hotswap/agent/plugin/
+    private static String getRoot(URL url, String resourcePath) {
+        String location = url.toExternalForm();
+        if (location.endsWith("/")) {
+            location = location.substring(0, location.length() - 1);
+        }
+        return location.endsWith(resourcePath) ? location.substring(0, location.length() - resourcePath.length()) : location;
+    }
+
+    static void read(InputStream is, String prefix, Map<String, String> plugins) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String pluginName = null;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                pluginName = line.substring(comment + 1).trim();
+                line = line.substring(0, comment);
+            }
+            String className = line.trim();
+            if (className.startsWith(prefix) && !plugins.containsKey(className)) {
+                plugins.put(className, pluginName == null || pluginName.isEmpty() ? null : pluginName);
+            }
+        }
+    }
+}
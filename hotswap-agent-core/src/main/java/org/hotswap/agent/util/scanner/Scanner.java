@@ -19,6 +19,7 @@
 package org.hotswap.agent.util.scanner;
 
 import java.io.IOException;
+import java.net.URL;
 
 /**
  * Scan a classpath directory for files and call visitor for each found file.
@@ -40,4 +41,13 @@ public interface Scanner {
      * @throws IOException any IO exception while scanning
      */
     void scan(ClassLoader classLoader, String path, ScannerVisitor visitor) throws IOException;
+
+    /**
+     * Scan single location of a path (classpath directory or JAR directory) and call visitor for each found file.
+     *
+     * @param url     location of the path, one of the {@link java.lang.ClassLoader#getResources} results
+     * @param visitor visit each file on the path
+     * @throws IOException any IO exception while scanning
+     */
+    void scan(URL url, ScannerVisitor visitor) throws IOException;
 }
@@ -0,0 +1,513 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.signature;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 128-bit structural fingerprint of a class computed directly from the class file bytes.
+ * <p/>
+ * The fingerprint covers the same {@link ClassSignatureElement}s as {@link JavaClassSignature}, constant pool
+ * references are resolved, hence changes of method bodies (and of constant pool layout) do not change it.
+ * Members, annotations, interfaces and exceptions are combined independently on their order in the class file.
+ * {@link ClassSignatureElement#SUPER_SIGNATURES} is not evaluated from the bytes, see {@link ClassFingerprintCache}.
+ */
+public final class ClassFingerprint {
+
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_STATIC = 0x0008;
+    // public, private, protected, static, final, synchronized, native, abstract, strict
+    private static final int METHOD_MODIFIERS = 0x0D3F;
+
+    private static final int KIND_FIELD = 1;
+    private static final int KIND_METHOD = 2;
+    private static final int KIND_CONSTRUCTOR = 3;
+    private static final int KIND_CLASS = 4;
+
+    private static final int PART_BASE = 0;
+    private static final int PART_ANNOTATION = 1;
+    private static final int PART_PARAM_ANNOTATION = 2;
+    private static final int PART_EXCEPTION = 3;
+
+    private final long high;
+    private final long low;
+
+    ClassFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Compute the fingerprint.
+     *
+     * @param classBytes        class file bytes
+     * @param signatureElements elements to include
+     * @return the fingerprint
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    public static ClassFingerprint of(byte[] classBytes, ClassSignatureElement[] signatureElements) {
+        return of(classBytes, Collections.singletonList(toSet(signatureElements)))[0];
+    }
+
+    /**
+     * Compute fingerprints for several element sets by a single pass over the class file.
+     */
+    static ClassFingerprint[] of(byte[] classBytes, List<Set<ClassSignatureElement>> elementSets) {
+        Parser parser = new Parser(classBytes);
+        try {
+            parser.parse();
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated class file", e);
+        }
+        ClassFingerprint[] result = new ClassFingerprint[elementSets.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = parser.fingerprint(elementSets.get(i));
+        }
+        return result;
+    }
+
+    static Set<ClassSignatureElement> toSet(ClassSignatureElement[] signatureElements) {
+        Set<ClassSignatureElement> elements = EnumSet.noneOf(ClassSignatureElement.class);
+        Collections.addAll(elements, signatureElements);
+        return elements;
+    }
+
+    /**
+     * Combine with superclass fingerprint (order dependent).
+     */
+    ClassFingerprint combine(ClassFingerprint superFingerprint) {
+        long h = mix(high * 31 + superFingerprint.high);
+        return new ClassFingerprint(h, mix(low * 31 + superFingerprint.low + h));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ClassFingerprint)) return false;
+        ClassFingerprint that = (ClassFingerprint) o;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    // murmur3 fmix64
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Streaming 128-bit hash - two FNV-1a lanes with different multipliers, mixed on finish.
+     */
+    private static final class Hasher {
+        long h1;
+        long h2;
+
+        Hasher reset(long seed1, long seed2) {
+            h1 = 0xcbf29ce484222325L ^ seed1;
+            h2 = 0x84222325cbf29ce4L ^ seed2;
+            return this;
+        }
+
+        void update(int value) {
+            update1(value >>> 24);
+            update1(value >>> 16);
+            update1(value >>> 8);
+            update1(value);
+        }
+
+        void update(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                update1(bytes[i]);
+            }
+        }
+
+        private void update1(int b) {
+            h1 = (h1 ^ (b & 0xFF)) * 0x100000001b3L;
+            h2 = (h2 ^ (b & 0xFF)) * 0xc6a4a7935bd1e995L;
+        }
+
+        long finish1() {
+            return mix(h1 ^ Long.rotateLeft(h2, 29));
+        }
+
+        long finish2() {
+            return mix(h2 + h1);
+        }
+    }
+
+    /**
+     * Class file parser, evaluates member hashes independently on selected elements.
+     */
+    private static final class Parser {
+        private final byte[] b;
+        private final Hasher hasher = new Hasher();
+        // offsets of constant pool entries (after the tag)
+        private int[] cpOffsets;
+        private int[] cpTags;
+
+        private long superHigh;
+        private long superLow;
+        private boolean hasSuperClass;
+        private final long[] interfaces = new long[2];
+        private final long[] classAnnotations = new long[2];
+
+        // member kind, access flags, and parts [base, annotation, param annotation, exception] x (high, low)
+        private int memberCount;
+        private int[] memberKinds;
+        private int[] memberAccess;
+        private boolean[] memberIgnored;
+        private long[] memberParts;
+
+        Parser(byte[] bytes) {
+            this.b = bytes;
+        }
+
+        void parse() {
+            if (u4(0) != 0xCAFEBABE) {
+                throw new IllegalArgumentException("Not a class file");
+            }
+            int pos = parseConstantPool();
+
+            // access_flags, this_class
+            int superIndex = u2(pos + 4);
+            if (superIndex != 0 && !utf8Equals(u2(cpOffsets[superIndex]), "java/lang/Object")) {
+                hasSuperClass = true;
+                hasher.reset(KIND_CLASS, 0);
+                hashUtf8(hasher, u2(cpOffsets[superIndex]));
+                superHigh = hasher.finish1();
+                superLow = hasher.finish2();
+            }
+            int interfacesCount = u2(pos + 6);
+            pos += 8;
+            for (int i = 0; i < interfacesCount; i++) {
+                hasher.reset(KIND_CLASS, 1);
+                hashUtf8(hasher, u2(cpOffsets[u2(pos)]));
+                add(interfaces, 0, hasher);
+                pos += 2;
+            }
+
+            int fieldsCount = u2(pos);
+            int methodsCount = u2(skipMembers(pos + 2, fieldsCount));
+            memberKinds = new int[fieldsCount + methodsCount];
+            memberAccess = new int[memberKinds.length];
+            memberIgnored = new boolean[memberKinds.length];
+            memberParts = new long[memberKinds.length * 8];
+
+            pos = parseMembers(pos + 2, fieldsCount, true);
+            pos = parseMembers(pos + 2, methodsCount, false);
+
+            int attributesCount = u2(pos);
+            pos += 2;
+            for (int i = 0; i < attributesCount; i++) {
+                int length = u4(pos + 2);
+                if (utf8Equals(u2(pos), "RuntimeVisibleAnnotations")) {
+                    hashAnnotations(pos + 6, KIND_CLASS, 0, classAnnotations, 0);
+                }
+                pos += 6 + length;
+            }
+        }
+
+        ClassFingerprint fingerprint(Set<ClassSignatureElement> elements) {
+            long high = 0;
+            long low = 0;
+            if (elements.contains(ClassSignatureElement.SUPER_CLASS) && hasSuperClass) {
+                high += superHigh;
+                low += superLow;
+            }
+            if (elements.contains(ClassSignatureElement.INTERFACES)) {
+                high += interfaces[0];
+                low += interfaces[1];
+            }
+            if (elements.contains(ClassSignatureElement.CLASS_ANNOTATION)) {
+                high += classAnnotations[0];
+                low += classAnnotations[1];
+            }
+            for (int i = 0; i < memberCount; i++) {
+                if (memberIgnored[i] || !isIncluded(elements, memberKinds[i], memberAccess[i])) {
+                    continue;
+                }
+                int p = i * 8;
+                high += memberParts[p];
+                low += memberParts[p + 1];
+                if (memberKinds[i] == KIND_FIELD) {
+                    if (elements.contains(ClassSignatureElement.FIELD_ANNOTATION)) {
+                        high += memberParts[p + 2];
+                        low += memberParts[p + 3];
+                    }
+                    continue;
+                }
+                if (elements.contains(ClassSignatureElement.METHOD_ANNOTATION)) {
+                    high += memberParts[p + 2];
+                    low += memberParts[p + 3];
+                }
+                if (elements.contains(ClassSignatureElement.METHOD_PARAM_ANNOTATION)) {
+                    high += memberParts[p + 4];
+                    low += memberParts[p + 5];
+                }
+                if (elements.contains(ClassSignatureElement.METHOD_EXCEPTION)) {
+                    high += memberParts[p + 6];
+                    low += memberParts[p + 7];
+                }
+            }
+            long h = mix(high);
+            return new ClassFingerprint(h, mix(low ^ h));
+        }
+
+        private static boolean isIncluded(Set<ClassSignatureElement> elements, int kind, int access) {
+            switch (kind) {
+                case KIND_FIELD:
+                    return elements.contains(ClassSignatureElement.FIELD)
+                            && ((access & ACC_STATIC) == 0 || elements.contains(ClassSignatureElement.FIELD_STATIC));
+                case KIND_CONSTRUCTOR:
+                    return elements.contains(ClassSignatureElement.CONSTRUCTOR)
+                            && ((access & ACC_PRIVATE) == 0 || elements.contains(ClassSignatureElement.CONSTRUCTOR_PRIVATE));
+                default:
+                    return elements.contains(ClassSignatureElement.METHOD)
+                            && ((access & ACC_PRIVATE) == 0 || elements.contains(ClassSignatureElement.METHOD_PRIVATE))
+                            && ((access & ACC_STATIC) == 0 || elements.contains(ClassSignatureElement.METHOD_STATIC));
+            }
+        }
+
+        private int parseMembers(int pos, int count, boolean fields) {
+            for (int i = 0; i < count; i++) {
+                int member = memberCount++;
+                int access = u2(pos);
+                int nameIndex = u2(pos + 2);
+                int kind = fields ? KIND_FIELD : (utf8Equals(nameIndex, "<init>") ? KIND_CONSTRUCTOR : KIND_METHOD);
+                memberKinds[member] = kind;
+                memberAccess[member] = access;
+                memberIgnored[member] = utf8StartsWith(nameIndex, ClassSignatureBase.SWITCH_TABLE_METHOD_PREFIX)
+                        || utf8Equals(nameIndex, "<clinit>");
+
+                // base - field type and name, method modifiers, name and descriptor
+                hasher.reset(kind, PART_BASE);
+                if (!fields) {
+                    hasher.update(access & METHOD_MODIFIERS);
+                }
+                hashUtf8(hasher, nameIndex);
+                hashUtf8(hasher, u2(pos + 4));
+                int p = member * 8;
+                memberParts[p] = hasher.finish1();
+                memberParts[p + 1] = hasher.finish2();
+
+                int attributesCount = u2(pos + 6);
+                pos += 8;
+                for (int a = 0; a < attributesCount; a++) {
+                    int attributeName = u2(pos);
+                    int length = u4(pos + 2);
+                    if (utf8Equals(attributeName, "RuntimeVisibleAnnotations")) {
+                        hashAnnotations(pos + 6, memberParts[p], PART_ANNOTATION, memberParts, p + 2);
+                    } else if (!fields && utf8Equals(attributeName, "RuntimeVisibleParameterAnnotations")) {
+                        int parameters = b[pos + 6] & 0xFF;
+                        int annotationsPos = pos + 7;
+                        for (int param = 0; param < parameters; param++) {
+                            annotationsPos = hashAnnotations(annotationsPos, memberParts[p] + param,
+                                    PART_PARAM_ANNOTATION, memberParts, p + 4);
+                        }
+                    } else if (!fields && utf8Equals(attributeName, "Exceptions")) {
+                        int exceptions = u2(pos + 6);
+                        for (int e = 0; e < exceptions; e++) {
+                            hasher.reset(memberParts[p], PART_EXCEPTION);
+                            hashUtf8(hasher, u2(cpOffsets[u2(pos + 8 + e * 2)]));
+                            add(memberParts, p + 6, hasher);
+                        }
+                    }
+                    pos += 6 + length;
+                }
+            }
+            return pos;
+        }
+
+        // annotations of one element are summed, each seeded by the owner
+        private int hashAnnotations(int pos, long seed, int part, long[] target, int targetIndex) {
+            int count = u2(pos);
+            pos += 2;
+            for (int i = 0; i < count; i++) {
+                hasher.reset(seed, part);
+                pos = hashAnnotation(hasher, pos);
+                add(target, targetIndex, hasher);
+            }
+            return pos;
+        }
+
+        private int hashAnnotation(Hasher h, int pos) {
+            hashUtf8(h, u2(pos));
+            int pairs = u2(pos + 2);
+            h.update(pairs);
+            pos += 4;
+            for (int i = 0; i < pairs; i++) {
+                hashUtf8(h, u2(pos));
+                pos = hashElementValue(h, pos + 2);
+            }
+            return pos;
+        }
+
+        private int hashElementValue(Hasher h, int pos) {
+            int tag = b[pos] & 0xFF;
+            h.update(tag);
+            switch (tag) {
+                case 'e':
+                    hashUtf8(h, u2(pos + 1));
+                    hashUtf8(h, u2(pos + 3));
+                    return pos + 5;
+                case 'c':
+                    hashUtf8(h, u2(pos + 1));
+                    return pos + 3;
+                case '@':
+                    return hashAnnotation(h, pos + 1);
+                case '[':
+                    int count = u2(pos + 1);
+                    h.update(count);
+                    pos += 3;
+                    for (int i = 0; i < count; i++) {
+                        pos = hashElementValue(h, pos);
+                    }
+                    return pos;
+                default:
+                    hashConstant(h, u2(pos + 1));
+                    return pos + 3;
+            }
+        }
+
+        private void hashConstant(Hasher h, int index) {
+            int offset = cpOffsets[index];
+            switch (cpTags[index]) {
+                case 1: // Utf8
+                    hashUtf8(h, index);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    h.update(b, offset, 8);
+                    break;
+                default: // Integer, Float
+                    h.update(b, offset, 4);
+            }
+        }
+
+        private void hashUtf8(Hasher h, int index) {
+            int offset = cpOffsets[index];
+            int length = u2(offset);
+            h.update(length);
+            h.update(b, offset + 2, length);
+        }
+
+        private static void add(long[] target, int index, Hasher h) {
+            target[index] += h.finish1();
+            target[index + 1] += h.finish2();
+        }
+
+        private int parseConstantPool() {
+            int count = u2(8);
+            cpOffsets = new int[count];
+            cpTags = new int[count];
+            int pos = 10;
+            for (int i = 1; i < count; i++) {
+                int tag = b[pos] & 0xFF;
+                cpOffsets[i] = pos + 1;
+                cpTags[i] = tag;
+                switch (tag) {
+                    case 1: // Utf8
+                        pos += 3 + u2(pos + 1);
+                        break;
+                    case 7: // Class
+                    case 8: // String
+                    case 16: // MethodType
+                    case 19: // Module
+                    case 20: // Package
+                        pos += 3;
+                        break;
+                    case 15: // MethodHandle
+                        pos += 4;
+                        break;
+                    case 3: // Integer
+                    case 4: // Float
+                    case 9: // Fieldref
+                    case 10: // Methodref
+                    case 11: // InterfaceMethodref
+                    case 12: // NameAndType
+                    case 17: // Dynamic
+                    case 18: // InvokeDynamic
+                        pos += 5;
+                        break;
+                    case 5: // Long
+                    case 6: // Double
+                        pos += 9;
+                        i++;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at " + pos);
+                }
+            }
+            return pos;
+        }
+
+        private int skipMembers(int pos, int count) {
+            for (int i = 0; i < count; i++) {
+                int attributesCount = u2(pos + 6);
+                pos += 8;
+                for (int a = 0; a < attributesCount; a++) {
+                    pos += 6 + u4(pos + 2);
+                }
+            }
+            return pos;
+        }
+
+        private boolean utf8Equals(int index, String value) {
+            int offset = cpOffsets[index];
+            return u2(offset) == value.length() && utf8StartsWith(index, value);
+        }
+
+        private boolean utf8StartsWith(int index, String value) {
+            int offset = cpOffsets[index];
+            if (u2(offset) < value.length()) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (b[offset + 2 + i] != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int u2(int pos) {
+            return ((b[pos] & 0xFF) << 8) | (b[pos + 1] & 0xFF);
+        }
+
+        private int u4(int pos) {
+            return ((b[pos] & 0xFF) << 24) | ((b[pos + 1] & 0xFF) << 16) | ((b[pos + 2] & 0xFF) << 8) | (b[pos + 3] & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.signature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hotswap.agent.logging.AgentLogger;
+
+/**
+ * Fingerprints of loaded classes, recorded when the class is defined or redefined.
+ * <p/>
+ * A plugin registers signature elements it compares (typically at plugin initialization), from then on
+ * {@link org.hotswap.agent.util.HotswapTransformer} records the fingerprint of each defined class by a single
+ * pass over the bytecode. On redefinition, the fingerprint of the loaded class is available without
+ * reflection, the cache is updated with the new bytecode after all transformers were called.
+ * <p/>
+ * The fingerprint is evaluated from the bytecode as supplied to the transformer, before plugin transformations.
+ * Plugins compare it with the fingerprint of the new definition, which is also untransformed at that time
+ * ({@link #get(Class, byte[], ClassSignatureElement[])}), hence members added by plugin transformations never
+ * look like a signature change.
+ */
+public class ClassFingerprintCache {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(ClassFingerprintCache.class);
+
+    // registered element sets (without SUPER_SIGNATURES), index in the list is index in cached arrays
+    private static volatile List<Set<ClassSignatureElement>> elementSets = Collections.emptyList();
+
+    // classloader -> class name (internal form) -> fingerprints
+    private static final Map<ClassLoader, Map<String, ClassFingerprint[]>> fingerprints = new WeakHashMap<>();
+
+    /**
+     * Record fingerprints of classes defined from now on.
+     *
+     * @param signatureElements elements compared by the plugin
+     */
+    public static synchronized void register(ClassSignatureElement[] signatureElements) {
+        Set<ClassSignatureElement> elements = localElements(signatureElements);
+        if (!elementSets.contains(elements)) {
+            List<Set<ClassSignatureElement>> newElementSets = new ArrayList<>(elementSets);
+            newElementSets.add(elements);
+            elementSets = Collections.unmodifiableList(newElementSets);
+            LOGGER.debug("Class fingerprint registered for elements {}", elements);
+        }
+    }
+
+    /**
+     * Record fingerprints of the class definition.
+     *
+     * @param classLoader the defining classloader
+     * @param className   the class name in internal form
+     * @param classBytes  class bytes before transformation (same as the new definition compared by plugins)
+     */
+    public static void classDefined(ClassLoader classLoader, String className, byte[] classBytes) {
+        List<Set<ClassSignatureElement>> sets = elementSets;
+        if (sets.isEmpty() || classLoader == null || className == null || classBytes == null) {
+            return;
+        }
+        Map<String, ClassFingerprint[]> classLoaderFingerprints = getFingerprints(classLoader, true);
+        try {
+            classLoaderFingerprints.put(className, ClassFingerprint.of(classBytes, sets));
+        } catch (RuntimeException e) {
+            LOGGER.trace("Unable to evaluate fingerprint of class {}", e, className);
+            classLoaderFingerprints.remove(className);
+        }
+    }
+
+    /**
+     * Get the fingerprint of the loaded class.
+     *
+     * @param clazz             the class
+     * @param signatureElements elements to compare
+     * @return the fingerprint or null if the elements were not registered when the class was (re)defined
+     */
+    public static ClassFingerprint get(Class<?> clazz, ClassSignatureElement[] signatureElements) {
+        int index = elementSets.indexOf(localElements(signatureElements));
+        if (index < 0) {
+            return null;
+        }
+        ClassFingerprint fingerprint = getLocal(clazz, index);
+        if (fingerprint == null) {
+            return null;
+        }
+        return withSupers(clazz, fingerprint, signatureElements, index);
+    }
+
+    /**
+     * Evaluate the fingerprint of a new class definition, including (already loaded) superclasses if
+     * {@link ClassSignatureElement#SUPER_SIGNATURES} is used.
+     *
+     * @param clazz             the loaded class
+     * @param classBytes        the new definition
+     * @param signatureElements elements to compare
+     * @return the fingerprint or null if fingerprint of a superclass is not available
+     */
+    public static ClassFingerprint get(Class<?> clazz, byte[] classBytes, ClassSignatureElement[] signatureElements) {
+        ClassFingerprint fingerprint = ClassFingerprint.of(classBytes, signatureElements);
+        if (!hasSuperSignatures(signatureElements)) {
+            return fingerprint;
+        }
+        int index = elementSets.indexOf(localElements(signatureElements));
+        return index < 0 ? null : withSupers(clazz, fingerprint, signatureElements, index);
+    }
+
+    private static ClassFingerprint withSupers(Class<?> clazz, ClassFingerprint fingerprint,
+                                               ClassSignatureElement[] signatureElements, int index) {
+        if (!hasSuperSignatures(signatureElements)) {
+            return fingerprint;
+        }
+        for (Class<?> superClass = clazz.getSuperclass(); superClass != null && superClass != Object.class;
+             superClass = superClass.getSuperclass()) {
+            ClassFingerprint superFingerprint = getLocal(superClass, index);
+            if (superFingerprint == null) {
+                return null;
+            }
+            fingerprint = fingerprint.combine(superFingerprint);
+        }
+        return fingerprint;
+    }
+
+    private static ClassFingerprint getLocal(Class<?> clazz, int index) {
+        Map<String, ClassFingerprint[]> classLoaderFingerprints = getFingerprints(clazz.getClassLoader(), false);
+        if (classLoaderFingerprints == null) {
+            return null;
+        }
+        ClassFingerprint[] values = classLoaderFingerprints.get(clazz.getName().replace('.', '/'));
+        return values != null && index < values.length ? values[index] : null;
+    }
+
+    private static Map<String, ClassFingerprint[]> getFingerprints(ClassLoader classLoader, boolean create) {
+        if (classLoader == null) {
+            return null;
+        }
+        synchronized (fingerprints) {
+            Map<String, ClassFingerprint[]> classLoaderFingerprints = fingerprints.get(classLoader);
+            if (classLoaderFingerprints == null && create) {
+                classLoaderFingerprints = new ConcurrentHashMap<>();
+                fingerprints.put(classLoader, classLoaderFingerprints);
+            }
+            return classLoaderFingerprints;
+        }
+    }
+
+    private static boolean hasSuperSignatures(ClassSignatureElement[] signatureElements) {
+        for (ClassSignatureElement element : signatureElements) {
+            if (element == ClassSignatureElement.SUPER_SIGNATURES) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<ClassSignatureElement> localElements(ClassSignatureElement[] signatureElements) {
+        Set<ClassSignatureElement> elements = ClassFingerprint.toSet(signatureElements);
+        elements.remove(ClassSignatureElement.SUPER_SIGNATURES);
+        return elements;
+    }
+}
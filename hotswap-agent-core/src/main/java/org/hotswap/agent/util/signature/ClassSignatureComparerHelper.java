@@ -18,6 +18,9 @@
  */
 package org.hotswap.agent.util.signature;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
 import org.hotswap.agent.javassist.NotFoundException;
@@ -72,6 +75,50 @@ public class ClassSignatureComparerHelper {
         }
     }
 
+    /**
+     * Record fingerprints of defined classes for the signature elements, so that
+     * {@link #isDifferent(Class, byte[], ClassPool, ClassSignatureElement[])} can compare class bytes
+     * without building reflective signatures.
+     */
+    public static void registerFingerprintElements(ClassSignatureElement[] signatureElements) {
+        ClassFingerprintCache.register(signatureElements);
+    }
+
+    /**
+     * Compare structural fingerprint of the loaded class (cached at define time) with the new class bytes. Falls back to
+     * string signature comparison if the fingerprint of the loaded class is not available.
+     *
+     * @param clazz old Class definition
+     * @param classBytes new class definition
+     * @param cp ClassPool used for fallback comparison
+     * @return is signature different
+     */
+    public static boolean isDifferent(Class<?> clazz, byte[] classBytes, ClassPool cp, ClassSignatureElement[] signatureElements) {
+        try {
+            ClassFingerprint oldFingerprint = ClassFingerprintCache.get(clazz, signatureElements);
+            if (oldFingerprint != null) {
+                ClassFingerprint newFingerprint = ClassFingerprintCache.get(clazz, classBytes, signatureElements);
+                if (newFingerprint != null) {
+                    return !oldFingerprint.equals(newFingerprint);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.trace("Unable to evaluate fingerprint of class {}", e, clazz.getName());
+        }
+        CtClass ctClass = null;
+        try {
+            ctClass = cp.makeClass(new ByteArrayInputStream(classBytes));
+            return isDifferent(ctClass, clazz, signatureElements);
+        } catch (IOException e) {
+            LOGGER.error("Error reading signature", e);
+            return false;
+        } finally {
+            if (ctClass != null) {
+                ctClass.detach();
+            }
+        }
+    }
+
     /**
      * @param clazz old Class definition
      * @param cp ClassPool which should contain the new/compared definition
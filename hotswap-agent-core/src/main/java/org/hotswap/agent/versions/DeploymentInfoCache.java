@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ * 
+ * This file is part of HotswapAgent.
+ * 
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.versions;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per classloader cache of {@link DeploymentInfo} and of version match results computed from it.
+ * <p/>
+ * Resolving the deployment info scans all <code>META-INF/maven/**&#47;pom.properties</code> and
+ * <code>META-INF/MANIFEST.MF</code> resources of the classloader, which is expensive on large classpaths
+ * and was repeated for each transformation by a versioned plugin. The cache is weak-keyed by the classloader,
+ * entries are invalidated when URLs of the classloader change (or explicitly by {@link #invalidate(ClassLoader)}).
+ *
+ * @see DeploymentInfo#fromClassLoader(ClassLoader)
+ */
+public class DeploymentInfoCache {
+
+    /** The cached entries, guarded by itself. */
+    private static final Map<ClassLoader, Entry> entries = new WeakHashMap<>();
+
+    /**
+     * Resolves the version match of a matcher against the classloader deployment.
+     */
+    public interface MatchEvaluator {
+        /**
+         * Evaluate the match, called at most once per classloader (until its URLs change).
+         *
+         * @param deploymentInfo the deployment info of the classloader
+         * @return the match result
+         */
+        VersionMatchResult evaluate(DeploymentInfo deploymentInfo);
+    }
+
+    private DeploymentInfoCache() {
+    }
+
+    /**
+     * Get deployment info of the classloader, resolved once per classloader (until its URLs change).
+     *
+     * @param classLoader the classloader
+     * @return the deployment info
+     */
+    public static DeploymentInfo getDeploymentInfo(ClassLoader classLoader) {
+        if (classLoader == null) {
+            return DeploymentInfo.fromClassLoader(classLoader);
+        }
+        return getEntry(classLoader).getDeploymentInfo(classLoader);
+    }
+
+    /**
+     * Get memoized match result of a matcher for the classloader, evaluated on the first call.
+     *
+     * @param classLoader the classloader
+     * @param matcherKey  key identifying the matcher (e.g. plugin annotation)
+     * @param evaluator   evaluates the match if not known yet
+     * @return the match result
+     */
+    public static VersionMatchResult getMatchResult(ClassLoader classLoader, Object matcherKey, MatchEvaluator evaluator) {
+        if (classLoader == null) {
+            return evaluator.evaluate(DeploymentInfo.fromClassLoader(classLoader));
+        }
+        Entry entry = getEntry(classLoader);
+        VersionMatchResult result = entry.matchResults.get(matcherKey);
+        if (result == null) {
+            result = evaluator.evaluate(entry.getDeploymentInfo(classLoader));
+            entry.matchResults.put(matcherKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Drop cached data of the classloader, e.g. after its classpath was modified.
+     *
+     * @param classLoader the classloader
+     */
+    public static void invalidate(ClassLoader classLoader) {
+        synchronized (entries) {
+            entries.remove(classLoader);
+        }
+    }
+
+    private static Entry getEntry(ClassLoader classLoader) {
+        URL[] urls = getURLs(classLoader);
+        synchronized (entries) {
+            Entry entry = entries.get(classLoader);
+            if (entry == null || !Arrays.equals(entry.urls, urls)) {
+                entry = new Entry(urls);
+                entries.put(classLoader, entry);
+            }
+            return entry;
+        }
+    }
+
+    private static URL[] getURLs(ClassLoader classLoader) {
+        // other classloaders do not expose the classpath, the entry is kept until invalidated
+        return (classLoader instanceof URLClassLoader) ? ((URLClassLoader) classLoader).getURLs() : null;
+    }
+
+    /**
+     * Cached data of a classloader. Must not reference the classloader (the map key).
+     */
+    private static class Entry {
+        /** Classloader URLs the entry was created for, null if not known. */
+        final URL[] urls;
+
+        final Map<Object, VersionMatchResult> matchResults = new ConcurrentHashMap<>();
+
+        private DeploymentInfo deploymentInfo;
+
+        Entry(URL[] urls) {
+            this.urls = urls;
+        }
+
+        synchronized DeploymentInfo getDeploymentInfo(ClassLoader classLoader) {
+            if (deploymentInfo == null) {
+                deploymentInfo = DeploymentInfo.fromClassLoader(classLoader);
+            }
+            return deploymentInfo;
+        }
+    }
+}
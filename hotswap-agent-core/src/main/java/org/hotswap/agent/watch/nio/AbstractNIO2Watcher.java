@@ -37,9 +37,7 @@ import java.nio.file.Paths;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
@@ -68,7 +66,8 @@ public abstract class AbstractNIO2Watcher implements Watcher {
 
     protected WatchService watcher;
     protected final Map<WatchKey, Path> keys;
-    private final Map<Path, List<WatchEventListener>> listeners = new ConcurrentHashMap<>();
+    // listeners by watched root path, maintained incrementally and read by the dispatcher without locking
+    private final PathListenerTrie listeners = new PathListenerTrie();
 
     // keep track about which classloader requested which event
     protected Map<WatchEventListener, ClassLoader> classLoaderListeners = new ConcurrentHashMap<>();
@@ -118,11 +117,7 @@ public abstract class AbstractNIO2Watcher implements Watcher {
             return;
         }
 
-        List<WatchEventListener> list = listeners.computeIfAbsent(Paths.get(pathPrefix), k -> new ArrayList<>());
-
-        if (!list.contains(listener)) {
-            list.add(listener);
-        }
+        listeners.add(Paths.get(pathPrefix), listener);
 
         if (classLoader != null) {
             classLoaderListeners.put(listener, classLoader);
@@ -153,23 +148,7 @@ public abstract class AbstractNIO2Watcher implements Watcher {
             Entry<WatchEventListener, ClassLoader> entry = entryIterator.next();
             if (entry.getValue().equals(classLoader)) {
                 entryIterator.remove();
-                try {
-                    for (Iterator<Entry<Path, List<WatchEventListener>>> listenersIterator = listeners.entrySet().iterator(); listenersIterator.hasNext();) {
-                        Entry<Path, List<WatchEventListener>> pathListenerEntry = listenersIterator.next();
-                        List<WatchEventListener> l = pathListenerEntry.getValue();
-
-                        if (l != null) {
-                            l.remove(entry.getKey());
-                        }
-
-                        if (l == null || l.isEmpty()) {
-                            listenersIterator.remove();
-                        }
-
-                    }
-                } catch (Exception e) {
-                    LOGGER.error("Ooops", e);
-                }
+                listeners.remove(entry.getKey());
             }
         }
         // cleanup...
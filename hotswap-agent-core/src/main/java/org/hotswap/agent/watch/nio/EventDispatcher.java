@@ -21,12 +21,12 @@ package org.hotswap.agent.watch.nio;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.watch.WatchEventListener;
@@ -41,86 +41,90 @@ import org.hotswap.agent.watch.WatchFileEvent;
  * buffer for fast spawning events. The watcher is now responsible for
  * collecting and pushing events in this queue.
  *
+ * The queue is a preallocated ring buffer of reusable slots with a single producer (the watcher thread) and a single
+ * consumer (the dispatcher thread), hence a burst of events (e.g. git checkout) does not allocate queue nodes.
+ * Duplicate events of a batch are skipped in place using a preallocated hash table. Only the event passed
+ * to listeners is allocated, once per dispatched event, because listeners may keep it.
+ *
+ * The watcher never waits for the dispatcher. If the ring is full, the watcher spills the events into an unbounded
+ * overflow queue (allocating a slot per event) and keeps spilling until the dispatcher has drained both the ring and
+ * the overflow queue, hence the events are dispatched in order.
  */
 public class EventDispatcher implements Runnable {
     private static final int MAX_BATCH_SIZE = 1024;
 
+    /** Capacity of the ring buffer, power of two. Events are spilled to the overflow queue if the dispatcher is behind. */
+    static final int RING_SIZE = 8192;
+
+    /** Dedup table size, power of two at least twice MAX_BATCH_SIZE. */
+    private static final int DEDUP_TABLE_SIZE = 2 * MAX_BATCH_SIZE;
+
     /** The logger. */
     protected AgentLogger LOGGER = AgentLogger.getLogger(this.getClass());
 
     /**
-     * The Class Event.
+     * Reusable slot of the ring buffer.
      */
-    static class Event {
+    static final class Slot {
 
         /** The event. */
-        final WatchEvent<Path> event;
+        WatchEvent<Path> event;
 
         /** The path. */
-        final Path path;
-
-        /**
-         * Instantiates a new event.
-         *
-         * @param event
-         *            the event
-         * @param path
-         *            the path
-         */
-        public Event(WatchEvent<Path> event, Path path) {
-            super();
-            this.event = event;
-            this.path = path;
-        }
+        Path path;
+
+        /** Duplicate of an earlier event in the same batch. */
+        boolean duplicate;
     }
 
-    static class EventKey {
-        final WatchEvent.Kind<?> kind;
-        final Path path;
+    /** The listeners by root path. This is managed by the watcher service */
+    private final PathListenerTrie listeners;
 
-        EventKey(WatchEvent.Kind<?> kind, Path path) {
-            this.kind = kind;
-            this.path = path;
-        }
+    /** Listeners matching the current event, reused by the dispatcher thread. */
+    private final List<WatchEventListener[]> matchedListeners = new ArrayList<>();
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof EventKey)) return false;
-            EventKey eventKey = (EventKey) o;
-            return kind == eventKey.kind && Objects.equals(path, eventKey.path);
-        }
+    private final Slot[] ring = new Slot[RING_SIZE];
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(kind, path);
-        }
-    }
+    /** Next slot to write, written only by the producer. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Next slot to read, written only by the consumer. */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Events added while the ring was full or the overflow queue not yet drained. */
+    private final Queue<Slot> overflow = new ConcurrentLinkedQueue<>();
 
-    /** The map of listeners.  This is managed by the watcher service*/
-    private final Map<Path, List<WatchEventListener>> listeners;
+    /** The watcher adds events to the overflow queue, set by the producer and cleared by the consumer (under lock). */
+    private volatile boolean spilling;
 
-    /** The working queue. The event queue is drained and all pending events are added in this list */
-    private final ArrayList<Event> working = new ArrayList<>();
-    private final LinkedHashSet<EventKey> dedupSet = new LinkedHashSet<>();
+    /** Batch of events polled from the overflow queue, reused by the dispatcher thread. */
+    private final Slot[] overflowBatch = new Slot[MAX_BATCH_SIZE];
+
+    /** Dedup table of the current batch - slot index + 1, valid only if stamp matches the batch. */
+    private final int[] dedupTable = new int[DEDUP_TABLE_SIZE];
+    private final int[] dedupStamps = new int[DEDUP_TABLE_SIZE];
+    private int batchStamp;
 
     /** The runnable. */
     private Thread runnable = null;
 
+    /** The consumer thread, set when it is parked on empty buffer. */
+    private volatile Thread waitingConsumer;
+
     /**
      * Instantiates a new event dispatcher.
      *
      * @param listeners
      *            the listeners
      */
-    public EventDispatcher(Map<Path, List<WatchEventListener>> listeners) {
+    public EventDispatcher(PathListenerTrie listeners) {
         super();
         this.listeners = listeners;
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = new Slot();
+        }
     }
 
-    /** The event queue. */
-    private final BlockingQueue<Event> eventQueue = new LinkedBlockingQueue<>();
-
     /*
      * (non-Javadoc)
      *
@@ -129,23 +133,90 @@ public class EventDispatcher implements Runnable {
     @Override
     public void run() {
         while (!Thread.currentThread().isInterrupted()) {
-            try {
-                // Block until first event is available and then drain burst of pending events.
-                Event first = eventQueue.take();
-                working.add(first);
-                eventQueue.drainTo(working, MAX_BATCH_SIZE - 1);
-
-                for (Event e : working) {
-                    EventKey key = new EventKey(e.event.kind(), e.path);
-                    if (dedupSet.add(key)) {
-                        callListeners(e.event, e.path);
+            // read before the ring - no event is added to the ring while spilling, the overflow events are newer
+            boolean spilled = spilling;
+
+            // Block until first event is available and then process burst of pending events.
+            long first = head.get();
+            long available = tail.get();
+            if (first != available) {
+                long end = Math.min(available, first + MAX_BATCH_SIZE);
+                dispatch(ring, first, end, RING_SIZE - 1);
+                head.set(end);
+                continue;
+            }
+
+            if (spilled) {
+                int count = 0;
+                Slot slot;
+                while (count < MAX_BATCH_SIZE && (slot = overflow.poll()) != null) {
+                    overflowBatch[count++] = slot;
+                }
+                if (count > 0) {
+                    dispatch(overflowBatch, 0, count, MAX_BATCH_SIZE - 1);
+                    Arrays.fill(overflowBatch, 0, count, null);
+                    continue;
+                }
+                synchronized (this) {
+                    // the producer adds to the ring again
+                    if (overflow.isEmpty()) {
+                        spilling = false;
                     }
                 }
-                dedupSet.clear();
-                working.clear();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return;
+                continue;
+            }
+
+            waitingConsumer = Thread.currentThread();
+            if (tail.get() == first && !spilling) {
+                LockSupport.park(this);
+            }
+            waitingConsumer = null;
+        }
+    }
+
+    /**
+     * Dispatch a batch of slots, the slot of event i is slots[i & mask].
+     */
+    private void dispatch(Slot[] slots, long first, long end, int mask) {
+        markDuplicates(slots, first, end, mask);
+        for (long i = first; i < end; i++) {
+            Slot slot = slots[(int) i & mask];
+            if (!slot.duplicate) {
+                callListeners(slot.event, slot.path);
+            }
+            slot.event = null;
+            slot.path = null;
+            slot.duplicate = false;
+        }
+    }
+
+    /**
+     * Mark the same (kind and path) events of the batch as duplicates, the first one is dispatched.
+     */
+    private void markDuplicates(Slot[] slots, long first, long end, int mask) {
+        int stamp = ++batchStamp;
+        if (stamp == 0) {
+            // stamp overflow, start over
+            Arrays.fill(dedupStamps, 0);
+            stamp = batchStamp = 1;
+        }
+        for (long i = first; i < end; i++) {
+            int index = (int) i & mask;
+            Slot slot = slots[index];
+            int hash = 31 * slot.path.hashCode() + slot.event.kind().hashCode();
+            int pos = (hash ^ (hash >>> 16)) & (DEDUP_TABLE_SIZE - 1);
+            for (;;) {
+                if (dedupStamps[pos] != stamp) {
+                    dedupStamps[pos] = stamp;
+                    dedupTable[pos] = index + 1;
+                    break;
+                }
+                Slot other = slots[dedupTable[pos] - 1];
+                if (other.event.kind() == slot.event.kind() && other.path.equals(slot.path)) {
+                    slot.duplicate = true;
+                    break;
+                }
+                pos = (pos + 1) & (DEDUP_TABLE_SIZE - 1);
             }
         }
     }
@@ -158,13 +229,34 @@ public class EventDispatcher implements Runnable {
      * @param path
      *            the path
      */
-    public void add(WatchEvent<Path> event, Path path) {
-        eventQueue.offer(new Event(event, path));
+    public synchronized void add(WatchEvent<Path> event, Path path) {
+        // single producer (synchronized as a guard and against the consumer leaving the spilling mode)
+        long t = tail.get();
+        if (spilling || t - head.get() >= RING_SIZE) {
+            if (!spilling) {
+                LOGGER.debug("Watch event dispatcher is behind by {} events, spilling events to overflow queue.", RING_SIZE);
+                spilling = true;
+            }
+            Slot slot = new Slot();
+            slot.event = event;
+            slot.path = path;
+            overflow.offer(slot);
+        } else {
+            Slot slot = ring[(int) t & (RING_SIZE - 1)];
+            slot.event = event;
+            slot.path = path;
+            tail.set(t + 1);
+        }
+
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
     }
 
     /**
      * Call the listeners.
-     * Listeners are organized per path in a Map. The number of paths is low so a simple iteration should be fast enough.
+     * Listeners are organized in a trie of path components, only listeners on the ancestor chain of the path are visited.
      *
      * @param event
      *            the event
@@ -173,12 +265,11 @@ public class EventDispatcher implements Runnable {
      */
     // notify listeners about new event
     private void callListeners(final WatchEvent<?> event, final Path path) {
-        boolean matchedOne = false;
-        for (Map.Entry<Path, List<WatchEventListener>> list : listeners.entrySet()) {
-            if (path.startsWith(list.getKey())) {
-                matchedOne = true;
-                for (WatchEventListener listener : new ArrayList<>(list.getValue())) {
-                    WatchFileEvent agentEvent = new HotswapWatchFileEvent(event, path);
+        boolean matchedOne = listeners.collect(path, matchedListeners);
+        if (matchedOne) {
+            WatchFileEvent agentEvent = new HotswapWatchFileEvent(event, path);
+            for (int i = 0; i < matchedListeners.size(); i++) {
+                for (WatchEventListener listener : matchedListeners.get(i)) {
                     try {
                         listener.onEvent(agentEvent);
                     } catch (Throwable e) {
@@ -187,8 +278,8 @@ public class EventDispatcher implements Runnable {
                     }
                 }
             }
-        }
-        if (!matchedOne) {
+            matchedListeners.clear();
+        } else {
             LOGGER.error("No match for  watch event '{}',  path '{}'", event, path);
         }
     }
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.watch.nio;
+
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hotswap.agent.watch.WatchEventListener;
+
+/**
+ * Watch event listeners organized in a trie of path components.
+ * <p/>
+ * An event path visits only listeners registered on its ancestor chain (the same semantics
+ * as <code>path.startsWith(root)</code>), independently on the number of registered roots.
+ * <p/>
+ * Modifications are synchronized and replace node arrays (copy-on-write), the dispatcher thread
+ * reads the trie without locking.
+ */
+public final class PathListenerTrie {
+    private static final WatchEventListener[] NO_LISTENERS = new WatchEventListener[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final char separator;
+    private final boolean ignoreCase;
+    private final Node root = new Node(null);
+
+    public PathListenerTrie() {
+        this(FileSystems.getDefault());
+    }
+
+    PathListenerTrie(FileSystem fileSystem) {
+        this.separator = fileSystem.getSeparator().charAt(0);
+        // e.g. Windows - path comparison is case insensitive
+        this.ignoreCase = fileSystem.getPath("A").equals(fileSystem.getPath("a"));
+    }
+
+    /**
+     * Register listener on the root path, the same listener is registered on a path only once.
+     */
+    public synchronized void add(Path path, WatchEventListener listener) {
+        String name = path.toString();
+        Node node = root;
+        int start = skipSeparators(name, 0);
+        while (start < name.length()) {
+            int end = tokenEnd(name, start);
+            Node child = node.child(name, start, end, ignoreCase);
+            if (child == null) {
+                child = new Node(name.substring(start, end));
+                node.addChild(child);
+            }
+            node = child;
+            start = skipSeparators(name, end);
+        }
+        node.addListener(listener);
+    }
+
+    /**
+     * Remove the listener from all paths, empty nodes are pruned.
+     *
+     * @return true if the listener was registered
+     */
+    public synchronized boolean remove(WatchEventListener listener) {
+        return remove(root, listener);
+    }
+
+    private boolean remove(Node node, WatchEventListener listener) {
+        boolean removed = node.removeListener(listener);
+        for (Node child : node.children) {
+            if (remove(child, listener)) {
+                removed = true;
+                if (child.isEmpty()) {
+                    node.removeChild(child);
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Remove all listeners.
+     */
+    public synchronized void clear() {
+        root.children = NO_CHILDREN;
+        root.listeners = NO_LISTENERS;
+    }
+
+    public boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    /**
+     * Collect listeners registered on the path or any of its ancestors, ancestors first.
+     *
+     * @param path the event path
+     * @param out  listener arrays of matched nodes are added to this list (arrays must not be modified)
+     * @return true if at least one listener matched
+     */
+    public boolean collect(Path path, List<WatchEventListener[]> out) {
+        boolean matched = addListeners(root, out);
+        String name = path.toString();
+        Node node = root;
+        int start = skipSeparators(name, 0);
+        while (start < name.length()) {
+            int end = tokenEnd(name, start);
+            node = node.child(name, start, end, ignoreCase);
+            if (node == null) {
+                break;
+            }
+            matched |= addListeners(node, out);
+            start = skipSeparators(name, end);
+        }
+        return matched;
+    }
+
+    private static boolean addListeners(Node node, List<WatchEventListener[]> out) {
+        WatchEventListener[] listeners = node.listeners;
+        if (listeners.length == 0) {
+            return false;
+        }
+        out.add(listeners);
+        return true;
+    }
+
+    private int skipSeparators(String name, int index) {
+        while (index < name.length() && name.charAt(index) == separator) {
+            index++;
+        }
+        return index;
+    }
+
+    private int tokenEnd(String name, int start) {
+        int end = name.indexOf(separator, start);
+        return end < 0 ? name.length() : end;
+    }
+
+    private static final class Node {
+        final String name;
+        volatile Node[] children = NO_CHILDREN;
+        volatile WatchEventListener[] listeners = NO_LISTENERS;
+
+        Node(String name) {
+            this.name = name;
+        }
+
+        Node child(String path, int start, int end, boolean ignoreCase) {
+            int length = end - start;
+            for (Node child : children) {
+                if (child.name.length() == length && child.name.regionMatches(ignoreCase, 0, path, start, length)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        void addChild(Node child) {
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, children.length);
+            newChildren[children.length] = child;
+            children = newChildren;
+        }
+
+        void removeChild(Node child) {
+            children = without(children, child, NO_CHILDREN);
+        }
+
+        void addListener(WatchEventListener listener) {
+            for (WatchEventListener l : listeners) {
+                if (l.equals(listener)) {
+                    return;
+                }
+            }
+            WatchEventListener[] newListeners = new WatchEventListener[listeners.length + 1];
+            System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+            newListeners[listeners.length] = listener;
+            listeners = newListeners;
+        }
+
+        boolean removeListener(WatchEventListener listener) {
+            WatchEventListener[] newListeners = without(listeners, listener, NO_LISTENERS);
+            if (newListeners == listeners) {
+                return false;
+            }
+            listeners = newListeners;
+            return true;
+        }
+
+        boolean isEmpty() {
+            return listeners.length == 0 && children.length == 0;
+        }
+
+        // copy of the array without the element, the same array if not found
+        private static <T> T[] without(T[] array, Object element, T[] empty) {
+            for (int i = 0; i < array.length; i++) {
+                if (array[i].equals(element)) {
+                    if (array.length == 1) {
+                        return empty;
+                    }
+                    T[] result = Arrays.copyOf(array, array.length - 1);
+                    System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+                    return result;
+                }
+            }
+            return array;
+        }
+    }
+}
@@ -62,6 +62,8 @@ public class PluginManagerTest {
 
         PluginRegistry pluginRegistry = pluginManager.getPluginRegistry();
         pluginRegistry.setAnnotationScanner(annotationScanner);
+        // do not read core plugins from the plugin index
+        pluginRegistry.setPluginIndex(null);
         pluginRegistry.setAnnotationProcessor(annotationProcessor);
         pluginManager.init(instrumentation);
 
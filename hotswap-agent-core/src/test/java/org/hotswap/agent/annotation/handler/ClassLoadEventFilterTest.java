@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.annotation.handler;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.hotswap.agent.annotation.LoadEvent;
+import org.hotswap.agent.annotation.OnClassLoadEvent;
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.testData.SimplePlugin;
+import org.junit.Test;
+
+public class ClassLoadEventFilterTest {
+
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    public void noFilter() {
+    }
+
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = "org.hotswap.agent.annotation.Plugin")
+    public void pluginAnnotation() {
+    }
+
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = "javax.persistence.Entity")
+    public void entityAnnotation() {
+    }
+
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, superTypes = "java.lang.Object",
+            packages = "org.hotswap.agent.testData")
+    public void objectInTestData() {
+    }
+
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, packages = "org.hotswap.agent.test")
+    public void packagePrefixIsNotPackage() {
+    }
+
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, superTypes = "java.lang.Runnable")
+    public void runnable() {
+    }
+
+    private static ClassLoadEventFilter filter(String method) throws Exception {
+        return ClassLoadEventFilter.create(ClassLoadEventFilterTest.class.getMethod(method).getAnnotation(OnClassLoadEvent.class));
+    }
+
+    private ClassTransformSession session(Class<?> redefiningClass, boolean removeAnnotations) throws Exception {
+        ClassPool classPool = new ClassPool(true);
+        CtClass ctClass = classPool.get(SimplePlugin.class.getName());
+        if (removeAnnotations) {
+            ctClass.getClassFile().removeAttribute("RuntimeVisibleAnnotations");
+        }
+        byte[] bytes = ctClass.toBytecode();
+        ctClass.detach();
+        return new ClassTransformSession(getClass().getClassLoader(), SimplePlugin.class.getName().replace('.', '/'),
+                redefiningClass, null, bytes);
+    }
+
+    @Test
+    public void testFilters() throws Exception {
+        assertNull(filter("noFilter"));
+
+        ClassTransformSession session = session(SimplePlugin.class, false);
+        assertTrue(filter("pluginAnnotation").matches(session));
+        assertFalse(filter("entityAnnotation").matches(session));
+        assertTrue(filter("objectInTestData").matches(session));
+        assertFalse(filter("packagePrefixIsNotPackage").matches(session));
+        assertFalse(filter("runnable").matches(session));
+    }
+
+    @Test
+    public void testAnnotationRemovedByRedefinition() throws Exception {
+        // annotation is still on the class being redefined
+        assertTrue(filter("pluginAnnotation").matches(session(SimplePlugin.class, true)));
+        // new class without the annotation
+        assertFalse(filter("pluginAnnotation").matches(session(null, true)));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.annotation.handler;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.javassist.CtField;
+import org.hotswap.agent.testData.SimplePlugin;
+import org.junit.Test;
+
+public class ClassTransformSessionTest {
+
+    private byte[] simplePluginBytes() throws Exception {
+        ClassPool classPool = new ClassPool(true);
+        CtClass ctClass = classPool.get(SimplePlugin.class.getName());
+        byte[] bytes = ctClass.toBytecode();
+        ctClass.detach();
+        return bytes;
+    }
+
+    @Test
+    public void testUnmodifiedClassIsNotSerialized() throws Exception {
+        byte[] bytes = simplePluginBytes();
+        ClassTransformSession session = new ClassTransformSession(getClass().getClassLoader(),
+                SimplePlugin.class.getName().replace('.', '/'), null, null, bytes);
+
+        CtClass ctClass = session.getCtClass();
+        assertSame("CtClass is shared within the session", ctClass, session.getCtClass());
+        assertSame("ClassPool is shared within the session", session.getClassPool(), session.getClassPool());
+        assertFalse(session.isModified());
+
+        assertSame("Original bytes are returned", bytes, session.close());
+    }
+
+    @Test
+    public void testModifiedClassIsSerialized() throws Exception {
+        byte[] bytes = simplePluginBytes();
+        ClassTransformSession session = new ClassTransformSession(getClass().getClassLoader(),
+                SimplePlugin.class.getName().replace('.', '/'), null, null, bytes);
+
+        CtClass ctClass = session.getCtClass();
+        ctClass.addField(CtField.make("public int sessionField;", ctClass));
+        assertTrue(session.isModified());
+
+        byte[] modified = session.getBytes();
+        assertNotSame(bytes, modified);
+
+        // next plugin gets a class parsed from the modified bytes
+        CtClass reparsed = session.getCtClass();
+        assertNotSame(ctClass, reparsed);
+        assertTrue(reparsed.getField("sessionField") != null);
+        assertSame(modified, session.close());
+    }
+}
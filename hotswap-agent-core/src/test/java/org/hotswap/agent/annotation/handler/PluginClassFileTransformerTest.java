@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.annotation.handler;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+
+import org.hotswap.agent.annotation.Maven;
+import org.hotswap.agent.annotation.OnClassLoadEvent;
+import org.hotswap.agent.annotation.Plugin;
+import org.hotswap.agent.annotation.Versions;
+import org.junit.Test;
+
+public class PluginClassFileTransformerTest {
+
+    @Plugin(name = "VersionedPlugin", testedVersions = "")
+    public static class VersionedPlugin {
+        @OnClassLoadEvent(classNameRegexp = "org.example.Versioned")
+        @Versions(maven = @Maven(value = "[1.0,2.0)", artifactId = "versioned", groupId = "org.example"))
+        public static void transform() {
+        }
+    }
+
+    private static URL artifact(String version) throws IOException {
+        File dir = Files.createTempDirectory("ha-versioned").toFile();
+        File pom = new File(dir, "META-INF/maven/org.example/versioned/pom.properties");
+        pom.getParentFile().mkdirs();
+        try (OutputStream os = new FileOutputStream(pom)) {
+            os.write(("groupId=org.example\nartifactId=versioned\nversion=" + version + "\n").getBytes("UTF-8"));
+        }
+        return dir.toURI().toURL();
+    }
+
+    @Test
+    public void testVersionMatchesStaticHandler() throws Exception {
+        Method method = VersionedPlugin.class.getMethod("transform");
+        PluginAnnotation<OnClassLoadEvent> pluginAnnotation = new PluginAnnotation<OnClassLoadEvent>(
+                VersionedPlugin.class, null, method.getAnnotation(OnClassLoadEvent.class), method);
+        PluginClassFileTransformer transformer = new PluginClassFileTransformer(null, pluginAnnotation);
+        assertTrue("Versioned static handler", transformer.shouldCheckVersion());
+
+        try (URLClassLoader matching = new URLClassLoader(new URL[]{artifact("1.5")}, null);
+             URLClassLoader notMatching = new URLClassLoader(new URL[]{artifact("2.1")}, null)) {
+            assertTrue(transformer.versionMatches(matching));
+            assertFalse(transformer.versionMatches(notMatching));
+            // cached results
+            assertTrue(transformer.versionMatches(matching));
+            assertFalse(transformer.versionMatches(notMatching));
+        }
+    }
+}
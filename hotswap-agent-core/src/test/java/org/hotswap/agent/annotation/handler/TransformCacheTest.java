@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.annotation.handler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test TransformCache persistence.
+ */
+public class TransformCacheTest {
+
+    private File directory;
+    private Method handler;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("transform-cache").toFile();
+        handler = TransformCacheTest.class.getMethod("handler");
+    }
+
+    @After
+    public void tearDown() {
+        File file = new File(directory, TransformCache.FILE_NAME);
+        file.delete();
+        directory.delete();
+    }
+
+    public static void handler() {
+    }
+
+    @Test
+    public void testPutAndReopen() throws Exception {
+        byte[] input = {1, 2, 3};
+        byte[] output = {4, 5, 6, 7};
+
+        TransformCache cache = new TransformCache(directory);
+        TransformCache.Key key = cache.key("a.B", handler, "{}", input);
+        assertNull(cache.get(key));
+        cache.put(key, input, output);
+        assertArrayEquals(output, cache.get(key));
+
+        TransformCache reopened = new TransformCache(directory);
+        TransformCache.Key reopenedKey = reopened.key("a.B", handler, "{}", input);
+        assertEquals(key, reopenedKey);
+        assertArrayEquals(output, reopened.get(reopenedKey));
+    }
+
+    @Test
+    public void testKeyDependsOnInput() throws Exception {
+        byte[] input = {1, 2, 3};
+        TransformCache cache = new TransformCache(directory);
+        TransformCache.Key key = cache.key("a.B", handler, "{}", input);
+
+        assertFalse(key.equals(cache.key("a.C", handler, "{}", input)));
+        assertFalse(key.equals(cache.key("a.B", handler, "{a=b}", input)));
+        assertFalse(key.equals(cache.key("a.B", handler, "{}", new byte[]{1, 2, 4})));
+        assertFalse(key.equals(cache.key("a.B", TransformCacheTest.class.getMethod("setUp"), "{}", input)));
+    }
+
+    @Test
+    public void testUnchanged() throws Exception {
+        byte[] input = {1, 2, 3};
+        TransformCache cache = new TransformCache(directory);
+        TransformCache.Key key = cache.key("a.B", handler, "{}", input);
+        cache.put(key, input, input.clone());
+        assertEquals(0, cache.get(key).length);
+        assertEquals(0, new TransformCache(directory).get(key).length);
+    }
+
+    @Test
+    public void testCorruptedTail() throws Exception {
+        byte[] input = {1, 2, 3};
+        byte[] output = {4, 5, 6, 7};
+        TransformCache cache = new TransformCache(directory);
+        TransformCache.Key key = cache.key("a.B", handler, "{}", input);
+        cache.put(key, input, output);
+
+        File file = new File(directory, TransformCache.FILE_NAME);
+        long validLength = file.length();
+        FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            // incomplete record header
+            out.write(new byte[]{0x48, 0x41, 0x54, 0x43, 1, 2});
+        } finally {
+            out.close();
+        }
+
+        TransformCache reopened = new TransformCache(directory);
+        assertArrayEquals(output, reopened.get(key));
+        assertEquals(validLength, file.length());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.annotation.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.hotswap.agent.command.AdaptiveDebounce;
+import org.hotswap.agent.monitor.HotswapMonitor;
+import org.junit.Test;
+
+/**
+ * Test adaptive debounce shared by listeners on a watched root.
+ */
+public class WatchHandlerTest {
+
+    private final ClassLoader classLoader = new URLClassLoader(new URL[0]);
+
+    @Test
+    public void testGetRoot() {
+        assertEquals("file:/app/classes/", WatchHandler.getRoot(URI.create("file:/app/classes/"), ""));
+        assertEquals("file:/app/classes/", WatchHandler.getRoot(URI.create("file:/app/classes/META-INF/"), "META-INF"));
+        assertEquals("file:/app/classes/", WatchHandler.getRoot(URI.create("file:/app/classes/org/example"), "org/example"));
+    }
+
+    @Test
+    public void testDebounceSharedByRoot() {
+        String root = WatchHandler.getRoot(URI.create("file:/debounce-test/classes/META-INF/"), "META-INF");
+        AdaptiveDebounce classFileDebounce = WatchHandler.getDebounce(
+                WatchHandler.getRoot(URI.create("file:/debounce-test/classes/"), ""), 100, classLoader);
+        AdaptiveDebounce resourceDebounce = WatchHandler.getDebounce(root, 300, classLoader);
+
+        assertSame(classFileDebounce, resourceDebounce);
+        assertNotSame(classFileDebounce, WatchHandler.getDebounce("file:/debounce-test/resources/", 100, classLoader));
+
+        // events delivered to both listeners extend a single quiet window
+        Object event = new Object();
+        classFileDebounce.eventArrived(event);
+        resourceDebounce.eventArrived(event);
+        assertEquals(1, classFileDebounce.getEvents());
+        WatchHandler.closeClassLoader(classLoader);
+    }
+
+    @Test
+    public void testCloseClassLoader() {
+        ClassLoader otherClassLoader = new URLClassLoader(new URL[0]);
+        WatchHandler.getDebounce("file:/close-test/classes/", 100, classLoader);
+        WatchHandler.getDebounce("file:/close-test/classes/", 100, otherClassLoader);
+        WatchHandler.getDebounce("file:/close-test/resources/", 100, otherClassLoader);
+        assertNotNull(HotswapMonitor.getInstance().getDebounceStatistics().get("file:/close-test/resources/"));
+
+        // root still used by the other classloader
+        WatchHandler.closeClassLoader(classLoader);
+        assertTrue(WatchHandler.hasDebounce("file:/close-test/classes/"));
+        assertTrue(WatchHandler.hasDebounce("file:/close-test/resources/"));
+
+        WatchHandler.closeClassLoader(otherClassLoader);
+        assertFalse(WatchHandler.hasDebounce("file:/close-test/classes/"));
+        assertFalse(WatchHandler.hasDebounce("file:/close-test/resources/"));
+        assertNull(HotswapMonitor.getInstance().getDebounceStatistics().get("file:/close-test/resources/"));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveDebounceTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testSingleSave() {
+        AdaptiveDebounce debounce = new AdaptiveDebounce("root", 500);
+        long now = 1000 * MS;
+
+        // DELETE, CREATE, MODIFY of a single class file
+        assertEquals(AdaptiveDebounce.MIN_WINDOW, debounce.eventArrived(now));
+        debounce.eventArrived(now + 2 * MS);
+        int window = debounce.eventArrived(now + 3 * MS);
+        assertEquals(AdaptiveDebounce.MIN_WINDOW, window);
+        assertEquals(now + 3 * MS + window * MS, debounce.getQuietUntil());
+        assertEquals(1, debounce.getBursts());
+    }
+
+    @Test
+    public void testShortTimeoutIsKept() {
+        AdaptiveDebounce debounce = new AdaptiveDebounce("root", 5);
+        assertEquals(5, debounce.eventArrived(MS));
+    }
+
+    @Test
+    public void testBurstExtendsWindow() {
+        AdaptiveDebounce debounce = new AdaptiveDebounce("root", 100);
+        long now = 1000 * MS;
+
+        // rebuild writes 2000 class files, 2ms apart
+        int window = 0;
+        for (int i = 0; i < 2000; i++) {
+            now += 2 * MS;
+            window = debounce.eventArrived(now);
+        }
+        assertTrue("Window extended during burst: " + window, window >= 800 && window <= AdaptiveDebounce.MAX_WINDOW);
+        assertEquals(1, debounce.getBursts());
+
+        // compiler pause of 300ms is still a part of the burst
+        now += 300 * MS;
+        window = debounce.eventArrived(now);
+        assertEquals(1, debounce.getBursts());
+        assertTrue("Window covers the longest gap: " + window, window >= 600);
+
+        // burst is over, next save is handled quickly again
+        now += 10000 * MS;
+        assertEquals(AdaptiveDebounce.MIN_WINDOW, debounce.eventArrived(now));
+        assertEquals(2, debounce.getBursts());
+        assertEquals(2002, debounce.getEvents());
+        assertTrue(debounce.getMaxEffectiveWindow() >= 800);
+    }
+
+    @Test
+    public void testSharedEventCountedOnce() {
+        AdaptiveDebounce debounce = new AdaptiveDebounce("root", 5);
+        debounce.addTimeout(500);
+        debounce.addTimeout(100);
+
+        // the same event delivered to three listeners of the root
+        Object event = new Object();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(AdaptiveDebounce.MIN_WINDOW, debounce.eventArrived(event));
+        }
+        assertEquals(1, debounce.getEvents());
+
+        debounce.eventArrived(new Object());
+        assertEquals(2, debounce.getEvents());
+        assertTrue(debounce.toString().contains("timeout=500"));
+    }
+}
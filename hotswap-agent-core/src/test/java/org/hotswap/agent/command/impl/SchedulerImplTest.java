@@ -27,10 +27,25 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hotswap.agent.command.AdaptiveDebounce;
+import org.hotswap.agent.command.Command;
+import org.hotswap.agent.command.CommandLane;
+import org.hotswap.agent.command.MergeableCommand;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 /**
  * @author Jiri Bubnik
@@ -72,4 +87,282 @@ public class SchedulerImplTest {
 
         assertTrue("Event listener not called", WaitHelper.waitForResult(resultHolder));
     }
+
+    @Test
+    public void testWaitAndRunAfterRunningCommand() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(2);
+        Command blocking = new BlockingCommand(release, executions, finished);
+
+        scheduler.scheduleCommand(blocking, 0);
+        assertTrue("First run started", WaitHelper.waitForCommand(new WaitHelper.Command() {
+            @Override
+            public boolean result() {
+                return executions.get() == 1;
+            }
+        }));
+
+        // equal command is due while the first one runs - must wait
+        scheduler.scheduleCommand(new BlockingCommand(release, executions, finished), 0,
+                Scheduler.DuplicateSheduleBehaviour.WAIT_AND_RUN_AFTER);
+        Thread.sleep(100);
+        assertEquals("Duplicate not started while running", 1, executions.get());
+
+        release.countDown();
+        assertTrue("Duplicate executed after the first one", finished.await(1, TimeUnit.SECONDS));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testSkipRunningCommand() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        scheduler.scheduleCommand(new BlockingCommand(release, executions, finished), 0);
+        assertTrue("First run started", WaitHelper.waitForCommand(new WaitHelper.Command() {
+            @Override
+            public boolean result() {
+                return executions.get() == 1;
+            }
+        }));
+
+        scheduler.scheduleCommand(new BlockingCommand(release, executions, finished), 0,
+                Scheduler.DuplicateSheduleBehaviour.SKIP);
+        Thread.sleep(100);
+        release.countDown();
+        assertTrue(finished.await(1, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals("Duplicate skipped", 1, executions.get());
+    }
+
+    // all instances are equal
+    private static class BlockingCommand implements Command {
+        final CountDownLatch release;
+        final AtomicInteger executions;
+        final CountDownLatch finished;
+
+        BlockingCommand(CountDownLatch release, AtomicInteger executions, CountDownLatch finished) {
+            this.release = release;
+            this.executions = executions;
+            this.finished = finished;
+        }
+
+        @Override
+        public void executeCommand() {
+            executions.incrementAndGet();
+            try {
+                release.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.countDown();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BlockingCommand;
+        }
+
+        @Override
+        public int hashCode() {
+            return BlockingCommand.class.hashCode();
+        }
+    }
+
+    /**
+     * Micro-benchmark - merging of equal commands must not depend on number of scheduled commands.
+     */
+    @Test
+    public void testMergeScaling() {
+        // warm up
+        scheduleMergeable(10000);
+
+        long time10k = scheduleMergeable(10000);
+        long time40k = scheduleMergeable(40000);
+
+        // linear is 4x, quadratic 16x - leave enough space for measurement noise
+        assertTrue("Near linear scaling expected, 10k: " + time10k + "ns, 40k: " + time40k + "ns",
+                time40k < 8 * Math.max(time10k, TimeUnit.MILLISECONDS.toNanos(5)));
+    }
+
+    private long scheduleMergeable(int count) {
+        SchedulerImpl notStarted = new SchedulerImpl(false);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            // each command is merged with the previous one
+            notStarted.scheduleCommand(new KeyMergeableCommand(i / 2), 60000);
+        }
+        long time = System.nanoTime() - start;
+        assertEquals(count / 2, notStarted.scheduledCommands.size());
+        return time;
+    }
+
+    private static class KeyMergeableCommand extends MergeableCommand {
+        final int key;
+
+        KeyMergeableCommand(int key) {
+            this.key = key;
+        }
+
+        @Override
+        public void executeCommand() {
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof KeyMergeableCommand && ((KeyMergeableCommand) o).key == key;
+        }
+
+        @Override
+        public int hashCode() {
+            return key;
+        }
+    }
+
+    @Test
+    public void testLaneExecutesInOrder() throws Exception {
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(5);
+        CommandLane lane = CommandLane.of(this, getClass().getClassLoader());
+
+        for (int i = 0; i < 5; i++) {
+            final int order = i;
+            scheduler.scheduleCommand(new Command() {
+                @Override
+                public void executeCommand() {
+                    maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    executed.add(order);
+                    running.decrementAndGet();
+                    finished.countDown();
+                }
+            }, 0, lane);
+        }
+
+        assertTrue("All lane commands executed", finished.await(2, TimeUnit.SECONDS));
+        assertEquals("Lane commands run sequentially", 1, maxRunning.get());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), executed);
+    }
+
+    /**
+     * More blocked commands than processors must not starve the command they wait for.
+     */
+    @Test
+    public void testBlockedCommandsDoNotStarve() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        int blockedCount = 2 * Math.max(4, Runtime.getRuntime().availableProcessors()) + 1;
+        List<CompletableFuture<Void>> blocked = new ArrayList<>();
+        for (int i = 0; i < blockedCount; i++) {
+            blocked.add(scheduler.submitCommand(new Command() {
+                @Override
+                public void executeCommand() {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }, 0));
+        }
+        CompletableFuture<Void> releasing = scheduler.submitCommand(new Command() {
+            @Override
+            public void executeCommand() {
+                release.countDown();
+            }
+        }, 10);
+
+        releasing.get(2, TimeUnit.SECONDS);
+        CompletableFuture.allOf(blocked.toArray(new CompletableFuture[0])).get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSubmitCommandFailure() throws Exception {
+        CompletableFuture<Void> future = scheduler.submitCommand(new Command() {
+            @Override
+            public void executeCommand() {
+                throw new IllegalStateException("expected");
+            }
+        }, 0);
+
+        try {
+            future.get(2, TimeUnit.SECONDS);
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testAfterClassesRedefinedCommands() throws Exception {
+        scheduler.stop();
+        scheduler = new SchedulerImpl(true);
+        scheduler.run();
+
+        final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+        CompletableFuture<Void> refresh = scheduler.submitCommandAfterClassesRedefinedCommands(
+                new RecordingCommand(executed, "refresh", 0), 60000);
+        CompletableFuture<Void> proxy = scheduler.submitCommandOnClassesRedefinedOrTimeout(
+                new RecordingCommand(executed, "proxy", 100), 60000);
+
+        scheduler.onClassesRedefined();
+
+        refresh.get(2, TimeUnit.SECONDS);
+        assertTrue(proxy.isDone());
+        assertEquals(Arrays.asList("proxy", "refresh"), executed);
+    }
+
+    private static class RecordingCommand implements Command {
+        final List<String> executed;
+        final String name;
+        final long sleep;
+
+        RecordingCommand(List<String> executed, String name, long sleep) {
+            this.executed = executed;
+            this.name = name;
+            this.sleep = sleep;
+        }
+
+        @Override
+        public void executeCommand() {
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executed.add(name);
+        }
+    }
+
+    @Test
+    public void testDebouncedCommandWaitsForQuietWindow() throws Exception {
+        final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+        AdaptiveDebounce debounce = new AdaptiveDebounce("root", 20);
+
+        debounce.eventArrived();
+        long start = System.nanoTime();
+        scheduler.scheduleCommand(new RecordingCommand(executed, "first", 0), debounce);
+
+        // events from the same root keep arriving for 150ms
+        for (int i = 0; i < 30; i++) {
+            Thread.sleep(5);
+            debounce.eventArrived();
+        }
+        assertTrue("Command postponed during burst", executed.isEmpty());
+
+        assertTrue(WaitHelper.waitForCommand(new WaitHelper.Command() {
+            @Override
+            public boolean result() {
+                return !executed.isEmpty();
+            }
+        }));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+    }
 }
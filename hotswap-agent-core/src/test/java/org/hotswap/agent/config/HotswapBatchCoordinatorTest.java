@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.config;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.instrument.ClassDefinition;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class HotswapBatchCoordinatorTest {
+
+    // sizes of redefineClasses() calls
+    private final List<Integer> redefinitions = new ArrayList<>();
+
+    private Instrumentation instrumentation(final Class<?> failingClass) {
+        return (Instrumentation) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Instrumentation.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (!method.getName().equals("redefineClasses")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        ClassDefinition[] definitions = (ClassDefinition[]) args[0];
+                        for (ClassDefinition definition : definitions) {
+                            if (definition.getDefinitionClass() == failingClass) {
+                                throw new VerifyError("Bad class " + failingClass.getName());
+                            }
+                        }
+                        redefinitions.add(definitions.length);
+                        return null;
+                    }
+                });
+    }
+
+    @Test
+    public void testSingleRedefinitionForAllClassLoaders() {
+        HotswapBatchCoordinator coordinator = new HotswapBatchCoordinator(instrumentation(null), new Object(), null);
+
+        // changes from different classloaders
+        coordinator.add(Collections.<Class<?>, byte[]>singletonMap(String.class, new byte[0]));
+        coordinator.add(Collections.<Class<?>, byte[]>singletonMap(HotswapBatchCoordinatorTest.class, new byte[0]));
+        Map<Class<?>, byte[]> reloadMap = new HashMap<>();
+        reloadMap.put(Test.class, new byte[0]);
+        reloadMap.put(String.class, new byte[1]);
+        coordinator.add(reloadMap);
+
+        assertEquals(3, coordinator.flush());
+        assertEquals(Collections.singletonList(3), redefinitions);
+
+        // nothing pending
+        assertEquals(0, coordinator.flush());
+        assertEquals(1, redefinitions.size());
+    }
+
+    @Test
+    public void testFallbackToSingleClasses() {
+        HotswapBatchCoordinator coordinator = new HotswapBatchCoordinator(instrumentation(Test.class), new Object(), null);
+
+        coordinator.add(Collections.<Class<?>, byte[]>singletonMap(String.class, new byte[0]));
+        coordinator.add(Collections.<Class<?>, byte[]>singletonMap(Test.class, new byte[0]));
+        coordinator.add(Collections.<Class<?>, byte[]>singletonMap(HotswapBatchCoordinatorTest.class, new byte[0]));
+
+        // the bad class does not block the other two
+        assertEquals(2, coordinator.flush());
+        assertEquals(Arrays.asList(1, 1), redefinitions);
+    }
+}
@@ -19,13 +19,25 @@
 package org.hotswap.agent.logging;
 
 import org.hamcrest.core.StringContains;
+import org.hotswap.agent.config.LogConfigurationHelper;
 import org.hotswap.agent.config.PluginManager;
 import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.jmock.lib.legacy.ClassImposteriser;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by bubnik on 14.10.13.
@@ -49,4 +61,85 @@ public class AgentLoggerHandlerTest {
         handler.print(PluginManager.class, AgentLogger.Level.DEBUG, "A {} B {} C {}", null, "1", 2, 3L);
     }
 
+    @Test
+    public void testFormatMessage() {
+        assertEquals("A 1 B {}", format("A {} B {}", "1"));
+        assertEquals("A {} B 2", format("A {} B {}", "{}", 2));
+        assertEquals("A null", format("A {}", null, "ignored"));
+        assertEquals("no args", format("no args"));
+    }
+
+    private static String format(String message, Object... args) {
+        StringBuilder b = new StringBuilder();
+        AgentLoggerHandler.appendMessage(b, message, args);
+        return b.toString();
+    }
+
+    @Test
+    public void testAsyncHandlerKeepsOrder() throws Exception {
+        final AsyncAgentLoggerHandler handler = new AsyncAgentLoggerHandler();
+        handler.setLogToConsole(false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        handler.setPrintStream(new PrintStream(out, true));
+
+        final int messages = 3 * AsyncAgentLoggerHandler.BUFFER_SIZE;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < messages; i++) {
+                        handler.print(PluginManager.class, AgentLogger.Level.INFO, "thread {} message {}", null, thread, i);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        handler.flush();
+
+        int[] next = new int[threads.size()];
+        String[] lines = out.toString().split("\\r?\\n");
+        assertEquals(threads.size() * messages, lines.length);
+        for (String line : lines) {
+            String[] parts = line.substring(line.indexOf("thread ")).split(" ");
+            int thread = Integer.parseInt(parts[1]);
+            assertEquals(next[thread]++, Integer.parseInt(parts[3]));
+        }
+    }
+
+    @Test
+    public void testAsyncHandlerKeepsLogFile() throws Exception {
+        AgentLoggerHandler originalHandler = AgentLogger.getHandler();
+        File logFile = File.createTempFile("hotswap-agent", ".log");
+        try {
+            AgentLogger.setHandler(new AgentLoggerHandler());
+
+            // LOGFILE of the agent configuration, LOG_ASYNC of a later loaded configuration
+            Properties properties = new Properties();
+            properties.setProperty("LOGFILE", logFile.getAbsolutePath());
+            properties.setProperty("LOG_TO_CONSOLE", "false");
+            LogConfigurationHelper.configureLog(properties);
+            properties = new Properties();
+            properties.setProperty("LOG_ASYNC", "true");
+            LogConfigurationHelper.configureLog(properties);
+
+            AgentLoggerHandler handler = AgentLogger.getHandler();
+            assertTrue(handler instanceof AsyncAgentLoggerHandler);
+            assertFalse(handler.isLogToConsole());
+            handler.print(PluginManager.class, AgentLogger.Level.INFO, "async {}", null, "message");
+            ((AsyncAgentLoggerHandler) handler).flush();
+
+            String log = new String(Files.readAllBytes(logFile.toPath()), StandardCharsets.UTF_8);
+            assertTrue(log, log.contains("INFO (org.hotswap.agent.config.PluginManager) - async message"));
+        } finally {
+            AgentLogger.setHandler(originalHandler);
+            logFile.delete();
+        }
+    }
 }
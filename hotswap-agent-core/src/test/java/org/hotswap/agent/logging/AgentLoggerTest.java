@@ -24,6 +24,9 @@ import org.jmock.Mockery;
 import org.jmock.lib.legacy.ClassImposteriser;
 import org.junit.Test;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 /**
  * Created by bubnik on 12.10.13.
  */
@@ -59,4 +62,30 @@ public class AgentLoggerTest {
 
         context.assertIsSatisfied();
     }
+
+    @Test
+    public void testLevelChangeInvalidatesEffectiveLevel() {
+        String classPrefix = SimplePlugin.class.getName();
+        String packagePrefix = SimplePlugin.class.getPackage().getName();
+        AgentLogger logger = AgentLogger.getLogger(SimplePlugin.class);
+        assertFalse(logger.isLevelEnabled(AgentLogger.Level.TRACE));
+
+        AgentLogger.setLevel(classPrefix, AgentLogger.Level.TRACE);
+        assertTrue(logger.isLevelEnabled(AgentLogger.Level.TRACE));
+
+        // longest prefix wins
+        AgentLogger.setLevel(packagePrefix, AgentLogger.Level.ERROR);
+        assertTrue(logger.isLevelEnabled(AgentLogger.Level.TRACE));
+
+        AgentLogger.setLevel(classPrefix, AgentLogger.Level.WARNING);
+        assertFalse(logger.isDebugEnabled());
+        assertFalse(logger.isLevelEnabled(AgentLogger.Level.INFO));
+        assertTrue(logger.isWarnEnabled());
+
+        // restore default level for other tests
+        AgentLogger.setLevel(classPrefix, AgentLogger.Level.INFO);
+        AgentLogger.setLevel(packagePrefix, AgentLogger.Level.INFO);
+        assertTrue(logger.isLevelEnabled(AgentLogger.Level.INFO));
+        assertFalse(logger.isDebugEnabled());
+    }
 }
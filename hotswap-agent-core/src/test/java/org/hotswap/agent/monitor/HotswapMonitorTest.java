@@ -0,0 +1,178 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.hotswap.agent.command.AdaptiveDebounce;
+import org.hotswap.agent.command.Command;
+import org.hotswap.agent.command.ReflectionCommand;
+import org.hotswap.agent.command.impl.CommandExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test HotswapMonitor counters, MXBean mapping and JFR events.
+ */
+public class HotswapMonitorTest {
+
+    private final HotswapMonitor monitor = HotswapMonitor.getInstance();
+
+    @Before
+    public void setUp() {
+        monitor.reset();
+    }
+
+    @Test
+    public void testBuckets() {
+        assertEquals(0, LatencyRecorder.bucket(0));
+        assertEquals(1, LatencyRecorder.bucket(1));
+        assertEquals(2, LatencyRecorder.bucket(3));
+        assertEquals(3, LatencyRecorder.bucket(4));
+        assertEquals(LatencyRecorder.BUCKETS - 1, LatencyRecorder.bucket(TimeUnit.HOURS.toMicros(1)));
+        assertEquals(LatencyRecorder.BUCKETS, monitor.getHistogramBucketsMicros().length);
+    }
+
+    @Test
+    public void testCounters() {
+        monitor.transformed("Spring", TimeUnit.MICROSECONDS.toNanos(3));
+        monitor.transformed("Spring", TimeUnit.MICROSECONDS.toNanos(5));
+        monitor.classesRedefined(3, TimeUnit.MILLISECONDS.toNanos(2), false);
+        monitor.classesRedefined(1, TimeUnit.MILLISECONDS.toNanos(1), true);
+
+        LatencyStatistics transforms = monitor.getTransformStatistics().get("Spring");
+        assertEquals(2, transforms.getCount());
+        assertEquals(8, transforms.getTotalMicros());
+        assertEquals(5, transforms.getMaxMicros());
+        assertEquals(1, transforms.getHistogram()[2]);
+        assertEquals(1, transforms.getHistogram()[3]);
+
+        assertEquals(2, monitor.getRedefineStatistics().getCount());
+        assertEquals(3, monitor.getRedefinedClassCount());
+        assertEquals(1, monitor.getRedefineFailureCount());
+    }
+
+    @Test
+    public void testCommandExecutor() {
+        new CommandExecutor(new ReflectionCommand(this, "commandMethod")).run();
+        new CommandExecutor(new Command() {
+            @Override
+            public void executeCommand() {
+                throw new IllegalStateException("failure");
+            }
+        }).run();
+
+        assertEquals(2, monitor.getCommandWaitStatistics().getCount());
+        assertEquals(1, monitor.getCommandFailureCount());
+        assertNotNull(monitor.getCommandStatistics().get("HotswapMonitorTest.commandMethod"));
+    }
+
+    public void commandMethod() {
+    }
+
+    @Test
+    public void testMXBean() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        HotswapMonitor.register(server);
+        monitor.transformed("Hibernate", 1000);
+
+        ObjectName name = new ObjectName(HotswapMonitor.OBJECT_NAME);
+        TabularData transforms = (TabularData) server.getAttribute(name, "TransformStatistics");
+        CompositeData row = transforms.get(new Object[]{"Hibernate"});
+        assertEquals(1L, ((CompositeData) row.get("value")).get("count"));
+        assertEquals(0L, ((CompositeData) server.getAttribute(name, "RedefineStatistics")).get("count"));
+        assertEquals(0, server.getAttribute(name, "SchedulerQueueSize"));
+    }
+
+    @Test
+    public void testDebounceStatistics() throws Exception {
+        AdaptiveDebounce debounce = new AdaptiveDebounce("file:/monitor-test/classes/", 100);
+        monitor.debounceAdded(debounce);
+        try {
+            debounce.eventArrived(new Object());
+            debounce.eventArrived(new Object());
+
+            DebounceStatistics statistics = monitor.getDebounceStatistics().get("file:/monitor-test/classes/");
+            assertEquals(100, statistics.getTimeout());
+            assertEquals(2, statistics.getEvents());
+            assertEquals(debounce.getMaxEffectiveWindow(), statistics.getMaxEffectiveWindow());
+
+            MBeanServer server = MBeanServerFactory.newMBeanServer();
+            HotswapMonitor.register(server);
+            TabularData debounces = (TabularData) server.getAttribute(new ObjectName(HotswapMonitor.OBJECT_NAME),
+                    "DebounceStatistics");
+            CompositeData row = debounces.get(new Object[]{"file:/monitor-test/classes/"});
+            assertEquals(2L, ((CompositeData) row.get("value")).get("events"));
+        } finally {
+            monitor.debounceRemoved(debounce);
+        }
+        assertEquals(null, monitor.getDebounceStatistics().get("file:/monitor-test/classes/"));
+    }
+
+    @Test
+    public void testJfrEvents() throws Exception {
+        File file = File.createTempFile("hotswap", ".jfr");
+        try {
+            Recording recording = new Recording();
+            recording.enable("org.hotswap.agent.Transform");
+            recording.enable("org.hotswap.agent.RedefineClasses");
+            recording.disable("org.hotswap.agent.Command");
+            recording.start();
+            Object event = HotswapEvents.beginTransform();
+            HotswapEvents.endTransform(event, "Spring", "ClassPathBeanRefreshCommand.transform", "a/B", true);
+            HotswapEvents.endRedefine(HotswapEvents.beginRedefine(), 2, false);
+            // disabled in the recording
+            assertEquals(null, HotswapEvents.beginCommand());
+            recording.stop();
+            recording.dump(file.toPath());
+            recording.close();
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            assertEquals(2, events.size());
+            for (RecordedEvent recorded : events) {
+                if (recorded.getEventType().getName().equals("org.hotswap.agent.Transform")) {
+                    assertEquals("Spring", recorded.getString("plugin"));
+                    assertEquals("a/B", recorded.getString("className"));
+                    assertTrue(recorded.getBoolean("redefinition"));
+                } else {
+                    assertEquals("org.hotswap.agent.RedefineClasses", recorded.getEventType().getName());
+                    assertEquals(2, recorded.getInt("classCount"));
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -43,7 +43,11 @@ public class SimplePlugin {
 
     }
 
+    // number of callPluginMethod() calls
+    public int pluginMethodCalls;
+
     // used by PluginManagerInvokerTest to dynamically call this method.
     public void callPluginMethod(Boolean val) {
+        pluginMethodCalls++;
     }
 }
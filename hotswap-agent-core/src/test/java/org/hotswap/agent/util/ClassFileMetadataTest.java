@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.javassist.bytecode.AnnotationsAttribute;
+import org.hotswap.agent.javassist.bytecode.ClassFile;
+import org.hotswap.agent.javassist.bytecode.annotation.Annotation;
+import org.hotswap.agent.testData.SimplePlugin;
+import org.junit.Test;
+
+public class ClassFileMetadataTest {
+
+    private static byte[] bytes(Class<?> clazz) throws Exception {
+        try (InputStream is = clazz.getResourceAsStream("/" + clazz.getName().replace('.', '/') + ".class")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = is.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        ClassFileMetadata metadata = ClassFileMetadata.parse(bytes(SimplePlugin.class));
+        assertEquals(SimplePlugin.class.getName(), metadata.getClassName());
+        assertEquals("java.lang.Object", metadata.getSuperClassName());
+        assertTrue(metadata.getInterfaceNames().isEmpty());
+        assertEquals(Collections.singletonList("org.hotswap.agent.annotation.Plugin"), metadata.getAnnotationNames());
+
+        metadata = ClassFileMetadata.parse(bytes(ClassFileMetadata.class));
+        assertTrue(metadata.getAnnotationNames().isEmpty());
+
+        metadata = ClassFileMetadata.parse(bytes(Object.class));
+        assertNull(metadata.getSuperClassName());
+
+        metadata = ClassFileMetadata.parse(bytes(HaClassFileTransformer.class));
+        assertTrue(metadata.hasSuperType("java.lang.instrument.ClassFileTransformer"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidClassFile() {
+        ClassFileMetadata.parse(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0});
+    }
+
+    /**
+     * Compare with javassist on all agent classes (including nested annotation values) and compare the cost.
+     */
+    @Test
+    public void testCompareWithJavassist() throws Exception {
+        File root = new File(ClassFileMetadata.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<byte[]> classes = new ArrayList<>();
+        collect(root, classes);
+        assertTrue(classes.size() > 100);
+
+        ClassPool classPool = new ClassPool(true);
+        long parseTime = Long.MAX_VALUE;
+        long javassistTime = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (byte[] bytes : classes) {
+                ClassFileMetadata.parse(bytes);
+            }
+            parseTime = Math.min(parseTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (byte[] bytes : classes) {
+                CtClass ctClass = classPool.makeClass(new ByteArrayInputStream(bytes));
+                ctClass.getClassFile2().getAttribute(AnnotationsAttribute.visibleTag);
+                ctClass.detach();
+            }
+            javassistTime = Math.min(javassistTime, System.nanoTime() - start);
+        }
+
+        for (byte[] bytes : classes) {
+            ClassFileMetadata metadata = ClassFileMetadata.parse(bytes);
+            CtClass ctClass = classPool.makeClass(new ByteArrayInputStream(bytes));
+            ClassFile classFile = ctClass.getClassFile2();
+            assertEquals(classFile.getName(), metadata.getClassName());
+            assertEquals(classFile.getName(), classFile.getSuperclass(), metadata.getSuperClassName());
+            assertEquals(classFile.getName(), Arrays.asList(classFile.getInterfaces()), metadata.getInterfaceNames());
+            List<String> annotations = new ArrayList<>();
+            AnnotationsAttribute attribute = (AnnotationsAttribute) classFile.getAttribute(AnnotationsAttribute.visibleTag);
+            if (attribute != null) {
+                for (Annotation annotation : attribute.getAnnotations()) {
+                    annotations.add(annotation.getTypeName());
+                }
+            }
+            assertEquals(classFile.getName(), annotations, metadata.getAnnotationNames());
+            ctClass.detach();
+        }
+
+        assertTrue("Metadata scan slower than javassist", parseTime < javassistTime);
+    }
+
+    private static void collect(File dir, List<byte[]> classes) throws Exception {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                collect(file, classes);
+            } else if (file.getName().endsWith(".class")) {
+                classes.add(Files.readAllBytes(file.toPath()));
+            }
+        }
+    }
+}
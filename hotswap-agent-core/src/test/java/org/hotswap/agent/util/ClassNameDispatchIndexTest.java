@@ -0,0 +1,210 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Dispatch index must give the same result as matching each registered regexp.
+ */
+public class ClassNameDispatchIndexTest {
+
+    // regexps as registered by plugins
+    private static final String[] REGEXPS = {
+            ".*",
+            "org.hibernate.cfg.Configuration",
+            "org.springframework.beans.factory.support.DefaultListableBeanFactory",
+            "org.jboss.weld.bean.proxy.ProxyFactory",
+            "(org.hibernate.validator.internal.metadata.BeanMetaDataManager)|(org.hibernate.validator.internal.metadata.BeanMetaDataManagerImpl)",
+            "(org.jboss.weld.context.AbstractManagedContext)|",
+            "(javax.el.BeanELResolver\\$SoftConcurrentHashMap)|(jakarta.el.BeanELResolver\\\\$SoftConcurrentHashMap)",
+            "(jdk.proxy\\d+.\\$Proxy.*)|(com.sun.proxy.\\$Proxy.*)",
+            "org.apache.ibatis.session.Configuration\\$StrictMap",
+            "org.springframework.cglib.reflect.FastClass.Generator",
+            "net.sf.cglib.reflect.FastClass.Generator",
+            "org.jboss.el.cache.BeanPropertiesCache.SoftConcurrentHashMap",
+            "com.example.Outer\\$Inner.Nested",
+            ".*/cglib/.*",
+            ".*\\$\\d+",
+            "com.example.*",
+            "com.example.service..*",
+            "com.example.Foo$1",
+    };
+
+    private static final String[] CLASS_NAMES = {
+            "org/hibernate/cfg/Configuration",
+            "org.hibernate.cfg.Configuration",
+            "org/hibernate/cfg/ConfigurationX",
+            "org/springframework/beans/factory/support/DefaultListableBeanFactory",
+            "org/hibernate/validator/internal/metadata/BeanMetaDataManagerImpl",
+            "org/jboss/weld/context/AbstractManagedContext",
+            "javax/el/BeanELResolver$SoftConcurrentHashMap",
+            "jdk/proxy2/$Proxy12",
+            "com/sun/proxy/$Proxy3",
+            "org/apache/ibatis/session/Configuration$StrictMap",
+            "org/apache/ibatis/session$Configuration$StrictMap",
+            "org/springframework/cglib/reflect/FastClass$Generator",
+            "org/springframework/cglib/reflect/FastClass$Generator$1",
+            "net/sf/cglib/reflect/FastClass$Generator",
+            "org/jboss/el/cache/BeanPropertiesCache$SoftConcurrentHashMap",
+            "com/example/Outer$Inner$Nested",
+            "com/example/Outer$Inner/Nested",
+            "com$example$Foo",
+            "net/sf/cglib/proxy/Enhancer",
+            "com/example/Foo$1",
+            "com/example/Foo",
+            "com/examples/Bar",
+            "com/example/service/BarService",
+            "com/example/serviceX",
+            "java/lang/String",
+    };
+
+    @Test
+    public void testLookupMatchesPatterns() {
+        ClassNameDispatchIndex<String> index = buildIndex(Arrays.asList(REGEXPS));
+        assertEquals(REGEXPS.length, index.size());
+
+        for (String className : CLASS_NAMES) {
+            assertEquals("Lookup of " + className, linearScan(Arrays.asList(REGEXPS), className, null),
+                    index.lookup(className, null));
+            String binaryName = className.replace('/', '.');
+            assertEquals("Lookup of " + className, linearScan(Arrays.asList(REGEXPS), className, binaryName),
+                    index.lookup(className, binaryName));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(ClassNameDispatchIndex.<String>empty().lookup("java/lang/String", "java.lang.String").isEmpty());
+    }
+
+    /**
+     * Many plugin registrations (exact names and package prefixes), each lookup returns the same handlers
+     * in the same order as matching each regexp.
+     */
+    @Test
+    public void testLookupMatchesPatternsForManyRegistrations() {
+        List<String> regexps = new ArrayList<>(Arrays.asList(REGEXPS));
+        for (int i = 0; i < 40; i++) {
+            regexps.add("org.framework" + i + ".support.Factory" + i);
+            regexps.add("org.framework" + i + ".internal..*");
+        }
+        List<String> classNames = new ArrayList<>(Arrays.asList(CLASS_NAMES));
+        for (int i = 0; i < 2000; i++) {
+            classNames.add("org/framework" + (i % 50) + "/internal/pkg" + (i % 13) + "/Class" + i);
+            classNames.add("org/framework" + (i % 50) + "/support/Factory" + (i % 45));
+        }
+
+        ClassNameDispatchIndex<String> index = buildIndex(regexps);
+        assertEquals(regexps.size(), index.size());
+
+        List<Pattern> patterns = compile(regexps);
+        for (String className : classNames) {
+            assertEquals("Lookup of " + className, linearScan(regexps, patterns, className, null),
+                    index.lookup(className, null));
+        }
+    }
+
+    /**
+     * Startup benchmark - dispatch of 60k class names against 80+ plugin registrations, compared
+     * to the linear scan of all regexps.
+     */
+    @Test
+    public void testDispatchBenchmark() {
+        List<String> regexps = new ArrayList<>(Arrays.asList(REGEXPS));
+        for (int i = 0; i < 40; i++) {
+            regexps.add("org.framework" + i + ".support.Factory" + i);
+            regexps.add("org.framework" + i + ".internal..*");
+        }
+        List<String> classNames = new ArrayList<>();
+        for (int i = 0; i < 60000; i++) {
+            classNames.add("org/framework" + (i % 50) + "/internal/pkg" + (i % 13) + "/Class" + i);
+        }
+
+        ClassNameDispatchIndex<String> index = buildIndex(regexps);
+        List<Pattern> patterns = compile(regexps);
+
+        long matched = 0;
+        long linearTime = System.nanoTime();
+        for (String className : classNames) {
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(className).matches()) {
+                    matched++;
+                }
+            }
+        }
+        linearTime = System.nanoTime() - linearTime;
+
+        long indexed = 0;
+        long indexTime = System.nanoTime();
+        for (String className : classNames) {
+            indexed += index.lookup(className, null).size();
+        }
+        indexTime = System.nanoTime() - indexTime;
+
+        assertEquals(matched, indexed);
+        System.out.println("Dispatch of " + classNames.size() + " classes to " + regexps.size() + " regexps: linear scan "
+                + linearTime / 1000000 + "ms, index " + indexTime / 1000000 + "ms");
+    }
+
+    private static ClassNameDispatchIndex<String> buildIndex(List<String> regexps) {
+        ClassNameDispatchIndex.Builder<String> builder = ClassNameDispatchIndex.builder();
+        for (String regexp : regexps) {
+            String normalized = normalize(regexp);
+            builder.add(normalized, Pattern.compile(normalized), Collections.singletonList(regexp));
+        }
+        return builder.build();
+    }
+
+    private static List<String> linearScan(List<String> regexps, String className, String alternateName) {
+        return linearScan(regexps, compile(regexps), className, alternateName);
+    }
+
+    private static List<String> linearScan(List<String> regexps, List<Pattern> patterns, String className, String alternateName) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < regexps.size(); i++) {
+            Pattern pattern = patterns.get(i);
+            if (pattern.matcher(className).matches() || (alternateName != null && pattern.matcher(alternateName).matches())) {
+                result.add(regexps.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static List<Pattern> compile(List<String> regexps) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String regexp : regexps) {
+            patterns.add(Pattern.compile(normalize(regexp)));
+        }
+        return patterns;
+    }
+
+    private static String normalize(String regexp) {
+        return new HotswapTransformer().normalizeTypeRegexp(regexp);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test ConcurrentWeakIdentityMap.
+ */
+public class ConcurrentWeakIdentityMapTest {
+
+    @Test
+    public void testIdentity() {
+        ConcurrentWeakIdentityMap<String, Boolean> map = new ConcurrentWeakIdentityMap<>();
+        String key1 = new String("key");
+        String key2 = new String("key");
+
+        map.put(key1, true);
+        assertTrue(map.get(key1));
+        assertNull(map.get(key2));
+        assertFalse(map.containsKey(key2));
+
+        assertNull(map.putIfAbsent(key2, false));
+        assertEquals(Boolean.TRUE, map.putIfAbsent(key1, false));
+        assertEquals(2, map.size());
+
+        assertEquals(Boolean.TRUE, map.remove(key1));
+        assertFalse(map.containsKey(key1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testNullKey() {
+        ConcurrentWeakIdentityMap<ClassLoader, Boolean> map = new ConcurrentWeakIdentityMap<>();
+        assertFalse(map.containsKey(null));
+        map.put(null, true);
+        assertTrue(map.get(null));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testCollectedKeyPurged() throws Exception {
+        ConcurrentWeakIdentityMap<Object, Boolean> map = new ConcurrentWeakIdentityMap<>();
+        Object key = new Object();
+        map.put(key, true);
+        map.put(new Object(), true);
+        assertEquals(2, map.size());
+
+        for (int i = 0; i < 50 && map.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, map.size());
+        assertTrue(map.get(key));
+    }
+}
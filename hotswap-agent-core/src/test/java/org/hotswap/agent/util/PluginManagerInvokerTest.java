@@ -27,10 +27,14 @@ import org.hotswap.agent.testData.SimplePlugin;
 import org.junit.Test;
 
 import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * @author Jiri Bubnik
  */
@@ -56,8 +60,30 @@ public class PluginManagerInvokerTest {
 
         Method testMethod = testClass.getDeclaredMethod("test");
         testMethod.invoke(testClass.newInstance());
+        testMethod.invoke(testClass.newInstance());
+
+        assertEquals(2, plugin.pluginMethodCalls);
+    }
+
+    @Test
+    public void testCallSiteCachesPluginInstance() throws Exception {
+        String signature = PluginMethodCallSite.signature(SimplePlugin.class, "callPluginMethod", "java.lang.Boolean");
+        ClassLoader appClassLoader = getClass().getClassLoader();
+
+        SimplePlugin plugin = new SimplePlugin();
+        registerPlugin(plugin);
+
+        PluginMethodCallSite.invoke(signature, appClassLoader, new Object[]{Boolean.TRUE});
+        PluginMethodCallSite.invoke(signature, appClassLoader, new Object[]{Boolean.FALSE});
+        assertEquals(2, plugin.pluginMethodCalls);
 
+        // registry changed, the new instance is resolved
+        SimplePlugin newPlugin = new SimplePlugin();
+        registerPlugin(newPlugin);
 
+        PluginMethodCallSite.invoke(signature, appClassLoader, new Object[]{Boolean.TRUE});
+        assertEquals(2, plugin.pluginMethodCalls);
+        assertEquals(1, newPlugin.pluginMethodCalls);
     }
 
     // plugin registration is not public, use reflection to insert test data
@@ -68,5 +94,7 @@ public class PluginManagerInvokerTest {
         Map<Class, Map<ClassLoader, Object>> registeredPlugins =
                 (Map<Class, Map<ClassLoader, Object>>) f.get(PluginManager.getInstance().getPluginRegistry());
         registeredPlugins.put(plugin.getClass(), Collections.singletonMap(getClass().getClassLoader(), plugin));
+        // any registry change invalidates plugin instances cached by call sites
+        PluginManager.getInstance().getPluginRegistry().closeClassLoader(new URLClassLoader(new URL[0]));
     }
 }
@@ -19,6 +19,12 @@
 package org.hotswap.agent.util.classloader;
 
 import org.hotswap.agent.config.PluginManager;
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.javassist.CtField;
+import org.hotswap.agent.javassist.LoaderClassPath;
+import org.hotswap.agent.plugin.hotswapper.HotswapperPlugin;
+import org.hotswap.agent.plugin.jdk.JdkPlugin;
 import org.hotswap.agent.plugin.jvm.AnonymousClassInfo;
 import org.junit.Test;
 
@@ -55,4 +61,32 @@ public class ClassLoaderDefineClassPatcherTest {
         ;
     }
 
+    @Test
+    public void testLazyPatch() throws Exception {
+        ClassLoader appClassLoader = new URLClassLoader(new URL[]{}, getClass().getClassLoader());
+        ClassLoaderDefineClassPatcher patcher = new ClassLoaderDefineClassPatcher(true);
+
+        patcher.register(getClass().getClassLoader(), PluginManager.PLUGIN_PACKAGE.replace(".", "/"),
+                appClassLoader, null);
+
+        assertEquals("Nothing defined on registration", getClass().getClassLoader(),
+                appClassLoader.loadClass(AnonymousClassInfo.class.getName()).getClassLoader());
+
+        // application class enhanced to use AnonymousClassInfo
+        ClassPool classPool = new ClassPool();
+        classPool.appendClassPath(new LoaderClassPath(getClass().getClassLoader()));
+        CtClass appClass = classPool.makeClass("test.LazyPatchClient");
+        appClass.addField(new CtField(classPool.get(AnonymousClassInfo.class.getName()), "info", appClass));
+        patcher.resolve(appClassLoader, "test/LazyPatchClient", appClass.toBytecode());
+
+        assertEquals("Referenced class defined in app classloader", appClassLoader,
+                appClassLoader.loadClass(AnonymousClassInfo.class.getName()).getClassLoader());
+        assertEquals("Unused class not defined", getClass().getClassLoader(),
+                appClassLoader.loadClass(JdkPlugin.class.getName()).getClassLoader());
+
+        // resolve before reflection call from the agent
+        patcher.resolve(appClassLoader, HotswapperPlugin.class.getName());
+        assertEquals("Resolved class defined in app classloader", appClassLoader,
+                Class.forName(HotswapperPlugin.class.getName(), true, appClassLoader).getClassLoader());
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.hotswap.agent.annotation.Plugin;
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.plugin.jdk.JdkPlugin;
+import org.hotswap.agent.testData.SimplePlugin;
+import org.junit.Test;
+
+/**
+ * Test plugin index generated by PluginIndexProcessor at compile time.
+ */
+public class PluginIndexTest {
+
+    @Test
+    public void testIndexMatchesScanner() throws Exception {
+        ClassPathAnnotationScanner scanner = new ClassPathAnnotationScanner(Plugin.class.getName(), new ClassPathScanner());
+        Map<String, String> plugins = new PluginIndex().getPlugins(getClass().getClassLoader(), "org.hotswap.agent.testData");
+
+        assertEquals(scanner.scanPlugins(getClass().getClassLoader(), "org/hotswap/agent/testData"),
+                new ArrayList<>(plugins.keySet()));
+        assertEquals(SimplePlugin.class.getAnnotation(Plugin.class).name(), plugins.get(SimplePlugin.class.getName()));
+
+        // core plugins are indexed as well
+        plugins = new PluginIndex().getPlugins(getClass().getClassLoader(), "org.hotswap.agent.plugin");
+        assertEquals("JdkPlugin", plugins.get(JdkPlugin.class.getName()));
+    }
+
+    @Test
+    public void testUnknownPackage() throws Exception {
+        assertNull(new PluginIndex().getPlugins(getClass().getClassLoader(), "com.example.plugin"));
+    }
+
+    @Test
+    public void testUnindexedLocation() throws Exception {
+        // third-party plugin jar built without the index processor
+        String thirdPartyPlugin = "org.hotswap.agent.testData.ThirdPartyPlugin";
+        byte[] bytecode = new ClassPool(true).getAndRename(SimplePlugin.class.getName(), thirdPartyPlugin).toBytecode();
+        File jar = new File(Files.createTempDirectory("ha-plugin-index").toFile(), "third-party-plugin.jar");
+        JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            for (String dir : new String[] {"org/", "org/hotswap/", "org/hotswap/agent/", "org/hotswap/agent/testData/"}) {
+                jos.putNextEntry(new JarEntry(dir));
+                jos.closeEntry();
+            }
+            jos.putNextEntry(new JarEntry(thirdPartyPlugin.replace('.', '/') + ".class"));
+            jos.write(bytecode);
+            jos.closeEntry();
+        } finally {
+            jos.close();
+        }
+
+        // indexed test classes and the unindexed jar
+        URL testClasses = SimplePlugin.class.getProtectionDomain().getCodeSource().getLocation();
+        URLClassLoader classLoader = new URLClassLoader(new URL[] {testClasses, jar.toURI().toURL()}, null);
+        try {
+            PluginIndex pluginIndex = new PluginIndex();
+            Map<String, String> plugins = pluginIndex.getPlugins(classLoader, "org.hotswap.agent.testData");
+            assertEquals(Collections.singletonList(SimplePlugin.class.getName()), new ArrayList<>(plugins.keySet()));
+            assertFalse(plugins.containsKey(thirdPartyPlugin));
+
+            List<URL> unindexed = pluginIndex.getUnindexedLocations(classLoader, "org.hotswap.agent.testData");
+            assertEquals(1, unindexed.size());
+            ClassPathAnnotationScanner scanner = new ClassPathAnnotationScanner(Plugin.class.getName(), new ClassPathScanner());
+            assertEquals(Collections.singletonList(thirdPartyPlugin), scanner.scanPlugins(unindexed.get(0)));
+        } finally {
+            classLoader.close();
+        }
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        String index = "# comment\n"
+                + "org.hotswap.agent.plugin.a.APlugin # A\n"
+                + "  org.hotswap.agent.plugin.b.BPlugin\n"
+                + "org.hotswap.agent.pluginx.CPlugin # C\n"
+                + "org.hotswap.agent.plugin.a.APlugin # A\n";
+        Map<String, String> plugins = new LinkedHashMap<>();
+        PluginIndex.read(new ByteArrayInputStream(index.getBytes(StandardCharsets.UTF_8)), "org.hotswap.agent.plugin.", plugins);
+
+        assertEquals(Arrays.asList("org.hotswap.agent.plugin.a.APlugin", "org.hotswap.agent.plugin.b.BPlugin"),
+                new ArrayList<>(plugins.keySet()));
+        assertEquals("A", plugins.get("org.hotswap.agent.plugin.a.APlugin"));
+        assertNull(plugins.get("org.hotswap.agent.plugin.b.BPlugin"));
+    }
+}
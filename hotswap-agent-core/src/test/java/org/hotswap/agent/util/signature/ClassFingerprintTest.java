@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.signature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.javassist.CtField;
+import org.hotswap.agent.javassist.CtNewMethod;
+import org.hotswap.agent.util.IOUtils;
+import org.junit.Test;
+
+/**
+ * Test structural class fingerprints.
+ */
+public class ClassFingerprintTest {
+
+    private static ClassSignatureElement SIGNATURE_ELEMENTS[] = {
+            ClassSignatureElement.SUPER_CLASS,
+            ClassSignatureElement.INTERFACES,
+            ClassSignatureElement.CLASS_ANNOTATION,
+            ClassSignatureElement.CONSTRUCTOR,
+            ClassSignatureElement.METHOD,
+            ClassSignatureElement.METHOD_STATIC,
+            ClassSignatureElement.METHOD_ANNOTATION,
+            ClassSignatureElement.METHOD_PARAM_ANNOTATION,
+            ClassSignatureElement.METHOD_EXCEPTION,
+            ClassSignatureElement.FIELD,
+            ClassSignatureElement.FIELD_STATIC,
+            ClassSignatureElement.FIELD_ANNOTATION
+    };
+
+    @Test
+    public void testMethodBodyIgnored() throws Exception {
+        byte[] bytes1 = makeClass("int get() { return 1; }", "String name;");
+        byte[] bytes2 = makeClass("int get() { return 2 + Integer.parseInt(\"40\"); }", "String name;");
+        assertEquals(ClassFingerprint.of(bytes1, SIGNATURE_ELEMENTS), ClassFingerprint.of(bytes2, SIGNATURE_ELEMENTS));
+    }
+
+    @Test
+    public void testSignatureChange() throws Exception {
+        ClassFingerprint fingerprint = ClassFingerprint.of(makeClass("int get() { return 1; }", "String name;"), SIGNATURE_ELEMENTS);
+        assertNotEquals(fingerprint, ClassFingerprint.of(makeClass("long get() { return 1L; }", "String name;"), SIGNATURE_ELEMENTS));
+        assertNotEquals(fingerprint, ClassFingerprint.of(makeClass("int get(int i) { return i; }", "String name;"), SIGNATURE_ELEMENTS));
+        assertNotEquals(fingerprint, ClassFingerprint.of(makeClass("int get() { return 1; }", "Object name;"), SIGNATURE_ELEMENTS));
+        assertNotEquals(fingerprint, ClassFingerprint.of(makeClass("int get() { return 1; }", "String name;", "static int count;"), SIGNATURE_ELEMENTS));
+    }
+
+    @Test
+    public void testExcludedElements() throws Exception {
+        // private methods are not part of SIGNATURE_ELEMENTS
+        byte[] bytes1 = makeClass("int get() { return 1; }", "String name;");
+        byte[] bytes2 = makeClass("int get() { return 1; }", "String name;", "private int helper() { return 3; }");
+        assertEquals(ClassFingerprint.of(bytes1, SIGNATURE_ELEMENTS), ClassFingerprint.of(bytes2, SIGNATURE_ELEMENTS));
+
+        ClassSignatureElement[] withPrivate = {ClassSignatureElement.METHOD, ClassSignatureElement.METHOD_PRIVATE};
+        assertNotEquals(ClassFingerprint.of(bytes1, withPrivate), ClassFingerprint.of(bytes2, withPrivate));
+    }
+
+    @Test
+    public void testMemberOrderIgnored() throws Exception {
+        byte[] bytes1 = makeClass("int get() { return 1; }", "String name;", "public void set(int i) { }");
+        byte[] bytes2 = makeClass("public void set(int i) { }", "String name;", "int get() { return 1; }");
+        assertEquals(ClassFingerprint.of(bytes1, SIGNATURE_ELEMENTS), ClassFingerprint.of(bytes2, SIGNATURE_ELEMENTS));
+    }
+
+    @Test
+    public void testInvalidBytes() throws Exception {
+        try {
+            ClassFingerprint.of(new byte[]{1, 2, 3, 4}, SIGNATURE_ELEMENTS);
+            assertTrue("Exception expected", false);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCache() throws Exception {
+        Class<?> clazz = SignatureTest.C.class;
+        String internalName = clazz.getName().replace('.', '/');
+        byte[] bytes = IOUtils.toByteArray(clazz.getClassLoader().getResource(internalName + ".class").toURI());
+
+        ClassSignatureElement[] notRegistered = {ClassSignatureElement.METHOD, ClassSignatureElement.FIELD_ANNOTATION};
+        assertNull(ClassFingerprintCache.get(clazz, notRegistered));
+
+        ClassSignatureComparerHelper.registerFingerprintElements(SIGNATURE_ELEMENTS);
+        ClassFingerprintCache.classDefined(clazz.getClassLoader(), internalName, bytes);
+        assertEquals(ClassFingerprint.of(bytes, SIGNATURE_ELEMENTS), ClassFingerprintCache.get(clazz, SIGNATURE_ELEMENTS));
+
+        ClassPool cp = ClassPool.getDefault();
+        assertFalse(ClassSignatureComparerHelper.isDifferent(clazz, bytes, cp, SIGNATURE_ELEMENTS));
+
+        CtClass ctClass = cp.makeClass(new java.io.ByteArrayInputStream(bytes));
+        ctClass.addMethod(CtNewMethod.make("public int get456() { return 0; }", ctClass));
+        byte[] changed = ctClass.toBytecode();
+        ctClass.detach();
+        assertTrue(ClassSignatureComparerHelper.isDifferent(clazz, changed, cp, SIGNATURE_ELEMENTS));
+    }
+
+    private static byte[] makeClass(String... members) throws Exception {
+        ClassPool cp = new ClassPool(true);
+        CtClass ctClass = cp.makeClass("test.FingerprintClass");
+        for (String member : members) {
+            if (member.contains("(")) {
+                ctClass.addMethod(CtNewMethod.make(member, ctClass));
+            } else {
+                ctClass.addField(CtField.make(member, ctClass));
+            }
+        }
+        return ctClass.toBytecode();
+    }
+}
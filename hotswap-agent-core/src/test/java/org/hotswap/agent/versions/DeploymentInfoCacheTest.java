@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.versions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class DeploymentInfoCacheTest {
+
+    private static class TestClassLoader extends URLClassLoader {
+        TestClassLoader(URL url) {
+            super(new URL[]{url}, null);
+        }
+
+        @Override
+        public void addURL(URL url) {
+            super.addURL(url);
+        }
+    }
+
+    private static URL artifact(String artifactId, String version) throws IOException {
+        File dir = Files.createTempDirectory("ha-deployment").toFile();
+        File pom = new File(dir, "META-INF/maven/org.example/" + artifactId + "/pom.properties");
+        pom.getParentFile().mkdirs();
+        try (OutputStream os = new FileOutputStream(pom)) {
+            os.write(("groupId=org.example\nartifactId=" + artifactId + "\nversion=" + version + "\n").getBytes("UTF-8"));
+        }
+        return dir.toURI().toURL();
+    }
+
+    @Test
+    public void testCachedUntilUrlsChange() throws Exception {
+        TestClassLoader classLoader = new TestClassLoader(artifact("first", "1.0"));
+        final AtomicInteger evaluations = new AtomicInteger();
+        DeploymentInfoCache.MatchEvaluator evaluator = new DeploymentInfoCache.MatchEvaluator() {
+            @Override
+            public VersionMatchResult evaluate(DeploymentInfo deploymentInfo) {
+                evaluations.incrementAndGet();
+                return deploymentInfo.getMaven().size() == 1 ? VersionMatchResult.MATCHED : VersionMatchResult.REJECTED;
+            }
+        };
+
+        DeploymentInfo info = DeploymentInfoCache.getDeploymentInfo(classLoader);
+        assertEquals(1, info.getMaven().size());
+        assertSame(info, DeploymentInfoCache.getDeploymentInfo(classLoader));
+
+        assertEquals(VersionMatchResult.MATCHED, DeploymentInfoCache.getMatchResult(classLoader, "plugin", evaluator));
+        assertEquals(VersionMatchResult.MATCHED, DeploymentInfoCache.getMatchResult(classLoader, "plugin", evaluator));
+        assertEquals(1, evaluations.get());
+        // other plugin is evaluated separately
+        DeploymentInfoCache.getMatchResult(classLoader, "otherPlugin", evaluator);
+        assertEquals(2, evaluations.get());
+
+        // classpath changed
+        classLoader.addURL(artifact("second", "2.0"));
+        DeploymentInfo changed = DeploymentInfoCache.getDeploymentInfo(classLoader);
+        assertNotSame(info, changed);
+        assertEquals(2, changed.getMaven().size());
+        assertEquals(VersionMatchResult.REJECTED, DeploymentInfoCache.getMatchResult(classLoader, "plugin", evaluator));
+        assertEquals(3, evaluations.get());
+
+        DeploymentInfoCache.invalidate(classLoader);
+        assertNotSame(changed, DeploymentInfoCache.getDeploymentInfo(classLoader));
+        classLoader.close();
+    }
+}
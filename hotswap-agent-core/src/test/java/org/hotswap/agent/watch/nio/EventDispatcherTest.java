@@ -0,0 +1,245 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.watch.nio;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hotswap.agent.watch.HotswapAgentWatchEvent;
+import org.hotswap.agent.watch.WatchEventListener;
+import org.hotswap.agent.watch.WatchFileEvent;
+import org.junit.Test;
+
+public class EventDispatcherTest {
+
+    private final PathListenerTrie listeners = new PathListenerTrie();
+
+    private Thread start(EventDispatcher dispatcher) {
+        Thread thread = new Thread(dispatcher, "EventDispatcherTest");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void register(Path root, WatchEventListener listener) {
+        listeners.add(root, listener);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static WatchEvent<Path> event(WatchEvent.Kind<Path> kind, Path path) {
+        return new HotswapAgentWatchEvent(kind, path.getFileName());
+    }
+
+    @Test
+    public void testDispatchAndDedup() throws Exception {
+        final List<WatchFileEvent> received = new CopyOnWriteArrayList<>();
+        Path root = Paths.get("/tmp/ha-test-root");
+        register(root, new WatchEventListener() {
+            @Override
+            public void onEvent(WatchFileEvent event) {
+                received.add(event);
+            }
+        });
+
+        EventDispatcher dispatcher = new EventDispatcher(listeners);
+        Path a = root.resolve("A.class");
+        Path b = root.resolve("B.class");
+        dispatcher.add(event(ENTRY_CREATE, a), a);
+        dispatcher.add(event(ENTRY_MODIFY, a), a);
+        dispatcher.add(event(ENTRY_MODIFY, a), a);
+        dispatcher.add(event(ENTRY_MODIFY, b), b);
+
+        Thread thread = start(dispatcher);
+        try {
+            long deadline = System.currentTimeMillis() + 2000;
+            while (received.size() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+
+            // duplicate MODIFY of A skipped, order preserved
+            assertEquals(3, received.size());
+            assertEquals(a.toUri(), received.get(0).getURI());
+            assertEquals(a.toUri(), received.get(1).getURI());
+            assertEquals(b.toUri(), received.get(2).getURI());
+
+            // the same path is dispatched again in the next batch
+            dispatcher.add(event(ENTRY_MODIFY, a), a);
+            deadline = System.currentTimeMillis() + 2000;
+            while (received.size() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(4, received.size());
+        } finally {
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    /**
+     * The watcher thread never waits for a slow listener, events over the ring capacity are dispatched in order.
+     */
+    @Test
+    public void testWatcherNotBlockedBySlowConsumer() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<WatchFileEvent> received = new CopyOnWriteArrayList<>();
+        Path root = Paths.get("/tmp/ha-test-root");
+        register(root, new WatchEventListener() {
+            @Override
+            public void onEvent(WatchFileEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(event);
+            }
+        });
+
+        final EventDispatcher dispatcher = new EventDispatcher(listeners);
+        final List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < 2 * EventDispatcher.RING_SIZE + 100; i++) {
+            paths.add(root.resolve("Class" + i + ".class"));
+        }
+        Thread thread = start(dispatcher);
+        Thread watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (Path path : paths) {
+                    dispatcher.add(event(ENTRY_MODIFY, path), path);
+                }
+            }
+        }, "EventDispatcherTest watcher");
+        try {
+            watcher.start();
+            watcher.join(10000);
+            assertFalse("Watcher thread waits for the dispatcher", watcher.isAlive());
+            assertTrue(received.isEmpty());
+
+            release.countDown();
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+            while (received.size() < paths.size() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(paths.size(), received.size());
+            for (int i = 0; i < paths.size(); i++) {
+                assertEquals(paths.get(i).toUri(), received.get(i).getURI());
+            }
+
+            // spilling finished, next event is dispatched
+            Path path = root.resolve("Next.class");
+            dispatcher.add(event(ENTRY_MODIFY, path), path);
+            deadline = System.currentTimeMillis() + 2000;
+            while (received.size() <= paths.size() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(path.toUri(), received.get(paths.size()).getURI());
+        } finally {
+            release.countDown();
+            watcher.join();
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    /**
+     * Throughput and allocation benchmark - a burst of events (e.g. git checkout) larger than the ring buffer.
+     */
+    @Test
+    public void testBurstBenchmark() throws Exception {
+        final AtomicLong received = new AtomicLong();
+        Path root = Paths.get("/tmp/ha-test-root");
+        register(root, new WatchEventListener() {
+            @Override
+            public void onEvent(WatchFileEvent event) {
+                received.incrementAndGet();
+            }
+        });
+
+        int distinct = 5000;
+        List<Path> paths = new ArrayList<>();
+        List<WatchEvent<Path>> events = new ArrayList<>();
+        for (int i = 0; i < distinct; i++) {
+            Path path = root.resolve("pkg" + (i % 50)).resolve("Class" + i + ".class");
+            path.hashCode();
+            paths.add(path);
+            events.add(event(ENTRY_MODIFY, path));
+        }
+
+        EventDispatcher dispatcher = new EventDispatcher(listeners);
+        Thread thread = start(dispatcher);
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        boolean allocationSupported = threadMXBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported();
+        try {
+            int rounds = 40;
+            // warm up
+            produce(dispatcher, paths, events, 2);
+            waitFor(received, 2L * distinct);
+            received.set(0);
+
+            long allocatedBefore = allocationSupported ?
+                    ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(thread.getId()) : 0;
+            produce(dispatcher, paths, events, rounds);
+            waitFor(received, (long) rounds * distinct);
+            long allocated = allocationSupported ?
+                    ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(thread.getId()) - allocatedBefore : 0;
+
+            long total = (long) rounds * distinct;
+            assertEquals(total, received.get());
+            if (allocationSupported) {
+                // only the listener event object per dispatched event, the queue, dedup and listener routing do not allocate
+                assertTrue("Allocation per event " + allocated / total, allocated / total < 64);
+            }
+        } finally {
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    private static void produce(EventDispatcher dispatcher, List<Path> paths, List<WatchEvent<Path>> events, int rounds) {
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < paths.size(); i++) {
+                dispatcher.add(events.get(i), paths.get(i));
+            }
+        }
+    }
+
+    private static void waitFor(AtomicLong counter, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20000;
+        while (counter.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
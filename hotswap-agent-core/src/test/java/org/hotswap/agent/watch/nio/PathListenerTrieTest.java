@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.watch.nio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hotswap.agent.watch.WatchEventListener;
+import org.hotswap.agent.watch.WatchFileEvent;
+import org.junit.Test;
+
+public class PathListenerTrieTest {
+
+    private static WatchEventListener listener() {
+        return new WatchEventListener() {
+            @Override
+            public void onEvent(WatchFileEvent event) {
+            }
+        };
+    }
+
+    private static Set<WatchEventListener> collect(PathListenerTrie trie, Path path) {
+        List<WatchEventListener[]> out = new ArrayList<>();
+        boolean matched = trie.collect(path, out);
+        Set<WatchEventListener> result = new HashSet<>();
+        for (WatchEventListener[] listeners : out) {
+            result.addAll(Arrays.asList(listeners));
+        }
+        assertEquals(matched, !result.isEmpty());
+        return result;
+    }
+
+    @Test
+    public void testStartsWithSemantics() {
+        PathListenerTrie trie = new PathListenerTrie();
+        WatchEventListener classes = listener();
+        WatchEventListener resources = listener();
+        WatchEventListener app = listener();
+        trie.add(Paths.get("/app/target/classes"), classes);
+        trie.add(Paths.get("/app/target/classes"), classes);
+        trie.add(Paths.get("/app/target/resources"), resources);
+        trie.add(Paths.get("/app"), app);
+
+        assertEquals(new HashSet<>(Arrays.asList(classes, app)), collect(trie, Paths.get("/app/target/classes/a/B.class")));
+        assertEquals(new HashSet<>(Arrays.asList(classes, app)), collect(trie, Paths.get("/app/target/classes")));
+        assertEquals(new HashSet<>(Arrays.asList(resources, app)), collect(trie, Paths.get("/app/target/resources/x.xml")));
+        // component prefix is not a path prefix
+        assertEquals(new HashSet<>(Arrays.asList(app)), collect(trie, Paths.get("/app/target/classes2/B.class")));
+        assertTrue(collect(trie, Paths.get("/application/B.class")).isEmpty());
+
+        // listener registered only once on the same path
+        List<WatchEventListener[]> out = new ArrayList<>();
+        trie.collect(Paths.get("/app/target/classes/B.class"), out);
+        assertEquals(2, out.size());
+        assertEquals(1, out.get(1).length);
+    }
+
+    @Test
+    public void testRemovePrunesEmptyNodes() {
+        PathListenerTrie trie = new PathListenerTrie();
+        WatchEventListener first = listener();
+        WatchEventListener second = listener();
+        trie.add(Paths.get("/app/one"), first);
+        trie.add(Paths.get("/app/two"), first);
+        trie.add(Paths.get("/app/two"), second);
+
+        assertTrue(trie.remove(first));
+        assertFalse(trie.remove(first));
+        assertTrue(collect(trie, Paths.get("/app/one/A.class")).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList(second)), collect(trie, Paths.get("/app/two/A.class")));
+
+        assertTrue(trie.remove(second));
+        assertTrue(trie.isEmpty());
+
+        trie.add(Paths.get("/app"), first);
+        trie.clear();
+        assertTrue(trie.isEmpty());
+    }
+
+    /**
+     * Routing benchmark - many registered roots (e.g. multi module project), compared to scanning all roots.
+     */
+    @Test
+    public void testRoutingBenchmark() {
+        int roots = 500;
+        PathListenerTrie trie = new PathListenerTrie();
+        List<Path> rootPaths = new ArrayList<>();
+        List<Path> eventPaths = new ArrayList<>();
+        for (int i = 0; i < roots; i++) {
+            Path root = Paths.get("/workspace/project/module" + i + "/target/classes");
+            rootPaths.add(root);
+            trie.add(root, listener());
+            eventPaths.add(root.resolve("org/example/module" + i + "/Service.class"));
+        }
+
+        List<WatchEventListener[]> out = new ArrayList<>();
+        int rounds = 200;
+        long matched = 0;
+        long trieTime = Long.MAX_VALUE;
+        long scanTime = Long.MAX_VALUE;
+        for (int warmup = 0; warmup < 5; warmup++) {
+            long start = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                for (Path path : eventPaths) {
+                    trie.collect(path, out);
+                    matched += out.size();
+                    out.clear();
+                }
+            }
+            trieTime = Math.min(trieTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                for (Path path : eventPaths) {
+                    for (Path root : rootPaths) {
+                        if (path.startsWith(root)) {
+                            matched--;
+                        }
+                    }
+                }
+            }
+            scanTime = Math.min(scanTime, System.nanoTime() - start);
+        }
+
+        // each event matched exactly one root by both methods
+        assertEquals(0, matched);
+        assertTrue("Trie slower than scan", trieTime < scanTime);
+    }
+}
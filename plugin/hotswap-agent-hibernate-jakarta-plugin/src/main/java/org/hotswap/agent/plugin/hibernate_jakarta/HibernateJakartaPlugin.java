@@ -25,6 +25,7 @@ import java.util.Set;
 import java.util.WeakHashMap;
 import org.hotswap.agent.annotation.*;
 import org.hotswap.agent.command.Command;
+import org.hotswap.agent.command.CommandLane;
 import org.hotswap.agent.command.ReflectionCommand;
 import org.hotswap.agent.command.Scheduler;
 import org.hotswap.agent.javassist.CtClass;
@@ -120,7 +121,7 @@ public class HibernateJakartaPlugin
     /**
      * Reload after entity class change. It covers also @Entity annotation removal.
      */
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = ENTITY_ANNOTATION)
     public void entityReload(CtClass clazz, Class original) {
         // TODO list of entity/resource files is known to hibernate, better to check this list
         if (AnnotationHelper.hasAnnotation(original, ENTITY_ANNOTATION)
@@ -134,14 +135,14 @@ public class HibernateJakartaPlugin
     /**
      * New entity class - not covered by reloading mechanism.
      * <p/>
-     * Increase the reload timeout to avoid duplicate reloading in case of recompile with IDE
-     * and delete/create event sequence - than create is cached by this event and hotswap for
-     * the same class by entityReload.
+     * In case of recompile with IDE and delete/create event sequence the create is cached by this event
+     * and hotswap for the same class by entityReload. Both are merged within the timeout, otherwise
+     * they run one after another in the plugin lane.
      */
     @OnClassFileEvent(classNameRegexp = ".*", events = {FileEvent.CREATE})
     public void newEntity(CtClass clazz) throws Exception {
         if (AnnotationHelper.hasAnnotation(clazz, ENTITY_ANNOTATION)) {
-            refresh(500);
+            refresh(100);
         }
     }
 
@@ -153,12 +154,13 @@ public class HibernateJakartaPlugin
     }
 
     // reload the configuration - schedule a command to run in the application classloader and merge
-    // duplicate commands.
+    // duplicate commands. Reloads of the plugin run in order in its lane, never concurrently.
     private void refresh(int timeout) {
+        CommandLane lane = CommandLane.of(this, appClassLoader);
         if (hibernateEjb) {
-            scheduler.scheduleCommand(reloadEntityManagerFactoryCommand, timeout);
+            scheduler.scheduleCommand(reloadEntityManagerFactoryCommand, timeout, lane);
         } else {
-            scheduler.scheduleCommand(reloadSessionFactoryCommand, timeout);
+            scheduler.scheduleCommand(reloadSessionFactoryCommand, timeout, lane);
         }
     }
 
@@ -35,6 +35,7 @@ import org.hotswap.agent.annotation.OnClassLoadEvent;
 import org.hotswap.agent.annotation.Plugin;
 import org.hotswap.agent.annotation.Versions;
 import org.hotswap.agent.command.Command;
+import org.hotswap.agent.command.CommandLane;
 import org.hotswap.agent.command.ReflectionCommand;
 import org.hotswap.agent.command.Scheduler;
 import org.hotswap.agent.javassist.CtClass;
@@ -129,7 +130,7 @@ public class HibernatePlugin {
     /**
      * Reload after entity class change. It covers also @Entity annotation removal.
      */
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = ENTITY_ANNOTATION)
     public void entityReload(CtClass clazz, Class original) {
         // TODO list of entity/resource files is known to hibernate, better to check this list
         if (AnnotationHelper.hasAnnotation(original, ENTITY_ANNOTATION)
@@ -143,14 +144,14 @@ public class HibernatePlugin {
     /**
      * New entity class - not covered by reloading mechanism.
      * <p/>
-     * Increase the reload timeout to avoid duplicate reloading in case of recompile with IDE
-     * and delete/create event sequence - than create is cached by this event and hotswap for
-     * the same class by entityReload.
+     * In case of recompile with IDE and delete/create event sequence the create is cached by this event
+     * and hotswap for the same class by entityReload. Both are merged within the timeout, otherwise
+     * they run one after another in the plugin lane.
      */
     @OnClassFileEvent(classNameRegexp = ".*", events = {FileEvent.CREATE})
     public void newEntity(CtClass clazz) throws Exception {
         if (AnnotationHelper.hasAnnotation(clazz, ENTITY_ANNOTATION)) {
-            refresh(500);
+            refresh(100);
         }
     }
 
@@ -162,12 +163,13 @@ public class HibernatePlugin {
     }
 
     // reload the configuration - schedule a command to run in the application classloader and merge
-    // duplicate commands.
+    // duplicate commands. Reloads of the plugin run in order in its lane, never concurrently.
     private void refresh(int timeout) {
+        CommandLane lane = CommandLane.of(this, appClassLoader);
         if (hibernateEjb) {
-            scheduler.scheduleCommand(reloadEntityManagerFactoryCommand, timeout);
+            scheduler.scheduleCommand(reloadEntityManagerFactoryCommand, timeout, lane);
         } else {
-            scheduler.scheduleCommand(reloadSessionFactoryCommand, timeout);
+            scheduler.scheduleCommand(reloadSessionFactoryCommand, timeout, lane);
         }
     }
 
@@ -137,7 +137,7 @@ public class Hibernate3JPAPlugin {
      * @param clazz the clazz
      * @param original the original
      */
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = ENTITY_ANNOTATION)
     public void entityReload(CtClass clazz, Class<?> original) {
         // TODO list of entity/resource files is known to hibernate, better to
         // check this list
@@ -105,7 +105,7 @@ public class MojarraPlugin {
         scheduler.scheduleCommand(refreshResourceBundles);
     }
 
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = MANAGED_BEAN_ANNOTATION)
     public void reloadManagedBean(Class<?> beanClass) {
         if (!AnnotationHelper.hasAnnotation(beanClass, MANAGED_BEAN_ANNOTATION)) {
             return;
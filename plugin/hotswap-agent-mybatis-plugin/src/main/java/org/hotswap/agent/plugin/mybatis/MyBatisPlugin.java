@@ -26,6 +26,7 @@ import java.util.Map;
 
 import org.hotswap.agent.annotation.*;
 import org.hotswap.agent.command.Command;
+import org.hotswap.agent.command.CommandLane;
 import org.hotswap.agent.command.ReflectionCommand;
 import org.hotswap.agent.command.Scheduler;
 import org.hotswap.agent.config.PluginConfiguration;
@@ -73,7 +74,7 @@ public class MyBatisPlugin {
     @OnResourceFileEvent(path = "/", filter = ".*.xml", events = {FileEvent.MODIFY})
     public void registerResourceListeners(URL url) throws URISyntaxException {
         if (configurationMap.containsKey(Paths.get(url.toURI()).toFile().getAbsolutePath())) {
-            refresh(500);
+            refresh(100);
         }
     }
 
@@ -81,14 +82,14 @@ public class MyBatisPlugin {
     public void registerClassListeners(Class<?> clazz) {
         if (ConfigurationProxy.isMybatisEntity(clazz) || SpringMybatisConfigurationProxy.isMybatisEntity(clazz)) {
             LOGGER.trace("Scheduling Mybatis reload for class '{}' in classLoader {}", clazz, appClassLoader);
-            refresh(500);
+            refresh(100);
         }
     }
 
     // reload the configuration - schedule a command to run in the application classloader and merge
-    // duplicate commands.
+    // duplicate commands. Reloads of the plugin run in order in its lane, never concurrently.
     private void refresh(int timeout) {
-        scheduler.scheduleCommand(reloadConfigurationCommand, timeout);
+        scheduler.scheduleCommand(reloadConfigurationCommand, timeout, CommandLane.of(this, appClassLoader));
     }
 
 }
@@ -83,7 +83,7 @@ public class MyFacesPlugin {
         scheduler.scheduleCommand(refreshResourceBundles);
     }
 
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = MANAGED_BEAN_ANNOTATION)
     public void reloadManagedBean(Class<?> beanClass) {
         if (!AnnotationHelper.hasAnnotation(beanClass, MANAGED_BEAN_ANNOTATION)) {
             return;
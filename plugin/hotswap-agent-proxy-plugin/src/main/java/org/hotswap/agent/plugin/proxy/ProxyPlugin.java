@@ -95,7 +95,11 @@ public class ProxyPlugin {
 
         reloadFlag = true;
 
-        PluginManager.getInstance().getScheduler().scheduleCommandOnClassesRedefinedOrTimeout(new ReloadJavaProxyCommand(classLoader, className, signatureMapOrig), 50);
+        // commands scheduled after classes redefined commands (e.g. CDI bean refresh) wait for the regeneration,
+        // the timeout applies only if the classes redefined event is not supported
+        PluginManager.getInstance().getScheduler()
+                .submitCommandOnClassesRedefinedOrTimeout(new ReloadJavaProxyCommand(classLoader, className, signatureMapOrig), 50)
+                .whenComplete((result, throwable) -> reloadFlag = false);
     }
 
     public static void removeProxyDefiningClassName(String className) {
@@ -48,14 +48,10 @@ public class ReloadJavaProxyCommand extends MergeableCommand {
 
     @Override
     public void executeCommand() {
-        try {
-            executeSingleCommand();
-            List<Command> commands = new ArrayList<>(getMergedCommands());
-            for (Command command: commands) {
-                ((ReloadJavaProxyCommand) command).executeSingleCommand();
-            }
-        } finally {
-            ProxyPlugin.reloadFlag = false;
+        executeSingleCommand();
+        List<Command> commands = new ArrayList<>(getMergedCommands());
+        for (Command command: commands) {
+            ((ReloadJavaProxyCommand) command).executeSingleCommand();
         }
     }
 
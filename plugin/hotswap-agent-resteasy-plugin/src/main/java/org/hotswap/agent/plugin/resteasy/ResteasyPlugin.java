@@ -133,7 +133,7 @@ public class ResteasyPlugin {
         LOGGER.debug("RestEasyPlugin - dispatcher registered : " + filterDispatcher.getClass().getName());
     }
 
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = PATH_ANNOTATION)
     public void entityReload(ClassLoader classLoader, CtClass clazz, Class original) {
         if (AnnotationHelper.hasAnnotation(original, PATH_ANNOTATION)
                 || AnnotationHelper.hasAnnotation(clazz, PATH_ANNOTATION)
@@ -136,7 +136,7 @@ public class ResteasyRegistryPlugin {
         LOGGER.info("Registered ServletContainerDispatcher {} ", servletContainerDispatcher);
     }
 
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = PATH_ANNOTATION)
     public void entityReload(ClassLoader classLoader, CtClass clazz, Class<?> original) {
         if (AnnotationHelper.hasAnnotation(original, PATH_ANNOTATION)
                 || AnnotationHelper.hasAnnotation(clazz, PATH_ANNOTATION)) {
@@ -18,9 +18,12 @@
  */
 package org.hotswap.agent.plugin.spring.boot.listener;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.plugin.spring.files.ChangedPropertyKeys;
 import org.hotswap.agent.plugin.spring.files.PropertiesChangeEvent;
 import org.hotswap.agent.plugin.spring.listener.SpringEvent;
 import org.hotswap.agent.plugin.spring.listener.SpringEventSource;
@@ -72,16 +75,21 @@ public class PropertySourceChangeListener implements SpringListener<SpringEvent<
     @Override
     public void onEvent(SpringEvent<?> event) {
         if (event instanceof PropertiesChangeEvent) {
-            refreshConfigurationProperties(event.getBeanFactory());
+            List<String> keys = new ArrayList<>();
+            for (PropertiesChangeEvent.PropertyChangeItem propertyChangeItem : ((PropertiesChangeEvent) event).getSource()) {
+                keys.add(propertyChangeItem.getKey());
+            }
+            refreshConfigurationProperties(event.getBeanFactory(), new ChangedPropertyKeys(keys));
         }
     }
 
-    private void refreshConfigurationProperties(ConfigurableListableBeanFactory eventBeanFactory) {
+    private void refreshConfigurationProperties(ConfigurableListableBeanFactory eventBeanFactory, ChangedPropertyKeys changedKeys) {
         for (String singleton : beanFactory.getSingletonNames()) {
             Object bean = beanFactory.getSingleton(singleton);
             Class<?> beanClass = ClassUtils.getUserClass(bean.getClass());
 
-            if (AnnotationHelper.hasAnnotation(beanClass, ConfigurationProperties.class.getName())) {
+            if (AnnotationHelper.hasAnnotation(beanClass, ConfigurationProperties.class.getName())
+                    && changedKeys.matchesPrefix(getPrefix(beanClass))) {
                 LOGGER.debug("refresh configuration properties: {}", beanClass);
                 String[] beanNames = beanFactory.getBeanNamesForType(beanClass);
                 if (beanNames != null && beanNames.length > 0) {
@@ -91,6 +99,15 @@ public class PropertySourceChangeListener implements SpringListener<SpringEvent<
         }
     }
 
+    private static String getPrefix(Class<?> beanClass) {
+        ConfigurationProperties configurationProperties = beanClass.getAnnotation(ConfigurationProperties.class);
+        if (configurationProperties == null) {
+            // unknown, refresh on any change
+            return null;
+        }
+        return !configurationProperties.prefix().isEmpty() ? configurationProperties.prefix() : configurationProperties.value();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {return true;}
@@ -75,6 +75,10 @@ public class PropertySourceTest {
             }
         }, 12000));
         printObject(test10Properties, test50Service, test80Properties, test80Service);
+        // only the beans referencing changed keys (properties.l10.*, properties.l50.*) are reloaded
+        Assert.assertNotSame(test10Properties, applicationContext.getBean(Test10Properties.class));
+        Assert.assertSame(test80Properties, applicationContext.getBean(Test80Properties.class));
+        Assert.assertSame(test80Service, applicationContext.getBean(Test80Service.class));
         test10Properties = applicationContext.getBean(Test10Properties.class);
         test80Properties = applicationContext.getBean(Test80Properties.class);
         test50Service = applicationContext.getBean(Test50Service.class);
@@ -19,7 +19,6 @@
 package org.hotswap.agent.plugin.spring;
 
 import org.hotswap.agent.javassist.ClassPool;
-import org.hotswap.agent.javassist.CtClass;
 import org.hotswap.agent.javassist.LoaderClassPath;
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.plugin.spring.utils.ClassSignatureComparer;
@@ -54,17 +53,11 @@ public class SpringChangesAnalyzer {
     }
 
     private boolean classChangeNeedsReload(Class<?> classBeingRedefined, byte[] classfileBuffer) {
-        CtClass makeClass = null;
         try {
-            makeClass = cp.makeClass(new java.io.ByteArrayInputStream(classfileBuffer));
-            return ClassSignatureComparer.isPoolClassDifferent(classBeingRedefined, cp);
+            return ClassSignatureComparer.isDifferent(classBeingRedefined, classfileBuffer, cp);
         } catch (Exception e) {
             LOGGER.error("Error analyzing class {} for reload necessity. Defaulting to yes.", e,
                     classBeingRedefined.getName());
-        } finally {
-            if (makeClass != null) {
-                makeClass.detach();
-            }
         }
         return true;
     }
@@ -61,6 +61,7 @@ import org.hotswap.agent.plugin.spring.transformers.PostProcessorRegistrationDel
 import org.hotswap.agent.plugin.spring.transformers.ProxyReplacerTransformer;
 import org.hotswap.agent.plugin.spring.transformers.ResourcePropertySourceTransformer;
 import org.hotswap.agent.plugin.spring.transformers.XmlBeanDefinitionScannerTransformer;
+import org.hotswap.agent.plugin.spring.utils.ClassSignatureComparer;
 import org.hotswap.agent.util.AnnotationHelper;
 import org.hotswap.agent.util.HotswapTransformer;
 import org.hotswap.agent.util.IOUtils;
@@ -112,6 +113,7 @@ public class SpringPlugin {
         ReflectionHelper.set(null, springChangeHubClass, "appClassLoader", appClassLoader);
         this.registerBasePackageFromConfiguration();
         this.initBasePackagePrefixes();
+        this.initReloadConfig();
     }
 
     public void init(String version) throws ClassNotFoundException {
@@ -120,6 +122,24 @@ public class SpringPlugin {
         ReflectionHelper.set(null, springChangeHubClass, "appClassLoader", appClassLoader);
         this.registerBasePackageFromConfiguration();
         this.initBasePackagePrefixes();
+        this.initReloadConfig();
+    }
+
+    private void initReloadConfig() throws ClassNotFoundException {
+        PluginConfiguration pluginConfiguration = new PluginConfiguration(this.appClassLoader);
+        Class<?> springReloadConfigClass = Class.forName(SpringReloadConfig.class.getName(), true, appClassLoader);
+        if (pluginConfiguration.getPropertyBoolean("spring.reload.fullInjectionSweep")) {
+            ReflectionHelper.set(null, springReloadConfigClass, "fullInjectionSweep", true);
+        }
+        String parallelism = pluginConfiguration.getProperty("spring.reload.parallelism");
+        if (parallelism != null && !parallelism.trim().isEmpty()) {
+            try {
+                ReflectionHelper.set(null, springReloadConfigClass, "reloadParallelism",
+                        Math.max(1, Integer.parseInt(parallelism.trim())));
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid spring.reload.parallelism '{}', bean factories are reloaded one by one.", parallelism);
+            }
+        }
     }
 
     private void initBasePackagePrefixes() {
@@ -164,10 +184,13 @@ public class SpringPlugin {
     }
 
     @OnClassLoadEvent(classNameRegexp = ".*", events = {LoadEvent.REDEFINE})
-    public void registerClassListeners(Class<?> clazz) {
+    public void registerClassListeners(Class<?> clazz, byte[] classfileBuffer) {
         LOGGER.trace("Scheduling Spring reload for class '{}' in classLoader {}", clazz, appClassLoader);
+        // the class is not redefined yet, compare the hierarchy with the new definition
+        boolean hierarchyChanged = ClassSignatureComparer.isHierarchyChanged(clazz, classfileBuffer);
         scheduler.scheduleCommandOnClassesRedefinedOrTimeout(
-            new SpringChangedReloadCommand(appClassLoader, new ClassChangedCommand(appClassLoader, clazz, scheduler)),
+            new SpringChangedReloadCommand(appClassLoader,
+                new ClassChangedCommand(appClassLoader, clazz, hierarchyChanged, scheduler)),
             SpringReloadConfig.reloadDelayMillisForClass
         );
     }
@@ -215,6 +238,7 @@ public class SpringPlugin {
         // bug in JVMTI or its handling of debugger locks.
         hotswapTransformer.registerTransformer(appClassLoader, getClassNameRegExp(basePackage),
                 new SpringBeanClassFileTransformer(appClassLoader, scheduler, basePackage));
+        ClassSignatureComparer.registerFingerprints();
     }
 
     /**
@@ -283,7 +307,7 @@ public class SpringPlugin {
      * This will override freeze method to init plugin - plugin will be initialized and the configuration
      * remains unfrozen, so bean (re)definition may be done by the plugin.
      */
-    @OnClassLoadEvent(classNameRegexp = "org.springframework.beans.factory.support.DefaultListableBeanFactory")
+    @OnClassLoadEvent(classNameRegexp = "org.springframework.beans.factory.support.DefaultListableBeanFactory", cacheable = true)
     public static void register(ClassLoader appClassLoader, CtClass clazz, ClassPool classPool) throws NotFoundException, CannotCompileException {
         StringBuilder src = new StringBuilder("{");
         src.append("setCacheBeanMetadata(false);");
@@ -24,12 +24,24 @@ import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostP
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 
 public class AutowiredAnnotationProcessor {
     private static AgentLogger LOGGER = AgentLogger.getLogger(AutowiredAnnotationProcessor.class);
 
     public static void processSingletonBeanInjection(DefaultListableBeanFactory beanFactory) {
+        processSingletonBeanInjection(beanFactory, Arrays.asList(beanFactory.getBeanDefinitionNames()));
+    }
+
+    /**
+     * Process @Autowired / @Value injection of existing singletons with the bean names only.
+     */
+    public static void processSingletonBeanInjection(DefaultListableBeanFactory beanFactory, Collection<String> beanNames) {
+        if (beanNames.isEmpty()) {
+            return;
+        }
         try {
             Map<String, AutowiredAnnotationBeanPostProcessor> postProcessors = beanFactory.getBeansOfType(
                 AutowiredAnnotationBeanPostProcessor.class);
@@ -39,7 +51,7 @@ public class AutowiredAnnotationProcessor {
             }
             AutowiredAnnotationBeanPostProcessor postProcessor = postProcessors.values().iterator().next();
             boolean postProcessPropertyValuesNotExists = false;
-            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            for (String beanName : beanNames) {
                 Object object = beanFactory.getSingleton(beanName);
                 if (object != null) {
                     if (postProcessPropertyValuesNotExists) {
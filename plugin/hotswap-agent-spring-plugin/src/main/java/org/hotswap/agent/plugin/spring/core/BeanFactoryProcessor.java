@@ -73,16 +73,48 @@ public class BeanFactoryProcessor {
      *
      * @param beanFactory
      * @param beanName
+     * @param bean the created bean
      */
     public static void postProcessCreateBean(AbstractAutowireCapableBeanFactory beanFactory, String beanName,
-        RootBeanDefinition mbd) {
+        RootBeanDefinition mbd, Object bean) {
+        BeanFactoryAssistant beanFactoryAssistant = BeanFactoryAssistant.getBeanFactoryAssistant(beanFactory);
+        if (beanFactoryAssistant == null) {
+            return;
+        }
         // check if reload , then log
-        if (beanFactory instanceof ConfigurableListableBeanFactory
-            && BeanFactoryAssistant.getBeanFactoryAssistant((ConfigurableListableBeanFactory)beanFactory).isReload()
-            && mbd.isSingleton()) {
+        if (beanFactoryAssistant.isReload() && mbd.isSingleton()) {
             LOGGER.debug("create new singleton bean '{}' from '{}'", beanName,
                 ObjectUtils.identityToString(beanFactory));
         }
+        if (beanFactoryAssistant.getBeanNameIndex() != null) {
+            beanFactoryAssistant.getBeanNameIndex().beanCreated(beanName, bean);
+        }
+    }
+
+    /**
+     * invoked by @see org.hotswap.agent.plugin.spring.transformers.BeanFactoryTransformer
+     *
+     * @param beanFactory
+     * @param beanName
+     */
+    public static void postProcessRegisterBeanDefinition(DefaultListableBeanFactory beanFactory, String beanName) {
+        BeanFactoryAssistant beanFactoryAssistant = BeanFactoryAssistant.getBeanFactoryAssistant(beanFactory);
+        if (beanFactoryAssistant != null && beanFactoryAssistant.getBeanNameIndex() != null) {
+            beanFactoryAssistant.getBeanNameIndex().beanDefinitionRegistered(beanName);
+        }
+    }
+
+    /**
+     * invoked by @see org.hotswap.agent.plugin.spring.transformers.BeanFactoryTransformer
+     *
+     * @param beanFactory
+     * @param beanName
+     */
+    public static void postProcessRemoveBeanDefinition(DefaultListableBeanFactory beanFactory, String beanName) {
+        BeanFactoryAssistant beanFactoryAssistant = BeanFactoryAssistant.getBeanFactoryAssistant(beanFactory);
+        if (beanFactoryAssistant != null && beanFactoryAssistant.getBeanNameIndex() != null) {
+            beanFactoryAssistant.getBeanNameIndex().beanDefinitionRemoved(beanName);
+        }
     }
 
     public static boolean needReloadOnConstructor(DefaultListableBeanFactory beanFactory, AbstractBeanDefinition currentBeanDefinition,
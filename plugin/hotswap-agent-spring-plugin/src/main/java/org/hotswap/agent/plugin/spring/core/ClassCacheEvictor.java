@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.core;
+
+import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.ReflectionHelper;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.lang.reflect.Parameter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evicts entries of Spring metadata caches related to changed classes, instead of clearing the whole cache.
+ * <p>
+ * An entry is related if its class (cache key, declaring class of a method / field, target class of a metadata)
+ * is a changed class or its subclass / implementation. Entries with unknown class are evicted too. The eviction
+ * is valid only if the class hierarchy did not change - otherwise the caches must be cleared, see
+ * {@link ResetSpringStaticCaches#reset()}.
+ */
+public class ClassCacheEvictor {
+    private static final AgentLogger LOGGER = AgentLogger.getLogger(ClassCacheEvictor.class);
+
+    private final Set<Class<?>> classes;
+
+    public ClassCacheEvictor(Collection<Class<?>> changedClasses) {
+        this.classes = new HashSet<>(changedClasses);
+    }
+
+    public Set<Class<?>> getClasses() {
+        return Collections.unmodifiableSet(classes);
+    }
+
+    public boolean isEmpty() {
+        return classes.isEmpty();
+    }
+
+    /**
+     * The class is changed, or it is a subclass / implementation of a changed class.
+     */
+    public boolean isAffected(Class<?> clazz) {
+        if (clazz == null) {
+            return true;
+        }
+        for (Class<?> changedClass : classes) {
+            if (changedClass.isAssignableFrom(clazz)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove cache entries with affected keys.
+     *
+     * @return number of removed entries
+     */
+    public int evictKeys(Map<?, ?> cache, String cacheName) {
+        if (cache == null || cache.isEmpty() || classes.isEmpty()) {
+            return 0;
+        }
+        int size = cache.size();
+        try {
+            cache.keySet().removeIf(key -> isAffected(getClass(key)));
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to evict entries of {}, clearing the cache", e, cacheName);
+            cache.clear();
+        }
+        return logEvicted(cacheName, size - cache.size());
+    }
+
+    /**
+     * Remove cache entries with affected values (e.g. InjectionMetadata cached by bean name).
+     *
+     * @return number of removed entries
+     */
+    public int evictValues(Map<?, ?> cache, String cacheName) {
+        if (cache == null || cache.isEmpty() || classes.isEmpty()) {
+            return 0;
+        }
+        int size = cache.size();
+        try {
+            cache.values().removeIf(value -> isAffected(getClass(value)));
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to evict entries of {}, clearing the cache", e, cacheName);
+            cache.clear();
+        }
+        return logEvicted(cacheName, size - cache.size());
+    }
+
+    private static int logEvicted(String cacheName, int evicted) {
+        if (evicted > 0) {
+            LOGGER.trace("Cache evicted: {}, {} entries", cacheName, evicted);
+        }
+        return evicted;
+    }
+
+    /**
+     * Class of a cache key or value. Supports classes, members, parameters and Spring holders of them
+     * (AnnotationCacheKey, MethodClassKey / DefaultCacheKey, Property, ResolvableType, InjectionMetadata, LifecycleMetadata).
+     *
+     * @return the class, null if unknown
+     */
+    static Class<?> getClass(Object object) {
+        if (object instanceof Class) {
+            return (Class<?>) object;
+        }
+        if (object instanceof Member) {
+            return ((Member) object).getDeclaringClass();
+        }
+        if (object instanceof Parameter) {
+            return ((Parameter) object).getDeclaringExecutable().getDeclaringClass();
+        }
+        if (object == null) {
+            return null;
+        }
+        switch (object.getClass().getSimpleName()) {
+            case "AnnotationCacheKey":
+                return getClassOfField(object, "element");
+            case "MethodClassKey":
+            case "DefaultCacheKey":
+                Class<?> targetClass = getClassOfField(object, "targetClass");
+                return targetClass != null ? targetClass : getClassOfField(object, "method");
+            case "Property":
+                return getClassOfField(object, "objectType");
+            case "ResolvableType":
+                return (Class<?>) ReflectionHelper.invokeNoException(object, object.getClass().getName(),
+                        object.getClass().getClassLoader(), "resolve", new Class<?>[] {});
+            case "InjectionMetadata":
+            case "LifecycleMetadata":
+                Class<?> metadataClass = getClassOfField(object, "targetClass");
+                // shared empty metadata (Spring 5.2+) is never refreshed by Spring, evict it as unknown
+                return metadataClass != Object.class ? metadataClass : null;
+            default:
+                return null;
+        }
+    }
+
+    private static Class<?> getClassOfField(Object object, String fieldName) {
+        Object value = ReflectionHelper.getNoException(object, object.getClass(), fieldName);
+        if (value instanceof AnnotatedElement) {
+            return getClass(value);
+        }
+        return null;
+    }
+}
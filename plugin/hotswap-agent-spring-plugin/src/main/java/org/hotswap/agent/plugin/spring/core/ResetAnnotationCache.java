@@ -34,4 +34,21 @@ public class ResetAnnotationCache {
             baseTypeMethodsCache.clear();
         }
     }
+
+    /**
+     * Evict entries of changed classes from Spring annotation scanner caches.
+     * @since 5.x
+     */
+    public static void evictAnnotationScanner(DefaultListableBeanFactory defaultListableBeanFactory,
+                                              ClassCacheEvictor cacheEvictor) {
+        Map<?, ?> declaredAnnotationCache = (Map<?, ?>) ReflectionHelper.getNoException(null,
+                "org.springframework.core.annotation.AnnotationsScanner",
+                defaultListableBeanFactory.getClass().getClassLoader(), "declaredAnnotationCache");
+        cacheEvictor.evictKeys(declaredAnnotationCache, "AnnotationsScanner.declaredAnnotationCache");
+
+        Map<?, ?> baseTypeMethodsCache = (Map<?, ?>) ReflectionHelper.getNoException(null,
+                "org.springframework.core.annotation.AnnotationsScanner",
+                defaultListableBeanFactory.getClass().getClassLoader(), "baseTypeMethodsCache");
+        cacheEvictor.evictKeys(baseTypeMethodsCache, "AnnotationsScanner.baseTypeMethodsCache");
+    }
 }
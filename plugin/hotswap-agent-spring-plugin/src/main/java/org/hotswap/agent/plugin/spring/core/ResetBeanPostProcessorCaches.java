@@ -30,6 +30,7 @@ import org.springframework.context.annotation.CommonAnnotationBeanPostProcessor;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -87,6 +88,59 @@ public class ResetBeanPostProcessorCaches {
         }
     }
 
+    /**
+     * Evict cached metadata of changed classes (and their subclasses) from post processors of a bean factory.
+     * ReflectionUtils caches are evicted by {@link ResetSpringStaticCaches#evict(ClassCacheEvictor)}.
+     *
+     * @param beanFactory beanFactory to use
+     * @param cacheEvictor changed classes
+     */
+    public static void evict(DefaultListableBeanFactory beanFactory, ClassCacheEvictor cacheEvictor) {
+        if (cacheEvictor.isEmpty()) {
+            return;
+        }
+        for (BeanPostProcessor bpp : beanFactory.getBeanPostProcessors()) {
+            if (bpp instanceof AutowiredAnnotationBeanPostProcessor) {
+                cacheEvictor.evictKeys(getAutowiredAnnotationBeanPostProcessorConstructorCache(
+                        (AutowiredAnnotationBeanPostProcessor) bpp), "AutowiredAnnotationBeanPostProcessor.candidateConstructorsCache");
+                cacheEvictor.evictValues(getInjectionMetadataCache(bpp, AutowiredAnnotationBeanPostProcessor.class),
+                        "AutowiredAnnotationBeanPostProcessor.injectionMetadataCache");
+            } else if (bpp instanceof CommonAnnotationBeanPostProcessor) {
+                cacheEvictor.evictValues(getInjectionMetadataCache(bpp, CommonAnnotationBeanPostProcessor.class),
+                        "CommonAnnotationBeanPostProcessor.injectionMetadataCache");
+            }
+            if (bpp instanceof InitDestroyAnnotationBeanPostProcessor) {
+                cacheEvictor.evictKeys((Map<?, ?>) ReflectionHelper.getNoException(bpp,
+                        InitDestroyAnnotationBeanPostProcessor.class, "lifecycleMetadataCache"),
+                        "InitDestroyAnnotationBeanPostProcessor.lifecycleMetadataCache");
+            }
+        }
+    }
+
+    /**
+     * Evict injection metadata of beans to inject again. The cached metadata skips registration of the dependent
+     * beans, so the dependencies on recreated beans would be lost.
+     *
+     * @param beanFactory beanFactory to use
+     * @param beanNames beans to inject again
+     */
+    public static void evictInjectionMetadata(DefaultListableBeanFactory beanFactory, Collection<String> beanNames) {
+        if (beanNames.isEmpty()) {
+            return;
+        }
+        for (BeanPostProcessor bpp : beanFactory.getBeanPostProcessors()) {
+            Map<String, InjectionMetadata> injectionMetadataCache = null;
+            if (bpp instanceof AutowiredAnnotationBeanPostProcessor) {
+                injectionMetadataCache = getInjectionMetadataCache(bpp, AutowiredAnnotationBeanPostProcessor.class);
+            } else if (bpp instanceof CommonAnnotationBeanPostProcessor) {
+                injectionMetadataCache = getInjectionMetadataCache(bpp, CommonAnnotationBeanPostProcessor.class);
+            }
+            if (injectionMetadataCache != null) {
+                injectionMetadataCache.keySet().removeAll(beanNames);
+            }
+        }
+    }
+
     public static void resetInitDestroyAnnotationBeanPostProcessorCache(InitDestroyAnnotationBeanPostProcessor bpp) {
         try {
             Field field = InitDestroyAnnotationBeanPostProcessor.class.getDeclaredField("lifecycleMetadataCache");
@@ -134,6 +188,18 @@ public class ResetBeanPostProcessorCaches {
         }
     }
 
+    private static Map<String, InjectionMetadata> getInjectionMetadataCache(Object object, Class<?> clazz) {
+        try {
+            Field field = clazz.getDeclaredField("injectionMetadataCache");
+            field.setAccessible(true);
+            //noinspection unchecked
+            return (Map<String, InjectionMetadata>) field.get(object);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to access "
+                + "AutowiredAnnotationBeanPostProcessor/CommonAnnotationBeanPostProcessor injectionMetadataCache", e);
+        }
+    }
+
     /**
      * deal injectionMetadataCache field of
      * 
@@ -20,13 +20,19 @@ package org.hotswap.agent.plugin.spring.core;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.hotswap.agent.logging.AgentLogger;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.ApplicationObjectSupport;
 
 /**
  * Support for Spring MVC mapping caches.
@@ -35,6 +41,9 @@ public class ResetRequestMappingCaches {
 
     private static AgentLogger LOGGER = AgentLogger.getLogger(ResetRequestMappingCaches.class);
 
+    // ScopedProxyUtils.TARGET_NAME_PREFIX, spring-aop is optional
+    private static final String SCOPED_TARGET_NAME_PREFIX = "scopedTarget.";
+
     private static Class<?> getHandlerMethodMappingClassOrNull() {
         try {
             //This is probably a bad idea as Class.forName has lots of issues but this was easiest for now.
@@ -98,4 +107,87 @@ public class ResetRequestMappingCaches {
 
     }
 
+    /**
+     * Re-register only handler methods of changed classes (and their subclasses). Falls back to {@link #reset} before
+     * Spring 4.2 (no unregisterMapping).
+     */
+    public static void evict(DefaultListableBeanFactory beanFactory, ClassCacheEvictor cacheEvictor) {
+        if (cacheEvictor.isEmpty()) {
+            return;
+        }
+        Class<?> c = getHandlerMethodMappingClassOrNull();
+        if (c == null)
+            return;
+
+        Map<String, ?> mappings =
+                BeanFactoryUtils.beansOfTypeIncludingAncestors(beanFactory, c, true, false);
+        try {
+            Method getHandlerMethods = c.getDeclaredMethod("getHandlerMethods");
+            Method unregisterMapping = c.getDeclaredMethod("unregisterMapping", Object.class);
+            Method detectHandlerMethods = c.getDeclaredMethod("detectHandlerMethods", Object.class);
+            detectHandlerMethods.setAccessible(true);
+            for (Entry<String, ?> e : mappings.entrySet()) {
+                Object am = e.getValue();
+                Set<String> handlers = new LinkedHashSet<>();
+                Map<?, ?> handlerMethods = new LinkedHashMap<>((Map<?, ?>) getHandlerMethods.invoke(am));
+                for (Entry<?, ?> handlerMethod : handlerMethods.entrySet()) {
+                    Object hm = handlerMethod.getValue();
+                    Object handler = hm.getClass().getMethod("getBean").invoke(hm);
+                    Class<?> beanType = (Class<?>) hm.getClass().getMethod("getBeanType").invoke(hm);
+                    // handlers registered as instance are kept, they can't be detected again
+                    if (handler instanceof String && cacheEvictor.isAffected(beanType)) {
+                        LOGGER.trace("Unregistering handler method {}", handlerMethod.getKey());
+                        unregisterMapping.invoke(am, handlerMethod.getKey());
+                        handlers.add((String) handler);
+                    }
+                }
+                // a changed class may become a handler (or not be a handler any more)
+                for (String handler : getHandlerBeanNames(am, handlers, cacheEvictor)) {
+                    LOGGER.trace("Spring: detecting handler methods of {} for {}", handler, am.getClass());
+                    detectHandlerMethods.invoke(am, handler);
+                }
+            }
+        } catch (NoSuchMethodException e) {
+            LOGGER.trace("Probably using Spring 4.1 or below, clearing HandlerMappings: {}", e.getMessage());
+            reset(beanFactory);
+        } catch (Exception e) {
+            LOGGER.error("Failed to evict HandlerMappings", e);
+        }
+    }
+
+    private static Set<String> getHandlerBeanNames(Object am, Set<String> beanNames, ClassCacheEvictor cacheEvictor)
+            throws Exception {
+        Set<String> result = new LinkedHashSet<>();
+        ApplicationContext applicationContext = ((ApplicationObjectSupport) am).getApplicationContext();
+        Method isHandler = findMethod(am.getClass(), "isHandler", Class.class);
+        if (applicationContext == null || isHandler == null) {
+            return result;
+        }
+        isHandler.setAccessible(true);
+        Set<String> candidates = new LinkedHashSet<>(beanNames);
+        for (Class<?> clazz : cacheEvictor.getClasses()) {
+            candidates.addAll(Arrays.asList(applicationContext.getBeanNamesForType(clazz, true, false)));
+        }
+        for (String beanName : candidates) {
+            if (beanName.startsWith(SCOPED_TARGET_NAME_PREFIX) || !applicationContext.containsBean(beanName)) {
+                continue;
+            }
+            Class<?> beanType = applicationContext.getType(beanName);
+            if (beanType != null && (Boolean) isHandler.invoke(am, beanType)) {
+                result.add(beanName);
+            }
+        }
+        return result;
+    }
+
+    private static Method findMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredMethod(name, parameterTypes);
+            } catch (NoSuchMethodException e) {
+                // continue with superclass
+            }
+        }
+        return null;
+    }
 }
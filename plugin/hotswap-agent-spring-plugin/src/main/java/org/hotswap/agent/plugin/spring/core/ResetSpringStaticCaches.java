@@ -88,6 +88,48 @@ public class ResetSpringStaticCaches {
         CachedIntrospectionResults.clearClassLoader(ResetSpringStaticCaches.class.getClassLoader());
     }
 
+    /**
+     * Evict entries of changed classes (and their subclasses) from the caches, {@link #reset()} is needed if the class
+     * hierarchy changed.
+     */
+    public static void evict(ClassCacheEvictor cacheEvictor) {
+        if (cacheEvictor.isEmpty()) {
+            return;
+        }
+        ClassLoader classLoader = ResetSpringStaticCaches.class.getClassLoader();
+        evictStaticCache(cacheEvictor, GenericTypeResolver.class, "typeVariableCache");
+        evictStaticCache(cacheEvictor, ReflectionUtils.class, "declaredMethodsCache");
+        evictStaticCache(cacheEvictor, ReflectionUtils.class, "declaredFieldsCache");
+        evictStaticCache(cacheEvictor, AnnotationUtils.class, "findAnnotationCache");
+        evictStaticCache(cacheEvictor, AnnotationUtils.class, "metaPresentCache");
+        evictStaticCache(cacheEvictor, AnnotationUtils.class, "annotatedBaseTypeCache");
+        evictStaticCache(cacheEvictor, AnnotationUtils.class, "annotatedInterfaceCache");
+        evictStaticCache(cacheEvictor, "org.springframework.core.ResolvableType", classLoader, "cache");
+        evictStaticCache(cacheEvictor, "org.springframework.core.convert.Property", classLoader, "annotationCache");
+        // classCache before Spring 3.2.x
+        evictStaticCache(cacheEvictor, CachedIntrospectionResults.class, "strongClassCache");
+        evictStaticCache(cacheEvictor, CachedIntrospectionResults.class, "softClassCache");
+        evictStaticCache(cacheEvictor, CachedIntrospectionResults.class, "classCache");
+    }
+
+    private static void evictStaticCache(ClassCacheEvictor cacheEvictor, Class<?> clazz, String fieldName) {
+        Object cache = ReflectionHelper.getNoException(null, clazz, fieldName);
+        if (cache instanceof Map) {
+            cacheEvictor.evictKeys((Map<?, ?>) cache, clazz.getSimpleName() + "." + fieldName);
+        } else {
+            LOGGER.trace("Cache NOT evicted: {}.{} not exists in target Spring version", clazz.getSimpleName(), fieldName);
+        }
+    }
+
+    private static void evictStaticCache(ClassCacheEvictor cacheEvictor, String className, ClassLoader classLoader,
+                                         String fieldName) {
+        try {
+            evictStaticCache(cacheEvictor, classLoader.loadClass(className), fieldName);
+        } catch (ClassNotFoundException e) {
+            LOGGER.trace("Cache NOT evicted: {} not exists in target Spring version", className);
+        }
+    }
+
     private static void resetResolvableTypeCache() {
         ReflectionHelper.invokeNoException(null, "org.springframework.core.ResolvableType",
                 ResetSpringStaticCaches.class.getClassLoader(), "clearCache", new Class<?>[] {});
@@ -24,27 +24,23 @@ import org.springframework.transaction.interceptor.AbstractFallbackTransactionAt
 import org.springframework.transaction.interceptor.TransactionAttribute;
 
 import java.lang.reflect.Field;
+import java.util.Collections;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 public class ResetTransactionAttributeCaches {
     private static final AgentLogger LOGGER = AgentLogger.getLogger(ResetTransactionAttributeCaches.class);
 
-    private static Map<Object, TransactionAttribute> attributeCache;
-    private static boolean tried = false;
+    // bean factory -> attributeCache of its transactionAttributeSource (null if not accessible)
+    private static final Map<DefaultListableBeanFactory, Map<Object, TransactionAttribute>> attributeCaches =
+            Collections.synchronizedMap(new WeakHashMap<>());
 
     public static void reset(DefaultListableBeanFactory beanFactory) {
         if (!beanFactory.containsBean("transactionAttributeSource")) {
             return;
         }
         try {
-            if (attributeCache == null && !tried) {
-                //only try once
-                tried = true;
-                final AbstractFallbackTransactionAttributeSource transactionAttributeSource = beanFactory.getBean("transactionAttributeSource", AbstractFallbackTransactionAttributeSource.class);
-                Field attributeCacheField = AbstractFallbackTransactionAttributeSource.class.getDeclaredField("attributeCache");
-                attributeCacheField.setAccessible(true);
-                attributeCache = (Map<Object, TransactionAttribute>) attributeCacheField.get(transactionAttributeSource);
-            }
+            Map<Object, TransactionAttribute> attributeCache = getAttributeCache(beanFactory);
             if (attributeCache != null) {
                 attributeCache.clear();
             }
@@ -52,4 +48,37 @@ public class ResetTransactionAttributeCaches {
             LOGGER.error("Failed to reset @Transactional cache", e);
         }
     }
+
+    /**
+     * Evict @Transactional attributes of methods of changed classes (and their subclasses).
+     */
+    public static void evict(DefaultListableBeanFactory beanFactory, ClassCacheEvictor cacheEvictor) {
+        if (cacheEvictor.isEmpty() || !beanFactory.containsBean("transactionAttributeSource")) {
+            return;
+        }
+        try {
+            cacheEvictor.evictKeys(getAttributeCache(beanFactory), "AbstractFallbackTransactionAttributeSource.attributeCache");
+        } catch (Exception e) {
+            LOGGER.error("Failed to evict @Transactional cache", e);
+        }
+    }
+
+    /**
+     * Bean factories may be reloaded in parallel, each of them has its own transactionAttributeSource.
+     */
+    private static Map<Object, TransactionAttribute> getAttributeCache(DefaultListableBeanFactory beanFactory) throws Exception {
+        synchronized (attributeCaches) {
+            if (attributeCaches.containsKey(beanFactory)) {
+                return attributeCaches.get(beanFactory);
+            }
+            //only try once
+            attributeCaches.put(beanFactory, null);
+        }
+        final AbstractFallbackTransactionAttributeSource transactionAttributeSource = beanFactory.getBean("transactionAttributeSource", AbstractFallbackTransactionAttributeSource.class);
+        Field attributeCacheField = AbstractFallbackTransactionAttributeSource.class.getDeclaredField("attributeCache");
+        attributeCacheField.setAccessible(true);
+        Map<Object, TransactionAttribute> attributeCache = (Map<Object, TransactionAttribute>) attributeCacheField.get(transactionAttributeSource);
+        attributeCaches.put(beanFactory, attributeCache);
+        return attributeCache;
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.files;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Keys of properties changed by a property source reload, matched against placeholders of beans.
+ * <p>
+ * Keys are compared in relaxed form (lower case, without '-', '_' and list indexes), because Spring Boot resolves
+ * <code>${my.foo-bar}</code> also from <code>my.fooBar</code>. Placeholders with SpEL expressions are not parsed,
+ * they match any change.
+ */
+public class ChangedPropertyKeys {
+
+    /**
+     * Changed keys are not known (e.g. properties of PropertyPlaceholderConfigurer), all placeholders match.
+     */
+    public static final ChangedPropertyKeys ALL = new ChangedPropertyKeys(null);
+
+    private static final String PLACEHOLDER_PREFIX = "${";
+    private static final String EXPRESSION_PREFIX = "#{";
+
+    // normalized keys, null for all
+    private final Set<String> keys;
+
+    public ChangedPropertyKeys(Collection<String> changedKeys) {
+        if (changedKeys == null) {
+            this.keys = null;
+        } else {
+            this.keys = new HashSet<>();
+            for (String key : changedKeys) {
+                this.keys.add(normalize(key));
+            }
+        }
+    }
+
+    public boolean isAll() {
+        return keys == null;
+    }
+
+    public boolean isEmpty() {
+        return keys != null && keys.isEmpty();
+    }
+
+    /**
+     * @return normalized keys, empty if all keys changed
+     */
+    public Set<String> getKeys() {
+        return keys != null ? Collections.unmodifiableSet(keys) : Collections.<String>emptySet();
+    }
+
+    /**
+     * @param placeholderKeys keys referenced by a bean, null if unknown
+     */
+    public boolean matches(Collection<String> placeholderKeys) {
+        if (keys == null || (placeholderKeys == null && !keys.isEmpty())) {
+            return true;
+        }
+        for (String placeholderKey : placeholderKeys) {
+            if (keys.contains(normalize(placeholderKey))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Any changed key is the prefix or a key under the prefix (e.g. prefix of @ConfigurationProperties).
+     */
+    public boolean matchesPrefix(String prefix) {
+        if (keys == null || prefix == null || prefix.isEmpty()) {
+            return !isEmpty();
+        }
+        String normalizedPrefix = normalize(prefix);
+        for (String key : keys) {
+            if (key.equals(normalizedPrefix) || key.startsWith(normalizedPrefix + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Any of the annotations is @Value referencing a changed key.
+     */
+    public boolean matchesValueAnnotations(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Value && matches(parsePlaceholderKeys(((Value) annotation).value()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Any of the parameter annotations is @Value referencing a changed key.
+     */
+    public boolean matchesValueAnnotations(Annotation[][] parameterAnnotations) {
+        for (Annotation[] annotations : parameterAnnotations) {
+            if (matchesValueAnnotations(annotations)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keys of placeholders in the value, including placeholders in default values (<code>${a:${b}}</code>).
+     *
+     * @return the keys, empty if there is no placeholder, null if the value contains SpEL expression
+     */
+    public static Set<String> parsePlaceholderKeys(String value) {
+        if (value == null || !value.contains(PLACEHOLDER_PREFIX)) {
+            return value != null && value.contains(EXPRESSION_PREFIX) ? null : Collections.<String>emptySet();
+        }
+        if (value.contains(EXPRESSION_PREFIX)) {
+            return null;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        int start = value.indexOf(PLACEHOLDER_PREFIX);
+        while (start >= 0) {
+            int keyStart = start + PLACEHOLDER_PREFIX.length();
+            int keyEnd = keyStart;
+            while (keyEnd < value.length() && value.charAt(keyEnd) != ':' && value.charAt(keyEnd) != '}'
+                    && !value.startsWith(PLACEHOLDER_PREFIX, keyEnd)) {
+                keyEnd++;
+            }
+            if (keyEnd > keyStart) {
+                result.add(value.substring(keyStart, keyEnd));
+            }
+            start = value.indexOf(PLACEHOLDER_PREFIX, keyStart);
+        }
+        return result;
+    }
+
+    public static String normalize(String key) {
+        StringBuilder result = new StringBuilder(key.length());
+        boolean index = false;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '[') {
+                index = true;
+            } else if (c == ']') {
+                index = false;
+            } else if (!index && c != '-' && c != '_') {
+                result.append(c);
+            }
+        }
+        return result.toString().toLowerCase(Locale.ENGLISH);
+    }
+
+    @Override
+    public String toString() {
+        return keys != null ? keys.toString() : "ALL";
+    }
+}
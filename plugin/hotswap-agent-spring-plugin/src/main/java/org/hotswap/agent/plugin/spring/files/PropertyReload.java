@@ -27,6 +27,7 @@ import org.hotswap.agent.plugin.spring.utils.AnnotatedBeanDefinitionUtils;
 import org.hotswap.agent.util.ReflectionHelper;
 import org.hotswap.agent.util.spring.util.ObjectUtils;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.PlaceholderConfigurerSupport;
 import org.springframework.beans.factory.config.PropertyPlaceholderConfigurer;
@@ -42,7 +43,9 @@ import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
 import java.io.IOException;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.security.AccessController;
@@ -54,17 +57,31 @@ public class PropertyReload {
     private static AgentLogger LOGGER = AgentLogger.getLogger(PropertyReload.class);
 
 
-    public static void reloadPropertySource(DefaultListableBeanFactory beanFactory) {
+    private static final Map<Class<?>, Set<String>> VALUE_KEYS_CACHE = new WeakHashMap<>();
+    // keys of class with @Value SpEL expression, it may reference any property
+    private static final Set<String> UNKNOWN_KEYS = Collections.singleton("#{");
+
+    /**
+     * Reload property sources of the environment and of placeholder configurers.
+     *
+     * @return keys of changed properties, ChangedPropertyKeys.ALL if the changed keys are not known
+     */
+    public static ChangedPropertyKeys reloadPropertySource(DefaultListableBeanFactory beanFactory) {
         ConfigurableEnvironment environment = beanFactory.getBean(ConfigurableEnvironment.class);
+        Set<String> changedKeys = null;
         if (environment != null) {
             Map<String, String> oldValueMap = getPropertyOfPropertySource(environment);
             // reload
             doReloadPropertySource(environment.getPropertySources());
             // compare the old value and new value, and fire changed event
-            processChangedValue(beanFactory, environment, oldValueMap);
+            changedKeys = processChangedValue(beanFactory, environment, oldValueMap);
         }
 
-        refreshPlaceholderConfigurerSupport(beanFactory);
+        boolean changedKeysKnown = refreshPlaceholderConfigurerSupport(beanFactory, changedKeys);
+        if (changedKeys == null || !changedKeysKnown) {
+            return ChangedPropertyKeys.ALL;
+        }
+        return new ChangedPropertyKeys(changedKeys);
     }
 
     private static Map<String, String> getPropertyOfPropertySource(ConfigurableEnvironment environment) {
@@ -79,10 +96,12 @@ public class PropertyReload {
         return result;
     }
 
-    private static void processChangedValue(DefaultListableBeanFactory beanFactory, ConfigurableEnvironment environment,
-                                            Map<String, String> oldValueMap) {
+    private static Set<String> processChangedValue(DefaultListableBeanFactory beanFactory, ConfigurableEnvironment environment,
+                                                   Map<String, String> oldValueMap) {
         Set<String> canModifiedKey = new HashSet<>();
         processKeysOfPropertySource(environment.getPropertySources(), canModifiedKey::addAll);
+        // removed keys
+        canModifiedKey.addAll(oldValueMap.keySet());
 
         List<PropertiesChangeEvent.PropertyChangeItem> propertyChangeItems = new ArrayList<>();
         for (String key : canModifiedKey) {
@@ -97,6 +116,11 @@ public class PropertyReload {
         if (!propertyChangeItems.isEmpty()) {
             SpringEventSource.INSTANCE.fireEvent(new PropertiesChangeEvent(propertyChangeItems, beanFactory));
         }
+        Set<String> changedKeys = new HashSet<>();
+        for (PropertiesChangeEvent.PropertyChangeItem propertyChangeItem : propertyChangeItems) {
+            changedKeys.add(propertyChangeItem.getKey());
+        }
+        return changedKeys;
     }
 
     private static void processKeysOfPropertySource(MutablePropertySources propertySources, Consumer<Set<String>> consumer) {
@@ -123,14 +147,20 @@ public class PropertyReload {
         }
     }
 
-    private static void refreshPlaceholderConfigurerSupport(DefaultListableBeanFactory beanFactory) {
+    /**
+     * @param changedKeys keys changed in the placeholder configurers local properties are added, may be null
+     * @return false if the changed keys of some placeholder configurer are not known
+     */
+    private static boolean refreshPlaceholderConfigurerSupport(DefaultListableBeanFactory beanFactory, Set<String> changedKeys) {
+        boolean changedKeysKnown = true;
         String[] beanFactoryBeanNamesForTypes = beanFactory.getBeanNamesForType(PlaceholderConfigurerSupport.class);
         if (beanFactoryBeanNamesForTypes != null) {
             for (String beanFactoryBeanName : beanFactoryBeanNamesForTypes) {
                 PlaceholderConfigurerSupport placeholderConfigurerSupport = beanFactory.getBean(beanFactoryBeanName, PlaceholderConfigurerSupport.class);
-                refreshSinglePlaceholderConfigurerSupport(beanFactory, placeholderConfigurerSupport);
+                changedKeysKnown &= refreshSinglePlaceholderConfigurerSupport(beanFactory, placeholderConfigurerSupport, changedKeys);
             }
         }
+        return changedKeysKnown;
     }
 
     /**
@@ -154,12 +184,19 @@ public class PropertyReload {
      * <property name="locations" value="classpath:foo.properties" />
      * </bean>
      */
-    private static void refreshSinglePlaceholderConfigurerSupport(DefaultListableBeanFactory beanFactory, PlaceholderConfigurerSupport placeholderConfigurerSupport) {
+    private static boolean refreshSinglePlaceholderConfigurerSupport(DefaultListableBeanFactory beanFactory,
+                                                                     PlaceholderConfigurerSupport placeholderConfigurerSupport,
+                                                                     Set<String> changedKeys) {
         if (placeholderConfigurerSupport instanceof PropertySourcesPlaceholderConfigurer) {
             PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer = (PropertySourcesPlaceholderConfigurer) placeholderConfigurerSupport;
             // if placeholderConfigurerSupport is PropertySourcesPlaceholderConfigurer instance, it should clear and reload propertySources
             // 1. get orig propertySources
             MutablePropertySources origPropertySources = getPropertySources(propertySourcesPlaceholderConfigurer);
+            if (origPropertySources == null) {
+                propertySourcesPlaceholderConfigurer.postProcessBeanFactory(beanFactory);
+                return false;
+            }
+            Map<String, String> oldValueMap = getPropertyOfMapPropertySources(origPropertySources);
             // 2. clear propertySources, so it can be reinitialized
             origPropertySources.forEach(propertySource -> origPropertySources.remove(propertySource.getName()));
             ReflectionHelper.set(propertySourcesPlaceholderConfigurer, "propertySources", null);
@@ -172,10 +209,39 @@ public class PropertyReload {
             // 6 set orig propertySources to placeholderConfigurerSupport.
             // we should keep origPropertySources, because it is used other objects, such as StringValueResolver.
             ReflectionHelper.set(propertySourcesPlaceholderConfigurer, "propertySources", origPropertySources);
+            // 7. compare local properties (the environment is compared already)
+            if (changedKeys != null) {
+                Map<String, String> newValueMap = getPropertyOfMapPropertySources(origPropertySources);
+                Set<String> keys = new HashSet<>(oldValueMap.keySet());
+                keys.addAll(newValueMap.keySet());
+                for (String key : keys) {
+                    if (!Objects.equals(oldValueMap.get(key), newValueMap.get(key))) {
+                        changedKeys.add(key);
+                    }
+                }
+            }
+            return true;
         } else if (placeholderConfigurerSupport instanceof PropertyPlaceholderConfigurer) {
             PropertyPlaceholderConfigurer propertyPlaceholderConfigurer = (PropertyPlaceholderConfigurer) placeholderConfigurerSupport;
             propertyPlaceholderConfigurer.postProcessBeanFactory(beanFactory);
+            // properties of the configurer are not accessible
+            return false;
         }
+        return true;
+    }
+
+    private static Map<String, String> getPropertyOfMapPropertySources(MutablePropertySources propertySources) {
+        Map<String, String> result = new HashMap<>();
+        for (PropertySource<?> propertySource : propertySources) {
+            if (propertySource instanceof MapPropertySource) {
+                for (String key : ((MapPropertySource) propertySource).getPropertyNames()) {
+                    if (!result.containsKey(key)) {
+                        result.put(key, String.valueOf(propertySource.getProperty(key)));
+                    }
+                }
+            }
+        }
+        return result;
     }
 
     private static MutablePropertySources getPropertySources(PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer) {
@@ -191,6 +257,20 @@ public class PropertyReload {
      * @return
      */
     public static Set<String> getContainValueAnnotationBeans(DefaultListableBeanFactory beanFactory) {
+        return getContainValueAnnotationBeans(beanFactory, ChangedPropertyKeys.ALL);
+    }
+
+    /**
+     * Beans with @Value referencing a changed key in constructor or @Bean method parameters.
+     *
+     * @param beanFactory
+     * @param changedKeys
+     * @return
+     */
+    public static Set<String> getContainValueAnnotationBeans(DefaultListableBeanFactory beanFactory, ChangedPropertyKeys changedKeys) {
+        if (changedKeys.isEmpty()) {
+            return new HashSet<>();
+        }
         Set<String> needRecreateBeans = new HashSet<>();
         // resolve constructor arguments
         for (String beanName : beanFactory.getBeanDefinitionNames()) {
@@ -198,7 +278,7 @@ public class PropertyReload {
             if (beanDefinition instanceof AnnotatedBeanDefinition) {
                 if (beanDefinition instanceof RootBeanDefinition) {
                     RootBeanDefinition currentBeanDefinition = (RootBeanDefinition) beanDefinition;
-                    if (containValueAnnotationInMethod(beanFactory, currentBeanDefinition)) {
+                    if (containValueAnnotationInMethod(beanFactory, currentBeanDefinition, changedKeys)) {
                         needRecreateBeans.add(beanName);
                     }
                 } else if (beanDefinition instanceof GenericBeanDefinition) {
@@ -207,7 +287,8 @@ public class PropertyReload {
                     if (AnnotatedBeanDefinitionUtils.getFactoryMethodMetadata(annotatedBeanDefinition) != null) {
                         continue;
                     }
-                    if (BeanFactoryProcessor.needReloadOnConstructor(beanFactory, currentBeanDefinition, beanName, PropertyReload::checkConstructorContainsValueAnnotation)) {
+                    if (BeanFactoryProcessor.needReloadOnConstructor(beanFactory, currentBeanDefinition, beanName,
+                            constructors -> checkConstructorContainsValueAnnotation(constructors, changedKeys))) {
                         needRecreateBeans.add(beanName);
                     }
                 }
@@ -216,7 +297,8 @@ public class PropertyReload {
         return needRecreateBeans;
     }
 
-    private static boolean containValueAnnotationInMethod(DefaultListableBeanFactory beanFactory, RootBeanDefinition currentBeanDefinition) {
+    private static boolean containValueAnnotationInMethod(DefaultListableBeanFactory beanFactory, RootBeanDefinition currentBeanDefinition,
+                                                          ChangedPropertyKeys changedKeys) {
         if (currentBeanDefinition.getFactoryMethodName() != null && currentBeanDefinition.getFactoryBeanName() != null) {
             Method method = currentBeanDefinition.getResolvedFactoryMethod();
             if (method == null) {
@@ -225,13 +307,13 @@ public class PropertyReload {
                 Method[] methods = getCandidateMethods(factoryClass, currentBeanDefinition);
                 for (Method m : methods) {
                     if (!Modifier.isStatic(m.getModifiers()) && currentBeanDefinition.isFactoryMethod(m) &&
-                            m.getParameterCount() != 0 && AnnotatedBeanDefinitionUtils.containValueAnnotation(m.getParameterAnnotations())) {
+                            m.getParameterCount() != 0 && containValueAnnotation(m.getParameterAnnotations(), changedKeys)) {
                         return true;
                     }
                 }
             } else if (method.getParameterCount() != 0) {
                 // @Bean method contains @Value parameter
-                if (AnnotatedBeanDefinitionUtils.containValueAnnotation(method.getParameterAnnotations())) {
+                if (containValueAnnotation(method.getParameterAnnotations(), changedKeys)) {
                     return true;
                 }
             }
@@ -250,12 +332,95 @@ public class PropertyReload {
         }
     }
 
-    private static boolean checkConstructorContainsValueAnnotation(Constructor<?>[] constructors) {
+    private static boolean checkConstructorContainsValueAnnotation(Constructor<?>[] constructors, ChangedPropertyKeys changedKeys) {
         for (Constructor constructor : constructors) {
-            if (constructor.getParameterCount() != 0 && AnnotatedBeanDefinitionUtils.containValueAnnotation(constructor.getParameterAnnotations())) {
+            if (constructor.getParameterCount() != 0 && containValueAnnotation(constructor.getParameterAnnotations(), changedKeys)) {
                 return true;
             }
         }
         return false;
     }
+
+    private static boolean containValueAnnotation(Annotation[][] parameterAnnotations, ChangedPropertyKeys changedKeys) {
+        if (changedKeys.isAll()) {
+            return AnnotatedBeanDefinitionUtils.containValueAnnotation(parameterAnnotations);
+        }
+        return changedKeys.matchesValueAnnotations(parameterAnnotations);
+    }
+
+    /**
+     * Existing singletons with @Value fields or methods referencing a changed key. They are injected again by
+     * AutowiredAnnotationBeanPostProcessor, beans with @Value in constructor are recreated instead
+     * (see {@link #getContainValueAnnotationBeans(DefaultListableBeanFactory, ChangedPropertyKeys)}).
+     *
+     * @return bean names, null if all singletons should be injected again
+     */
+    public static Set<String> getValueInjectedBeans(DefaultListableBeanFactory beanFactory, ChangedPropertyKeys changedKeys) {
+        if (changedKeys.isAll()) {
+            return null;
+        }
+        Set<String> result = new HashSet<>();
+        if (changedKeys.isEmpty()) {
+            return result;
+        }
+        for (String beanName : beanFactory.getSingletonNames()) {
+            Object singleton = beanFactory.getSingleton(beanName);
+            if (singleton == null) {
+                continue;
+            }
+            Set<String> keys = getValueKeys(ClassUtils.getUserClass(singleton));
+            if (!keys.isEmpty() && changedKeys.matches(keys == UNKNOWN_KEYS ? null : keys)) {
+                result.add(beanName);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reset cached @Value keys of classes, the classes were redefined.
+     */
+    public static void resetValueKeys() {
+        synchronized (VALUE_KEYS_CACHE) {
+            VALUE_KEYS_CACHE.clear();
+        }
+    }
+
+    private static Set<String> getValueKeys(Class<?> clazz) {
+        synchronized (VALUE_KEYS_CACHE) {
+            Set<String> keys = VALUE_KEYS_CACHE.get(clazz);
+            if (keys == null) {
+                keys = new HashSet<>();
+                for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        addValueKeys(keys, field.getAnnotations());
+                    }
+                    for (Method method : c.getDeclaredMethods()) {
+                        addValueKeys(keys, method.getAnnotations());
+                        for (Annotation[] annotations : method.getParameterAnnotations()) {
+                            addValueKeys(keys, annotations);
+                        }
+                    }
+                }
+                if (keys.contains(null)) {
+                    keys = UNKNOWN_KEYS;
+                }
+                VALUE_KEYS_CACHE.put(clazz, keys);
+            }
+            return keys;
+        }
+    }
+
+    private static void addValueKeys(Set<String> keys, Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Value) {
+                Set<String> valueKeys = ChangedPropertyKeys.parsePlaceholderKeys(((Value) annotation).value());
+                if (valueKeys == null) {
+                    // SpEL expression
+                    keys.add(null);
+                } else {
+                    keys.addAll(valueKeys);
+                }
+            }
+        }
+    }
 }
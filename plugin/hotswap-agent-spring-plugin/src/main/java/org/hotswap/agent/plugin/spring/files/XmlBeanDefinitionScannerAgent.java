@@ -57,8 +57,8 @@ public class XmlBeanDefinitionScannerAgent {
     public static final String PROPERTY_SOURCES_PLACEHOLDER_CONFIGURER = "org.springframework.context.support.PropertySourcesPlaceholderConfigurer";
 
     private static Map<DefaultListableBeanFactory, Map<String, XmlBeanDefinitionScannerAgent>> beanFactoryToAgentMap = new ConcurrentHashMap<>();
-    private static Map<String, XmlBeanDefinitionScannerAgent> pathToAgent = new HashMap<>();
-    private static boolean basePackageInited = false;
+    private static Map<String, XmlBeanDefinitionScannerAgent> pathToAgent = new ConcurrentHashMap<>();
+    private static volatile boolean basePackageInited = false;
 
     // xmlReader for corresponding url
     private BeanDefinitionReader reader;
@@ -100,7 +100,7 @@ public class XmlBeanDefinitionScannerAgent {
         BeanDefinitionRegistry beanDefinitionRegistry = reader.getRegistry();
         if (beanDefinitionRegistry instanceof DefaultListableBeanFactory) {
             DefaultListableBeanFactory defaultListableBeanFactory = (DefaultListableBeanFactory) beanDefinitionRegistry;
-            Map<String, XmlBeanDefinitionScannerAgent> agentMap = beanFactoryToAgentMap.computeIfAbsent(defaultListableBeanFactory, k -> new HashMap<>());
+            Map<String, XmlBeanDefinitionScannerAgent> agentMap = beanFactoryToAgentMap.computeIfAbsent(defaultListableBeanFactory, k -> new ConcurrentHashMap<>());
             fillAgentInstance(reader, resource, agentMap);
             return;
         }
@@ -136,9 +136,8 @@ public class XmlBeanDefinitionScannerAgent {
             // ignore
         }
 
-        if (!instances.containsKey(path)) {
-            instances.put(path, new XmlBeanDefinitionScannerAgent(reader, resourceUrl));
-        }
+        final URL url = resourceUrl;
+        instances.computeIfAbsent(path, k -> new XmlBeanDefinitionScannerAgent(reader, url));
     }
 
     public static Set<String> reloadXmls(DefaultListableBeanFactory beanFactory, Set<URL> urls, Set<String> resourcePaths) {
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.reload;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse dependency graph of singleton beans (bean -> beans depending on it), taken at the start of a reload.
+ * <p>
+ * The relations are those registered by <code>registerDependentBean()</code> - injection points processed by
+ * AutowiredAnnotationBeanPostProcessor / CommonAnnotationBeanPostProcessor, depends-on and inner beans. Spring
+ * drops the relations of a destroyed bean, so the snapshot must be taken before the reload destroys any bean.
+ */
+class BeanDependencyGraph {
+
+    private final Map<String, String[]> dependents = new HashMap<>();
+    private final Map<String, Object> singletons = new HashMap<>();
+    private final Set<String> beanDefinitionNames = new HashSet<>();
+
+    private BeanDependencyGraph() {
+    }
+
+    static BeanDependencyGraph snapshot(DefaultListableBeanFactory beanFactory) {
+        BeanDependencyGraph graph = new BeanDependencyGraph();
+        for (String beanName : beanFactory.getSingletonNames()) {
+            Object singleton = beanFactory.getSingleton(beanName);
+            if (singleton != null) {
+                graph.singletons.put(beanName, singleton);
+            }
+            String[] dependentBeans = beanFactory.getDependentBeans(beanName);
+            if (dependentBeans.length > 0) {
+                graph.dependents.put(beanName, dependentBeans);
+            }
+        }
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            graph.beanDefinitionNames.add(beanName);
+        }
+        return graph;
+    }
+
+    /**
+     * Singletons destroyed or replaced by a new instance since the snapshot.
+     */
+    Set<String> getChangedSingletons(DefaultListableBeanFactory beanFactory) {
+        Set<String> result = new HashSet<>();
+        for (Map.Entry<String, Object> entry : singletons.entrySet()) {
+            if (beanFactory.getSingleton(entry.getKey()) != entry.getValue()) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Bean definitions registered since the snapshot. A new bean may be injected into any existing bean
+     * (collections, optional dependencies), which is not covered by the graph.
+     */
+    boolean hasNewBeanDefinitions(DefaultListableBeanFactory beanFactory) {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            if (!beanDefinitionNames.contains(beanName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * All beans depending directly or transitively on the beans, not including the beans themselves.
+     */
+    Set<String> getTransitiveDependents(Collection<String> beanNames) {
+        Set<String> result = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>(beanNames);
+        while (!queue.isEmpty()) {
+            String[] dependentBeans = dependents.get(queue.poll());
+            if (dependentBeans == null) {
+                continue;
+            }
+            for (String dependentBean : dependentBeans) {
+                if (result.add(dependentBean)) {
+                    queue.add(dependentBean);
+                }
+            }
+        }
+        result.removeAll(beanNames);
+        return result;
+    }
+}
@@ -18,12 +18,16 @@
  */
 package org.hotswap.agent.plugin.spring.reload;
 
+import org.hotswap.agent.plugin.spring.files.ChangedPropertyKeys;
 import org.hotswap.agent.plugin.spring.transformers.api.BeanFactoryLifecycle;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -35,9 +39,14 @@ public class BeanFactoryAssistant {
     private AtomicInteger reloadTimes;
     private long lastReloadTime;
     private volatile boolean isReload = false;
+    private final BeanNameIndex beanNameIndex;
 
     // keep the bean name and xml file relation for the beans which are defined in xml file and the bean contains placeholder
     Map<String, String> placeHolderXmlMapping = new ConcurrentHashMap<>();
+    // normalized placeholder key -> the beans of placeHolderXmlMapping referencing it
+    private final Map<String, Set<String>> placeHolderKeyMapping = new ConcurrentHashMap<>();
+    // beans of placeHolderXmlMapping with SpEL placeholder
+    private final Set<String> placeHolderUnknownKeyBeans = ConcurrentHashMap.newKeySet();
 
     private static Map<ConfigurableListableBeanFactory, BeanFactoryAssistant> beanFactoryAssistants = new ConcurrentHashMap<>(4);
 
@@ -45,6 +54,8 @@ public class BeanFactoryAssistant {
         this.beanFactory = beanFactory;
         this.reloadTimes = new AtomicInteger(0);
         this.lastReloadTime = System.currentTimeMillis();
+        this.beanNameIndex = beanFactory instanceof DefaultListableBeanFactory ?
+                new BeanNameIndex((DefaultListableBeanFactory) beanFactory) : null;
         beanFactoryAssistants.put(beanFactory, this);
     }
 
@@ -94,6 +105,53 @@ public class BeanFactoryAssistant {
         return lastReloadTime;
     }
 
+    /**
+     * @return index of bean names, null if the bean factory is not DefaultListableBeanFactory
+     */
+    public BeanNameIndex getBeanNameIndex() {
+        return beanNameIndex;
+    }
+
+    void addPlaceHolderKeys(String beanName, Set<String> keys) {
+        if (keys == null) {
+            placeHolderUnknownKeyBeans.add(beanName);
+            return;
+        }
+        for (String key : keys) {
+            placeHolderKeyMapping.computeIfAbsent(ChangedPropertyKeys.normalize(key), k -> ConcurrentHashMap.newKeySet())
+                    .add(beanName);
+        }
+    }
+
+    /**
+     * The beans defined in xml with placeholders referencing the changed keys.
+     *
+     * @return bean name -> xml resource path
+     */
+    Map<String, String> getPlaceHolderXmlMapping(ChangedPropertyKeys changedKeys) {
+        if (changedKeys.isAll()) {
+            return new HashMap<>(placeHolderXmlMapping);
+        }
+        Map<String, String> result = new HashMap<>();
+        if (changedKeys.isEmpty()) {
+            return result;
+        }
+        Set<String> beanNames = new HashSet<>(placeHolderUnknownKeyBeans);
+        for (String key : changedKeys.getKeys()) {
+            Set<String> keyBeanNames = placeHolderKeyMapping.get(key);
+            if (keyBeanNames != null) {
+                beanNames.addAll(keyBeanNames);
+            }
+        }
+        for (String beanName : beanNames) {
+            String resourcePath = placeHolderXmlMapping.get(beanName);
+            if (resourcePath != null) {
+                result.put(beanName, resourcePath);
+            }
+        }
+        return result;
+    }
+
     public boolean isReload() {
         return isReload;
     }
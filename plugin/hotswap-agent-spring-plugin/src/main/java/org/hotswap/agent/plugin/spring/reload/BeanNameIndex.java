@@ -0,0 +1,348 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.reload;
+
+import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.spring.util.ClassUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Index of bean names of a bean factory, used by reload instead of walking all bean definitions for each changed class.
+ * <ul>
+ * <li>type -> bean names: the bean class with its superclasses and interfaces (from the bean definition, or from
+ * the created instance for factory methods and FactoryBeans). FactoryBean itself is indexed with '&' prefix.</li>
+ * <li>factory bean name -> beans created by its factory method (@Bean methods)</li>
+ * <li>factory method class -> beans created by its factory method</li>
+ * </ul>
+ * The index is built on first use and then updated by BeanFactoryTransformer hooks on registerBeanDefinition(),
+ * removeBeanDefinition() and createBean(). Bean definitions with unknown type (not created yet) are matched by
+ * <code>beanFactory.isTypeMatch()</code>, so {@link #getBeanNamesForType(Class)} returns the same beans as
+ * <code>beanFactory.getBeanNamesForType(clazz)</code> (or a superset).
+ */
+public class BeanNameIndex {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(BeanNameIndex.class);
+
+    private final DefaultListableBeanFactory beanFactory;
+
+    private volatile boolean built;
+    // bean definitions registered / removed and beans created, see ensureBuilt()
+    private final AtomicInteger changes = new AtomicInteger();
+
+    private final Map<String, Set<String>> beanNamesByType = new HashMap<>();
+    private final Map<String, Set<String>> typesByBeanName = new HashMap<>();
+    private final Map<String, Set<String>> beanNamesByFactoryBean = new HashMap<>();
+    private final Map<String, Set<String>> beanNamesByFactoryClass = new HashMap<>();
+    // bean name -> [factory bean name, factory class name]
+    private final Map<String, String[]> factoriesByBeanName = new HashMap<>();
+    // bean definitions with type known only after the bean is created
+    private final Set<String> unresolved = new LinkedHashSet<>();
+
+    public BeanNameIndex(DefaultListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Bean names for type from the index of the bean factory, or from the bean factory itself if it is not indexed.
+     */
+    public static String[] getBeanNamesForType(DefaultListableBeanFactory beanFactory, Class<?> clazz) {
+        BeanFactoryAssistant beanFactoryAssistant = BeanFactoryAssistant.getBeanFactoryAssistant(beanFactory);
+        if (beanFactoryAssistant == null || beanFactoryAssistant.getBeanNameIndex() == null) {
+            return beanFactory.getBeanNamesForType(clazz);
+        }
+        Set<String> beanNames = beanFactoryAssistant.getBeanNameIndex().getBeanNamesForType(clazz);
+        return beanNames.toArray(new String[0]);
+    }
+
+    /**
+     * Beans of the type (including subtypes). FactoryBean is returned with '&' prefix if the type matches the factory
+     * and without prefix if it matches the object created by the factory.
+     */
+    public Set<String> getBeanNamesForType(Class<?> clazz) {
+        Set<String> result = new LinkedHashSet<>();
+        List<String> unresolvedBeanNames;
+        synchronized (this) {
+            ensureBuilt();
+            Set<String> beanNames = beanNamesByType.get(ClassUtils.getUserClass(clazz).getName());
+            if (beanNames != null) {
+                result.addAll(beanNames);
+            }
+            unresolvedBeanNames = new ArrayList<>(unresolved);
+        }
+        // outside of the lock, isTypeMatch() may create the bean
+        for (String beanName : unresolvedBeanNames) {
+            if (!result.contains(beanName) && isTypeMatch(beanName, clazz)) {
+                result.add(beanName);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Beans created by a factory method of the factory bean.
+     */
+    public synchronized Set<String> getBeanNamesForFactoryBean(String factoryBeanName) {
+        ensureBuilt();
+        return copy(beanNamesByFactoryBean.get(factoryBeanName));
+    }
+
+    /**
+     * Beans created by a factory method declared in the class.
+     */
+    public synchronized Set<String> getBeanNamesForFactoryClass(String className) {
+        ensureBuilt();
+        return copy(beanNamesByFactoryClass.get(className));
+    }
+
+    /**
+     * Drop the index, it is built again on next use (e.g. supertypes of indexed classes changed).
+     */
+    public synchronized void invalidate() {
+        built = false;
+        beanNamesByType.clear();
+        typesByBeanName.clear();
+        beanNamesByFactoryBean.clear();
+        beanNamesByFactoryClass.clear();
+        factoriesByBeanName.clear();
+        unresolved.clear();
+    }
+
+    public void beanDefinitionRegistered(String beanName) {
+        changes.incrementAndGet();
+        if (!built) {
+            return;
+        }
+        synchronized (this) {
+            if (built) {
+                remove(beanName);
+                indexBeanDefinition(beanName);
+            }
+        }
+    }
+
+    public void beanDefinitionRemoved(String beanName) {
+        changes.incrementAndGet();
+        if (!built) {
+            return;
+        }
+        synchronized (this) {
+            if (built) {
+                remove(beanName);
+            }
+        }
+    }
+
+    public void beanCreated(String beanName, Object bean) {
+        if (bean == null) {
+            return;
+        }
+        changes.incrementAndGet();
+        if (!built) {
+            return;
+        }
+        synchronized (this) {
+            // the type of other beans is known from the bean definition
+            if (built && unresolved.remove(beanName)) {
+                indexBean(beanName, bean);
+            }
+        }
+    }
+
+    /**
+     * Build the index (holding the lock). A hook called while the index is built does not wait for the lock (the bean
+     * factory may hold its own lock meanwhile), it only counts the change - the index is built again if the count
+     * changed. The index is marked built before the count is checked, so a later hook updates the index itself.
+     */
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        while (!built) {
+            int changeCount = changes.get();
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                indexBeanDefinition(beanName);
+            }
+            for (String beanName : beanFactory.getSingletonNames()) {
+                if (unresolved.remove(beanName) || !typesByBeanName.containsKey(beanName)) {
+                    Object singleton = beanFactory.getSingleton(beanName);
+                    if (singleton != null) {
+                        indexBean(beanName, singleton);
+                    }
+                }
+            }
+            built = true;
+            if (changes.get() != changeCount) {
+                LOGGER.trace("Bean factory {} changed while the bean name index was built, building again", beanFactory);
+                invalidate();
+            }
+        }
+        LOGGER.debug("Bean name index of {} built in {}ms, {} types, {} unresolved beans", beanFactory,
+                System.currentTimeMillis() - start, beanNamesByType.size(), unresolved.size());
+    }
+
+    private void indexBeanDefinition(String beanName) {
+        BeanDefinition beanDefinition;
+        try {
+            beanDefinition = beanFactory.getBeanDefinition(beanName);
+        } catch (NoSuchBeanDefinitionException e) {
+            return;
+        }
+        if (beanDefinition.isAbstract()) {
+            return;
+        }
+        String beanClassName = beanDefinition.getBeanClassName();
+        if (beanDefinition.getFactoryMethodName() != null) {
+            String factoryBeanName = beanDefinition.getFactoryBeanName();
+            if (factoryBeanName != null) {
+                add(beanNamesByFactoryBean, factoryBeanName, beanName);
+            }
+            if (beanClassName != null) {
+                add(beanNamesByFactoryClass, beanClassName, beanName);
+            }
+            factoriesByBeanName.put(beanName, new String[]{factoryBeanName, beanClassName});
+            unresolved.add(beanName);
+            return;
+        }
+        Class<?> beanClass = null;
+        if (beanDefinition instanceof AbstractBeanDefinition && ((AbstractBeanDefinition) beanDefinition).hasBeanClass()) {
+            beanClass = ((AbstractBeanDefinition) beanDefinition).getBeanClass();
+        }
+        if (beanClass != null && !FactoryBean.class.isAssignableFrom(beanClass)) {
+            indexType(beanName, beanName, beanClass);
+        } else if (beanClass != null) {
+            // object type of the factory is known from the instance
+            indexType(beanName, BeanFactory.FACTORY_BEAN_PREFIX + beanName, beanClass);
+            unresolved.add(beanName);
+        } else {
+            if (beanClassName != null) {
+                indexTypeName(beanName, beanName, beanClassName);
+            }
+            unresolved.add(beanName);
+        }
+    }
+
+    private void indexBean(String beanName, Object bean) {
+        if (bean instanceof FactoryBean) {
+            indexType(beanName, BeanFactory.FACTORY_BEAN_PREFIX + beanName, ClassUtils.getUserClass(bean));
+            Class<?> objectType = null;
+            try {
+                objectType = ((FactoryBean<?>) bean).getObjectType();
+            } catch (Exception e) {
+                LOGGER.trace("Unable to get object type of factory bean {}", e, beanName);
+            }
+            if (objectType != null) {
+                indexType(beanName, beanName, objectType);
+            } else {
+                unresolved.add(beanName);
+            }
+        } else {
+            indexType(beanName, beanName, ClassUtils.getUserClass(bean));
+        }
+    }
+
+    private void indexType(String beanName, String indexedName, Class<?> type) {
+        if (type == null || type == Object.class || type.getName().startsWith("java.")) {
+            return;
+        }
+        if (!indexTypeName(beanName, indexedName, type.getName())) {
+            return;
+        }
+        indexType(beanName, indexedName, type.getSuperclass());
+        for (Class<?> iface : type.getInterfaces()) {
+            indexType(beanName, indexedName, iface);
+        }
+    }
+
+    private boolean indexTypeName(String beanName, String indexedName, String typeName) {
+        add(typesByBeanName, beanName, typeName);
+        return add(beanNamesByType, typeName, indexedName);
+    }
+
+    private void remove(String beanName) {
+        unresolved.remove(beanName);
+        Set<String> types = typesByBeanName.remove(beanName);
+        if (types != null) {
+            for (String type : types) {
+                Set<String> beanNames = beanNamesByType.get(type);
+                if (beanNames != null) {
+                    beanNames.remove(beanName);
+                    beanNames.remove(BeanFactory.FACTORY_BEAN_PREFIX + beanName);
+                    if (beanNames.isEmpty()) {
+                        beanNamesByType.remove(type);
+                    }
+                }
+            }
+        }
+        String[] factories = factoriesByBeanName.remove(beanName);
+        if (factories != null) {
+            removeValue(beanNamesByFactoryBean, factories[0], beanName);
+            removeValue(beanNamesByFactoryClass, factories[1], beanName);
+        }
+    }
+
+    private boolean isTypeMatch(String beanName, Class<?> clazz) {
+        try {
+            return beanFactory.isTypeMatch(beanName, clazz);
+        } catch (Exception e) {
+            LOGGER.trace("Unable to match type of bean {}", e, beanName);
+            return false;
+        }
+    }
+
+    private static boolean add(Map<String, Set<String>> map, String key, String value) {
+        Set<String> values = map.get(key);
+        if (values == null) {
+            values = new LinkedHashSet<>();
+            map.put(key, values);
+        }
+        return values.add(value);
+    }
+
+    private static void removeValue(Map<String, Set<String>> map, String key, String value) {
+        if (key == null) {
+            return;
+        }
+        Set<String> values = map.get(key);
+        if (values != null) {
+            values.remove(value);
+            if (values.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> copy(Set<String> values) {
+        return values != null ? new HashSet<>(values) : Collections.<String>emptySet();
+    }
+}
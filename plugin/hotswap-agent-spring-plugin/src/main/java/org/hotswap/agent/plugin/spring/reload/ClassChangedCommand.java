@@ -38,6 +38,8 @@ public class ClassChangedCommand extends MergeableCommand {
 
     Class clazz;
 
+    boolean hierarchyChanged;
+
     Scheduler scheduler;
 
     static {
@@ -46,8 +48,16 @@ public class ClassChangedCommand extends MergeableCommand {
     }
 
     public ClassChangedCommand(ClassLoader appClassLoader, Class clazz, Scheduler scheduler) {
+        this(appClassLoader, clazz, false, scheduler);
+    }
+
+    /**
+     * @param hierarchyChanged superclass or interfaces of the class changed, Spring caches must be cleared
+     */
+    public ClassChangedCommand(ClassLoader appClassLoader, Class clazz, boolean hierarchyChanged, Scheduler scheduler) {
         this.appClassLoader = appClassLoader;
         this.clazz = clazz;
+        this.hierarchyChanged = hierarchyChanged;
         this.scheduler = scheduler;
     }
 
@@ -55,8 +65,8 @@ public class ClassChangedCommand extends MergeableCommand {
     public void executeCommand() {
         try {
             Class<?> targetClass = Class.forName("org.hotswap.agent.plugin.spring.reload.SpringChangedAgent", true, appClassLoader);
-            Method targetMethod = targetClass.getDeclaredMethod("addChangedClass", Class.class);
-            targetMethod.invoke(null, clazz);
+            Method targetMethod = targetClass.getDeclaredMethod("addChangedClass", Class.class, boolean.class);
+            targetMethod.invoke(null, clazz, hierarchyChanged);
         } catch (NoSuchMethodException e) {
             throw new IllegalStateException("Plugin error, method not found", e);
         } catch (InvocationTargetException e) {
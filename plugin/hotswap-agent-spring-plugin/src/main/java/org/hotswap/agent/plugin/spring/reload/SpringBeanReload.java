@@ -20,6 +20,7 @@ package org.hotswap.agent.plugin.spring.reload;
 
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.plugin.spring.core.*;
+import org.hotswap.agent.plugin.spring.files.ChangedPropertyKeys;
 import org.hotswap.agent.plugin.spring.files.PropertyReload;
 import org.hotswap.agent.plugin.spring.files.XmlBeanDefinitionScannerAgent;
 import org.hotswap.agent.plugin.spring.getbean.ProxyReplacer;
@@ -58,12 +59,14 @@ public class SpringBeanReload {
 
     private final BeanNameGenerator beanNameGenerator;
     private final BeanFactoryAssistant beanFactoryAssistant;
+    private final BeanNameIndex beanNameIndex;
 
     private Class<?> repositoryClass;
     private Class<?> localContainerEntityManagerFactoryBeanClass;
 
     public SpringBeanReload(DefaultListableBeanFactory beanFactory) {
         this.beanFactoryAssistant = new BeanFactoryAssistant(beanFactory);
+        this.beanNameIndex = beanFactoryAssistant.getBeanNameIndex();
         beanNameGenerator = new AnnotationBeanNameGenerator();
         this.beanFactory = beanFactory;
         try {
@@ -80,6 +83,13 @@ public class SpringBeanReload {
     }
 
     public void addClass(Class clazz) {
+        addClass(clazz, false);
+    }
+
+    /**
+     * @param hierarchyChanged superclass or interfaces of the class changed, Spring caches must be cleared
+     */
+    public void addClass(Class clazz, boolean hierarchyChanged) {
         if (clazz == null) {
             return;
         }
@@ -89,6 +99,9 @@ public class SpringBeanReload {
         boolean entity = AnnotationHelper.hasAnnotation(clazz, "jakarta.persistence.Entity");
         boolean repository = isSpringDataRepository(clazz);
         synchronized (contextLock) {
+            if (hierarchyChanged) {
+                reloadContext.hierarchyChanged = true;
+            }
             if (entity) {
                 LOGGER.debug("Adding new entity '{}' ", clazz.getName());
                 reloadContext.newEntities.add(clazz);
@@ -192,45 +205,42 @@ public class SpringBeanReload {
     }
 
     private void doCollectPlaceHolderProperties(String beanName, BeanDefinition beanDefinition) {
+        List<Object> values = new ArrayList<>();
         if (beanDefinition.getPropertyValues() != null) {
             for (PropertyValue pv : beanDefinition.getPropertyValues().getPropertyValues()) {
-                String resourcePath = getPlaceHolderBeanResource(pv.getValue(), beanName, beanDefinition);
-                if (resourcePath != null) {
-                    beanFactoryAssistant.placeHolderXmlMapping.put(beanName, resourcePath);
-                    return;
-                }
+                values.add(pv.getValue());
             }
         }
-        if (beanDefinition.getConstructorArgumentValues().isEmpty()) {
-            return;
-        }
-        for (ConstructorArgumentValues.ValueHolder valueHolder : beanDefinition.getConstructorArgumentValues().getIndexedArgumentValues().values()) {
-            String resourcePath = getPlaceHolderBeanResource(valueHolder.getValue(), beanName, beanDefinition);
-            if (resourcePath != null) {
-                beanFactoryAssistant.placeHolderXmlMapping.put(beanName, resourcePath);
-                return;
+        if (!beanDefinition.getConstructorArgumentValues().isEmpty()) {
+            for (ConstructorArgumentValues.ValueHolder valueHolder : beanDefinition.getConstructorArgumentValues().getIndexedArgumentValues().values()) {
+                values.add(valueHolder.getValue());
+            }
+            for (ConstructorArgumentValues.ValueHolder valueHolder : beanDefinition.getConstructorArgumentValues().getGenericArgumentValues()) {
+                values.add(valueHolder.getValue());
             }
         }
-        for (ConstructorArgumentValues.ValueHolder valueHolder : beanDefinition.getConstructorArgumentValues().getGenericArgumentValues()) {
-            String resourcePath = getPlaceHolderBeanResource(valueHolder.getValue(), beanName, beanDefinition);
+        for (Object value : values) {
+            String placeHolder = getPlaceHolder(value);
+            if (placeHolder == null) {
+                continue;
+            }
+            String resourcePath = getPlaceHolderBeanResource(beanDefinition);
             if (resourcePath != null) {
                 beanFactoryAssistant.placeHolderXmlMapping.put(beanName, resourcePath);
-                return;
+                // index the keys, only the beans with changed keys are reloaded
+                beanFactoryAssistant.addPlaceHolderKeys(beanName, ChangedPropertyKeys.parsePlaceholderKeys(placeHolder));
             }
         }
     }
 
-    private String getPlaceHolderBeanResource(Object object, String beanName, BeanDefinition beanDefinition) {
-        if (!isPlaceHolderBean(object)) {
-            return null;
-        }
+    private String getPlaceHolderBeanResource(BeanDefinition beanDefinition) {
         if (beanDefinition instanceof AbstractBeanDefinition) {
             return ResourceUtils.getPath(((AbstractBeanDefinition) beanDefinition).getResource());
         }
         return null;
     }
 
-    private boolean isPlaceHolderBean(Object v) {
+    private String getPlaceHolder(Object v) {
         String value = null;
         if (v instanceof TypedStringValue) {
             value = ((TypedStringValue) v).getValue();
@@ -238,13 +248,13 @@ public class SpringBeanReload {
             value = (String) v;
         }
         if (value == null) {
-            return false;
+            return null;
         }
         if (value.startsWith(PlaceholderConfigurerSupport.DEFAULT_PLACEHOLDER_PREFIX) &&
                 value.endsWith(PlaceholderConfigurerSupport.DEFAULT_PLACEHOLDER_SUFFIX)) {
-            return true;
+            return value;
         }
-        return false;
+        return null;
     }
 
     public boolean reload(long changeTimeStamps) {
@@ -285,18 +295,31 @@ public class SpringBeanReload {
             reloadContext = new SpringBeanReloadContext();
         }
 
+        if (context.hierarchyChanged) {
+            // indexed supertypes of the changed classes are stale
+            beanNameIndex.invalidate();
+        }
+        // classes before filtering, metadata of non-bean classes is cached too (e.g. CachedIntrospectionResults)
+        Set<Class<?>> changedClasses = new HashSet<>(context.classes);
+
         filterSpringClasses(context);
 
         if (first && !context.hasChange(beanFactory)) {
             return;
         }
 
+        BeanDependencyGraph dependencyGraph = SpringReloadConfig.fullInjectionSweep ? null :
+                BeanDependencyGraph.snapshot(beanFactory);
+        ClassCacheEvictor cacheEvictor = createCacheEvictor(context, changedClasses);
+        // placeholders in request mappings are resolved on registration
+        boolean propertiesChanged = !context.properties.isEmpty() || !context.yamls.isEmpty();
+
         // 1. clear cache
-        clearSpringCache();
+        clearSpringCache(cacheEvictor);
         // 2. properties reload
-        boolean propertiesChanged = refreshProperties(context);
+        Map<String, String> placeHolderXmlMapping = refreshProperties(context);
         // 3. reload xmls: the beans will be destroyed
-        reloadXmlBeanDefinitions(context, propertiesChanged);
+        reloadXmlBeanDefinitions(context, placeHolderXmlMapping);
         // 4. add changed classes and changed beans into recreate beans
         refreshChangedClassesAndBeans(context);
 
@@ -321,7 +344,7 @@ public class SpringBeanReload {
         invokeBeanFactoryPostProcessors(beanFactory);
         addBeanPostProcessors(beanFactory);
         // 7.2 process @Value and @Autowired of singleton beans excluding destroyed beans
-        processAutowiredAnnotationBeans();
+        processAutowiredAnnotationBeans(context, dependencyGraph);
         // 7.3 process @Configuration
         processConfigBeanDefinitions();
 
@@ -330,7 +353,7 @@ public class SpringBeanReload {
             // 9 invoke getBean to instantiate singleton beans
             preInstantiateSingleton();
             // 10 reset mvc initialized, it will update the mapping of url and handler
-            refreshRequestMapping();
+            refreshRequestMapping(propertiesChanged ? null : cacheEvictor);
             // 11 clear all process cache
             clearLocalCache();
 //        }
@@ -342,17 +365,18 @@ public class SpringBeanReload {
             Iterator<Class<?>> iterator = context.classes.iterator();
             while (iterator.hasNext()) {
                 Class<?> clazz = iterator.next();
-                String[] names = beanFactory.getBeanNamesForType(clazz);
+                Set<String> names = beanNameIndex.getBeanNamesForType(clazz);
                 boolean repository = isSpringDataRepository(clazz);
 
                 // if the class is not spring bean or Factory Class, remove it
-                if ((names == null || names.length == 0) && !isFactoryMethod(clazz) && !repository) {
+                if (names.isEmpty() && !isFactoryMethod(clazz) && !repository) {
                     LOGGER.trace("the class '{}' is not spring bean or factory class", clazz.getName());
                     iterator.remove();
 
                     // The class might still be cached if it was created using createBean
                     if (ResetBeanPostProcessorCaches.isCached(clazz, beanFactory)) {
-                        clearSpringCache();
+                        clearSpringCache(context.hierarchyChanged ? null :
+                                new ClassCacheEvictor(Collections.<Class<?>>singleton(clazz)));
                     }
                 } else {
                     LOGGER.debug("the class '{}' is spring bean or factory class", clazz.getName());
@@ -362,14 +386,7 @@ public class SpringBeanReload {
     }
 
     private boolean isFactoryMethod(Class<?> clazz) {
-        for (String beanName : beanFactory.getBeanDefinitionNames()) {
-            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
-            if (beanDefinition.getFactoryMethodName() != null && beanDefinition.getBeanClassName() != null &&
-                    clazz.getName().equals(beanDefinition.getBeanClassName())) {
-                return true;
-            }
-        }
-        return false;
+        return !beanNameIndex.getBeanNamesForFactoryClass(clazz.getName()).isEmpty();
     }
 
     private boolean printReloadLog() {
@@ -383,31 +400,38 @@ public class SpringBeanReload {
         }
     }
 
-    private boolean refreshProperties(SpringBeanReloadContext context) {
-        boolean propertiesChanged = false;
-        if (!context.properties.isEmpty()) {
-            context.beansToProcess.addAll(beanFactoryAssistant.placeHolderXmlMapping.keySet());
-            // clear properties
-            context.properties.clear();
-            propertiesChanged = true;
-        }
-        if (!context.yamls.isEmpty()) {
-            // clear
-            context.yamls.clear();
-            propertiesChanged = true;
-        }
-        if (propertiesChanged) {
-            LOGGER.reload("the properties of '{}' is changed", ObjectUtils.identityToString(beanFactory));
-            PropertyReload.reloadPropertySource(beanFactory);
-            context.beansToProcess.addAll(PropertyReload.getContainValueAnnotationBeans(beanFactory));
-            return true;
-        }
-        return false;
-    }
-
-    private void reloadXmlBeanDefinitions(SpringBeanReloadContext context, boolean propertiesChanged) {
-        Set<String> result = XmlBeanDefinitionScannerAgent.reloadXmlsAndGetBean(beanFactory, propertiesChanged,
-                beanFactoryAssistant.placeHolderXmlMapping, context.beansToProcess, context.xmls);
+    /**
+     * Reload property sources and collect beans referencing the changed keys.
+     *
+     * @return beans defined in xml with placeholders of changed keys -> xml resource path
+     */
+    private Map<String, String> refreshProperties(SpringBeanReloadContext context) {
+        if (context.properties.isEmpty() && context.yamls.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        // clear properties
+        context.properties.clear();
+        context.yamls.clear();
+        LOGGER.reload("the properties of '{}' is changed", ObjectUtils.identityToString(beanFactory));
+        ChangedPropertyKeys changedKeys = PropertyReload.reloadPropertySource(beanFactory);
+        LOGGER.debug("changed property keys of '{}': {}", ObjectUtils.identityToString(beanFactory), changedKeys);
+        Map<String, String> placeHolderXmlMapping = beanFactoryAssistant.getPlaceHolderXmlMapping(changedKeys);
+        context.beansToProcess.addAll(placeHolderXmlMapping.keySet());
+        // @Value in constructor or @Bean method: recreate the bean
+        context.beansToProcess.addAll(PropertyReload.getContainValueAnnotationBeans(beanFactory, changedKeys));
+        // @Value in fields and methods: inject again
+        Set<String> valueInjectedBeans = PropertyReload.getValueInjectedBeans(beanFactory, changedKeys);
+        if (valueInjectedBeans == null) {
+            context.fullInjectionSweep = true;
+        } else {
+            context.beansToInject.addAll(valueInjectedBeans);
+        }
+        return placeHolderXmlMapping;
+    }
+
+    private void reloadXmlBeanDefinitions(SpringBeanReloadContext context, Map<String, String> placeHolderXmlMapping) {
+        Set<String> result = XmlBeanDefinitionScannerAgent.reloadXmlsAndGetBean(beanFactory, !placeHolderXmlMapping.isEmpty(),
+                placeHolderXmlMapping, context.beansToProcess, context.xmls);
         context.processedBeans.addAll(result);
     }
 
@@ -427,10 +451,14 @@ public class SpringBeanReload {
     }
 
     private void refreshChangedClass(SpringBeanReloadContext context, Consumer<List<String>> reloadBeans) {
+        if (!context.classes.isEmpty()) {
+            // @Value annotations of redefined classes may be changed
+            PropertyReload.resetValueKeys();
+        }
         for (Class clazz : context.classes) {
             context.destroyClasses.add(ClassUtils.getUserClass(clazz).getName());
-            String[] names = beanFactory.getBeanNamesForType(clazz);
-            if (names != null && names.length > 0) {
+            String[] names = beanNameIndex.getBeanNamesForType(clazz).toArray(new String[0]);
+            if (names.length > 0) {
                 LOGGER.trace("the bean of class {} has the bean names {}", clazz.getName(), Arrays.asList(names));
                 context.beansToProcess.addAll(Arrays.asList(names));
                 // 3.1 when the bean is @Configuration, it should be recreated.
@@ -462,10 +490,11 @@ public class SpringBeanReload {
     }
 
     private void resetConfigurationBeanDefinition(Set<String> configurationBeansToReload) {
-        for (String beanName : beanFactory.getBeanDefinitionNames()) {
-            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
-            String factoryBeanName = beanDefinition.getFactoryBeanName();
-            if (factoryBeanName != null && configurationBeansToReload.contains(factoryBeanName)) {
+        for (String factoryBeanName : configurationBeansToReload) {
+            for (String beanName : beanNameIndex.getBeanNamesForFactoryBean(factoryBeanName)) {
+                if (!beanFactory.containsBeanDefinition(beanName)) {
+                    continue;
+                }
                 LOGGER.debug("the bean '{}' will be recreating because the factory bean '{}' is changed", beanName, factoryBeanName);
                 beanFactory.removeBeanDefinition(beanName);
             }
@@ -500,15 +529,29 @@ public class SpringBeanReload {
         }
     }
 
-    private void refreshRequestMapping() {
+    private void refreshRequestMapping(ClassCacheEvictor cacheEvictor) {
         // reset mvc initialized, it will update the mapping of url and handler
         LOGGER.debug("refreshRequestMapping of {}", ObjectUtils.identityToString(beanFactory));
-        ResetRequestMappingCaches.reset(beanFactory);
+        if (cacheEvictor == null) {
+            ResetRequestMappingCaches.reset(beanFactory);
+        } else {
+            ResetRequestMappingCaches.evict(beanFactory, cacheEvictor);
+        }
     }
 
-    private void processAutowiredAnnotationBeans() {
-        LOGGER.debug("process @Value and @Autowired of singleton beans of {}", ObjectUtils.identityToString(beanFactory));
-        AutowiredAnnotationProcessor.processSingletonBeanInjection(beanFactory);
+    private void processAutowiredAnnotationBeans(SpringBeanReloadContext context, BeanDependencyGraph dependencyGraph) {
+        if (dependencyGraph == null || context.fullInjectionSweep || dependencyGraph.hasNewBeanDefinitions(beanFactory)) {
+            LOGGER.debug("process @Value and @Autowired of singleton beans of {}", ObjectUtils.identityToString(beanFactory));
+            ResetBeanPostProcessorCaches.evictInjectionMetadata(beanFactory, Arrays.asList(beanFactory.getBeanDefinitionNames()));
+            AutowiredAnnotationProcessor.processSingletonBeanInjection(beanFactory);
+            return;
+        }
+        // only the beans depending on destroyed or recreated beans may hold stale references
+        Set<String> beanNames = dependencyGraph.getTransitiveDependents(dependencyGraph.getChangedSingletons(beanFactory));
+        beanNames.addAll(context.beansToInject);
+        LOGGER.debug("process @Value and @Autowired of singleton beans {} of {}", beanNames, ObjectUtils.identityToString(beanFactory));
+        ResetBeanPostProcessorCaches.evictInjectionMetadata(beanFactory, beanNames);
+        AutowiredAnnotationProcessor.processSingletonBeanInjection(beanFactory, beanNames);
     }
 
     private void processConfigBeanDefinitions() {
@@ -544,6 +587,38 @@ public class SpringBeanReload {
         ScanNewEntities.scanNewEntities(localContainerEntityManagerFactoryBean);
     }
 
+    /**
+     * Evictor of cached metadata of the changed classes, null if the caches must be cleared - the class hierarchy
+     * or an annotation type changed, or xml bean definitions are reloaded.
+     */
+    private ClassCacheEvictor createCacheEvictor(SpringBeanReloadContext context, Set<Class<?>> changedClasses) {
+        if (context.hierarchyChanged || !context.xmls.isEmpty()) {
+            return null;
+        }
+        for (Class<?> clazz : changedClasses) {
+            if (clazz.isAnnotation()) {
+                return null;
+            }
+        }
+        return new ClassCacheEvictor(changedClasses);
+    }
+
+    private void clearSpringCache(ClassCacheEvictor cacheEvictor) {
+        if (cacheEvictor == null) {
+            clearSpringCache();
+            ResetSpringStaticCaches.resetBeanNamesByType(beanFactory);
+            return;
+        }
+        LOGGER.trace("evict spring caches of classes {}", cacheEvictor.getClasses());
+        ResetSpringStaticCaches.evict(cacheEvictor);
+        ResetBeanPostProcessorCaches.evict(beanFactory, cacheEvictor);
+        ResetTransactionAttributeCaches.evict(beanFactory, cacheEvictor);
+        ResetBeanFactoryPostProcessorCaches.reset(beanFactory);
+        ProxyReplacer.clearAllProxies();
+        ConfigurationClassPostProcessorEnhance.getInstance(beanFactory).resetConfigurationClassPostProcessor(beanFactory);
+        ResetAnnotationCache.evictAnnotationScanner(beanFactory, cacheEvictor);
+    }
+
     private void clearSpringCache() {
         // spring won't rebuild dependency map if injectionMetadataCache is not cleared
         // which lead to singletons depend on beans in xml won't be destroy and recreate, may be a spring bug?
@@ -596,29 +671,35 @@ public class SpringBeanReload {
         for (String beanName : new ArrayList<>(context.beansToProcess)) {
             destroyBean(context, beanName);
         }
-        // destroy factory bean
-        for (String beanName : beanFactory.getBeanDefinitionNames()) {
-            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
-            if (isFactoryMethodAndNeedReload(context, beanName, beanDefinition)) {
-                destroyBean(context, beanName);
+        // destroy beans of factory methods, until there is no new destroyed factory bean or class
+        Set<String> factoryClasses = new HashSet<>();
+        Set<String> factoryBeans = new HashSet<>();
+        boolean destroyed;
+        do {
+            destroyed = false;
+            for (String className : new ArrayList<>(context.destroyClasses)) {
+                if (factoryClasses.add(className)) {
+                    for (String beanName : beanNameIndex.getBeanNamesForFactoryClass(className)) {
+                        if (!context.processedBeans.contains(beanName)) {
+                            LOGGER.debug("the bean '{}' of factory class '{}' is changed", beanName, className);
+                            destroyBean(context, beanName);
+                            destroyed = true;
+                        }
+                    }
+                }
             }
-        }
-    }
-
-    private boolean isFactoryMethodAndNeedReload(SpringBeanReloadContext context, String beanName, BeanDefinition beanDefinition) {
-        if (beanDefinition.getFactoryMethodName() == null) {
-            return false;
-        }
-        if (beanDefinition.getBeanClassName() != null && context.destroyClasses.contains(beanDefinition.getBeanClassName())) {
-            LOGGER.debug("the bean '{}' of factory class '{}' is changed", beanName,
-                    beanDefinition.getBeanClassName());
-            return true;
-        } else if (beanDefinition.getFactoryBeanName() != null && context.processedBeans.contains(beanDefinition.getFactoryBeanName())) {
-            LOGGER.debug("the bean '{}' of factory bean '{}' is changed", beanName,
-                    beanDefinition.getFactoryBeanName());
-            return true;
-        }
-        return false;
+            for (String factoryBeanName : new ArrayList<>(context.processedBeans)) {
+                if (factoryBeans.add(factoryBeanName)) {
+                    for (String beanName : beanNameIndex.getBeanNamesForFactoryBean(factoryBeanName)) {
+                        if (!context.processedBeans.contains(beanName)) {
+                            LOGGER.debug("the bean '{}' of factory bean '{}' is changed", beanName, factoryBeanName);
+                            destroyBean(context, beanName);
+                            destroyed = true;
+                        }
+                    }
+                }
+            }
+        } while (destroyed);
     }
 
     private void destroyBean(SpringBeanReloadContext context, String beanName) {
@@ -38,10 +38,15 @@ public class SpringBeanReloadContext {
   public Set<Class<?>> newEntities = new HashSet<>();
   public Set<Class<?>> newRepositories = new HashSet<>();
   public Set<String> changedBeanNames = new HashSet<>();
+  // superclass or interfaces of a changed class changed, Spring caches are cleared instead of evicted per class
+  public boolean hierarchyChanged;
 
   public Set<String> processedBeans = new HashSet<>();
   public Set<String> destroyClasses = new HashSet<>();
   public Set<String> beansToProcess = new HashSet<>();
+  // existing beans to inject again (@Value of changed properties)
+  public Set<String> beansToInject = new HashSet<>();
+  public boolean fullInjectionSweep;
 
   public boolean hasChange(DefaultListableBeanFactory beanFactory) {
     if (properties.isEmpty()
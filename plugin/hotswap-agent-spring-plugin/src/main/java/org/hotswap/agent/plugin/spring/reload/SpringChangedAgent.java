@@ -21,10 +21,17 @@ package org.hotswap.agent.plugin.spring.reload;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -34,6 +41,8 @@ import org.hotswap.agent.plugin.spring.listener.SpringEventSource;
 import org.hotswap.agent.plugin.spring.listener.SpringListener;
 import org.hotswap.agent.plugin.spring.scanner.BeanDefinitionChangeEvent;
 import org.hotswap.agent.util.spring.util.ObjectUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.HierarchicalBeanFactory;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory;
@@ -52,6 +61,8 @@ public class SpringChangedAgent implements SpringListener<SpringEvent<?>>, Compa
     private DefaultListableBeanFactory defaultListableBeanFactory;
     private static ClassLoader appClassLoader;
     private static Map<DefaultListableBeanFactory, SpringChangedAgent> springChangeAgents = new ConcurrentHashMap<>(2);
+    private static ExecutorService reloadExecutor;
+    private static int reloadExecutorThreads;
     private final SpringBeanReload springReload;
     ReentrantLock reloadLock = new ReentrantLock();
 
@@ -78,9 +89,16 @@ public class SpringChangedAgent implements SpringListener<SpringEvent<?>>, Compa
     }
 
     public static boolean addChangedClass(Class clazz) {
+        return addChangedClass(clazz, false);
+    }
+
+    /**
+     * @param hierarchyChanged superclass or interfaces of the class changed, Spring caches must be cleared
+     */
+    public static boolean addChangedClass(Class clazz, boolean hierarchyChanged) {
         boolean result = false;
         for (SpringChangedAgent springChangedAgent : springChangeAgents.values()) {
-            result |= springChangedAgent.addClass(clazz);
+            result |= springChangedAgent.addClass(clazz, hierarchyChanged);
         }
         return result;
     }
@@ -138,6 +156,10 @@ public class SpringChangedAgent implements SpringListener<SpringEvent<?>>, Compa
             // sore the list by beanFactory order, make sure the parent beanFactory reload first
             List<SpringChangedAgent> changedAgentList = new ArrayList<>(springChangeAgents.values());
             Collections.sort(changedAgentList);
+            if (SpringReloadConfig.reloadParallelism > 1 && changedAgentList.size() > 1) {
+                reloadParallel(changedAgentList, changeTimeStamps);
+                return;
+            }
             for (SpringChangedAgent springChangedAgent : changedAgentList) {
                 // ensure reload only once, there is one lock.
                 springChangedAgent.reloadAll(changeTimeStamps);
@@ -147,6 +169,98 @@ public class SpringChangedAgent implements SpringListener<SpringEvent<?>>, Compa
         }
     }
 
+    /**
+     * Reload bean factories concurrently. A bean factory is reloaded after its parent bean factory is reloaded,
+     * sibling bean factories (e.g. independent Spring Boot contexts) are reloaded in parallel.
+     *
+     * @param changedAgentList agents sorted by beanFactory order (parent first)
+     */
+    private static void reloadParallel(List<SpringChangedAgent> changedAgentList, final long changeTimeStamps) {
+        ExecutorService executor = getReloadExecutor();
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        Map<SpringChangedAgent, CompletableFuture<Void>> reloads = new HashMap<>();
+        for (final SpringChangedAgent springChangedAgent : changedAgentList) {
+            Runnable reloadTask = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        springChangedAgent.reloadAll(changeTimeStamps);
+                    } catch (Throwable e) {
+                        LOGGER.error("reload spring failed: {}", e,
+                            ObjectUtils.identityToString(springChangedAgent.defaultListableBeanFactory));
+                        failures.add(e);
+                    }
+                }
+            };
+            // the parent is already scheduled, because the list is sorted
+            CompletableFuture<Void> parentReload = reloads.get(springChangedAgent.getParentAgent());
+            reloads.put(springChangedAgent, parentReload != null ?
+                parentReload.thenRunAsync(reloadTask, executor) : CompletableFuture.runAsync(reloadTask, executor));
+        }
+        try {
+            CompletableFuture.allOf(reloads.values().toArray(new CompletableFuture[0]))
+                .get(SpringReloadConfig.reloadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the reloads are still running, each of them holds the reload lock of its agent
+            LOGGER.error("Spring reload did not finish in {} ms, not waiting any longer.",
+                SpringReloadConfig.reloadTimeoutMillis);
+            failures.add(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add(e);
+        } catch (ExecutionException e) {
+            // reload tasks catch all failures
+            failures.add(e.getCause());
+        }
+        if (!failures.isEmpty()) {
+            Throwable failure = failures.get(0);
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    private static synchronized ExecutorService getReloadExecutor() {
+        int threads = SpringReloadConfig.reloadParallelism;
+        if (reloadExecutor != null && reloadExecutorThreads != threads) {
+            // parallelism changed (e.g. by a plugin configuration of another application), running reloads finish
+            reloadExecutor.shutdown();
+            reloadExecutor = null;
+        }
+        if (reloadExecutor == null) {
+            final AtomicInteger threadNumber = new AtomicInteger(0);
+            reloadExecutorThreads = threads;
+            reloadExecutor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "HotswapAgent-SpringReload-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return reloadExecutor;
+    }
+
+    /**
+     * The agent of the nearest ancestor bean factory.
+     */
+    private SpringChangedAgent getParentAgent() {
+        BeanFactory parentBeanFactory = defaultListableBeanFactory.getParentBeanFactory();
+        while (parentBeanFactory != null) {
+            SpringChangedAgent parentAgent = springChangeAgents.get(parentBeanFactory);
+            if (parentAgent != null) {
+                return parentAgent;
+            }
+            parentBeanFactory = parentBeanFactory instanceof HierarchicalBeanFactory ?
+                ((HierarchicalBeanFactory) parentBeanFactory).getParentBeanFactory() : null;
+        }
+        return null;
+    }
+
     /**
      * unit test
      *
@@ -164,10 +278,14 @@ public class SpringChangedAgent implements SpringListener<SpringEvent<?>>, Compa
     }
 
     boolean addClass(Class clazz) {
+        return addClass(clazz, false);
+    }
+
+    boolean addClass(Class clazz, boolean hierarchyChanged) {
         if (clazz == null) {
             return false;
         }
-        springReload.addClass(clazz);
+        springReload.addClass(clazz, hierarchyChanged);
         return true;
     }
 
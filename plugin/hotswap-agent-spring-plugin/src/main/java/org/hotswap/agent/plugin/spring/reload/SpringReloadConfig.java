@@ -27,6 +27,23 @@ public class SpringReloadConfig {
     public static int reloadDelayMillisForClass = 1600;
     private static double testSleepTimeFactor = 1.0;
 
+    /**
+     * Re-inject @Autowired / @Value into all singletons after reload instead of the dependents of reloaded beans
+     * only (configuration property spring.reload.fullInjectionSweep).
+     */
+    public static boolean fullInjectionSweep = false;
+
+    /**
+     * Number of threads reloading independent bean factories concurrently, 1 reloads all bean factories one by one
+     * (configuration property spring.reload.parallelism).
+     */
+    public static int reloadParallelism = 1;
+
+    /**
+     * Maximum time to wait for bean factories reloaded in parallel.
+     */
+    public static long reloadTimeoutMillis = 60000;
+
     public static void setDelayMillis(int delayMillis) {
         if (delayMillis > 30000) {
             reloadDelayMillisForClass = 30000;
@@ -23,6 +23,7 @@ import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.plugin.spring.SpringPlugin;
+import org.hotswap.agent.plugin.spring.reload.BeanNameIndex;
 import org.hotswap.agent.plugin.spring.reload.SpringChangedAgent;
 import org.hotswap.agent.plugin.spring.utils.RegistryUtils;
 import org.hotswap.agent.util.PluginManagerInvoker;
@@ -43,10 +44,10 @@ import org.springframework.core.type.classreading.MetadataReaderFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -57,7 +58,7 @@ import java.util.Set;
 public class ClassPathBeanDefinitionScannerAgent {
     private static AgentLogger LOGGER = AgentLogger.getLogger(ClassPathBeanDefinitionScannerAgent.class);
 
-    private static Map<ClassPathBeanDefinitionScanner, ClassPathBeanDefinitionScannerAgent> instances = new HashMap<>();
+    private static Map<ClassPathBeanDefinitionScanner, ClassPathBeanDefinitionScannerAgent> instances = new ConcurrentHashMap<>();
 
     /**
      * Flag to check reload status.
@@ -70,7 +71,7 @@ public class ClassPathBeanDefinitionScannerAgent {
     ClassPathBeanDefinitionScanner scanner;
 
     // list of basePackages registered with target scanner
-    Set<String> basePackages = new HashSet<>();
+    Set<String> basePackages = ConcurrentHashMap.newKeySet();
 
     // registry obtained from the scanner
     BeanDefinitionRegistry registry;
@@ -90,12 +91,9 @@ public class ClassPathBeanDefinitionScannerAgent {
      * @return agent instance
      */
     public static ClassPathBeanDefinitionScannerAgent getInstance(ClassPathBeanDefinitionScanner scanner) {
-        ClassPathBeanDefinitionScannerAgent classPathBeanDefinitionScannerAgent = instances.get(scanner);
         // registry may be different if there is multiple app. (this is just a temporary solution)
-        if (classPathBeanDefinitionScannerAgent == null || classPathBeanDefinitionScannerAgent.registry != scanner.getRegistry()) {
-            instances.put(scanner, new ClassPathBeanDefinitionScannerAgent(scanner));
-        }
-        return instances.get(scanner);
+        return instances.compute(scanner, (key, agent) -> agent == null || agent.registry != key.getRegistry() ?
+                new ClassPathBeanDefinitionScannerAgent(key) : agent);
     }
 
     /**
@@ -196,7 +194,7 @@ public class ClassPathBeanDefinitionScannerAgent {
         try {
             Class<?> clazz = loadClass(appClassLoader, clazzName, classDefinition);
             if (defaultListableBeanFactory != null && clazz != null) {
-                String[] beanNames = defaultListableBeanFactory.getBeanNamesForType(clazz);
+                String[] beanNames = BeanNameIndex.getBeanNamesForType(defaultListableBeanFactory, clazz);
                 if (beanNames != null && beanNames.length != 0) {
                     SpringChangedAgent.addChangedClass(clazz, defaultListableBeanFactory);
                     return true;
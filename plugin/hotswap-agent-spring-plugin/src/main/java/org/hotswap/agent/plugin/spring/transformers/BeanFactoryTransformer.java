@@ -54,6 +54,21 @@ public class BeanFactoryTransformer {
             BeanFactoryProcessor.class.getName() + ".postProcessDestroySingleton($0, $1);");
     }
 
+    @OnClassLoadEvent(classNameRegexp = "org.springframework.beans.factory.support.DefaultListableBeanFactory")
+    public static void registerDefaultListableBeanFactory(CtClass clazz, ClassPool classPool) throws NotFoundException,
+        CannotCompileException {
+        CtMethod registerBeanDefinitionMethod = clazz.getDeclaredMethod("registerBeanDefinition",
+            new CtClass[] {classPool.get(String.class.getName()),
+                classPool.get("org.springframework.beans.factory.config.BeanDefinition")});
+        registerBeanDefinitionMethod.insertAfter(
+            BeanFactoryProcessor.class.getName() + ".postProcessRegisterBeanDefinition($0, $1);");
+
+        CtMethod removeBeanDefinitionMethod = clazz.getDeclaredMethod("removeBeanDefinition",
+            new CtClass[] {classPool.get(String.class.getName())});
+        removeBeanDefinitionMethod.insertAfter(
+            BeanFactoryProcessor.class.getName() + ".postProcessRemoveBeanDefinition($0, $1);");
+    }
+
     @OnClassLoadEvent(classNameRegexp = "org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory")
     public static void registerAbstractAutowireCapableBeanFactory(ClassLoader appClassLoader, CtClass clazz,
         ClassPool classPool) throws NotFoundException, CannotCompileException {
@@ -66,7 +81,7 @@ public class BeanFactoryTransformer {
             classPool.get(String.class.getName()),
             classPool.get("org.springframework.beans.factory.support.RootBeanDefinition"),
             classPool.get(Object[].class.getName())});
-        createBeanMethod.insertAfter(BeanFactoryProcessor.class.getName() + ".postProcessCreateBean($0, $1, $2);");
+        createBeanMethod.insertAfter(BeanFactoryProcessor.class.getName() + ".postProcessCreateBean($0, $1, $2, $_);");
 
         // try catch for custom init method
         CtMethod[] invokeCustomInitMethods = clazz.getDeclaredMethods("invokeCustomInitMethod");
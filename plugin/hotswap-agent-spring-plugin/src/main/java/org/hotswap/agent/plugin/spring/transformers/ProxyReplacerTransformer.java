@@ -43,7 +43,7 @@ public class ProxyReplacerTransformer {
      * @throws NotFoundException
      * @throws CannotCompileException
      */
-    @OnClassLoadEvent(classNameRegexp = "org.springframework.beans.factory.support.DefaultListableBeanFactory")
+    @OnClassLoadEvent(classNameRegexp = "org.springframework.beans.factory.support.DefaultListableBeanFactory", cacheable = true)
     public static void replaceBeanWithProxy(CtClass ctClass) throws NotFoundException, CannotCompileException {
         CtMethod[] methods = ctClass.getMethods();
         for (CtMethod ctMethod : methods) {
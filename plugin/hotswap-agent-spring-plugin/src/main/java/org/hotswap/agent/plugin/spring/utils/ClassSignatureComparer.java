@@ -19,9 +19,17 @@
 package org.hotswap.agent.plugin.spring.utils;
 
 import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.bytecode.ClassFile;
 import org.hotswap.agent.util.signature.ClassSignatureElement;
 import org.hotswap.agent.util.signature.ClassSignatureComparerHelper;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Checks if a Signature of a Class has changed enough to necessitate a Spring reload.
  *
@@ -44,7 +52,42 @@ public class ClassSignatureComparer {
             ClassSignatureElement.FIELD_ANNOTATION
     };
 
+    /**
+     * Record class fingerprints on class definition, see {@link #isDifferent(Class, byte[], ClassPool)}.
+     */
+    public static void registerFingerprints() {
+        ClassSignatureComparerHelper.registerFingerprintElements(SIGNATURE_ELEMENTS);
+    }
+
+    public static boolean isDifferent(Class<?> classBeingRedefined, byte[] classfileBuffer, ClassPool cp) {
+        return ClassSignatureComparerHelper.isDifferent(classBeingRedefined, classfileBuffer, cp, SIGNATURE_ELEMENTS);
+    }
+
     public static boolean isPoolClassDifferent(Class<?> classBeingRedefined, ClassPool cp) {
         return ClassSignatureComparerHelper.isPoolClassDifferent(classBeingRedefined, cp, SIGNATURE_ELEMENTS);
     }
+
+    /**
+     * Superclass or interfaces of the class are changed by the new class definition (cached class metadata of
+     * the subclasses / implementations can't be evicted per class).
+     */
+    public static boolean isHierarchyChanged(Class<?> classBeingRedefined, byte[] classfileBuffer) {
+        ClassFile classFile;
+        try {
+            classFile = new ClassFile(new DataInputStream(new ByteArrayInputStream(classfileBuffer)));
+        } catch (IOException e) {
+            return true;
+        }
+        if (!classBeingRedefined.isInterface()) {
+            Class<?> superclass = classBeingRedefined.getSuperclass();
+            if (superclass == null || !superclass.getName().equals(classFile.getSuperclass())) {
+                return true;
+            }
+        }
+        Set<String> interfaces = new HashSet<>();
+        for (Class<?> iface : classBeingRedefined.getInterfaces()) {
+            interfaces.add(iface.getName());
+        }
+        return !interfaces.equals(new HashSet<>(Arrays.asList(classFile.getInterfaces())));
+    }
 }
@@ -0,0 +1,17 @@
+package org.hotswap.agent.plugin.spring.annotations.propertykey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ChangedKeyConstructorBean {
+    private final String value;
+
+    public ChangedKeyConstructorBean(@Value("${changed.key}") String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,25 @@
+package org.hotswap.agent.plugin.spring.annotations.propertykey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ChangedKeyFieldBean {
+    @Value("${changed.key}")
+    private String value;
+
+    private int injections;
+
+    public String getValue() {
+        return value;
+    }
+
+    @Value("${changed.key}")
+    public void setInjectedValue(String value) {
+        injections++;
+    }
+
+    public int getInjections() {
+        return injections;
+    }
+}
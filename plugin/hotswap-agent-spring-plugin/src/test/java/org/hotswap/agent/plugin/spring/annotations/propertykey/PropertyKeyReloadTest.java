@@ -0,0 +1,90 @@
+package org.hotswap.agent.plugin.spring.annotations.propertykey;
+
+import org.hotswap.agent.plugin.spring.BaseTestUtil;
+import org.hotswap.agent.plugin.spring.reload.BeanFactoryAssistant;
+import org.hotswap.agent.plugin.spring.reload.SpringChangedAgent;
+import org.hotswap.agent.util.test.WaitHelper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Only the beans referencing a changed property key are reloaded.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {PropertyKeyConfiguration.class})
+public class PropertyKeyReloadTest {
+    @Autowired
+    private AbstractApplicationContext applicationContext;
+
+    private final Resource propertyFile = new ClassPathResource("annotation-property-key/property-key.properties");
+    private final Resource changedPropertyFile = new ClassPathResource("annotation-property-key/property-key-changed.properties");
+
+    @Before
+    public void before() {
+        BaseTestUtil.configMaxReloadTimes();
+        SpringChangedAgent.getInstance((DefaultListableBeanFactory) applicationContext.getBeanFactory());
+        BeanFactoryAssistant.getBeanFactoryAssistant((DefaultListableBeanFactory) applicationContext.getBeanFactory()).reset();
+    }
+
+    @After
+    public void after() {
+        SpringChangedAgent.destroyBeanFactory((DefaultListableBeanFactory) applicationContext.getBeanFactory());
+        BeanFactoryAssistant.getBeanFactoryAssistant((DefaultListableBeanFactory) applicationContext.getBeanFactory()).reset();
+    }
+
+    @Test
+    public void swapPropertyKeyTest() throws Exception {
+        ChangedKeyFieldBean changedKeyFieldBean = applicationContext.getBean(ChangedKeyFieldBean.class);
+        ChangedKeyConstructorBean changedKeyConstructorBean = applicationContext.getBean(ChangedKeyConstructorBean.class);
+        UnchangedKeyFieldBean unchangedKeyFieldBean = applicationContext.getBean(UnchangedKeyFieldBean.class);
+        UnchangedKeyConstructorBean unchangedKeyConstructorBean = applicationContext.getBean(UnchangedKeyConstructorBean.class);
+        assertEquals("changed-value", changedKeyFieldBean.getValue());
+        assertEquals("changed-value", changedKeyConstructorBean.getValue());
+        assertEquals(1, changedKeyFieldBean.getInjections());
+        assertEquals(1, unchangedKeyFieldBean.getInjections());
+
+        byte[] content = Files.readAllBytes(propertyFile.getFile().toPath());
+        try {
+            Files.copy(changedPropertyFile.getFile().toPath(), propertyFile.getFile().toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            Assert.assertTrue(WaitHelper.waitForCommand(new WaitHelper.Command() {
+                @Override
+                public boolean result() throws Exception {
+                    return BaseTestUtil.finishReloading(applicationContext.getBeanFactory(), 1);
+                }
+            }, 11000));
+
+            // @Value field and method injected again
+            assertSame(changedKeyFieldBean, applicationContext.getBean(ChangedKeyFieldBean.class));
+            assertEquals("changed-value-v2", changedKeyFieldBean.getValue());
+            assertEquals(2, changedKeyFieldBean.getInjections());
+            // @Value constructor parameter, recreated
+            assertNotSame(changedKeyConstructorBean, applicationContext.getBean(ChangedKeyConstructorBean.class));
+            assertEquals("changed-value-v2", applicationContext.getBean(ChangedKeyConstructorBean.class).getValue());
+
+            // beans of other keys are untouched
+            assertSame(unchangedKeyFieldBean, applicationContext.getBean(UnchangedKeyFieldBean.class));
+            assertEquals(1, unchangedKeyFieldBean.getInjections());
+            assertSame(unchangedKeyConstructorBean, applicationContext.getBean(UnchangedKeyConstructorBean.class));
+        } finally {
+            Files.write(propertyFile.getFile().toPath(), content);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.hotswap.agent.plugin.spring.annotations.propertykey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UnchangedKeyConstructorBean {
+    private final String value;
+
+    public UnchangedKeyConstructorBean(@Value("${unchanged.key}") String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
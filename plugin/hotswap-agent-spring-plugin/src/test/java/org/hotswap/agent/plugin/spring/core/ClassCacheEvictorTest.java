@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.core;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.InjectionMetadata;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.ResolvableType;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClassCacheEvictorTest {
+
+    private final ClassCacheEvictor cacheEvictor = new ClassCacheEvictor(Arrays.<Class<?>>asList(Base.class, Service.class));
+
+    @Test
+    public void testIsAffected() {
+        assertTrue(cacheEvictor.isAffected(Base.class));
+        assertTrue(cacheEvictor.isAffected(Sub.class));
+        assertTrue(cacheEvictor.isAffected(Service.class));
+        assertTrue(cacheEvictor.isAffected(ServiceImpl.class));
+        assertFalse(cacheEvictor.isAffected(Unrelated.class));
+        assertFalse(cacheEvictor.isAffected(Object.class));
+        // unknown class
+        assertTrue(cacheEvictor.isAffected(null));
+    }
+
+    @Test
+    public void testGetClass() throws Exception {
+        Method method = Sub.class.getDeclaredMethod("run", String.class);
+        assertEquals(Sub.class, ClassCacheEvictor.getClass(Sub.class));
+        assertEquals(Sub.class, ClassCacheEvictor.getClass(method));
+        assertEquals(Sub.class, ClassCacheEvictor.getClass(Sub.class.getDeclaredField("value")));
+        assertEquals(Sub.class, ClassCacheEvictor.getClass(method.getParameters()[0]));
+        // method declared in other class, the target class is the key
+        assertEquals(Unrelated.class, ClassCacheEvictor.getClass(new MethodClassKey(method, Unrelated.class)));
+        assertEquals(Sub.class, ClassCacheEvictor.getClass(new MethodClassKey(method, null)));
+        assertEquals(Sub.class, ClassCacheEvictor.getClass(ResolvableType.forClass(Sub.class)));
+        assertEquals(Sub.class, ClassCacheEvictor.getClass(
+                new InjectionMetadata(Sub.class, Collections.<InjectionMetadata.InjectedElement>emptyList())));
+        // shared empty metadata
+        assertNull(ClassCacheEvictor.getClass(
+                new InjectionMetadata(Object.class, Collections.<InjectionMetadata.InjectedElement>emptyList())));
+        assertNull(ClassCacheEvictor.getClass("unknown"));
+        assertNull(ClassCacheEvictor.getClass(null));
+    }
+
+    @Test
+    public void testEvict() {
+        Map<Object, Object> cache = new HashMap<>();
+        cache.put(Sub.class, "sub");
+        cache.put(Unrelated.class, "unrelated");
+        cache.put("unknown", "unknown");
+        assertEquals(2, cacheEvictor.evictKeys(cache, "cache"));
+        assertEquals(Collections.singletonMap(Unrelated.class, "unrelated"), cache);
+
+        Map<String, Object> valueCache = new HashMap<>();
+        valueCache.put("sub", new InjectionMetadata(Sub.class, Collections.<InjectionMetadata.InjectedElement>emptyList()));
+        valueCache.put("unrelated", Unrelated.class);
+        assertEquals(1, cacheEvictor.evictValues(valueCache, "valueCache"));
+        assertEquals(Collections.singleton("unrelated"), valueCache.keySet());
+
+        assertEquals(0, new ClassCacheEvictor(Collections.<Class<?>>emptyList()).evictKeys(cache, "cache"));
+        assertEquals(1, cache.size());
+    }
+
+    public interface Service {
+    }
+
+    public static class ServiceImpl implements Service {
+    }
+
+    public static class Base {
+    }
+
+    public static class Sub extends Base {
+        String value;
+
+        public void run(String arg) {
+        }
+    }
+
+    public static class Unrelated {
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.reload;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Only the beans depending (transitively) on reloaded beans are re-injected, unless
+ * spring.reload.fullInjectionSweep is set.
+ */
+public class BeanDependencyGraphTest {
+
+    private AnnotationConfigApplicationContext context;
+    private DefaultListableBeanFactory beanFactory;
+    private boolean fullInjectionSweep;
+
+    @Before
+    public void before() {
+        fullInjectionSweep = SpringReloadConfig.fullInjectionSweep;
+        context = new AnnotationConfigApplicationContext();
+        context.register(ChangedBean.class, DependentBean.class, TransitiveDependentBean.class,
+                UnrelatedBean.class, OtherBean.class);
+        context.refresh();
+        beanFactory = context.getDefaultListableBeanFactory();
+        SpringChangedAgent.getInstance(beanFactory);
+    }
+
+    @After
+    public void after() {
+        SpringReloadConfig.fullInjectionSweep = fullInjectionSweep;
+        SpringChangedAgent.destroyBeanFactory(beanFactory);
+        context.close();
+    }
+
+    @Test
+    public void testTransitiveDependents() {
+        BeanDependencyGraph graph = BeanDependencyGraph.snapshot(beanFactory);
+        assertEquals(new HashSet<>(Arrays.asList("beanDependencyGraphTest.DependentBean",
+                        "beanDependencyGraphTest.TransitiveDependentBean")),
+                graph.getTransitiveDependents(Collections.singleton("beanDependencyGraphTest.ChangedBean")));
+        assertTrue(graph.getTransitiveDependents(Collections.singleton("beanDependencyGraphTest.UnrelatedBean")).isEmpty());
+    }
+
+    @Test
+    public void testChangedSingletonsAndNewDefinitions() {
+        BeanDependencyGraph graph = BeanDependencyGraph.snapshot(beanFactory);
+        assertTrue(graph.getChangedSingletons(beanFactory).isEmpty());
+        assertFalse(graph.hasNewBeanDefinitions(beanFactory));
+
+        beanFactory.destroySingleton("beanDependencyGraphTest.UnrelatedBean");
+        assertEquals(Collections.singleton("beanDependencyGraphTest.UnrelatedBean"),
+                graph.getChangedSingletons(beanFactory));
+
+        context.registerBean("newBean", OtherBean.class);
+        assertTrue(graph.hasNewBeanDefinitions(beanFactory));
+    }
+
+    @Test
+    public void testReloadInjectsDependentsOnly() {
+        ChangedBean changedBean = context.getBean(ChangedBean.class);
+        UnrelatedBean unrelatedBean = context.getBean(UnrelatedBean.class);
+        assertEquals(1, unrelatedBean.injections);
+
+        SpringChangedAgent.addChangedClass(ChangedBean.class);
+        SpringChangedAgent.reload(System.currentTimeMillis());
+
+        ChangedBean reloadedBean = context.getBean(ChangedBean.class);
+        assertNotSame(changedBean, reloadedBean);
+        TransitiveDependentBean transitiveDependentBean = context.getBean(TransitiveDependentBean.class);
+        assertSame(reloadedBean, transitiveDependentBean.dependentBean.changedBean);
+        assertSame(context.getBean(DependentBean.class), transitiveDependentBean.dependentBean);
+        assertSame(unrelatedBean, context.getBean(UnrelatedBean.class));
+        assertEquals(1, unrelatedBean.injections);
+    }
+
+    @Test
+    public void testFullInjectionSweep() {
+        SpringReloadConfig.fullInjectionSweep = true;
+        UnrelatedBean unrelatedBean = context.getBean(UnrelatedBean.class);
+
+        SpringChangedAgent.addChangedClass(ChangedBean.class);
+        SpringChangedAgent.reload(System.currentTimeMillis());
+
+        assertSame(context.getBean(ChangedBean.class),
+                context.getBean(TransitiveDependentBean.class).dependentBean.changedBean);
+        assertSame(unrelatedBean, context.getBean(UnrelatedBean.class));
+        assertEquals(2, unrelatedBean.injections);
+    }
+
+    public static class ChangedBean {
+    }
+
+    public static class DependentBean {
+        @Autowired
+        ChangedBean changedBean;
+    }
+
+    public static class TransitiveDependentBean {
+        @Autowired
+        DependentBean dependentBean;
+    }
+
+    public static class OtherBean {
+    }
+
+    public static class UnrelatedBean {
+        int injections;
+
+        @Autowired
+        public void setOtherBean(OtherBean otherBean) {
+            injections++;
+        }
+    }
+}
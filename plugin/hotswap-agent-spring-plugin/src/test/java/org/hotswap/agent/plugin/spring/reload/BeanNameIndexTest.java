@@ -0,0 +1,195 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.reload;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BeanNameIndexTest {
+
+    private DefaultListableBeanFactory beanFactory;
+    private BeanNameIndex beanNameIndex;
+
+    @Before
+    public void before() {
+        beanFactory = new DefaultListableBeanFactory();
+        beanNameIndex = new BeanNameIndex(beanFactory);
+        register("service", ServiceImpl.class);
+        register("other", OtherBean.class);
+    }
+
+    @Test
+    public void testTypeIndex() {
+        assertEquals(Collections.singleton("service"), beanNameIndex.getBeanNamesForType(ServiceImpl.class));
+        assertEquals(Collections.singleton("service"), beanNameIndex.getBeanNamesForType(AbstractService.class));
+        assertEquals(Collections.singleton("service"), beanNameIndex.getBeanNamesForType(Service.class));
+        assertEquals(Collections.singleton("other"), beanNameIndex.getBeanNamesForType(OtherBean.class));
+    }
+
+    @Test
+    public void testFactoryBeanIndex() {
+        register("factoryBean", ServiceFactoryBean.class);
+        assertEquals(Collections.singleton("&factoryBean"), beanNameIndex.getBeanNamesForType(ServiceFactoryBean.class));
+        // object type resolved by the bean factory
+        assertEquals(new HashSet<>(Arrays.asList("service", "factoryBean")),
+                beanNameIndex.getBeanNamesForType(Service.class));
+    }
+
+    @Test
+    public void testFactoryMethodIndex() {
+        GenericBeanDefinition staticFactoryMethod = new GenericBeanDefinition();
+        staticFactoryMethod.setBeanClass(ServiceFactory.class);
+        staticFactoryMethod.setFactoryMethodName("createService");
+        beanFactory.registerBeanDefinition("staticFactoryMethodService", staticFactoryMethod);
+
+        register("serviceFactory", ServiceFactory.class);
+        GenericBeanDefinition factoryMethod = new GenericBeanDefinition();
+        factoryMethod.setFactoryBeanName("serviceFactory");
+        factoryMethod.setFactoryMethodName("createOtherService");
+        beanFactory.registerBeanDefinition("factoryMethodService", factoryMethod);
+
+        assertEquals(Collections.singleton("staticFactoryMethodService"),
+                beanNameIndex.getBeanNamesForFactoryClass(ServiceFactory.class.getName()));
+        assertEquals(Collections.singleton("factoryMethodService"),
+                beanNameIndex.getBeanNamesForFactoryBean("serviceFactory"));
+        assertEquals(new HashSet<>(Arrays.asList("service", "staticFactoryMethodService", "factoryMethodService")),
+                beanNameIndex.getBeanNamesForType(Service.class));
+    }
+
+    @Test
+    public void testRegisterAndRemove() {
+        assertEquals(Collections.singleton("service"), beanNameIndex.getBeanNamesForType(Service.class));
+
+        register("service2", ServiceImpl.class);
+        assertEquals(new HashSet<>(Arrays.asList("service", "service2")), beanNameIndex.getBeanNamesForType(Service.class));
+
+        // bean definition overridden with other class
+        register("service2", OtherBean.class);
+        assertEquals(Collections.singleton("service"), beanNameIndex.getBeanNamesForType(Service.class));
+        assertEquals(new HashSet<>(Arrays.asList("other", "service2")), beanNameIndex.getBeanNamesForType(OtherBean.class));
+
+        beanFactory.removeBeanDefinition("service");
+        beanNameIndex.beanDefinitionRemoved("service");
+        assertTrue(beanNameIndex.getBeanNamesForType(Service.class).isEmpty());
+    }
+
+    @Test
+    public void testInvalidate() {
+        assertEquals(Collections.singleton("service"), beanNameIndex.getBeanNamesForType(Service.class));
+        // not notified, e.g. a superclass changed
+        beanFactory.registerBeanDefinition("service2", definition(ServiceImpl.class));
+        assertEquals(Collections.singleton("service"), beanNameIndex.getBeanNamesForType(Service.class));
+
+        beanNameIndex.invalidate();
+        assertEquals(new HashSet<>(Arrays.asList("service", "service2")), beanNameIndex.getBeanNamesForType(Service.class));
+    }
+
+    @Test
+    public void testRegisteredWhileBuilt() {
+        register("registeringFactoryBean", RegisteringFactoryBean.class);
+        // created singleton, its object type is resolved while the index is built
+        beanFactory.getBean("&registeringFactoryBean");
+        RegisteringFactoryBean.beanNameIndex = beanNameIndex;
+        RegisteringFactoryBean.beanFactory = beanFactory;
+        try {
+            assertEquals(new HashSet<>(Arrays.asList("other", "registeredWhileBuilt")),
+                    beanNameIndex.getBeanNamesForType(OtherBean.class));
+        } finally {
+            RegisteringFactoryBean.beanNameIndex = null;
+            RegisteringFactoryBean.beanFactory = null;
+        }
+    }
+
+    private void register(String beanName, Class<?> beanClass) {
+        beanFactory.registerBeanDefinition(beanName, definition(beanClass));
+        beanNameIndex.beanDefinitionRegistered(beanName);
+    }
+
+    private static GenericBeanDefinition definition(Class<?> beanClass) {
+        GenericBeanDefinition beanDefinition = new GenericBeanDefinition();
+        beanDefinition.setBeanClass(beanClass);
+        return beanDefinition;
+    }
+
+    public interface Service {
+    }
+
+    public static abstract class AbstractService implements Service {
+    }
+
+    public static class ServiceImpl extends AbstractService {
+    }
+
+    public static class OtherBean {
+    }
+
+    public static class ServiceFactory {
+        public static Service createService() {
+            return new ServiceImpl();
+        }
+
+        public Service createOtherService() {
+            return new ServiceImpl();
+        }
+    }
+
+    public static class ServiceFactoryBean implements FactoryBean<Service> {
+        @Override
+        public Service getObject() {
+            return new ServiceImpl();
+        }
+
+        @Override
+        public Class<?> getObjectType() {
+            return Service.class;
+        }
+    }
+
+    /**
+     * Registers a bean definition (e.g. from other thread) when the index asks for the object type.
+     */
+    public static class RegisteringFactoryBean implements FactoryBean<Object> {
+        static BeanNameIndex beanNameIndex;
+        static DefaultListableBeanFactory beanFactory;
+
+        @Override
+        public Object getObject() {
+            return new Object();
+        }
+
+        @Override
+        public Class<?> getObjectType() {
+            if (beanNameIndex != null && !beanFactory.containsBeanDefinition("registeredWhileBuilt")) {
+                beanFactory.registerBeanDefinition("registeredWhileBuilt", definition(OtherBean.class));
+                beanNameIndex.beanDefinitionRegistered("registeredWhileBuilt");
+            }
+            return Object.class;
+        }
+    }
+}
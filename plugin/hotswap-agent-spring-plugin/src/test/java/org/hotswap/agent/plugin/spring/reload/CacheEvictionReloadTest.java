@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.reload;
+
+import org.hotswap.agent.util.ReflectionHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Map;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Reload evicts cached metadata of the changed classes and their subclasses, or clears the caches if the class
+ * hierarchy or an annotation type changed. Checked on ReflectionUtils.declaredMethodsCache (class -> methods).
+ */
+public class CacheEvictionReloadTest {
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void before() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(SubBean.class, UnrelatedBean.class);
+        context.refresh();
+        SpringChangedAgent.getInstance(context.getDefaultListableBeanFactory());
+    }
+
+    @After
+    public void after() {
+        SpringChangedAgent.destroyBeanFactory(context.getDefaultListableBeanFactory());
+        context.close();
+    }
+
+    @Test
+    public void testSubclassEvicted() {
+        Object subBeanMethods = getDeclaredMethods(SubBean.class);
+        Object unrelatedBeanMethods = getDeclaredMethods(UnrelatedBean.class);
+
+        SpringChangedAgent.addChangedClass(BaseBean.class);
+        SpringChangedAgent.reload(System.currentTimeMillis());
+
+        assertNotSame(subBeanMethods, getDeclaredMethods(SubBean.class));
+        assertSame(unrelatedBeanMethods, getDeclaredMethods(UnrelatedBean.class));
+    }
+
+    @Test
+    public void testHierarchyChangedClearsCache() {
+        Object unrelatedBeanMethods = getDeclaredMethods(UnrelatedBean.class);
+
+        SpringChangedAgent.addChangedClass(SubBean.class, true);
+        SpringChangedAgent.reload(System.currentTimeMillis());
+
+        assertNotSame(unrelatedBeanMethods, getDeclaredMethods(UnrelatedBean.class));
+    }
+
+    @Test
+    public void testAnnotationChangedClearsCache() {
+        Object unrelatedBeanMethods = getDeclaredMethods(UnrelatedBean.class);
+
+        SpringChangedAgent.addChangedClass(Marker.class);
+        SpringChangedAgent.addChangedClass(SubBean.class);
+        SpringChangedAgent.reload(System.currentTimeMillis());
+
+        assertNotSame(unrelatedBeanMethods, getDeclaredMethods(UnrelatedBean.class));
+    }
+
+    /**
+     * Cached methods of the class, the cache is filled if the class is not cached.
+     */
+    private static Object getDeclaredMethods(Class<?> clazz) {
+        ReflectionUtils.doWithMethods(clazz, method -> { });
+        Map<?, ?> declaredMethodsCache = (Map<?, ?>) ReflectionHelper.get(null, ReflectionUtils.class, "declaredMethodsCache");
+        Object methods = declaredMethodsCache.get(clazz);
+        assertNotNull(methods);
+        return methods;
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Marker {
+    }
+
+    public static class BaseBean {
+        public void base() {
+        }
+    }
+
+    @Marker
+    public static class SubBean extends BaseBean {
+        public void sub() {
+        }
+    }
+
+    public static class UnrelatedBean {
+        public void unrelated() {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.reload;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sibling bean factories are reloaded in parallel with spring.reload.parallelism > 1.
+ */
+public class SpringChangedAgentParallelTest {
+
+    private static volatile CountDownLatch reloading;
+
+    private AnnotationConfigApplicationContext context1;
+    private AnnotationConfigApplicationContext context2;
+    private int reloadParallelism;
+
+    @Before
+    public void before() {
+        reloadParallelism = SpringReloadConfig.reloadParallelism;
+        SpringReloadConfig.reloadParallelism = 2;
+        context1 = createContext();
+        context2 = createContext();
+    }
+
+    @After
+    public void after() {
+        SpringReloadConfig.reloadParallelism = reloadParallelism;
+        reloading = null;
+        for (AnnotationConfigApplicationContext context : new AnnotationConfigApplicationContext[] {context1, context2}) {
+            SpringChangedAgent.destroyBeanFactory(context.getDefaultListableBeanFactory());
+            context.close();
+        }
+    }
+
+    @Test
+    public void testSiblingContextsReloadedInParallel() throws Exception {
+        ParallelBean bean1 = context1.getBean(ParallelBean.class);
+        ParallelBean bean2 = context2.getBean(ParallelBean.class);
+        UnchangedBean unchangedBean1 = context1.getBean(UnchangedBean.class);
+
+        // each reloaded bean waits for the other one, sequential reload would time out
+        reloading = new CountDownLatch(2);
+        SpringChangedAgent.addChangedClass(ParallelBean.class);
+        SpringChangedAgent.reload(System.currentTimeMillis());
+
+        ParallelBean reloadedBean1 = context1.getBean(ParallelBean.class);
+        ParallelBean reloadedBean2 = context2.getBean(ParallelBean.class);
+        assertNotSame(bean1, reloadedBean1);
+        assertNotSame(bean2, reloadedBean2);
+        assertTrue(reloadedBean1.parallel);
+        assertTrue(reloadedBean2.parallel);
+        assertSame(unchangedBean1, context1.getBean(UnchangedBean.class));
+    }
+
+    @Test
+    public void testExecutorFollowsParallelism() throws Exception {
+        // create executor with 2 threads
+        SpringChangedAgent.addChangedClass(ParallelBean.class);
+        SpringChangedAgent.reload(System.currentTimeMillis());
+
+        AnnotationConfigApplicationContext context3 = createContext();
+        try {
+            SpringReloadConfig.reloadParallelism = 3;
+            reloading = new CountDownLatch(3);
+            SpringChangedAgent.addChangedClass(ParallelBean.class);
+            SpringChangedAgent.reload(System.currentTimeMillis());
+            assertTrue(context1.getBean(ParallelBean.class).parallel);
+            assertTrue(context2.getBean(ParallelBean.class).parallel);
+            assertTrue(context3.getBean(ParallelBean.class).parallel);
+        } finally {
+            SpringChangedAgent.destroyBeanFactory(context3.getDefaultListableBeanFactory());
+            context3.close();
+        }
+    }
+
+    private static AnnotationConfigApplicationContext createContext() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.register(ParallelBean.class, UnchangedBean.class);
+        context.refresh();
+        SpringChangedAgent.getInstance((DefaultListableBeanFactory) context.getBeanFactory());
+        return context;
+    }
+
+    public static class ParallelBean {
+        final boolean parallel;
+
+        public ParallelBean() throws InterruptedException {
+            CountDownLatch latch = reloading;
+            if (latch != null) {
+                latch.countDown();
+                parallel = latch.await(5, TimeUnit.SECONDS);
+            } else {
+                parallel = false;
+            }
+        }
+    }
+
+    public static class UnchangedBean {
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2026 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.utils;
+
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.javassist.CtMethod;
+import org.hotswap.agent.javassist.CtNewMethod;
+import org.hotswap.agent.javassist.LoaderClassPath;
+import org.junit.Test;
+
+import java.io.Serializable;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClassSignatureComparerTest {
+
+    private ClassPool classPool;
+
+    @Test
+    public void testHierarchyNotChanged() throws Exception {
+        assertFalse(ClassSignatureComparer.isHierarchyChanged(Sub.class, bytecode(Sub.class)));
+        assertFalse(ClassSignatureComparer.isHierarchyChanged(Service.class, bytecode(Service.class)));
+
+        // method changes do not matter
+        CtClass ctClass = ctClass(Sub.class);
+        ctClass.addMethod(CtNewMethod.make("public void added() {}", ctClass));
+        for (CtMethod method : ctClass.getDeclaredMethods("run")) {
+            ctClass.removeMethod(method);
+        }
+        assertFalse(ClassSignatureComparer.isHierarchyChanged(Sub.class, ctClass.toBytecode()));
+    }
+
+    @Test
+    public void testSuperclassChanged() throws Exception {
+        CtClass ctClass = ctClass(Sub.class);
+        ctClass.setSuperclass(classPool.get(OtherBase.class.getName()));
+        assertTrue(ClassSignatureComparer.isHierarchyChanged(Sub.class, ctClass.toBytecode()));
+    }
+
+    @Test
+    public void testInterfaceChanged() throws Exception {
+        CtClass ctClass = ctClass(Sub.class);
+        ctClass.addInterface(classPool.get(Serializable.class.getName()));
+        assertTrue(ClassSignatureComparer.isHierarchyChanged(Sub.class, ctClass.toBytecode()));
+
+        ctClass = ctClass(Sub.class);
+        ctClass.setInterfaces(new CtClass[0]);
+        assertTrue(ClassSignatureComparer.isHierarchyChanged(Sub.class, ctClass.toBytecode()));
+
+        ctClass = ctClass(Service.class);
+        ctClass.addInterface(classPool.get(Serializable.class.getName()));
+        assertTrue(ClassSignatureComparer.isHierarchyChanged(Service.class, ctClass.toBytecode()));
+    }
+
+    @Test
+    public void testInvalidClassFile() {
+        assertTrue(ClassSignatureComparer.isHierarchyChanged(Sub.class, new byte[]{1, 2, 3}));
+    }
+
+    private byte[] bytecode(Class<?> clazz) throws Exception {
+        return ctClass(clazz).toBytecode();
+    }
+
+    // new class pool for each class, toBytecode() freezes the class
+    private CtClass ctClass(Class<?> clazz) throws Exception {
+        classPool = new ClassPool();
+        classPool.appendClassPath(new LoaderClassPath(getClass().getClassLoader()));
+        return classPool.get(clazz.getName());
+    }
+
+    public interface Service {
+    }
+
+    public static class Base {
+    }
+
+    public static class OtherBase {
+    }
+
+    public static class Sub extends Base implements Service {
+        public void run() {
+        }
+    }
+}
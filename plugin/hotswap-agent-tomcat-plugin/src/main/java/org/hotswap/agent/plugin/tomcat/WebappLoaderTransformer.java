@@ -42,7 +42,7 @@ public class WebappLoaderTransformer {
      * Hook into main init method of the loader. Init method name and resources type changes between
      * Tomcat versions.
      */
-    @OnClassLoadEvent(classNameRegexp = "org.apache.catalina.loader.WebappLoader")
+    @OnClassLoadEvent(classNameRegexp = "org.apache.catalina.loader.WebappLoader", cacheable = true)
     public static void patchWebappLoader(CtClass ctClass) throws NotFoundException, CannotCompileException, ClassNotFoundException {
 
         // handled by various Tomcat versions
@@ -247,7 +247,7 @@ public class WeldPlugin {
                 String oldSignatureForProxyCheck = WeldClassSignatureHelper.getSignatureForProxyClass(original);
                 String oldSignatureByStrategy = WeldClassSignatureHelper.getSignatureByStrategy(beanReloadStrategy, original);
                 String oldFullSignature = ClassSignatureComparerHelper.getJavaClassSignature(original, ClassSignatureElement.values());
-                scheduler.scheduleCommandOnClassesRedefinedOrTimeout(new BeanClassRefreshCommand(classLoader, archivePath, registeredProxiedBeans,
+                scheduler.submitCommandAfterClassesRedefinedCommands(new BeanClassRefreshCommand(classLoader, archivePath, registeredProxiedBeans,
                         original.getName(), oldFullSignature, oldSignatureForProxyCheck, oldSignatureByStrategy, beanReloadStrategy), WAIT_ON_REDEFINE);
             }
         } catch (Exception e) {